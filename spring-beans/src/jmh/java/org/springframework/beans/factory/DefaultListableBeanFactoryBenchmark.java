@@ -0,0 +1,145 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Benchmarks for {@link DefaultListableBeanFactory} bean retrieval: singleton
+ * lookups by name and by type, as well as prototype creation with
+ * constructor and property injection.
+ *
+ * <p>Typically this can be run with
+ * {@code "./gradlew :spring-beans:jmh -Pjmh.includes=DefaultListableBeanFactoryBenchmark"}.
+ *
+ * @author Anton Kessler
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DefaultListableBeanFactoryBenchmark {
+
+	@Benchmark
+	public void getSingletonByName(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean("singleton"));
+	}
+
+	@Benchmark
+	public void getSingletonByType(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean(SingletonBean.class));
+	}
+
+	@Benchmark
+	public void getPrototypeWithConstructorInjection(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean("constructorPrototype"));
+	}
+
+	@Benchmark
+	public void getPrototypeWithPropertyInjection(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean("propertyPrototype"));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"10", "1000"})
+		public int beanCount;
+
+		DefaultListableBeanFactory beanFactory;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			for (int i = 0; i < this.beanCount; i++) {
+				this.beanFactory.registerBeanDefinition("filler" + i, new RootBeanDefinition(FillerBean.class));
+			}
+			this.beanFactory.registerBeanDefinition("singleton", new RootBeanDefinition(SingletonBean.class));
+
+			RootBeanDefinition constructorPrototype = new RootBeanDefinition(ConstructorPrototypeBean.class);
+			constructorPrototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			constructorPrototype.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("singleton"));
+			this.beanFactory.registerBeanDefinition("constructorPrototype", constructorPrototype);
+
+			RootBeanDefinition propertyPrototype = new RootBeanDefinition(PropertyPrototypeBean.class);
+			propertyPrototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			propertyPrototype.getPropertyValues().add("singleton", new RuntimeBeanReference("singleton"));
+			propertyPrototype.getPropertyValues().add("name", "prototype");
+			this.beanFactory.registerBeanDefinition("propertyPrototype", propertyPrototype);
+
+			this.beanFactory.preInstantiateSingletons();
+		}
+	}
+
+
+	public static class FillerBean {
+	}
+
+
+	public static class SingletonBean {
+	}
+
+
+	public static class ConstructorPrototypeBean {
+
+		private final SingletonBean singleton;
+
+		public ConstructorPrototypeBean(SingletonBean singleton) {
+			this.singleton = singleton;
+		}
+
+		public SingletonBean getSingleton() {
+			return this.singleton;
+		}
+	}
+
+
+	public static class PropertyPrototypeBean {
+
+		private SingletonBean singleton;
+
+		private String name;
+
+		public void setSingleton(SingletonBean singleton) {
+			this.singleton = singleton;
+		}
+
+		public SingletonBean getSingleton() {
+			return this.singleton;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+
+/**
+ * Benchmarks for prototype creation with the reflective default
+ * {@link CglibSubclassingInstantiationStrategy} versus the
+ * {@link FastClassInstantiationStrategy}.
+ *
+ * <p>Typically this can be run with
+ * {@code "./gradlew :spring-beans:jmh -Pjmh.includes=InstantiationStrategyBenchmark"}.
+ *
+ * @author Anton Kessler
+ */
+@BenchmarkMode(Mode.Throughput)
+public class InstantiationStrategyBenchmark {
+
+	@Benchmark
+	public void constructorInjection(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean("constructorPrototype"));
+	}
+
+	@Benchmark
+	public void propertyInjection(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean("propertyPrototype"));
+	}
+
+	@Benchmark
+	public void factoryMethod(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean("factoryMethodPrototype"));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"reflective", "fastclass"})
+		public String strategy;
+
+		DefaultListableBeanFactory beanFactory;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			if ("fastclass".equals(this.strategy)) {
+				this.beanFactory.setInstantiationStrategy(new FastClassInstantiationStrategy());
+			}
+			this.beanFactory.registerBeanDefinition("dependency", new RootBeanDefinition(Dependency.class));
+
+			RootBeanDefinition constructorPrototype = new RootBeanDefinition(ConstructorBean.class);
+			constructorPrototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			constructorPrototype.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("dependency"));
+			constructorPrototype.getConstructorArgumentValues().addGenericArgumentValue("name");
+			this.beanFactory.registerBeanDefinition("constructorPrototype", constructorPrototype);
+
+			RootBeanDefinition propertyPrototype = new RootBeanDefinition(PropertyBean.class);
+			propertyPrototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			propertyPrototype.getPropertyValues().add("dependency", new RuntimeBeanReference("dependency"));
+			propertyPrototype.getPropertyValues().add("name", "name");
+			propertyPrototype.getPropertyValues().add("count", 42);
+			this.beanFactory.registerBeanDefinition("propertyPrototype", propertyPrototype);
+
+			RootBeanDefinition factoryMethodPrototype = new RootBeanDefinition(ConstructorBean.class);
+			factoryMethodPrototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			factoryMethodPrototype.setFactoryMethodName("create");
+			factoryMethodPrototype.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("dependency"));
+			this.beanFactory.registerBeanDefinition("factoryMethodPrototype", factoryMethodPrototype);
+
+			this.beanFactory.preInstantiateSingletons();
+		}
+	}
+
+
+	public static class Dependency {
+	}
+
+
+	public static class ConstructorBean {
+
+		private final Dependency dependency;
+
+		private final String name;
+
+		public ConstructorBean(Dependency dependency, String name) {
+			this.dependency = dependency;
+			this.name = name;
+		}
+
+		public static ConstructorBean create(Dependency dependency) {
+			return new ConstructorBean(dependency, "factory");
+		}
+
+		public Dependency getDependency() {
+			return this.dependency;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+	}
+
+
+	public static class PropertyBean {
+
+		private Dependency dependency;
+
+		private String name;
+
+		private int count;
+
+		public void setDependency(Dependency dependency) {
+			this.dependency = dependency;
+		}
+
+		public Dependency getDependency() {
+			return this.dependency;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public int getCount() {
+			return this.count;
+		}
+	}
+
+}
@@ -243,6 +243,23 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 				matches.buildErrorMessage(), matches.getPossibleMatches());
 	}
 
+	/**
+	 * Invoke the given write method on the given target object.
+	 * <p>The default implementation uses reflection, with the write method
+	 * having been made accessible already. Subclasses may override this
+	 * to use a faster invocation mechanism.
+	 * @param writeMethod the write method of the property
+	 * @param target the object to set the property value on
+	 * @param value the value to set
+	 * @throws Exception in case of invocation failure, typically an
+	 * {@link java.lang.reflect.InvocationTargetException} for an exception
+	 * thrown by the write method itself
+	 * @since 5.2.2
+	 */
+	protected void invokeWriteMethod(Method writeMethod, Object target, @Nullable Object value) throws Exception {
+		writeMethod.invoke(target, value);
+	}
+
 	@Override
 	public PropertyDescriptor[] getPropertyDescriptors() {
 		return getCachedIntrospectionResults().getPropertyDescriptors();
@@ -320,8 +337,10 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 					return null;
 				});
 				try {
-					AccessController.doPrivileged((PrivilegedExceptionAction<Object>) () ->
-							writeMethod.invoke(getWrappedInstance(), value), acc);
+					AccessController.doPrivileged((PrivilegedExceptionAction<Object>) () -> {
+						invokeWriteMethod(writeMethod, getWrappedInstance(), value);
+						return null;
+					}, acc);
 				}
 				catch (PrivilegedActionException ex) {
 					throw ex.getException();
@@ -329,7 +348,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 			}
 			else {
 				ReflectionUtils.makeAccessible(writeMethod);
-				writeMethod.invoke(getWrappedInstance(), value);
+				invokeWriteMethod(writeMethod, getWrappedInstance(), value);
 			}
 		}
 	}
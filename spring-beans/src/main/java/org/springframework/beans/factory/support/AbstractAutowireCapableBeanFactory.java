@@ -984,7 +984,12 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 */
 	@Nullable
 	private FactoryBean<?> getSingletonFactoryBeanForTypeCheck(String beanName, RootBeanDefinition mbd) {
-		synchronized (getSingletonMutex()) {
+		SingletonCreationLock lock = acquireSingletonLock(beanName);
+		if (lock == null) {
+			// Being created by another thread which is waiting for the current thread...
+			return null;
+		}
+		try {
 			BeanWrapper bw = this.factoryBeanInstanceCache.get(beanName);
 			if (bw != null) {
 				return (FactoryBean<?>) bw.getWrappedInstance();
@@ -1032,6 +1037,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			}
 			return fb;
 		}
+		finally {
+			releaseSingletonLock(lock);
+		}
 	}
 
 	/**
@@ -1242,7 +1250,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		if (instance == null) {
 			instance = new NullBean();
 		}
-		BeanWrapper bw = new BeanWrapperImpl(instance);
+		BeanWrapperImpl bw = createBeanWrapper();
+		bw.setBeanInstance(instance);
 		initBeanWrapper(bw);
 		return bw;
 	}
@@ -1311,7 +1320,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			else {
 				beanInstance = getInstantiationStrategy().instantiate(mbd, beanName, parent);
 			}
-			BeanWrapper bw = new BeanWrapperImpl(beanInstance);
+			BeanWrapperImpl bw = createBeanWrapper();
+			bw.setBeanInstance(beanInstance);
 			initBeanWrapper(bw);
 			return bw;
 		}
@@ -1321,6 +1331,18 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		}
 	}
 
+	/**
+	 * Create a new BeanWrapper for a bean instance of this factory,
+	 * letting a {@link FastClassInstantiationStrategy} (if configured)
+	 * take over the invocation of property write methods.
+	 * @since 5.2.2
+	 */
+	BeanWrapperImpl createBeanWrapper() {
+		InstantiationStrategy instantiationStrategy = getInstantiationStrategy();
+		return (instantiationStrategy instanceof FastClassInstantiationStrategy ?
+				((FastClassInstantiationStrategy) instantiationStrategy).createBeanWrapper() : new BeanWrapperImpl());
+	}
+
 	/**
 	 * Instantiate the bean using a named factory method. The method may be static, if the
 	 * mbd parameter specifies a class, rather than a factoryBean, or an instance variable
@@ -16,12 +16,16 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,6 +36,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -61,6 +66,17 @@ import org.springframework.util.StringUtils;
  * (which inherit from it). Can alternatively also be used as a nested
  * helper to delegate to.
  *
+ * <p>Singleton creation is guarded by a lock per bean name rather than by the
+ * registry-wide {@link #getSingletonMutex() singleton mutex}, allowing unrelated
+ * singletons to be created concurrently. Early references to a singleton in
+ * creation are only exposed to the creating thread itself, and to a thread
+ * running into a circular reference across threads: the creating thread then
+ * waits for that thread, which proceeds with the early reference just like
+ * within a single thread. The locks of nested singleton creations are kept
+ * until the outermost creation has completed, and the singletons referenced
+ * early are awaited before returning, so that a singleton is never created
+ * twice and never escapes to another thread before being fully initialized.
+ *
  * @author Juergen Hoeller
  * @since 2.0
  * @see #registerSingleton
@@ -90,12 +106,25 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Set<String> inCreationCheckExclusions =
 			Collections.newSetFromMap(new ConcurrentHashMap<>(16));
 
+	/**
+	 * Creation locks for singletons: bean name to lock, present while held or waited for.
+	 * Also serves as monitor for the creation locks and the threads waiting for them.
+	 */
+	private final Map<String, SingletonCreationLock> singletonCreationLocks = new ConcurrentHashMap<>(16);
+
+	/** Threads waiting for a singleton creation lock: thread to wait. */
+	private final Map<Thread, SingletonCreationWait> singletonCreationWaits = new HashMap<>(16);
+
+	/** Outermost singleton creation in progress in the current thread, if any. */
+	private final ThreadLocal<SingletonCreation> currentSingletonCreation =
+			new NamedThreadLocal<>("Singleton creation in progress");
+
 	/** List of suppressed Exceptions, available for associating related causes. */
-	@Nullable
-	private Set<Exception> suppressedExceptions;
+	private final ThreadLocal<Set<Exception>> suppressedExceptions =
+			new NamedThreadLocal<>("Suppressed exceptions in singleton creation");
 
 	/** Flag that indicates whether we're currently within destroySingletons. */
-	private boolean singletonsCurrentlyInDestruction = false;
+	private volatile boolean singletonsCurrentlyInDestruction = false;
 
 	/** Disposable bean instances: bean name to disposable instance. */
 	private final Map<String, Object> disposableBeans = new LinkedHashMap<>();
@@ -156,6 +185,10 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				this.registeredSingletons.add(beanName);
 			}
 		}
+		SingletonCreationLock lock = this.singletonCreationLocks.get(beanName);
+		if (lock != null && lock.owner == Thread.currentThread()) {
+			lock.earlySingletonExposed = true;
+		}
 	}
 
 	@Override
@@ -175,16 +208,30 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	@Nullable
 	protected Object getSingleton(String beanName, boolean allowEarlyReference) {
 		Object singletonObject = this.singletonObjects.get(beanName);
-		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
-			synchronized (this.singletonObjects) {
-				singletonObject = this.earlySingletonObjects.get(beanName);
-				if (singletonObject == null && allowEarlyReference) {
-					ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
-					if (singletonFactory != null) {
-						singletonObject = singletonFactory.getObject();
-						this.earlySingletonObjects.put(beanName, singletonObject);
-						this.singletonFactories.remove(beanName);
-					}
+		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName) &&
+				isEarlySingletonAccessible(beanName, allowEarlyReference)) {
+			singletonObject = getEarlySingleton(beanName, allowEarlyReference);
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Return an early reference to the given singleton in creation, if any.
+	 * @param beanName the name of the bean to look for
+	 * @param allowEarlyReference whether early references should be created or not
+	 * @return the early singleton reference, or {@code null} if none available
+	 */
+	@Nullable
+	private Object getEarlySingleton(String beanName, boolean allowEarlyReference) {
+		Object singletonObject;
+		synchronized (this.singletonObjects) {
+			singletonObject = this.earlySingletonObjects.get(beanName);
+			if (singletonObject == null && allowEarlyReference) {
+				ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+				if (singletonFactory != null) {
+					singletonObject = singletonFactory.getObject();
+					this.earlySingletonObjects.put(beanName, singletonObject);
+					this.singletonFactories.remove(beanName);
 				}
 			}
 		}
@@ -201,67 +248,412 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
-		synchronized (this.singletonObjects) {
-			Object singletonObject = this.singletonObjects.get(beanName);
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+		SingletonCreation creation = this.currentSingletonCreation.get();
+		if (creation != null) {
+			// Nested within the creation of another singleton in the current thread
+			return createSingleton(beanName, singletonFactory, creation);
+		}
+		creation = new SingletonCreation();
+		this.currentSingletonCreation.set(creation);
+		boolean created = false;
+		try {
+			singletonObject = createSingleton(beanName, singletonFactory, creation);
+			created = true;
+		}
+		finally {
+			this.currentSingletonCreation.remove();
+			for (SingletonCreationLock lock : creation.acquiredLocks) {
+				releaseSingletonLock(lock);
+			}
+			if (!creation.earlyReferencedLocks.isEmpty()) {
+				awaitEarlyReferencedSingletons(beanName, creation.earlyReferencedLocks, created);
+			}
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Create the given singleton under its creation lock, unless registered
+	 * in the meantime. The lock is kept until the outermost singleton creation
+	 * in the current thread has completed.
+	 * @see #getSingleton(String, ObjectFactory)
+	 */
+	private Object createSingleton(String beanName, ObjectFactory<?> singletonFactory, SingletonCreation creation) {
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+		SingletonCreationLock lock = acquireSingletonLock(beanName, creation);
+		if (lock == null) {
+			// In creation in another thread which in turn waits for the current thread:
+			// proceed with its early reference, just like within a single thread.
+			singletonObject = getSingleton(beanName, true);
 			if (singletonObject == null) {
-				if (this.singletonsCurrentlyInDestruction) {
-					throw new BeanCreationNotAllowedException(beanName,
-							"Singleton bean creation not allowed while singletons of this factory are in destruction " +
-							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
-				}
-				if (logger.isDebugEnabled()) {
-					logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+				throw new BeanCurrentlyInCreationException(beanName);
+			}
+			return singletonObject;
+		}
+		creation.acquiredLocks.push(lock);
+		singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject == null) {
+			if (this.singletonsCurrentlyInDestruction) {
+				throw new BeanCreationNotAllowedException(beanName,
+						"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+						"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+			}
+			beforeSingletonCreation(beanName);
+			boolean newSingleton = false;
+			Set<Exception> suppressedExceptions = this.suppressedExceptions.get();
+			boolean recordSuppressedExceptions = (suppressedExceptions == null);
+			if (recordSuppressedExceptions) {
+				suppressedExceptions = new LinkedHashSet<>();
+				this.suppressedExceptions.set(suppressedExceptions);
+			}
+			try {
+				singletonObject = singletonFactory.getObject();
+				newSingleton = true;
+			}
+			catch (IllegalStateException ex) {
+				// Has the singleton object implicitly appeared in the meantime ->
+				// if yes, proceed with it since the exception indicates that state.
+				singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject == null) {
+					throw ex;
 				}
-				beforeSingletonCreation(beanName);
-				boolean newSingleton = false;
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
+			}
+			catch (BeanCreationException ex) {
 				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet<>();
+					for (Exception suppressedException : suppressedExceptions) {
+						ex.addRelatedCause(suppressedException);
+					}
 				}
-				try {
-					singletonObject = singletonFactory.getObject();
-					newSingleton = true;
+				throw ex;
+			}
+			finally {
+				if (recordSuppressedExceptions) {
+					this.suppressedExceptions.remove();
 				}
-				catch (IllegalStateException ex) {
-					// Has the singleton object implicitly appeared in the meantime ->
-					// if yes, proceed with it since the exception indicates that state.
-					singletonObject = this.singletonObjects.get(beanName);
-					if (singletonObject == null) {
-						throw ex;
+				afterSingletonCreation(beanName);
+			}
+			if (newSingleton) {
+				addSingleton(beanName, singletonObject);
+			}
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Acquire the creation lock for the given singleton, waiting for another
+	 * thread that currently creates it.
+	 * <p>Waiting happens on the lock itself, so any monitor held by the current
+	 * thread is kept. A thread holding the {@link #getSingletonMutex() singleton
+	 * mutex} does not wait at all, since the creating thread needs the mutex
+	 * in order to register its singleton.
+	 * @param beanName the name of the bean
+	 * @return the acquired lock, or {@code null} if the singleton is being created
+	 * by a thread that is in turn waiting for the current thread
+	 * @since 5.2.2
+	 * @see #releaseSingletonLock
+	 */
+	@Nullable
+	final SingletonCreationLock acquireSingletonLock(String beanName) {
+		return acquireSingletonLock(beanName, null);
+	}
+
+	/**
+	 * Acquire the creation lock for the given singleton, waiting for another
+	 * thread that currently creates it.
+	 * <p>In case of a circular wait, i.e. if the creating thread (transitively)
+	 * waits for the current thread, one of the threads involved proceeds without
+	 * the lock it waits for, while all others keep waiting: a thread not creating
+	 * the singleton itself, or a thread that can use the early reference to it.
+	 * @param beanName the name of the bean
+	 * @param creation the singleton creation in progress in the current thread,
+	 * or {@code null} if not acquiring the lock in order to create the singleton
+	 * @return the acquired lock, or {@code null} if the current thread is to
+	 * proceed without it: without creating the singleton, or with its early
+	 * reference in case of a singleton creation
+	 * @throws BeanCurrentlyInCreationException if waiting would never end
+	 */
+	@Nullable
+	private SingletonCreationLock acquireSingletonLock(String beanName, @Nullable SingletonCreation creation) {
+		Thread currentThread = Thread.currentThread();
+		SingletonCreationLock lock;
+		synchronized (this.singletonCreationLocks) {
+			lock = this.singletonCreationLocks.computeIfAbsent(beanName, SingletonCreationLock::new);
+			lock.users++;
+		}
+		boolean acquired = false;
+		try {
+			while (true) {
+				int signals;
+				synchronized (this.singletonCreationLocks) {
+					this.singletonCreationWaits.remove(currentThread);
+					if (lock.owner == null) {
+						lock.owner = currentThread;
+						lock.earlySingletonExposed = false;
 					}
-				}
-				catch (BeanCreationException ex) {
-					if (recordSuppressedExceptions) {
-						for (Exception suppressedException : this.suppressedExceptions) {
-							ex.addRelatedCause(suppressedException);
-						}
+					if (lock.owner == currentThread) {
+						lock.holdCount++;
+						acquired = true;
+						return lock;
 					}
-					throw ex;
-				}
-				finally {
-					if (recordSuppressedExceptions) {
-						this.suppressedExceptions = null;
+					boolean circularWait = isCircularWait(lock, currentThread);
+					if (creation == null && (circularWait || Thread.holdsLock(this.singletonObjects))) {
+						return null;
 					}
-					afterSingletonCreation(beanName);
+					if (circularWait && creation != null && lock.earlySingletonExposed) {
+						// Keep the lock around until the singleton has been completed
+						lock.users++;
+						creation.earlyReferencedLocks.add(lock);
+						return null;
+					}
+					if (Thread.holdsLock(this.singletonObjects)) {
+						throw new BeanCurrentlyInCreationException(beanName,
+								"Requested bean is currently in creation in another thread " +
+								"which cannot complete it while the singleton mutex is held");
+					}
+					if (circularWait && !signalResolvableWait(lock, currentThread)) {
+						throw new BeanCurrentlyInCreationException(beanName,
+								"Requested bean is currently in creation in another thread which is waiting " +
+								"for the current thread: Is there an unresolvable circular reference?");
+					}
+					this.singletonCreationWaits.put(currentThread, new SingletonCreationWait(lock, creation != null));
+					signals = lock.signals;
 				}
-				if (newSingleton) {
-					addSingleton(beanName, singletonObject);
+				awaitSingletonLockSignal(lock, signals);
+			}
+		}
+		finally {
+			if (!acquired) {
+				synchronized (this.singletonCreationLocks) {
+					this.singletonCreationWaits.remove(currentThread);
+					releaseSingletonLockUse(lock);
 				}
 			}
-			return singletonObject;
 		}
 	}
 
+	/**
+	 * Wait until the given creation lock is released or signalled.
+	 * @param lock the lock to wait for
+	 * @param signals the number of signals seen before
+	 */
+	private void awaitSingletonLockSignal(SingletonCreationLock lock, int signals) {
+		synchronized (lock) {
+			try {
+				while (lock.owner != null && lock.signals == signals) {
+					lock.wait();
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new BeanCreationException(lock.beanName,
+						"Interrupted while waiting for singleton creation in another thread");
+			}
+		}
+	}
+
+	/**
+	 * Wake up the threads waiting for the given creation lock,
+	 * letting them check their state again.
+	 * @param lock the lock to signal
+	 */
+	private static void signalSingletonLock(SingletonCreationLock lock) {
+		synchronized (lock) {
+			lock.signals++;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Release a creation lock obtained from {@link #acquireSingletonLock}.
+	 * @param lock the lock to release
+	 * @since 5.2.2
+	 */
+	final void releaseSingletonLock(SingletonCreationLock lock) {
+		boolean released;
+		synchronized (this.singletonCreationLocks) {
+			released = (--lock.holdCount == 0);
+			if (released) {
+				lock.owner = null;
+			}
+			releaseSingletonLockUse(lock);
+		}
+		if (released) {
+			signalSingletonLock(lock);
+		}
+	}
+
+	/**
+	 * Drop the given lock once it is neither held nor awaited anymore,
+	 * so that a subsequent creation of the same singleton starts afresh.
+	 * <p>To be called with the creation locks monitor held.
+	 */
+	private void releaseSingletonLockUse(SingletonCreationLock lock) {
+		if (--lock.users == 0) {
+			this.singletonCreationLocks.remove(lock.beanName);
+		}
+	}
+
+	/**
+	 * Wait for the singletons in creation in other threads that the current thread
+	 * obtained early references to, so that none of them escapes to the caller of
+	 * the outermost singleton creation before it has been fully initialized.
+	 * @param beanName the name of the singleton created by the current thread
+	 * @param locks the creation locks of the singletons referenced early
+	 * @param await whether to wait at all, or just to release the locks
+	 * @throws BeanCreationException if such a singleton failed to be created
+	 */
+	private void awaitEarlyReferencedSingletons(
+			String beanName, List<SingletonCreationLock> locks, boolean await) {
+
+		try {
+			for (SingletonCreationLock lock : locks) {
+				if (await && awaitSingletonLockRelease(lock) && !containsSingleton(lock.beanName)) {
+					throw new BeanCreationException(beanName, "Singleton bean '" + lock.beanName +
+							"' referenced early has failed to be created in another thread");
+				}
+			}
+		}
+		finally {
+			synchronized (this.singletonCreationLocks) {
+				for (SingletonCreationLock lock : locks) {
+					releaseSingletonLockUse(lock);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Wait until the given creation lock is not held by any thread anymore.
+	 * <p>Gives up if the owner of the lock cannot complete while the current
+	 * thread waits for it, i.e. in case of the singleton mutex being held by
+	 * the current thread or in case of a circular wait.
+	 * @param lock the lock to wait for
+	 * @return {@code true} if the lock has been released,
+	 * or {@code false} if the current thread gave up waiting
+	 */
+	private boolean awaitSingletonLockRelease(SingletonCreationLock lock) {
+		Thread currentThread = Thread.currentThread();
+		try {
+			while (true) {
+				int signals;
+				synchronized (this.singletonCreationLocks) {
+					this.singletonCreationWaits.remove(currentThread);
+					if (lock.owner == null) {
+						return true;
+					}
+					if (Thread.holdsLock(this.singletonObjects) || isCircularWait(lock, currentThread)) {
+						return false;
+					}
+					this.singletonCreationWaits.put(currentThread, new SingletonCreationWait(lock, false));
+					signals = lock.signals;
+				}
+				awaitSingletonLockSignal(lock, signals);
+			}
+		}
+		finally {
+			synchronized (this.singletonCreationLocks) {
+				this.singletonCreationWaits.remove(currentThread);
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the owner of the given lock (transitively) waits
+	 * for the current thread, i.e. whether waiting for it would never end.
+	 * <p>Every wait is registered before waiting, so the thread closing a
+	 * cycle always detects it. To be called with the creation locks monitor held.
+	 */
+	private boolean isCircularWait(SingletonCreationLock lock, Thread currentThread) {
+		Set<Thread> threads = new HashSet<>();
+		Thread thread = lock.owner;
+		while (thread != null && threads.add(thread)) {
+			if (thread == currentThread) {
+				return true;
+			}
+			SingletonCreationWait wait = this.singletonCreationWaits.get(thread);
+			thread = (wait != null ? wait.lock.owner : null);
+		}
+		return false;
+	}
+
+	/**
+	 * Signal a thread taking part in a circular wait with the current thread
+	 * that is able to proceed without the lock it waits for, if any.
+	 * <p>To be called with the creation locks monitor held.
+	 * @return whether such a thread has been signalled
+	 * @see #isCircularWait
+	 */
+	private boolean signalResolvableWait(SingletonCreationLock lock, Thread currentThread) {
+		Thread thread = lock.owner;
+		while (thread != null && thread != currentThread) {
+			SingletonCreationWait wait = this.singletonCreationWaits.get(thread);
+			if (wait == null) {
+				return false;
+			}
+			if (!wait.creating || wait.lock.earlySingletonExposed) {
+				signalSingletonLock(wait.lock);
+				return true;
+			}
+			thread = wait.lock.owner;
+		}
+		return false;
+	}
+
+	/**
+	 * Determine whether the current thread may obtain an early reference to the
+	 * given singleton in creation: if it is creating the singleton itself, or if
+	 * the creating thread (transitively) waits for it, in which case the current
+	 * thread proceeds with the early reference just like within a single thread.
+	 * @param beanName the name of the bean
+	 * @param allowEarlyReference whether early references should be created
+	 * for other threads than the creating thread
+	 */
+	private boolean isEarlySingletonAccessible(String beanName, boolean allowEarlyReference) {
+		SingletonCreationLock lock = this.singletonCreationLocks.get(beanName);
+		Thread owner = (lock != null ? lock.owner : null);
+		if (owner == null || owner == Thread.currentThread()) {
+			return true;
+		}
+		SingletonCreation creation = this.currentSingletonCreation.get();
+		if (creation == null) {
+			// Early references only get exposed within a singleton creation,
+			// which waits for the referenced singletons before completing
+			return false;
+		}
+		synchronized (this.singletonCreationLocks) {
+			if (creation.earlyReferencedLocks.contains(lock)) {
+				return true;
+			}
+			if (allowEarlyReference && lock.owner != null && lock.earlySingletonExposed &&
+					isCircularWait(lock, Thread.currentThread())) {
+				// Keep the lock around until the singleton has been completed
+				lock.users++;
+				creation.earlyReferencedLocks.add(lock);
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Register an Exception that happened to get suppressed during the creation of a
 	 * singleton bean instance, e.g. a temporary circular reference resolution problem.
 	 * @param ex the Exception to register
 	 */
 	protected void onSuppressedException(Exception ex) {
-		synchronized (this.singletonObjects) {
-			if (this.suppressedExceptions != null) {
-				this.suppressedExceptions.add(ex);
-			}
+		Set<Exception> suppressedExceptions = this.suppressedExceptions.get();
+		if (suppressedExceptions != null) {
+			suppressedExceptions.add(ex);
 		}
 	}
 
@@ -611,10 +1003,75 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * any sort of extended singleton creation phase. In particular, subclasses
 	 * should <i>not</i> have their own mutexes involved in singleton creation,
 	 * to avoid the potential for deadlocks in lazy-init situations.
+	 * <p>As of 5.2.2, the mutex is not held for the entire creation of a singleton
+	 * anymore, and beans should not be requested while holding it: as the thread
+	 * creating a singleton needs the mutex to complete, a request for a singleton
+	 * in creation in another thread fails with a
+	 * {@link BeanCurrentlyInCreationException} instead of waiting for it.
 	 */
 	@Override
 	public final Object getSingletonMutex() {
 		return this.singletonObjects;
 	}
 
+
+	/**
+	 * Creation lock for an individual singleton, reentrant for its owner thread.
+	 * <p>All state is guarded by the creation locks monitor, except for the owner
+	 * which may also be checked without it. Threads waiting for the release of
+	 * the lock wait on the lock itself.
+	 */
+	static final class SingletonCreationLock {
+
+		final String beanName;
+
+		@Nullable
+		volatile Thread owner;
+
+		int holdCount;
+
+		/** Number of threads holding, waiting for or referencing the lock. */
+		int users;
+
+		/** Whether the owner has exposed an early reference to the singleton. */
+		volatile boolean earlySingletonExposed;
+
+		/** Number of wake-ups for waiting threads, guarded by the lock itself. */
+		int signals;
+
+		SingletonCreationLock(String beanName) {
+			this.beanName = beanName;
+		}
+	}
+
+
+	/**
+	 * A thread waiting for a singleton creation lock.
+	 */
+	private static final class SingletonCreationWait {
+
+		final SingletonCreationLock lock;
+
+		/** Whether the thread is going to create the singleton. */
+		final boolean creating;
+
+		SingletonCreationWait(SingletonCreationLock lock, boolean creating) {
+			this.lock = lock;
+			this.creating = creating;
+		}
+	}
+
+
+	/**
+	 * State of the outermost singleton creation in progress in a thread.
+	 */
+	private static final class SingletonCreation {
+
+		/** Creation locks held by the thread, most recently acquired first. */
+		final Deque<SingletonCreationLock> acquiredLocks = new ArrayDeque<>();
+
+		/** Creation locks of singletons in other threads referenced early. */
+		final List<SingletonCreationLock> earlyReferencedLocks = new ArrayList<>();
+	}
+
 }
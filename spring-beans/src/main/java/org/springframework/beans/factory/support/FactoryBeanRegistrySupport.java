@@ -95,7 +95,10 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 	 */
 	protected Object getObjectFromFactoryBean(FactoryBean<?> factory, String beanName, boolean shouldPostProcess) {
 		if (factory.isSingleton() && containsSingleton(beanName)) {
-			synchronized (getSingletonMutex()) {
+			// No lock in case of a circular reference across threads: the object cache
+			// check below then resolves concurrent creation of the same object.
+			SingletonCreationLock lock = acquireSingletonLock(beanName);
+			try {
 				Object object = this.factoryBeanObjectCache.get(beanName);
 				if (object == null) {
 					object = doGetObjectFromFactoryBean(factory, beanName);
@@ -130,6 +133,11 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 				}
 				return object;
 			}
+			finally {
+				if (lock != null) {
+					releaseSingletonLock(lock);
+				}
+			}
 		}
 		else {
 			Object object = doGetObjectFromFactoryBean(factory, beanName);
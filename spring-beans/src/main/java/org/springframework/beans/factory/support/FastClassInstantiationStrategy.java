@@ -0,0 +1,219 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.cglib.core.SpringNamingPolicy;
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.core.KotlinDetector;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Instantiation strategy that invokes constructors, factory methods and
+ * property write methods through CGLIB {@link FastClass} invokers instead
+ * of reflection. An invoker class is generated once per bean class and
+ * reused for all instances of that class, which primarily pays off for
+ * prototype and request-scoped beans.
+ *
+ * <p>Members that cannot be invoked that way (private constructors and
+ * methods, classes from the bootstrap class loader, Kotlin constructors,
+ * {@code null} arguments for primitive parameters) transparently fall back
+ * to reflection, as does everything when running with a SecurityManager.
+ * The same applies to arguments that do not match the parameter types, so
+ * that these get reported as an {@link IllegalArgumentException} just like
+ * with reflective invocation.
+ * Method Injection is supported through CGLIB subclassing, as in the
+ * {@link CglibSubclassingInstantiationStrategy} superclass.
+ *
+ * <p>Property write methods go through the same invokers when bean
+ * properties get populated by an {@link AbstractAutowireCapableBeanFactory}
+ * that uses this strategy.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see AbstractAutowireCapableBeanFactory#setInstantiationStrategy
+ */
+public class FastClassInstantiationStrategy extends CglibSubclassingInstantiationStrategy {
+
+	private static final Log logger = LogFactory.getLog(FastClassInstantiationStrategy.class);
+
+	/** Marker for classes that cannot be invoked through a FastClass. */
+	private static final Object NO_FAST_CLASS = new Object();
+
+	private final Map<Class<?>, Object> fastClassCache = new ConcurrentReferenceHashMap<>(256);
+
+	private final Map<Member, Integer> indexCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	@Override
+	protected Object instantiateClass(Constructor<?> ctor, Object... args) throws BeanInstantiationException {
+		Class<?> clazz = ctor.getDeclaringClass();
+		FastClass fastClass = (!Modifier.isAbstract(clazz.getModifiers()) &&
+				!(KotlinDetector.isKotlinReflectPresent() && KotlinDetector.isKotlinType(clazz)) &&
+				isApplicable(ctor.getParameterTypes(), args) ? getFastClass(clazz) : null);
+		int index = (fastClass != null ? getIndex(fastClass, ctor) : -1);
+		if (index < 0) {
+			return super.instantiateClass(ctor, args);
+		}
+		try {
+			return fastClass.newInstance(index, args);
+		}
+		catch (InvocationTargetException ex) {
+			throw new BeanInstantiationException(ctor, "Constructor threw exception", ex.getTargetException());
+		}
+	}
+
+	@Override
+	@Nullable
+	protected Object invokeFactoryMethod(@Nullable Object factoryBean, Method factoryMethod, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		return invokeMethod(factoryMethod, factoryBean, args);
+	}
+
+	/**
+	 * Create a {@link BeanWrapperImpl} that invokes property write methods
+	 * through the invokers of this strategy.
+	 */
+	BeanWrapperImpl createBeanWrapper() {
+		return new FastClassBeanWrapper();
+	}
+
+	/**
+	 * Invoke the given method through the FastClass of its declaring class,
+	 * falling back to reflection if not applicable.
+	 */
+	@Nullable
+	private Object invokeMethod(Method method, @Nullable Object target, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		FastClass fastClass = (isApplicable(method.getParameterTypes(), args) ?
+				getFastClass(method.getDeclaringClass()) : null);
+		int index = (fastClass != null ? getIndex(fastClass, method) : -1);
+		if (index < 0) {
+			return method.invoke(target, args);
+		}
+		try {
+			return fastClass.invoke(index, target, args);
+		}
+		catch (ClassCastException ex) {
+			// Target of the wrong type: report it the way Method.invoke does
+			throw new IllegalArgumentException("object is not an instance of declaring class", ex);
+		}
+	}
+
+	@Nullable
+	private FastClass getFastClass(Class<?> clazz) {
+		Object fastClass = this.fastClassCache.get(clazz);
+		if (fastClass == null) {
+			fastClass = generateFastClass(clazz);
+			this.fastClassCache.put(clazz, fastClass);
+		}
+		return (fastClass != NO_FAST_CLASS ? (FastClass) fastClass : null);
+	}
+
+	private Object generateFastClass(Class<?> clazz) {
+		if (System.getSecurityManager() != null || clazz.getClassLoader() == null) {
+			return NO_FAST_CLASS;
+		}
+		for (Class<?> current = clazz; current != null; current = current.getEnclosingClass()) {
+			if (Modifier.isPrivate(current.getModifiers())) {
+				// Not accessible from a generated class in the same package
+				return NO_FAST_CLASS;
+			}
+		}
+		try {
+			FastClass.Generator generator = new FastClass.Generator();
+			generator.setType(clazz);
+			generator.setContextClass(clazz);
+			generator.setClassLoader(clazz.getClassLoader());
+			generator.setNamingPolicy(SpringNamingPolicy.INSTANCE);
+			return generator.create();
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not generate FastClass for [" + clazz.getName() +
+						"] - falling back to reflection: " + ex);
+			}
+			return NO_FAST_CLASS;
+		}
+	}
+
+	private int getIndex(FastClass fastClass, Member member) {
+		Integer index = this.indexCache.get(member);
+		if (index == null) {
+			if (Modifier.isPrivate(member.getModifiers())) {
+				index = -1;
+			}
+			else if (member instanceof Constructor) {
+				index = fastClass.getIndex(((Constructor<?>) member).getParameterTypes());
+			}
+			else {
+				Method method = (Method) member;
+				index = fastClass.getIndex(method.getName(), method.getParameterTypes());
+			}
+			this.indexCache.put(member, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Check whether the given arguments can be passed to a FastClass invoker
+	 * as-is, i.e. match the parameter count and types, with no {@code null}
+	 * values for primitive parameters. A FastClass invoker would fail with a
+	 * {@link ClassCastException} wrapped in an {@link InvocationTargetException}
+	 * otherwise; reflection reports an {@link IllegalArgumentException} instead.
+	 */
+	private static boolean isApplicable(Class<?>[] parameterTypes, Object[] args) {
+		if (parameterTypes.length != args.length) {
+			return false;
+		}
+		for (int i = 0; i < args.length; i++) {
+			if (!ClassUtils.isAssignableValue(parameterTypes[i], args[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * BeanWrapperImpl variant that invokes write methods through the
+	 * invokers of the enclosing strategy.
+	 */
+	private class FastClassBeanWrapper extends BeanWrapperImpl {
+
+		@Override
+		protected void invokeWriteMethod(Method writeMethod, Object target, @Nullable Object value) throws Exception {
+			invokeMethod(writeMethod, target, new Object[] {value});
+		}
+	}
+
+}
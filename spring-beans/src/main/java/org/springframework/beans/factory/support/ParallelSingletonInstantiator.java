@@ -0,0 +1,335 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.lang.Nullable;
+
+/**
+ * Helper class for {@link DefaultListableBeanFactory}, pre-instantiating
+ * non-lazy singletons in parallel on a given {@link Executor}.
+ *
+ * <p>Builds a dependency graph from the declared bean definition metadata
+ * ({@code dependsOn}, factory bean names and bean references in constructor
+ * arguments and property values) and submits each singleton as soon as all of
+ * its declared dependencies have been instantiated. Dependencies that are only
+ * discovered during creation, e.g. through annotation-driven autowiring, are
+ * resolved on demand by the creating thread; the singleton registry's creation
+ * locking makes sure that each bean is still created exactly once, with early
+ * references for circular dependencies only exposed within a creation cycle.
+ * A singleton failing since it was in creation in another thread, e.g. when
+ * requested while holding the singleton mutex, is retried on the calling thread
+ * once all other singletons have been instantiated.
+ *
+ * <p>Tasks that the executor rejects are run on the calling thread right away.
+ * Tasks that it has not started after a short while, e.g. because it silently
+ * discards them, are run on the calling thread while it waits for completion.
+ *
+ * <p>Singletons that take part in (or depend on) a cycle in the declared
+ * dependency graph are instantiated sequentially on the calling thread
+ * afterwards, in registration order.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see DefaultListableBeanFactory#setBootstrapExecutor
+ */
+class ParallelSingletonInstantiator {
+
+	/** Interval in milliseconds after which the calling thread runs tasks not picked up yet. */
+	private static final long UNCLAIMED_TASK_CHECK_INTERVAL = 100;
+
+	private final DefaultListableBeanFactory beanFactory;
+
+	private final Executor executor;
+
+	private final Map<String, List<String>> dependents = new LinkedHashMap<>();
+
+	private final Map<String, AtomicInteger> pendingDependencies = new ConcurrentHashMap<>();
+
+	private final Set<String> failedBeans = ConcurrentHashMap.newKeySet();
+
+	private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+	private final Set<String> retriedBeans = ConcurrentHashMap.newKeySet();
+
+	private final Queue<String> submittedBeans = new ConcurrentLinkedQueue<>();
+
+	private final Set<String> claimedBeans = ConcurrentHashMap.newKeySet();
+
+	@Nullable
+	private CountDownLatch completionLatch;
+
+
+	/**
+	 * Create a new ParallelSingletonInstantiator for the given bean factory.
+	 * @param beanFactory the DefaultListableBeanFactory to work with
+	 * @param executor the Executor to instantiate singletons on
+	 */
+	ParallelSingletonInstantiator(DefaultListableBeanFactory beanFactory, Executor executor) {
+		this.beanFactory = beanFactory;
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Instantiate all non-lazy singletons among the given bean names,
+	 * returning once all of them have been created.
+	 * @param beanNames the names of the bean definitions to consider
+	 * @throws org.springframework.beans.BeansException if any singleton
+	 * could not be created (the first failing bean in registration order)
+	 */
+	public void preInstantiateSingletons(List<String> beanNames) {
+		Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = this.beanFactory.getMergedLocalBeanDefinition(beanName);
+			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+				Set<String> beanDependencies = new LinkedHashSet<>();
+				collectDependencies(bd, beanDependencies);
+				dependencies.put(beanName, beanDependencies);
+			}
+		}
+
+		// Only track dependencies between pre-instantiated singletons:
+		// anything else gets created on demand by whichever thread needs it.
+		for (Set<String> beanDependencies : dependencies.values()) {
+			beanDependencies.retainAll(dependencies.keySet());
+		}
+
+		List<String> ordered = sortTopologically(dependencies);
+		List<String> roots = new ArrayList<>();
+		for (String beanName : ordered) {
+			Set<String> beanDependencies = dependencies.get(beanName);
+			this.pendingDependencies.put(beanName, new AtomicInteger(beanDependencies.size()));
+			for (String dependency : beanDependencies) {
+				this.dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(beanName);
+			}
+			if (beanDependencies.isEmpty()) {
+				roots.add(beanName);
+			}
+		}
+
+		CountDownLatch latch = new CountDownLatch(ordered.size());
+		this.completionLatch = latch;
+		for (String beanName : roots) {
+			submit(beanName);
+		}
+		try {
+			while (!latch.await(UNCLAIMED_TASK_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+				// The executor may have dropped tasks, e.g. with a DiscardPolicy,
+				// or may still be busy: run whatever has not been picked up yet.
+				String beanName;
+				while ((beanName = this.submittedBeans.poll()) != null) {
+					run(beanName);
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new BeanCreationException("Interrupted while pre-instantiating singletons in parallel");
+		}
+
+		for (String beanName : ordered) {
+			if (this.retriedBeans.contains(beanName)) {
+				this.beanFactory.preInstantiateSingleton(beanName);
+			}
+			Throwable failure = this.failures.get(beanName);
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			}
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			if (failure != null) {
+				throw new BeanCreationException(beanName, "Pre-instantiation of singleton failed", failure);
+			}
+		}
+
+		// Declared dependency cycles: leave it to regular circular reference resolution.
+		for (String beanName : dependencies.keySet()) {
+			if (!this.pendingDependencies.containsKey(beanName)) {
+				this.beanFactory.preInstantiateSingleton(beanName);
+			}
+		}
+	}
+
+	private void submit(String beanName) {
+		this.submittedBeans.add(beanName);
+		try {
+			this.executor.execute(() -> run(beanName));
+		}
+		catch (RejectedExecutionException ex) {
+			run(beanName);
+		}
+	}
+
+	private void run(String beanName) {
+		// Run each task once, either on the executor or on the calling thread
+		if (this.claimedBeans.add(beanName)) {
+			instantiate(beanName);
+		}
+	}
+
+	private void instantiate(String beanName) {
+		try {
+			if (this.failedBeans.contains(beanName)) {
+				// A dependency failed already - no point in trying to create this one.
+				return;
+			}
+			this.beanFactory.preInstantiateSingleton(beanName);
+		}
+		catch (BeanCreationException ex) {
+			if (ex.contains(BeanCurrentlyInCreationException.class)) {
+				// In creation in another thread which proceeds on its own,
+				// so try again on the calling thread afterwards.
+				this.retriedBeans.add(beanName);
+			}
+			else {
+				this.failedBeans.add(beanName);
+				this.failures.put(beanName, ex);
+			}
+		}
+		catch (Throwable ex) {
+			this.failedBeans.add(beanName);
+			this.failures.put(beanName, ex);
+		}
+		finally {
+			boolean failed = this.failedBeans.contains(beanName);
+			for (String dependent : this.dependents.getOrDefault(beanName, Collections.emptyList())) {
+				if (failed) {
+					this.failedBeans.add(dependent);
+				}
+				if (this.pendingDependencies.get(dependent).decrementAndGet() == 0) {
+					submit(dependent);
+				}
+			}
+			if (this.completionLatch != null) {
+				this.completionLatch.countDown();
+			}
+		}
+	}
+
+	/**
+	 * Sort the given bean names so that each bean comes after its dependencies,
+	 * retaining registration order otherwise. Beans in or behind a dependency
+	 * cycle are not included.
+	 */
+	private static List<String> sortTopologically(Map<String, Set<String>> dependencies) {
+		Map<String, Integer> inDegree = new LinkedHashMap<>();
+		Map<String, List<String>> dependents = new LinkedHashMap<>();
+		Deque<String> ready = new ArrayDeque<>();
+		dependencies.forEach((beanName, beanDependencies) -> {
+			inDegree.put(beanName, beanDependencies.size());
+			for (String dependency : beanDependencies) {
+				dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(beanName);
+			}
+			if (beanDependencies.isEmpty()) {
+				ready.add(beanName);
+			}
+		});
+		List<String> result = new ArrayList<>(dependencies.size());
+		while (!ready.isEmpty()) {
+			String beanName = ready.poll();
+			result.add(beanName);
+			for (String dependent : dependents.getOrDefault(beanName, Collections.emptyList())) {
+				if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+					ready.add(dependent);
+				}
+			}
+		}
+		return result;
+	}
+
+	private void collectDependencies(BeanDefinition bd, Set<String> result) {
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dependency : dependsOn) {
+				result.add(canonicalName(dependency));
+			}
+		}
+		String factoryBeanName = bd.getFactoryBeanName();
+		if (factoryBeanName != null) {
+			result.add(canonicalName(factoryBeanName));
+		}
+		ConstructorArgumentValues argumentValues = bd.getConstructorArgumentValues();
+		for (ConstructorArgumentValues.ValueHolder valueHolder : argumentValues.getIndexedArgumentValues().values()) {
+			collectReferences(valueHolder.getValue(), result);
+		}
+		for (ConstructorArgumentValues.ValueHolder valueHolder : argumentValues.getGenericArgumentValues()) {
+			collectReferences(valueHolder.getValue(), result);
+		}
+		for (PropertyValue pv : bd.getPropertyValues().getPropertyValues()) {
+			collectReferences(pv.getValue(), result);
+		}
+	}
+
+	private void collectReferences(@Nullable Object value, Set<String> result) {
+		if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference ref = (RuntimeBeanReference) value;
+			if (!ref.isToParent()) {
+				result.add(canonicalName(ref.getBeanName()));
+			}
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			collectDependencies(((BeanDefinitionHolder) value).getBeanDefinition(), result);
+		}
+		else if (value instanceof BeanDefinition) {
+			collectDependencies((BeanDefinition) value, result);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				collectReferences(element, result);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				collectReferences(entry.getKey(), result);
+				collectReferences(entry.getValue(), result);
+			}
+		}
+	}
+
+	private String canonicalName(String name) {
+		return this.beanFactory.canonicalName(BeanFactoryUtils.transformedBeanName(name));
+	}
+
+}
@@ -37,6 +37,15 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -54,6 +63,7 @@ import org.springframework.beans.NotWritablePropertyException;
 import org.springframework.beans.PropertyEditorRegistrar;
 import org.springframework.beans.PropertyEditorRegistry;
 import org.springframework.beans.PropertyValue;
+import org.springframework.beans.PropertyValues;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.TypeMismatchException;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
@@ -1423,6 +1433,200 @@ class DefaultListableBeanFactoryTests {
 			.withMessageContaining("'tb1'");
 	}
 
+	@Test
+	void parallelPreInstantiation() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<String> initialized = new CopyOnWriteArrayList<>();
+			lbf.addBeanPostProcessor(new BeanPostProcessor() {
+				@Override
+				public Object postProcessBeforeInitialization(Object bean, String beanName) {
+					initialized.add(beanName);
+					return bean;
+				}
+			});
+			lbf.setBootstrapExecutor(executor);
+			for (int i = 0; i < 20; i++) {
+				RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+				if (i % 2 == 1) {
+					bd.getPropertyValues().add("spouse", new RuntimeBeanReference("tb" + (i - 1)));
+				}
+				if (i % 5 == 4) {
+					bd.setDependsOn("tb" + (i - 2));
+				}
+				lbf.registerBeanDefinition("tb" + i, bd);
+			}
+			RootBeanDefinition lazy = new RootBeanDefinition(TestBean.class);
+			lazy.setLazyInit(true);
+			lbf.registerBeanDefinition("lazy", lazy);
+
+			lbf.preInstantiateSingletons();
+
+			assertThat(initialized).hasSize(20).doesNotContain("lazy");
+			for (int i = 0; i < 20; i++) {
+				assertThat(lbf.containsSingleton("tb" + i)).isTrue();
+			}
+			assertThat(lbf.getBean("tb1", TestBean.class).getSpouse()).isSameAs(lbf.getBean("tb0"));
+			assertThat(initialized.indexOf("tb2")).isLessThan(initialized.indexOf("tb4"));
+			assertThat(initialized.indexOf("tb7")).isLessThan(initialized.indexOf("tb9"));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void parallelPreInstantiationWithDiscardingExecutor() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+				new SynchronousQueue<>(), new ThreadPoolExecutor.DiscardPolicy());
+		try {
+			lbf.setBootstrapExecutor(executor);
+			for (int i = 0; i < 10; i++) {
+				RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+				if (i > 0) {
+					bd.getPropertyValues().add("spouse", new RuntimeBeanReference("tb" + (i - 1)));
+				}
+				lbf.registerBeanDefinition("tb" + i, bd);
+				lbf.registerBeanDefinition("other" + i, new RootBeanDefinition(TestBean.class));
+			}
+
+			lbf.preInstantiateSingletons();
+
+			for (int i = 0; i < 10; i++) {
+				assertThat(lbf.containsSingleton("tb" + i)).isTrue();
+				assertThat(lbf.containsSingleton("other" + i)).isTrue();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void parallelPreInstantiationWithFailingBean() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			RootBeanDefinition bd1 = new RootBeanDefinition(TestBean.class);
+			bd1.getPropertyValues().add("age", "notANumber");
+			lbf.registerBeanDefinition("tb1", bd1);
+			RootBeanDefinition bd2 = new RootBeanDefinition(TestBean.class);
+			bd2.setDependsOn("tb1");
+			lbf.registerBeanDefinition("tb2", bd2);
+			lbf.registerBeanDefinition("tb3", new RootBeanDefinition(TestBean.class));
+			assertThatExceptionOfType(BeanCreationException.class).isThrownBy(
+					lbf::preInstantiateSingletons)
+				.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("tb1"));
+			assertThat(lbf.containsSingleton("tb2")).isFalse();
+			assertThat(lbf.containsSingleton("tb3")).isTrue();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void parallelPreInstantiationWithCircularReferenceAcrossThreads() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			CountDownLatch populating = new CountDownLatch(2);
+			lbf.addBeanPostProcessor(new InstantiationAwareBeanPostProcessorAdapter() {
+				@Override
+				public PropertyValues postProcessProperties(PropertyValues pvs, Object bean, String beanName) {
+					// Undeclared references, only resolved once both beans are in creation
+					try {
+						populating.countDown();
+						assertThat(populating.await(10, TimeUnit.SECONDS)).isTrue();
+					}
+					catch (InterruptedException ex) {
+						throw new IllegalStateException(ex);
+					}
+					((TestBean) bean).setSpouse(lbf.getBean(beanName.equals("tb1") ? "tb2" : "tb1", TestBean.class));
+					return pvs;
+				}
+			});
+			lbf.setBootstrapExecutor(executor);
+			lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+			lbf.registerBeanDefinition("tb2", new RootBeanDefinition(TestBean.class));
+
+			lbf.preInstantiateSingletons();
+
+			TestBean tb1 = lbf.getBean("tb1", TestBean.class);
+			TestBean tb2 = lbf.getBean("tb2", TestBean.class);
+			assertThat(tb1.getSpouse()).isSameAs(tb2);
+			assertThat(tb2.getSpouse()).isSameAs(tb1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void lazyCircularReferenceAcrossThreads() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			AtomicInteger populationCount = new AtomicInteger();
+			CountDownLatch populating = new CountDownLatch(2);
+			lbf.addBeanPostProcessor(new InstantiationAwareBeanPostProcessorAdapter() {
+				@Override
+				public PropertyValues postProcessProperties(PropertyValues pvs, Object bean, String beanName) {
+					// Undeclared references, only resolved once both beans are in creation
+					populationCount.incrementAndGet();
+					try {
+						populating.countDown();
+						assertThat(populating.await(10, TimeUnit.SECONDS)).isTrue();
+					}
+					catch (InterruptedException ex) {
+						throw new IllegalStateException(ex);
+					}
+					((TestBean) bean).setSpouse(lbf.getBean(beanName.equals("tb1") ? "tb2" : "tb1", TestBean.class));
+					return pvs;
+				}
+			});
+			lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+			lbf.registerBeanDefinition("tb2", new RootBeanDefinition(TestBean.class));
+
+			Future<TestBean> future1 = executor.submit(() -> lbf.getBean("tb1", TestBean.class));
+			Future<TestBean> future2 = executor.submit(() -> lbf.getBean("tb2", TestBean.class));
+
+			TestBean tb1 = future1.get(10, TimeUnit.SECONDS);
+			TestBean tb2 = future2.get(10, TimeUnit.SECONDS);
+			assertThat(tb1.getSpouse()).isSameAs(tb2);
+			assertThat(tb2.getSpouse()).isSameAs(tb1);
+			assertThat(lbf.getBean("tb1")).isSameAs(tb1);
+			assertThat(lbf.getBean("tb2")).isSameAs(tb2);
+			// Neither bean got created twice
+			assertThat(populationCount.get()).isEqualTo(2);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void parallelPreInstantiationWithDependsOnCycle() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			RootBeanDefinition bd1 = new RootBeanDefinition(TestBean.class);
+			bd1.setDependsOn("tb2");
+			lbf.registerBeanDefinition("tb1", bd1);
+			RootBeanDefinition bd2 = new RootBeanDefinition(TestBean.class);
+			bd2.setDependsOn("tb1");
+			lbf.registerBeanDefinition("tb2", bd2);
+			lbf.registerBeanDefinition("tb3", new RootBeanDefinition(TestBean.class));
+			assertThatExceptionOfType(BeanCreationException.class).isThrownBy(
+					lbf::preInstantiateSingletons)
+				.withMessageContaining("Circular")
+				.withMessageContaining("'tb2'")
+				.withMessageContaining("'tb1'");
+			assertThat(lbf.containsSingleton("tb3")).isTrue();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
 	@Test
 	void getBeanByTypeWithNoneFound() {
 		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
@@ -16,14 +16,28 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.tests.sample.beans.DerivedTestBean;
 import org.springframework.tests.sample.beans.TestBean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 /**
  * @author Juergen Hoeller
@@ -101,4 +115,193 @@ public class DefaultSingletonBeanRegistryTests {
 		assertThat(beanRegistry.isDependent("c", "c")).isTrue();
 	}
 
+	@Test
+	public void testConcurrentCreationOfUnrelatedSingletons() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CountDownLatch creationStarted = new CountDownLatch(1);
+		CountDownLatch otherCreated = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> future = executor.submit(() -> beanRegistry.getSingleton("tb", () -> {
+				creationStarted.countDown();
+				awaitLatch(otherCreated);
+				return new TestBean();
+			}));
+			assertThat(creationStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+			TestBean tb2 = (TestBean) beanRegistry.getSingleton("tb2", TestBean::new);
+			otherCreated.countDown();
+			assertThat(future.get(10, TimeUnit.SECONDS)).isSameAs(beanRegistry.getSingleton("tb"));
+			assertThat(beanRegistry.getSingleton("tb2")).isSameAs(tb2);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testConcurrentCreationOfSameSingleton() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		AtomicInteger creationCount = new AtomicInteger();
+		CountDownLatch creationStarted = new CountDownLatch(1);
+		CountDownLatch creationReleased = new CountDownLatch(1);
+		ObjectFactory<Object> singletonFactory = () -> {
+			creationCount.incrementAndGet();
+			creationStarted.countDown();
+			awaitLatch(creationReleased);
+			return new TestBean();
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> future1 = executor.submit(() -> beanRegistry.getSingleton("tb", singletonFactory));
+			assertThat(creationStarted.await(10, TimeUnit.SECONDS)).isTrue();
+			Future<Object> future2 = executor.submit(() -> beanRegistry.getSingleton("tb", singletonFactory));
+			creationReleased.countDown();
+			assertThat(future1.get(10, TimeUnit.SECONDS)).isSameAs(future2.get(10, TimeUnit.SECONDS));
+			assertThat(creationCount.get()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testEarlyReferenceOnlyExposedToCreatingThread() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		TestBean tb = new TestBean();
+		CountDownLatch earlyReferenceAdded = new CountDownLatch(1);
+		CountDownLatch creationReleased = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> future = executor.submit(() -> beanRegistry.getSingleton("tb", () -> {
+				beanRegistry.addSingletonFactory("tb", () -> tb);
+				assertThat(beanRegistry.getSingleton("tb")).isSameAs(tb);
+				earlyReferenceAdded.countDown();
+				awaitLatch(creationReleased);
+				return tb;
+			}));
+			assertThat(earlyReferenceAdded.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(beanRegistry.isSingletonCurrentlyInCreation("tb")).isTrue();
+			assertThat(beanRegistry.getSingleton("tb")).isNull();
+			creationReleased.countDown();
+			assertThat(future.get(10, TimeUnit.SECONDS)).isSameAs(tb);
+			assertThat(beanRegistry.getSingleton("tb")).isSameAs(tb);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCircularReferenceAcrossThreads() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		AtomicInteger creationCount = new AtomicInteger();
+		CountDownLatch creationStarted = new CountDownLatch(2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> future1 = executor.submit(() -> beanRegistry.getSingleton("tb1",
+					() -> createSpouses(beanRegistry, "tb1", "tb2", creationCount, creationStarted)));
+			Future<Object> future2 = executor.submit(() -> beanRegistry.getSingleton("tb2",
+					() -> createSpouses(beanRegistry, "tb2", "tb1", creationCount, creationStarted)));
+			// The thread running into the cycle proceeds with an early reference from the
+			// other thread, which waits for it: each singleton gets created exactly once.
+			TestBean tb1 = (TestBean) future1.get(10, TimeUnit.SECONDS);
+			TestBean tb2 = (TestBean) future2.get(10, TimeUnit.SECONDS);
+			assertThat(beanRegistry.getSingleton("tb1")).isSameAs(tb1);
+			assertThat(beanRegistry.getSingleton("tb2")).isSameAs(tb2);
+			assertThat(tb1.getSpouse()).isSameAs(tb2);
+			assertThat(tb2.getSpouse()).isSameAs(tb1);
+			assertThat(creationCount.get()).isEqualTo(2);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testSingletonMutexKeptWhileSingletonInCreation() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		TestBean tb = new TestBean();
+		CountDownLatch earlyReferenceAdded = new CountDownLatch(1);
+		CountDownLatch mutexHeld = new CountDownLatch(1);
+		AtomicBoolean mutexReleased = new AtomicBoolean();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> future = executor.submit(() -> beanRegistry.getSingleton("tb", () -> {
+				beanRegistry.addSingletonFactory("tb", () -> tb);
+				earlyReferenceAdded.countDown();
+				awaitLatch(mutexHeld);
+				synchronized (beanRegistry.getSingletonMutex()) {
+					assertThat(mutexReleased.get()).isTrue();
+				}
+				return tb;
+			}));
+			assertThat(earlyReferenceAdded.await(10, TimeUnit.SECONDS)).isTrue();
+			synchronized (beanRegistry.getSingletonMutex()) {
+				mutexHeld.countDown();
+				// The creating thread needs the mutex: waiting for it would never end.
+				assertThatExceptionOfType(BeanCurrentlyInCreationException.class).isThrownBy(() ->
+						beanRegistry.getSingleton("tb", TestBean::new));
+				mutexReleased.set(true);
+			}
+			assertThat(future.get(10, TimeUnit.SECONDS)).isSameAs(tb);
+			assertThat(beanRegistry.getSingleton("tb", TestBean::new)).isSameAs(tb);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCreationLocksRemovedAfterUse() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(() ->
+				beanRegistry.getSingleton("tb", () -> {
+					throw new BeanCreationException("tb", "failed");
+				}));
+		assertThat(creationLocks(beanRegistry)).isEmpty();
+
+		TestBean tb = (TestBean) beanRegistry.getSingleton("tb", TestBean::new);
+		assertThat(creationLocks(beanRegistry)).isEmpty();
+		beanRegistry.destroySingleton("tb");
+		assertThat(beanRegistry.getSingleton("tb", TestBean::new)).isNotSameAs(tb);
+		assertThat(creationLocks(beanRegistry)).isEmpty();
+	}
+
+	private static Map<?, ?> creationLocks(DefaultSingletonBeanRegistry beanRegistry) {
+		return (Map<?, ?>) new DirectFieldAccessor(beanRegistry).getPropertyValue("singletonCreationLocks");
+	}
+
+	/**
+	 * Create the given singleton along with its spouse, exposing an early reference
+	 * like a bean factory would.
+	 */
+	private static TestBean createSpouses(DefaultSingletonBeanRegistry beanRegistry, String beanName,
+			String spouseName, AtomicInteger creationCount, @Nullable CountDownLatch creationStarted) {
+
+		creationCount.incrementAndGet();
+		TestBean tb = new TestBean(beanName);
+		beanRegistry.addSingletonFactory(beanName, () -> tb);
+		if (creationStarted != null) {
+			creationStarted.countDown();
+			awaitLatch(creationStarted);
+		}
+		TestBean spouse = (TestBean) beanRegistry.getSingleton(spouseName);
+		if (spouse == null) {
+			spouse = (TestBean) beanRegistry.getSingleton(spouseName,
+					() -> createSpouses(beanRegistry, spouseName, beanName, creationCount, null));
+		}
+		tb.setSpouse(spouse);
+		return tb;
+	}
+
+	private static void awaitLatch(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		}
+		catch (InterruptedException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
 }
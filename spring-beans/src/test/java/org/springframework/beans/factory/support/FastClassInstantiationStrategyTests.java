@@ -0,0 +1,233 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link FastClassInstantiationStrategy}.
+ *
+ * @author Anton Kessler
+ */
+class FastClassInstantiationStrategyTests {
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+
+	@BeforeEach
+	void setup() {
+		this.beanFactory.setInstantiationStrategy(new FastClassInstantiationStrategy());
+	}
+
+
+	@Test
+	void defaultConstructorAndProperties() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.getPropertyValues().add("name", "tb").add("age", "42").add("spouse", new RuntimeBeanReference("spouse"));
+		this.beanFactory.registerBeanDefinition("tb", bd);
+		this.beanFactory.registerBeanDefinition("spouse", new RootBeanDefinition(TestBean.class));
+
+		TestBean tb = this.beanFactory.getBean("tb", TestBean.class);
+		assertThat(tb.getName()).isEqualTo("tb");
+		assertThat(tb.getAge()).isEqualTo(42);
+		assertThat(tb.getSpouse()).isSameAs(this.beanFactory.getBean("spouse"));
+		assertThat(this.beanFactory.getBean("tb")).isNotSameAs(tb);
+	}
+
+	@Test
+	void constructorWithArguments() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "tb");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(1, "42");
+		this.beanFactory.registerBeanDefinition("tb", bd);
+
+		TestBean tb = this.beanFactory.getBean("tb", TestBean.class);
+		assertThat(tb.getName()).isEqualTo("tb");
+		assertThat(tb.getAge()).isEqualTo(42);
+	}
+
+	@Test
+	void staticAndInstanceFactoryMethods() {
+		RootBeanDefinition staticBd = new RootBeanDefinition(TestBeanFactory.class);
+		staticBd.setFactoryMethodName("createStatic");
+		staticBd.getConstructorArgumentValues().addGenericArgumentValue("static");
+		this.beanFactory.registerBeanDefinition("static", staticBd);
+		this.beanFactory.registerBeanDefinition("factory", new RootBeanDefinition(TestBeanFactory.class));
+		RootBeanDefinition instanceBd = new RootBeanDefinition();
+		instanceBd.setFactoryBeanName("factory");
+		instanceBd.setFactoryMethodName("create");
+		instanceBd.getConstructorArgumentValues().addGenericArgumentValue("instance");
+		this.beanFactory.registerBeanDefinition("instance", instanceBd);
+
+		assertThat(this.beanFactory.getBean("static", TestBean.class).getName()).isEqualTo("static");
+		assertThat(this.beanFactory.getBean("instance", TestBean.class).getName()).isEqualTo("instance");
+	}
+
+	@Test
+	void fastClassInvokersUsed() {
+		RootBeanDefinition bd = new RootBeanDefinition(CallerRecordingBean.class);
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "tb");
+		bd.getPropertyValues().add("name", "tb");
+		this.beanFactory.registerBeanDefinition("tb", bd);
+		RootBeanDefinition factoryBd = new RootBeanDefinition(CallerRecordingBean.class);
+		factoryBd.setFactoryMethodName("create");
+		this.beanFactory.registerBeanDefinition("factory", factoryBd);
+
+		CallerRecordingBean tb = this.beanFactory.getBean("tb", CallerRecordingBean.class);
+		assertThat(tb.constructorCaller).contains("FastClass");
+		assertThat(tb.setterCaller).contains("FastClass");
+		CallerRecordingBean fromFactory = this.beanFactory.getBean("factory", CallerRecordingBean.class);
+		assertThat(fromFactory.factoryMethodCaller).contains("FastClass");
+	}
+
+	@Test
+	void reflectionUsedForPrivateClass() {
+		this.beanFactory.registerBeanDefinition("private", new RootBeanDefinition(PrivateBean.class));
+		assertThat(this.beanFactory.getBean("private", PrivateBean.class).constructorCaller).doesNotContain("FastClass");
+	}
+
+	@Test
+	void illegalArgumentsForConstructor() throws Exception {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		FastClassInstantiationStrategy strategy = new FastClassInstantiationStrategy();
+		assertThatExceptionOfType(BeanInstantiationException.class).isThrownBy(() ->
+				strategy.instantiate(bd, "tb", this.beanFactory,
+						TestBean.class.getConstructor(String.class, int.class), "tb", "42"))
+			.withMessageContaining("Illegal arguments for constructor")
+			.withCauseInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void illegalArgumentsForFactoryMethod() throws Exception {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBeanFactory.class);
+		FastClassInstantiationStrategy strategy = new FastClassInstantiationStrategy();
+		assertThatExceptionOfType(BeanInstantiationException.class).isThrownBy(() ->
+				strategy.instantiate(bd, "tb", this.beanFactory, new TestBeanFactory(),
+						TestBeanFactory.class.getMethod("create", String.class), 42))
+			.withMessageContaining("Illegal arguments to factory method 'create'")
+			.withCauseInstanceOf(IllegalArgumentException.class);
+		assertThatExceptionOfType(BeanInstantiationException.class).isThrownBy(() ->
+				strategy.instantiate(bd, "tb", this.beanFactory, "not a factory",
+						TestBeanFactory.class.getMethod("create", String.class), "tb"))
+			.withMessageContaining("Illegal arguments to factory method 'create'")
+			.withCauseInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void exceptionFromConstructor() {
+		this.beanFactory.registerBeanDefinition("failing", new RootBeanDefinition(FailingBean.class));
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(() ->
+				this.beanFactory.getBean("failing"))
+			.withRootCauseInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void exceptionFromSetter() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getPropertyValues().add("touchy", "a.b");
+		this.beanFactory.registerBeanDefinition("tb", bd);
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(() ->
+				this.beanFactory.getBean("tb"))
+			.withMessageContaining("touchy")
+			.withRootCauseInstanceOf(Exception.class);
+	}
+
+	@Test
+	void privateClassFallsBackToReflection() {
+		RootBeanDefinition bd = new RootBeanDefinition(PrivateBean.class);
+		bd.getPropertyValues().add("name", "private");
+		this.beanFactory.registerBeanDefinition("private", bd);
+		assertThat(this.beanFactory.getBean("private", PrivateBean.class).name).isEqualTo("private");
+	}
+
+
+	public static class TestBeanFactory {
+
+		public static TestBean createStatic(String name) {
+			return new TestBean(name);
+		}
+
+		public TestBean create(String name) {
+			return new TestBean(name);
+		}
+	}
+
+
+	public static class FailingBean {
+
+		public FailingBean() {
+			throw new IllegalStateException("failing");
+		}
+	}
+
+
+	public static class CallerRecordingBean {
+
+		private String constructorCaller;
+
+		private String factoryMethodCaller;
+
+		private String setterCaller;
+
+		public CallerRecordingBean() {
+			this.constructorCaller = caller();
+		}
+
+		public CallerRecordingBean(String name) {
+			this.constructorCaller = caller();
+		}
+
+		public static CallerRecordingBean create() {
+			CallerRecordingBean bean = new CallerRecordingBean();
+			bean.factoryMethodCaller = caller();
+			return bean;
+		}
+
+		public void setName(String name) {
+			this.setterCaller = caller();
+		}
+
+		private static String caller() {
+			return new Throwable().getStackTrace()[2].getClassName();
+		}
+	}
+
+
+	private static class PrivateBean {
+
+		private String name;
+
+		private String constructorCaller = new Throwable().getStackTrace()[1].getClassName();
+
+		@SuppressWarnings("unused")
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+}
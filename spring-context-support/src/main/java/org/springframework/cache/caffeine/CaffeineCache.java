@@ -16,6 +16,8 @@
 
 package org.springframework.cache.caffeine;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.function.Function;
 
@@ -105,11 +107,25 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 		return this.cache.getIfPresent(key);
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		if (this.cache instanceof LoadingCache) {
+			return toValueWrappers(((LoadingCache<Object, Object>) this.cache).getAll(keys));
+		}
+		return toValueWrappers(this.cache.getAllPresent(keys));
+	}
+
 	@Override
 	public void put(Object key, @Nullable Object value) {
 		this.cache.put(key, toStoreValue(value));
 	}
 
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		this.cache.putAll(toStoreValues(entries));
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper putIfAbsent(Object key, @Nullable final Object value) {
@@ -128,6 +144,11 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 		return (this.cache.asMap().remove(key) != null);
 	}
 
+	@Override
+	public void evictAll(Collection<?> keys) {
+		this.cache.invalidateAll(keys);
+	}
+
 	@Override
 	public void clear() {
 		this.cache.invalidateAll();
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+import java.io.Serializable;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Notification that an entry, or all entries, of a named cache have been
+ * modified, so that local copies held by other {@link NearCacheManager}
+ * instances must be discarded.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see InvalidationChannel
+ */
+@SuppressWarnings("serial")
+public final class CacheInvalidation implements Serializable {
+
+	private final String origin;
+
+	private final String cacheName;
+
+	@Nullable
+	private final Object key;
+
+
+	/**
+	 * Create a new invalidation.
+	 * @param origin the identifier of the {@link NearCacheManager} that
+	 * published the invalidation
+	 * @param cacheName the name of the affected cache
+	 * @param key the key of the affected entry, or {@code null} if all
+	 * entries of the cache are affected
+	 */
+	public CacheInvalidation(String origin, String cacheName, @Nullable Object key) {
+		Assert.notNull(origin, "Origin must not be null");
+		Assert.notNull(cacheName, "Cache name must not be null");
+		this.origin = origin;
+		this.cacheName = cacheName;
+		this.key = key;
+	}
+
+
+	/**
+	 * Return the identifier of the {@link NearCacheManager} that published
+	 * this invalidation.
+	 */
+	public String getOrigin() {
+		return this.origin;
+	}
+
+	/**
+	 * Return the name of the affected cache.
+	 */
+	public String getCacheName() {
+		return this.cacheName;
+	}
+
+	/**
+	 * Return the key of the affected entry, or {@code null} if all entries
+	 * of the cache are affected.
+	 */
+	@Nullable
+	public Object getKey() {
+		return this.key;
+	}
+
+	/**
+	 * Return whether all entries of the cache are affected.
+	 */
+	public boolean isClear() {
+		return (this.key == null);
+	}
+
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof CacheInvalidation)) {
+			return false;
+		}
+		CacheInvalidation otherInvalidation = (CacheInvalidation) other;
+		return (this.origin.equals(otherInvalidation.origin) && this.cacheName.equals(otherInvalidation.cacheName) &&
+				ObjectUtils.nullSafeEquals(this.key, otherInvalidation.key));
+	}
+
+	@Override
+	public int hashCode() {
+		return (this.cacheName.hashCode() * 31 + ObjectUtils.nullSafeHashCode(this.key));
+	}
+
+	@Override
+	public String toString() {
+		return "CacheInvalidation [cache='" + this.cacheName + "', key=" +
+				(this.key != null ? "'" + this.key + "'" : "*") + ", origin='" + this.origin + "']";
+	}
+
+}
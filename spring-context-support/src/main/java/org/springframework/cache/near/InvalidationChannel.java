@@ -0,0 +1,54 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+import java.util.function.Consumer;
+
+/**
+ * Strategy for propagating {@link CacheInvalidation invalidations} between
+ * {@link NearCacheManager} instances, typically running in different
+ * processes and backed by a messaging infrastructure.
+ *
+ * <p>Implementations may deliver invalidations asynchronously, and may also
+ * deliver them back to the publisher: {@link NearCacheManager} ignores its
+ * own invalidations based on their {@link CacheInvalidation#getOrigin() origin}.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see InMemoryInvalidationChannel
+ */
+public interface InvalidationChannel {
+
+	/**
+	 * Publish the given invalidation to all subscribers.
+	 * @param invalidation the invalidation to publish
+	 */
+	void publish(CacheInvalidation invalidation);
+
+	/**
+	 * Register a subscriber for invalidations published to this channel.
+	 * @param subscriber the callback to notify of each invalidation
+	 */
+	void subscribe(Consumer<CacheInvalidation> subscriber);
+
+	/**
+	 * Remove a subscriber previously registered with this channel.
+	 * @param subscriber the callback to remove
+	 */
+	void unsubscribe(Consumer<CacheInvalidation> subscriber);
+
+}
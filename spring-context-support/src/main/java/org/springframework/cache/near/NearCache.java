@@ -0,0 +1,401 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.BoundedConcurrentMapCache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Two-level {@link Cache} decorator that serves hits from a bounded local tier
+ * and falls back to a (typically remote) target cache on a local miss.
+ *
+ * <p>The local tier is only populated from reads of the target cache. Writes
+ * and evictions go to the target cache and discard the local copy, and are
+ * propagated to other instances through an {@link InvalidationChannel} so
+ * that they discard their local copy as well. A local copy read concurrently
+ * with an invalidation is discarded again, so that a stale value from the
+ * target cache does not outlive the invalidation. Since invalidations may
+ * be lost or delayed by the channel, a time-to-live on the local tier bounds
+ * the staleness of local copies.
+ *
+ * <p>Asynchronous lookups through {@link #retrieve(Object)} are completed right
+ * away for local hits and delegate to the asynchronous lookup of the target cache
+ * otherwise, populating the local tier once its result is available.
+ *
+ * <p>Hits are counted per tier, see {@link #getLocalHitRate()} and
+ * {@link #getTargetHitRate()}.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see NearCacheManager
+ */
+public class NearCache implements Cache {
+
+	private final Cache targetCache;
+
+	private final BoundedConcurrentMapCache localCache;
+
+	private final InvalidationChannel invalidationChannel;
+
+	private final String origin;
+
+	private final AtomicLong invalidations = new AtomicLong();
+
+	private final LongAdder localHitCount = new LongAdder();
+
+	private final LongAdder targetHitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+
+	/**
+	 * Create a new NearCache for the given target cache.
+	 * @param targetCache the target cache to decorate
+	 * @param localCache the local tier to serve hits from, which should
+	 * allow {@code null} values if the target cache does
+	 * @param invalidationChannel the channel to propagate modifications to
+	 * other instances through
+	 * @param origin the identifier to publish invalidations with
+	 */
+	public NearCache(Cache targetCache, BoundedConcurrentMapCache localCache,
+			InvalidationChannel invalidationChannel, String origin) {
+
+		Assert.notNull(targetCache, "Target Cache must not be null");
+		Assert.notNull(localCache, "Local Cache must not be null");
+		Assert.notNull(invalidationChannel, "InvalidationChannel must not be null");
+		Assert.notNull(origin, "Origin must not be null");
+		this.targetCache = targetCache;
+		this.localCache = localCache;
+		this.invalidationChannel = invalidationChannel;
+		this.origin = origin;
+	}
+
+
+	/**
+	 * Return the target Cache that this Cache should delegate to.
+	 */
+	public Cache getTargetCache() {
+		return this.targetCache;
+	}
+
+	/**
+	 * Return the local tier of this Cache.
+	 */
+	public BoundedConcurrentMapCache getLocalCache() {
+		return this.localCache;
+	}
+
+	@Override
+	public String getName() {
+		return this.targetCache.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this.targetCache.getNativeCache();
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper get(Object key) {
+		ValueWrapper localValue = this.localCache.get(key);
+		if (localValue != null) {
+			this.localHitCount.increment();
+			return localValue;
+		}
+		long invalidations = this.invalidations.get();
+		ValueWrapper targetValue = this.targetCache.get(key);
+		if (targetValue != null) {
+			this.targetHitCount.increment();
+			populateLocal(key, targetValue.get(), invalidations);
+		}
+		else {
+			this.missCount.increment();
+		}
+		return targetValue;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public <T> T get(Object key, @Nullable Class<T> type) {
+		ValueWrapper wrapper = get(key);
+		Object value = (wrapper != null ? wrapper.get() : null);
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException(
+					"Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper localValue = this.localCache.get(key);
+		if (localValue != null) {
+			this.localHitCount.increment();
+			return (T) localValue.get();
+		}
+		long invalidations = this.invalidations.get();
+		AtomicBoolean loaded = new AtomicBoolean();
+		T value = this.targetCache.get(key, () -> {
+			loaded.set(true);
+			return valueLoader.call();
+		});
+		if (loaded.get()) {
+			this.missCount.increment();
+			// The target cache has been modified: discard copies held elsewhere
+			publish(key);
+		}
+		else {
+			this.targetHitCount.increment();
+		}
+		populateLocal(key, value, invalidations);
+		return value;
+	}
+
+	@Override
+	public CompletableFuture<ValueWrapper> retrieve(Object key) {
+		ValueWrapper localValue = this.localCache.get(key);
+		if (localValue != null) {
+			this.localHitCount.increment();
+			return CompletableFuture.completedFuture(localValue);
+		}
+		long invalidations = this.invalidations.get();
+		return this.targetCache.retrieve(key).thenApply(targetValue -> {
+			if (targetValue != null) {
+				this.targetHitCount.increment();
+				populateLocal(key, targetValue.get(), invalidations);
+			}
+			else {
+				this.missCount.increment();
+			}
+			return targetValue;
+		});
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		ValueWrapper localValue = this.localCache.get(key);
+		if (localValue != null) {
+			this.localHitCount.increment();
+			return CompletableFuture.completedFuture((T) localValue.get());
+		}
+		long invalidations = this.invalidations.get();
+		AtomicBoolean loaded = new AtomicBoolean();
+		return this.targetCache.retrieve(key, () -> {
+			loaded.set(true);
+			return valueLoader.get();
+		}).thenApply(value -> {
+			if (loaded.get()) {
+				this.missCount.increment();
+				// The target cache has been modified: discard copies held elsewhere
+				publish(key);
+			}
+			else {
+				this.targetHitCount.increment();
+			}
+			populateLocal(key, value, invalidations);
+			return value;
+		});
+	}
+
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size());
+		List<Object> missingKeys = new ArrayList<>(keys.size());
+		for (Object key : keys) {
+			ValueWrapper localValue = this.localCache.get(key);
+			if (localValue != null) {
+				this.localHitCount.increment();
+				result.put(key, localValue);
+			}
+			else {
+				missingKeys.add(key);
+			}
+		}
+		if (!missingKeys.isEmpty()) {
+			long invalidations = this.invalidations.get();
+			Map<Object, ValueWrapper> targetValues = this.targetCache.getAll(missingKeys);
+			this.targetHitCount.add(targetValues.size());
+			this.missCount.add(missingKeys.size() - targetValues.size());
+			targetValues.forEach((key, targetValue) -> {
+				populateLocal(key, targetValue.get(), invalidations);
+				result.put(key, targetValue);
+			});
+		}
+		return result;
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		this.targetCache.put(key, value);
+		invalidate(key);
+	}
+
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		this.targetCache.putAll(entries);
+		entries.keySet().forEach(this::invalidate);
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		ValueWrapper existingValue = this.targetCache.putIfAbsent(key, value);
+		if (existingValue == null) {
+			invalidate(key);
+		}
+		return existingValue;
+	}
+
+	@Override
+	public void evict(Object key) {
+		this.targetCache.evict(key);
+		invalidate(key);
+	}
+
+	@Override
+	public void evictAll(Collection<?> keys) {
+		this.targetCache.evictAll(keys);
+		keys.forEach(this::invalidate);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		boolean evicted = this.targetCache.evictIfPresent(key);
+		invalidate(key);
+		return evicted;
+	}
+
+	@Override
+	public void clear() {
+		this.targetCache.clear();
+		invalidateAll();
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean invalidated = this.targetCache.invalidate();
+		invalidateAll();
+		return invalidated;
+	}
+
+
+	/**
+	 * Discard the local copy of the entry for the given key, if any,
+	 * without affecting the target cache.
+	 * @param key the key of the modified entry
+	 */
+	public void invalidateLocal(Object key) {
+		this.invalidations.incrementAndGet();
+		this.localCache.evict(key);
+	}
+
+	/**
+	 * Discard all local copies, without affecting the target cache.
+	 */
+	public void invalidateLocal() {
+		this.invalidations.incrementAndGet();
+		this.localCache.clear();
+	}
+
+	/**
+	 * Return the number of lookups served from the local tier.
+	 */
+	public long getLocalHitCount() {
+		return this.localHitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups served from the target cache
+	 * after a miss in the local tier.
+	 */
+	public long getTargetHitCount() {
+		return this.targetHitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups that missed both tiers.
+	 */
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the ratio of lookups served from the local tier, or
+	 * {@code 0.0} if no lookup has been performed yet.
+	 */
+	public double getLocalHitRate() {
+		long localHits = getLocalHitCount();
+		long lookups = localHits + getTargetHitCount() + getMissCount();
+		return (lookups > 0 ? (double) localHits / lookups : 0.0);
+	}
+
+	/**
+	 * Return the ratio of lookups served from the target cache among those
+	 * that missed the local tier, or {@code 0.0} if there were none.
+	 */
+	public double getTargetHitRate() {
+		long targetHits = getTargetHitCount();
+		long lookups = targetHits + getMissCount();
+		return (lookups > 0 ? (double) targetHits / lookups : 0.0);
+	}
+
+
+	private void populateLocal(Object key, @Nullable Object value, long invalidations) {
+		if (this.invalidations.get() != invalidations) {
+			return;
+		}
+		this.localCache.put(key, value);
+		if (this.invalidations.get() != invalidations) {
+			// Invalidated while populating: the value read may be stale
+			this.localCache.evict(key);
+		}
+	}
+
+	private void invalidate(Object key) {
+		invalidateLocal(key);
+		publish(key);
+	}
+
+	private void invalidateAll() {
+		invalidateLocal();
+		publish(null);
+	}
+
+	private void publish(@Nullable Object key) {
+		this.invalidationChannel.publish(new CacheInvalidation(this.origin, getName(), key));
+	}
+
+}
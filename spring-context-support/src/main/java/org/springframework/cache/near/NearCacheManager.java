@@ -0,0 +1,191 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.BoundedConcurrentMapCache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Proxy for a target {@link CacheManager}, exposing two-level {@link NearCache}
+ * objects which serve hot entries from a bounded in-memory tier in front of the
+ * target caches, typically backed by a remote cache store.
+ *
+ * <p>Modifications performed through this manager are propagated to other
+ * instances sharing the same target caches through an {@link InvalidationChannel},
+ * and local copies of modified entries are discarded when such invalidations are
+ * received. Since most channels cannot guarantee delivery, local copies also
+ * expire after a {@link #setTimeToLive time-to-live}.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see #setTargetCacheManager
+ * @see #setInvalidationChannel
+ * @see NearCache
+ */
+public class NearCacheManager implements CacheManager, InitializingBean, DisposableBean {
+
+	private final String origin = UUID.randomUUID().toString();
+
+	private final ConcurrentMap<String, NearCache> cacheMap = new ConcurrentHashMap<>(16);
+
+	private final Consumer<CacheInvalidation> subscriber = this::onInvalidation;
+
+	@Nullable
+	private CacheManager targetCacheManager;
+
+	@Nullable
+	private InvalidationChannel invalidationChannel;
+
+	private long maximumSize = 1000;
+
+	private Duration timeToLive = Duration.ofMinutes(1);
+
+
+	/**
+	 * Create a new NearCacheManager, setting the target CacheManager and the
+	 * InvalidationChannel through bean properties.
+	 * @see #setTargetCacheManager
+	 * @see #setInvalidationChannel
+	 */
+	public NearCacheManager() {
+	}
+
+	/**
+	 * Create a new NearCacheManager for the given target CacheManager.
+	 * @param targetCacheManager the target CacheManager to proxy
+	 * @param invalidationChannel the channel to exchange invalidations through
+	 */
+	public NearCacheManager(CacheManager targetCacheManager, InvalidationChannel invalidationChannel) {
+		Assert.notNull(targetCacheManager, "Target CacheManager must not be null");
+		Assert.notNull(invalidationChannel, "InvalidationChannel must not be null");
+		this.targetCacheManager = targetCacheManager;
+		this.invalidationChannel = invalidationChannel;
+		this.invalidationChannel.subscribe(this.subscriber);
+	}
+
+
+	/**
+	 * Set the target CacheManager to proxy.
+	 */
+	public void setTargetCacheManager(CacheManager targetCacheManager) {
+		this.targetCacheManager = targetCacheManager;
+	}
+
+	/**
+	 * Set the channel to exchange invalidations with other instances through.
+	 * @see InMemoryInvalidationChannel
+	 */
+	public void setInvalidationChannel(InvalidationChannel invalidationChannel) {
+		this.invalidationChannel = invalidationChannel;
+	}
+
+	/**
+	 * Set the maximum number of entries held in the local tier of each cache.
+	 * Default is 1000.
+	 */
+	public void setMaximumSize(long maximumSize) {
+		Assert.isTrue(maximumSize > 0, "Maximum size must be positive");
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Set the time after which a local copy expires once read from the target
+	 * cache, bounding its staleness if an invalidation is not delivered.
+	 * Default is 1 minute.
+	 */
+	public void setTimeToLive(Duration timeToLive) {
+		Assert.isTrue(!timeToLive.isNegative() && !timeToLive.isZero(), "Time to live must be positive");
+		this.timeToLive = timeToLive;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.targetCacheManager == null) {
+			throw new IllegalArgumentException("Property 'targetCacheManager' is required");
+		}
+		if (this.invalidationChannel == null) {
+			throw new IllegalArgumentException("Property 'invalidationChannel' is required");
+		}
+		this.invalidationChannel.unsubscribe(this.subscriber);
+		this.invalidationChannel.subscribe(this.subscriber);
+	}
+
+	@Override
+	public void destroy() {
+		if (this.invalidationChannel != null) {
+			this.invalidationChannel.unsubscribe(this.subscriber);
+		}
+	}
+
+
+	@Override
+	@Nullable
+	public Cache getCache(String name) {
+		NearCache cache = this.cacheMap.get(name);
+		if (cache == null) {
+			Assert.state(this.targetCacheManager != null, "No target CacheManager set");
+			Assert.state(this.invalidationChannel != null, "No InvalidationChannel set");
+			Cache targetCache = this.targetCacheManager.getCache(name);
+			if (targetCache == null) {
+				return null;
+			}
+			BoundedConcurrentMapCache localCache =
+					new BoundedConcurrentMapCache(name, this.maximumSize, 0, null, this.timeToLive, true);
+			NearCache newCache = new NearCache(targetCache, localCache, this.invalidationChannel, this.origin);
+			cache = this.cacheMap.putIfAbsent(name, newCache);
+			if (cache == null) {
+				cache = newCache;
+			}
+		}
+		return cache;
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		Assert.state(this.targetCacheManager != null, "No target CacheManager set");
+		return this.targetCacheManager.getCacheNames();
+	}
+
+	private void onInvalidation(CacheInvalidation invalidation) {
+		if (this.origin.equals(invalidation.getOrigin())) {
+			return;
+		}
+		NearCache cache = this.cacheMap.get(invalidation.getCacheName());
+		if (cache != null) {
+			Object key = invalidation.getKey();
+			if (key != null) {
+				cache.invalidateLocal(key);
+			}
+			else {
+				cache.invalidateLocal();
+			}
+		}
+	}
+
+}
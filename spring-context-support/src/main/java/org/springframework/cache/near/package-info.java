@@ -0,0 +1,27 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Near-cache support for the org.springframework.cache package.
+ * Provides a two-level cache fronting a remote cache with a bounded local
+ * tier, kept consistent through a pluggable invalidation channel.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.cache.near;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
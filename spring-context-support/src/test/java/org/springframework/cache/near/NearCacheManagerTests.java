@@ -0,0 +1,215 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.BoundedConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link NearCacheManager} and {@link NearCache}.
+ *
+ * @author Anton Kessler
+ */
+class NearCacheManagerTests {
+
+	private final CacheManager targetCacheManager = new ConcurrentMapCacheManager("testCache");
+
+	private final InvalidationChannel channel = new InMemoryInvalidationChannel();
+
+	private NearCacheManager first;
+
+	private NearCacheManager second;
+
+
+	@BeforeEach
+	void setup() {
+		this.first = new NearCacheManager(this.targetCacheManager, this.channel);
+		this.second = new NearCacheManager(this.targetCacheManager, this.channel);
+	}
+
+
+	@Test
+	void serveHitsFromLocalTier() {
+		NearCache cache = (NearCache) this.first.getCache("testCache");
+		assertThat(this.first.getCache("testCache")).isSameAs(cache);
+		assertThat(cache.getName()).isEqualTo("testCache");
+
+		assertThat(cache.get("key")).isNull();
+		cache.put("key", "value");
+		assertThat(cache.getLocalCache().get("key")).isNull();
+		assertThat(cache.get("key").get()).isEqualTo("value");
+		assertThat(cache.get("key", String.class)).isEqualTo("value");
+		assertThat(cache.get("key", () -> "other")).isEqualTo("value");
+
+		assertThat(cache.getMissCount()).isEqualTo(1);
+		assertThat(cache.getTargetHitCount()).isEqualTo(1);
+		assertThat(cache.getLocalHitCount()).isEqualTo(2);
+		assertThat(cache.getLocalHitRate()).isEqualTo(0.5);
+		assertThat(cache.getTargetHitRate()).isEqualTo(0.5);
+	}
+
+	@Test
+	void serveNullValuesFromLocalTier() {
+		NearCache cache = (NearCache) this.first.getCache("testCache");
+		cache.put("key", null);
+
+		assertThat(cache.get("key").get()).isNull();
+		assertThat(cache.get("key").get()).isNull();
+		assertThat(cache.getLocalHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void loadThroughTargetCache() {
+		NearCache cache = (NearCache) this.first.getCache("testCache");
+		NearCache otherCache = (NearCache) this.second.getCache("testCache");
+
+		assertThat(cache.get("key", () -> "value")).isEqualTo("value");
+		assertThat(otherCache.get("key", () -> "other")).isEqualTo("value");
+		assertThat(cache.get("key").get()).isEqualTo("value");
+
+		assertThat(cache.getMissCount()).isEqualTo(1);
+		assertThat(cache.getLocalHitCount()).isEqualTo(1);
+		assertThat(otherCache.getTargetHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void retrieveWithoutBlockingOnTargetCache() {
+		CompletableFuture<Cache.ValueWrapper> targetFuture = new CompletableFuture<>();
+		ConcurrentMapCache target = new ConcurrentMapCache("testCache") {
+			@Override
+			public ValueWrapper get(Object key) {
+				throw new IllegalStateException("Blocking lookup");
+			}
+			@Override
+			public CompletableFuture<ValueWrapper> retrieve(Object key) {
+				return targetFuture;
+			}
+		};
+		NearCache cache = new NearCache(target, new BoundedConcurrentMapCache("testCache", 10),
+				this.channel, "test");
+
+		CompletableFuture<Cache.ValueWrapper> future = cache.retrieve("key");
+		assertThat(future).isNotDone();
+		targetFuture.complete(new SimpleValueWrapper("value"));
+		assertThat(future.join().get()).isEqualTo("value");
+		assertThat(cache.getLocalCache().get("key").get()).isEqualTo("value");
+
+		assertThat(cache.retrieve("key")).isCompletedWithValueMatching(wrapper -> "value".equals(wrapper.get()));
+		assertThat(cache.getTargetHitCount()).isEqualTo(1);
+		assertThat(cache.getLocalHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void retrieveLoadingThroughTargetCache() {
+		NearCache cache = (NearCache) this.first.getCache("testCache");
+		NearCache otherCache = (NearCache) this.second.getCache("testCache");
+
+		assertThat(cache.retrieve("key", () -> CompletableFuture.completedFuture("value")).join())
+				.isEqualTo("value");
+		assertThat(otherCache.retrieve("key", () -> CompletableFuture.completedFuture("other")).join())
+				.isEqualTo("value");
+		assertThat(cache.retrieve("key", () -> CompletableFuture.completedFuture("other")))
+				.isCompletedWithValue("value");
+
+		assertThat(cache.getMissCount()).isEqualTo(1);
+		assertThat(cache.getLocalHitCount()).isEqualTo(1);
+		assertThat(otherCache.getTargetHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void propagateModifications() {
+		Cache cache = this.first.getCache("testCache");
+		Cache otherCache = this.second.getCache("testCache");
+		cache.put("key", "value");
+		cache.put("anotherKey", "anotherValue");
+		assertThat(otherCache.get("key").get()).isEqualTo("value");
+		assertThat(otherCache.get("anotherKey").get()).isEqualTo("anotherValue");
+
+		cache.put("key", "newValue");
+		assertThat(otherCache.get("key").get()).isEqualTo("newValue");
+		assertThat(((NearCache) otherCache).getLocalCache().get("anotherKey").get()).isEqualTo("anotherValue");
+
+		cache.evict("key");
+		assertThat(otherCache.get("key")).isNull();
+
+		cache.clear();
+		assertThat(otherCache.get("anotherKey")).isNull();
+	}
+
+	@Test
+	void ignoreInvalidationsAfterDestroy() {
+		Cache cache = this.first.getCache("testCache");
+		Cache otherCache = this.second.getCache("testCache");
+		cache.put("key", "value");
+		assertThat(otherCache.get("key").get()).isEqualTo("value");
+
+		this.second.destroy();
+		cache.put("key", "newValue");
+		assertThat(otherCache.get("key").get()).isEqualTo("value");
+	}
+
+	@Test
+	void discardValueReadDuringInvalidation() {
+		AtomicReference<NearCache> cacheRef = new AtomicReference<>();
+		ConcurrentMapCache target = new ConcurrentMapCache("testCache") {
+			@Override
+			protected Object lookup(Object key) {
+				Object value = super.lookup(key);
+				// Simulate a concurrent modification by another instance
+				cacheRef.get().invalidateLocal(key);
+				return value;
+			}
+		};
+		NearCache cache = new NearCache(target, new BoundedConcurrentMapCache("testCache", 10),
+				this.channel, "test");
+		cacheRef.set(cache);
+		target.put("key", "value");
+
+		assertThat(cache.get("key").get()).isEqualTo("value");
+		assertThat(cache.getLocalCache().get("key")).isNull();
+	}
+
+	@Test
+	void missingTargetCache() {
+		assertThat(this.first.getCache("unknown")).isNull();
+	}
+
+	@Test
+	void missingProperties() {
+		NearCacheManager cacheManager = new NearCacheManager();
+		assertThatIllegalArgumentException().isThrownBy(cacheManager::afterPropertiesSet);
+		cacheManager.setTargetCacheManager(this.targetCacheManager);
+		assertThatIllegalArgumentException().isThrownBy(cacheManager::afterPropertiesSet);
+		cacheManager.setInvalidationChannel(this.channel);
+		cacheManager.afterPropertiesSet();
+		assertThat(cacheManager.getCacheNames()).containsExactly("testCache");
+	}
+
+}
@@ -16,6 +16,8 @@
 
 package org.springframework.cache.transaction;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.cache.Cache;
@@ -87,6 +89,35 @@ public class TransactionAwareCacheDecoratorTests {
 		assertThat(target.get(key, String.class)).isEqualTo("123");
 	}
 
+	@Test
+	public void retrieveFromTarget() {
+		CompletableFuture<Cache.ValueWrapper> targetFuture = new CompletableFuture<>();
+		Cache target = new ConcurrentMapCache("testCache") {
+			@Override
+			public CompletableFuture<ValueWrapper> retrieve(Object key) {
+				return targetFuture;
+			}
+		};
+		Cache cache = new TransactionAwareCacheDecorator(target);
+
+		assertThat(cache.retrieve(new Object())).isSameAs(targetFuture);
+	}
+
+	@Test
+	public void retrieveWithLoaderTransactional() {
+		Cache target = new ConcurrentMapCache("testCache");
+		Cache cache = new TransactionAwareCacheDecorator(target);
+		Object key = new Object();
+
+		txTemplate.executeWithoutResult(s -> {
+			assertThat(cache.retrieve(key, () -> CompletableFuture.completedFuture("123")).join())
+					.isEqualTo("123");
+			assertThat(target.get(key)).isNull();
+		});
+
+		assertThat(target.get(key, String.class)).isEqualTo("123");
+	}
+
 	@Test
 	public void putIfAbsentNonTransactional() {
 		Cache target = new ConcurrentMapCache("testCache");
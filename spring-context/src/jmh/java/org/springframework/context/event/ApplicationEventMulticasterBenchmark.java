@@ -0,0 +1,181 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * Benchmarks for {@code publishEvent} with a large number of
+ * {@link EventListener @EventListener} methods for various event and payload
+ * types, as well as for registering listeners while events are being published.
+ *
+ * <p>Typically this can be run with
+ * {@code "./gradlew :spring-context:jmh -Pjmh.includes=ApplicationEventMulticasterBenchmark"}.
+ *
+ * @author Anton Kessler
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ApplicationEventMulticasterBenchmark {
+
+	@Benchmark
+	public void publishApplicationEvent(BenchmarkState state) {
+		state.context.publishEvent(state.applicationEvent);
+	}
+
+	@Benchmark
+	public void publishPayloadEvent(BenchmarkState state) {
+		state.context.publishEvent("payload");
+	}
+
+	@Benchmark
+	public void publishPayloadEventsOfVariousTypes(BenchmarkState state) {
+		for (Object payload : state.payloads) {
+			state.context.publishEvent(payload);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void registerListenersWhilePublishing(BenchmarkState state) {
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+		for (ApplicationListenerMethodAdapter listener : state.listeners) {
+			multicaster.addApplicationListener(listener);
+			multicaster.multicastEvent(state.applicationEvent);
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"10", "1000"})
+		public int listenerCount;
+
+		GenericApplicationContext context;
+
+		ApplicationEvent applicationEvent;
+
+		Object[] payloads = new Object[] {"payload", 1, 1L, 1.0d, new ArrayList<>(), new StringBuilder()};
+
+		List<ApplicationListenerMethodAdapter> listeners;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.context = new GenericApplicationContext();
+			this.context.registerBean("listeners", Listeners.class);
+			this.context.refresh();
+			this.applicationEvent = new FirstEvent(this);
+			this.listeners = createListeners(this.context, this.listenerCount);
+			for (ApplicationListenerMethodAdapter listener : this.listeners) {
+				this.context.addApplicationListener(listener);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.context.close();
+		}
+	}
+
+
+	static List<ApplicationListenerMethodAdapter> createListeners(GenericApplicationContext context, int count) {
+		List<Method> methods = new ArrayList<>();
+		for (Method method : Listeners.class.getMethods()) {
+			if (method.isAnnotationPresent(EventListener.class)) {
+				methods.add(method);
+			}
+		}
+		EventExpressionEvaluator evaluator = new EventExpressionEvaluator();
+		List<ApplicationListenerMethodAdapter> listeners = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ApplicationListenerMethodAdapter listener =
+					new ApplicationListenerMethodAdapter("listeners", Listeners.class, methods.get(i % methods.size()));
+			listener.init(context, evaluator);
+			listeners.add(listener);
+		}
+		return listeners;
+	}
+
+
+	@SuppressWarnings("serial")
+	static class FirstEvent extends ApplicationEvent {
+
+		FirstEvent(Object source) {
+			super(source);
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	static class SecondEvent extends ApplicationEvent {
+
+		SecondEvent(Object source) {
+			super(source);
+		}
+	}
+
+
+	public static class Listeners {
+
+		@EventListener
+		public void onFirstEvent(FirstEvent event) {
+		}
+
+		@EventListener
+		public void onSecondEvent(SecondEvent event) {
+		}
+
+		@EventListener
+		public void onString(String payload) {
+		}
+
+		@EventListener
+		public void onInteger(Integer payload) {
+		}
+
+		@EventListener
+		public void onNumber(Number payload) {
+		}
+
+		@EventListener
+		public void onCharSequence(CharSequence payload) {
+		}
+
+		@EventListener
+		public void onList(List<?> payload) {
+		}
+	}
+
+}
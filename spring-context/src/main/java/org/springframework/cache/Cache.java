@@ -16,7 +16,12 @@
 
 package org.springframework.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.springframework.lang.Nullable;
 
@@ -100,6 +105,77 @@ public interface Cache {
 	@Nullable
 	<T> T get(Object key, Callable<T> valueLoader);
 
+	/**
+	 * Return the value to which this cache maps the specified key, wrapped in
+	 * a {@link CompletableFuture}. This operation must not block the calling
+	 * thread but may return an already completed future if the value is
+	 * immediately available.
+	 * <p>The returned future completes with {@code null} if the cache contains
+	 * no mapping for this key, and otherwise with a {@link ValueWrapper}, which
+	 * may also hold a cached {@code null} value.
+	 * <p>The default implementation delegates to {@link #get(Object)}, which is
+	 * appropriate for in-memory caches. Caches backed by a remote store should
+	 * override this method with a non-blocking lookup.
+	 * @param key the key whose associated value is to be returned
+	 * @return a future for the value wrapper, completing with {@code null}
+	 * if the cache contains no mapping for this key
+	 * @since 5.2.2
+	 * @see #get(Object)
+	 */
+	default CompletableFuture<ValueWrapper> retrieve(Object key) {
+		return CompletableFuture.completedFuture(get(key));
+	}
+
+	/**
+	 * Return the value to which this cache maps the specified key, obtaining
+	 * that value from {@code valueLoader} if necessary, in a non-blocking
+	 * fashion. This is the asynchronous counterpart of
+	 * {@link #get(Object, Callable)}.
+	 * <p>The default implementation delegates to {@link #retrieve(Object)}
+	 * and, in case of a cache miss, stores the loaded value through
+	 * {@link #put(Object, Object)} once it is available.
+	 * @param key the key whose associated value is to be returned
+	 * @param valueLoader the supplier of the value to load
+	 * @return a future for the value to which this cache maps the specified key
+	 * @since 5.2.2
+	 * @see #get(Object, Callable)
+	 */
+	@SuppressWarnings("unchecked")
+	default <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		return retrieve(key).thenCompose(wrapper -> {
+			if (wrapper != null) {
+				return CompletableFuture.completedFuture((T) wrapper.get());
+			}
+			return valueLoader.get().thenApply(value -> {
+				put(key, value);
+				return value;
+			});
+		});
+	}
+
+	/**
+	 * Return the values to which this cache maps the specified keys.
+	 * <p>The default implementation delegates to {@link #get(Object)} for each
+	 * key. Cache providers with a native bulk lookup are encouraged to override
+	 * this method, saving a round trip per key with remote stores.
+	 * @param keys the keys whose associated values are to be returned
+	 * @return a map from each key that this cache contains a mapping for to
+	 * the wrapped value (which may also wrap a cached {@code null} value);
+	 * keys without mapping are not contained in the returned map
+	 * @since 5.2.2
+	 * @see #get(Object)
+	 */
+	default Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size());
+		for (Object key : keys) {
+			ValueWrapper value = get(key);
+			if (value != null) {
+				result.put(key, value);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Associate the specified value with the specified key in this cache.
 	 * <p>If the cache previously contained a mapping for this key, the old
@@ -150,6 +226,20 @@ public interface Cache {
 		return existingValue;
 	}
 
+	/**
+	 * Associate the specified values with their keys in this cache.
+	 * <p>The default implementation delegates to {@link #put(Object, Object)}
+	 * for each entry, with the same semantics regarding deferred registration.
+	 * Cache providers with a native bulk operation are encouraged to override
+	 * this method.
+	 * @param entries the keys and values to be associated
+	 * @since 5.2.2
+	 * @see #put(Object, Object)
+	 */
+	default void putAll(Map<?, ?> entries) {
+		entries.forEach(this::put);
+	}
+
 	/**
 	 * Evict the mapping for this key from this cache if it is present.
 	 * <p>Actual eviction may be performed in an asynchronous or deferred
@@ -182,6 +272,22 @@ public interface Cache {
 		return false;
 	}
 
+	/**
+	 * Evict the mappings for the specified keys from this cache if present.
+	 * <p>The default implementation delegates to {@link #evict(Object)} for
+	 * each key, with the same semantics regarding deferred eviction. Cache
+	 * providers with a native bulk operation are encouraged to override
+	 * this method.
+	 * @param keys the keys whose mappings are to be removed from the cache
+	 * @since 5.2.2
+	 * @see #evict(Object)
+	 */
+	default void evictAll(Collection<?> keys) {
+		for (Object key : keys) {
+			evict(key);
+		}
+	}
+
 	/**
 	 * Clear the cache through removing all mappings.
 	 * <p>Actual clearing may be performed in an asynchronous or deferred
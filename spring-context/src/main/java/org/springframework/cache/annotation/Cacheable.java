@@ -22,7 +22,6 @@ import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import java.util.concurrent.Callable;
 
 import org.springframework.core.annotation.AliasFor;
 
@@ -164,19 +163,41 @@ public @interface Cacheable {
 
 	/**
 	 * Synchronize the invocation of the underlying method if several threads are
-	 * attempting to load a value for the same key. The synchronization leads to
-	 * a couple of limitations:
-	 * <ol>
-	 * <li>{@link #unless()} is not supported</li>
-	 * <li>Only one cache may be specified</li>
-	 * <li>No other cache-related operation can be combined</li>
-	 * </ol>
+	 * attempting to load a value for the same key.
+	 * <p>For a single cache without {@link #unless()} and without any other
+	 * cache operation, this is delegated to the cache provider through
+	 * {@link org.springframework.cache.Cache#get(Object, java.util.concurrent.Callable)}.
 	 * This is effectively a hint and the actual cache provider that you are
 	 * using may not support it in a synchronized fashion. Check your provider
 	 * documentation for more details on the actual semantics.
+	 * <p>Otherwise, the caching infrastructure coalesces concurrent misses
+	 * within the current application: only one thread invokes the method while
+	 * concurrent callers for the same keys and caches wait for its outcome and
+	 * share it (including any exception thrown by the method). Note that callers
+	 * sharing a value get it even if {@link #unless()} vetoes its caching.
+	 * Invocations that also carry a {@link CachePut @CachePut} operation are
+	 * never shared.
 	 * @since 4.3
-	 * @see org.springframework.cache.Cache#get(Object, Callable)
 	 */
 	boolean sync() default false;
 
+	/**
+	 * Cache the entries of a {@code Map}-valued method individually, keyed by
+	 * the elements of the method's {@link java.util.Collection} parameter, and
+	 * only invoke the method for the keys that are missing from the cache.
+	 * <p>A batch method declares a single {@code Collection} parameter holding
+	 * the keys to load, and returns a {@code Map} from each key found to its
+	 * value. The keys are looked up in bulk, the method is invoked with a
+	 * collection of the missing keys only (if any), and the returned entries
+	 * are stored in bulk. The result merges cached and loaded entries in the
+	 * order of the requested keys.
+	 * <p>The elements are used as cache keys as-is, so neither {@link #key()}
+	 * nor {@link #keyGenerator()} is supported, and neither are {@link #unless()},
+	 * {@link #sync()} or the combination with other cache-related operations.
+	 * @since 5.2.2
+	 * @see org.springframework.cache.Cache#getAll
+	 * @see org.springframework.cache.Cache#putAll
+	 */
+	boolean batch() default false;
+
 }
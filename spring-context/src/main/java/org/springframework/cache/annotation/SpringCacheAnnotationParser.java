@@ -24,11 +24,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 import org.springframework.cache.interceptor.CacheEvictOperation;
 import org.springframework.cache.interceptor.CacheOperation;
 import org.springframework.cache.interceptor.CachePutOperation;
 import org.springframework.cache.interceptor.CacheableOperation;
+import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.lang.Nullable;
@@ -128,6 +130,7 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 		builder.setCacheManager(cacheable.cacheManager());
 		builder.setCacheResolver(cacheable.cacheResolver());
 		builder.setSync(cacheable.sync());
+		builder.setBatch(cacheable.batch());
 
 		defaultConfig.applyDefault(builder);
 		CacheableOperation op = builder.build();
@@ -219,6 +222,17 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 					"default cache resolver if none is set. If a cache resolver is set, the cache manager" +
 					"won't be used.");
 		}
+		if (operation instanceof CacheableOperation && ((CacheableOperation) operation).isBatch() &&
+				ae instanceof Method && isAsynchronous(((Method) ae).getReturnType())) {
+			throw new IllegalStateException("Invalid cache annotation configuration on '" +
+					ae.toString() + "'. The 'batch' attribute is not supported for asynchronous or " +
+					"reactive return types: a batch operation needs the Map of loaded entries right away.");
+		}
+	}
+
+	private static boolean isAsynchronous(Class<?> returnType) {
+		return (CompletionStage.class.isAssignableFrom(returnType) ||
+				ReactiveAdapterRegistry.getSharedInstance().getAdapter(returnType) != null);
 	}
 
 	@Override
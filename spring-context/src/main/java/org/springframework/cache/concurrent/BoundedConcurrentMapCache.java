@@ -0,0 +1,527 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded {@link org.springframework.cache.Cache} implementation based on the
+ * core JDK {@code java.util.concurrent} package, as a drop-in alternative to
+ * {@link ConcurrentMapCache} for caches that must not grow without limit.
+ *
+ * <p>The cache can be bounded by a maximum number of entries and/or by a maximum
+ * total weight as determined by a weigher function, and entries can expire a
+ * fixed time after they have been written. When a bound is exceeded, entries are
+ * evicted according to a segmented LRU policy: new entries start out in a
+ * probationary segment and get promoted to a protected segment when accessed
+ * again, so that a burst of one-time accesses does not flush frequently used
+ * entries. Eviction victims are taken from the probationary segment first.
+ *
+ * <p>Reads are served from a {@link ConcurrentHashMap} without locking. The
+ * eviction policy is maintained under a lock that reads only try to acquire:
+ * under contention, some accesses are simply not recorded, trading a little
+ * precision of the LRU order for read scalability. Expired entries are removed
+ * on access or through {@link #cleanUp()}.
+ *
+ * <p>Hit, miss, eviction and expiration counts are recorded for monitoring.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see ConcurrentMapCacheManager#setMaximumSize
+ */
+public class BoundedConcurrentMapCache extends AbstractValueAdaptingCache {
+
+	/** Share of the bounds that may be taken by the protected segment. */
+	private static final double PROTECTED_RATIO = 0.8;
+
+
+	private final String name;
+
+	private final long maximumSize;
+
+	private final long maximumWeight;
+
+	@Nullable
+	private final ToLongBiFunction<Object, Object> weigher;
+
+	private final long timeToLiveNanos;
+
+	private final ConcurrentHashMap<Object, Node> store = new ConcurrentHashMap<>(256);
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final Segment probation = new Segment();
+
+	private final Segment protectedSegment = new Segment();
+
+	private long totalWeight;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	private final LongAdder expirationCount = new LongAdder();
+
+	private LongSupplier ticker = System::nanoTime;
+
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the specified name and
+	 * maximum number of entries.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries
+	 */
+	public BoundedConcurrentMapCache(String name, long maximumSize) {
+		this(name, maximumSize, 0, null, null, true);
+	}
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the specified name and bounds.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries, or 0 for no limit
+	 * @param maximumWeight the maximum total weight of all entries, or 0 for no limit
+	 * @param weigher the function to determine the weight of an entry from its key
+	 * and store value (required if a maximum weight is specified)
+	 * @param timeToLive the time after which an entry expires once written,
+	 * or {@code null} for no expiration
+	 * @param allowNullValues whether to allow {@code null} values
+	 * (adapting them to an internal null holder value)
+	 */
+	public BoundedConcurrentMapCache(String name, long maximumSize, long maximumWeight,
+			@Nullable ToLongBiFunction<Object, Object> weigher, @Nullable Duration timeToLive,
+			boolean allowNullValues) {
+
+		super(allowNullValues);
+		Assert.notNull(name, "Name must not be null");
+		Assert.isTrue(maximumSize >= 0, "Maximum size must not be negative");
+		Assert.isTrue(maximumWeight >= 0, "Maximum weight must not be negative");
+		Assert.isTrue(maximumWeight == 0 || weigher != null, "A weigher is required for a maximum weight");
+		Assert.isTrue(timeToLive == null || !timeToLive.isNegative(), "Time to live must not be negative");
+		this.name = name;
+		this.maximumSize = (maximumSize > 0 ? maximumSize : Long.MAX_VALUE);
+		this.maximumWeight = (maximumWeight > 0 ? maximumWeight : Long.MAX_VALUE);
+		this.weigher = weigher;
+		this.timeToLiveNanos = (timeToLive != null ? timeToLive.toNanos() : 0);
+	}
+
+
+	@Override
+	public final String getName() {
+		return this.name;
+	}
+
+	@Override
+	public final BoundedConcurrentMapCache getNativeCache() {
+		return this;
+	}
+
+	/**
+	 * Return the current number of entries, including expired entries that
+	 * have not been removed yet.
+	 */
+	public int size() {
+		return this.store.size();
+	}
+
+	/**
+	 * Return the current total weight of all entries.
+	 */
+	public long getWeightedSize() {
+		this.evictionLock.lock();
+		try {
+			return this.totalWeight;
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Return the number of lookups that found a (non-expired) entry.
+	 */
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups that did not find a (non-expired) entry.
+	 */
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the number of entries evicted because of the size or weight bounds.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.sum();
+	}
+
+	/**
+	 * Return the number of entries removed because their time to live elapsed.
+	 */
+	public long getExpirationCount() {
+		return this.expirationCount.sum();
+	}
+
+	/**
+	 * Remove all expired entries.
+	 */
+	public void cleanUp() {
+		if (this.timeToLiveNanos > 0) {
+			long now = this.ticker.getAsLong();
+			for (Node node : this.store.values()) {
+				if (isExpired(node, now) && this.store.remove(node.key, node)) {
+					this.expirationCount.increment();
+					afterRemoval(node);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Set the time source to use for expiration, for testing purposes.
+	 */
+	void setTicker(LongSupplier ticker) {
+		this.ticker = ticker;
+	}
+
+
+	@Override
+	@Nullable
+	protected Object lookup(Object key) {
+		Node node = getLiveNode(key);
+		if (node == null) {
+			this.missCount.increment();
+			return null;
+		}
+		this.hitCount.increment();
+		recordAccess(node);
+		return node.value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		Node node = getLiveNode(key);
+		if (node != null) {
+			this.hitCount.increment();
+			recordAccess(node);
+			return (T) fromStoreValue(node.value);
+		}
+
+		this.missCount.increment();
+		Node[] replaced = new Node[2];
+		node = this.store.compute(key, (k, existing) -> {
+			if (existing != null && !isExpired(existing, this.ticker.getAsLong())) {
+				return existing;
+			}
+			Object value;
+			try {
+				value = toStoreValue(valueLoader.call());
+			}
+			catch (Throwable ex) {
+				throw new ValueRetrievalException(key, valueLoader, ex);
+			}
+			replaced[0] = existing;
+			replaced[1] = createNode(key, value);
+			return replaced[1];
+		});
+		if (replaced[1] != null) {
+			if (replaced[0] != null) {
+				this.expirationCount.increment();
+			}
+			afterWrite(replaced[1], replaced[0]);
+		}
+		return (T) fromStoreValue(node.value);
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		Node node = createNode(key, toStoreValue(value));
+		Node previous = this.store.put(key, node);
+		afterWrite(node, previous);
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		Node node = createNode(key, toStoreValue(value));
+		while (true) {
+			Node existing = this.store.putIfAbsent(key, node);
+			if (existing == null) {
+				afterWrite(node, null);
+				return null;
+			}
+			if (!isExpired(existing, this.ticker.getAsLong())) {
+				recordAccess(existing);
+				return toValueWrapper(existing.value);
+			}
+			if (this.store.replace(key, existing, node)) {
+				this.expirationCount.increment();
+				afterWrite(node, existing);
+				return null;
+			}
+		}
+	}
+
+	@Override
+	public void evict(Object key) {
+		evictIfPresent(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		Node node = this.store.remove(key);
+		if (node != null) {
+			afterRemoval(node);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		invalidate();
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean notEmpty = false;
+		for (Node node : this.store.values()) {
+			if (this.store.remove(node.key, node)) {
+				afterRemoval(node);
+				notEmpty = true;
+			}
+		}
+		return notEmpty;
+	}
+
+
+	private Node createNode(Object key, Object storeValue) {
+		long weight = (this.weigher != null ? this.weigher.applyAsLong(key, storeValue) : 1);
+		Assert.isTrue(weight >= 0, "Weight must not be negative");
+		return new Node(key, storeValue, weight, this.ticker.getAsLong());
+	}
+
+	/**
+	 * Return the node for the given key, removing it if it has expired.
+	 */
+	@Nullable
+	private Node getLiveNode(Object key) {
+		Node node = this.store.get(key);
+		if (node != null && isExpired(node, this.ticker.getAsLong())) {
+			if (this.store.remove(key, node)) {
+				this.expirationCount.increment();
+				afterRemoval(node);
+			}
+			return null;
+		}
+		return node;
+	}
+
+	private boolean isExpired(Node node, long now) {
+		return (this.timeToLiveNanos > 0 && now - node.writeTime >= this.timeToLiveNanos);
+	}
+
+	/**
+	 * Promote the given node in the eviction policy, unless another thread
+	 * currently holds the lock.
+	 */
+	private void recordAccess(Node node) {
+		if (this.evictionLock.tryLock()) {
+			try {
+				if (node.segment == this.probation) {
+					this.probation.unlink(node);
+					this.protectedSegment.linkLast(node);
+					demoteProtected();
+				}
+				else if (node.segment == this.protectedSegment) {
+					this.protectedSegment.unlink(node);
+					this.protectedSegment.linkLast(node);
+				}
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	private void afterWrite(Node node, @Nullable Node previous) {
+		this.evictionLock.lock();
+		try {
+			if (previous != null) {
+				unlink(previous);
+			}
+			if (!node.removed) {
+				this.probation.linkLast(node);
+				this.totalWeight += node.weight;
+				evict();
+			}
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	private void afterRemoval(Node node) {
+		this.evictionLock.lock();
+		try {
+			unlink(node);
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Unlink the given node from the eviction policy, or mark it as removed
+	 * if its write has not been recorded yet.
+	 */
+	private void unlink(Node node) {
+		if (node.segment != null) {
+			node.segment.unlink(node);
+			this.totalWeight -= node.weight;
+		}
+		node.removed = true;
+	}
+
+	private void demoteProtected() {
+		long maxCount = (long) (this.maximumSize * PROTECTED_RATIO);
+		long maxWeight = (long) (this.maximumWeight * PROTECTED_RATIO);
+		while (this.protectedSegment.head != null &&
+				(this.protectedSegment.count > maxCount || this.protectedSegment.weight > maxWeight)) {
+			Node node = this.protectedSegment.head;
+			this.protectedSegment.unlink(node);
+			this.probation.linkLast(node);
+		}
+	}
+
+	private void evict() {
+		while (this.store.size() > this.maximumSize || this.totalWeight > this.maximumWeight) {
+			Node victim = (this.probation.head != null ? this.probation.head : this.protectedSegment.head);
+			if (victim == null) {
+				break;
+			}
+			unlink(victim);
+			if (this.store.remove(victim.key, victim)) {
+				this.evictionCount.increment();
+			}
+		}
+	}
+
+
+	/**
+	 * A cache entry, also serving as a node in the doubly-linked list of
+	 * its segment. Links are guarded by the eviction lock.
+	 */
+	private static final class Node {
+
+		final Object key;
+
+		final Object value;
+
+		final long weight;
+
+		final long writeTime;
+
+		@Nullable
+		Segment segment;
+
+		@Nullable
+		Node prev;
+
+		@Nullable
+		Node next;
+
+		boolean removed;
+
+		Node(Object key, Object value, long weight, long writeTime) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.writeTime = writeTime;
+		}
+	}
+
+
+	/**
+	 * An LRU-ordered segment of the eviction policy, from least recently
+	 * used (head) to most recently used (tail).
+	 */
+	private static final class Segment {
+
+		@Nullable
+		Node head;
+
+		@Nullable
+		Node tail;
+
+		long count;
+
+		long weight;
+
+		void linkLast(Node node) {
+			node.segment = this;
+			node.prev = this.tail;
+			node.next = null;
+			if (this.tail != null) {
+				this.tail.next = node;
+			}
+			else {
+				this.head = node;
+			}
+			this.tail = node;
+			this.count++;
+			this.weight += node.weight;
+		}
+
+		void unlink(Node node) {
+			if (node.prev != null) {
+				node.prev.next = node.next;
+			}
+			else {
+				this.head = node.next;
+			}
+			if (node.next != null) {
+				node.next.prev = node.prev;
+			}
+			else {
+				this.tail = node.prev;
+			}
+			node.segment = null;
+			node.prev = null;
+			node.next = null;
+			this.count--;
+			this.weight -= node.weight;
+		}
+	}
+
+}
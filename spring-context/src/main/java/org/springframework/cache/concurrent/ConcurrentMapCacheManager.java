@@ -16,12 +16,14 @@
 
 package org.springframework.cache.concurrent;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToLongBiFunction;
 
 import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.cache.Cache;
@@ -35,7 +37,11 @@ import org.springframework.lang.Nullable;
  * the set of cache names is pre-defined through {@link #setCacheNames}, with no
  * dynamic creation of further cache regions at runtime.
  *
- * <p>Note: This is by no means a sophisticated CacheManager; it comes with no
+ * <p>Caches are unbounded by default. Specifying a {@link #setMaximumSize maximum size},
+ * {@link #setMaximumWeight maximum weight} or {@link #setTimeToLive time to live}
+ * switches to {@link BoundedConcurrentMapCache} instances instead.
+ *
+ * <p>Note: This is by no means a sophisticated CacheManager; it comes with few
  * cache configuration options. However, it may be useful for testing or simple
  * caching scenarios. For advanced local caching needs, consider
  * {@link org.springframework.cache.jcache.JCacheCacheManager},
@@ -56,6 +62,16 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 
 	private boolean storeByValue = false;
 
+	private long maximumSize;
+
+	private long maximumWeight;
+
+	@Nullable
+	private ToLongBiFunction<Object, Object> weigher;
+
+	@Nullable
+	private Duration timeToLive;
+
 	@Nullable
 	private SerializationDelegate serialization;
 
@@ -146,6 +162,58 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 		return this.storeByValue;
 	}
 
+	/**
+	 * Specify the maximum number of entries per cache, evicting entries
+	 * according to a segmented LRU policy when exceeded.
+	 * <p>Default is 0, i.e. no limit.
+	 * <p>Note: A change of this setting will reset all existing caches,
+	 * if any, to reconfigure them with the new bounds.
+	 * @since 5.2.2
+	 * @see BoundedConcurrentMapCache
+	 */
+	public void setMaximumSize(long maximumSize) {
+		this.maximumSize = maximumSize;
+		recreateCaches();
+	}
+
+	/**
+	 * Specify the maximum total weight of the entries per cache, as determined
+	 * by the {@link #setWeigher weigher}, evicting entries according to a
+	 * segmented LRU policy when exceeded.
+	 * <p>Default is 0, i.e. no limit.
+	 * <p>Note: A change of this setting will reset all existing caches,
+	 * if any, to reconfigure them with the new bounds.
+	 * @since 5.2.2
+	 * @see BoundedConcurrentMapCache
+	 */
+	public void setMaximumWeight(long maximumWeight) {
+		this.maximumWeight = maximumWeight;
+		recreateCaches();
+	}
+
+	/**
+	 * Specify the function to determine the weight of a cache entry from its
+	 * key and store value, for use with a {@link #setMaximumWeight maximum weight}.
+	 * @since 5.2.2
+	 */
+	public void setWeigher(@Nullable ToLongBiFunction<Object, Object> weigher) {
+		this.weigher = weigher;
+		recreateCaches();
+	}
+
+	/**
+	 * Specify the time after which cache entries expire once written.
+	 * <p>Default is none, i.e. no expiration.
+	 * <p>Note: A change of this setting will reset all existing caches,
+	 * if any, to reconfigure them with the new expiration.
+	 * @since 5.2.2
+	 * @see BoundedConcurrentMapCache
+	 */
+	public void setTimeToLive(@Nullable Duration timeToLive) {
+		this.timeToLive = timeToLive;
+		recreateCaches();
+	}
+
 	@Override
 	public void setBeanClassLoader(ClassLoader classLoader) {
 		this.serialization = new SerializationDelegate(classLoader);
@@ -189,6 +257,13 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 	 * @return the ConcurrentMapCache (or a decorator thereof)
 	 */
 	protected Cache createConcurrentMapCache(String name) {
+		if (this.maximumSize > 0 || this.maximumWeight > 0 || this.timeToLive != null) {
+			if (isStoreByValue()) {
+				throw new IllegalStateException("Store-by-value is not supported for bounded caches");
+			}
+			return new BoundedConcurrentMapCache(name, this.maximumSize, this.maximumWeight,
+					this.weigher, this.timeToLive, isAllowNullValues());
+		}
 		SerializationDelegate actualSerialization = (isStoreByValue() ? this.serialization : null);
 		return new ConcurrentMapCache(name, new ConcurrentHashMap<>(256),
 				isAllowNullValues(), actualSerialization);
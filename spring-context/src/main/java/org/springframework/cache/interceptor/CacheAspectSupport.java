@@ -21,15 +21,24 @@ import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.support.AopUtils;
@@ -44,6 +53,11 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.SpringProperties;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -83,6 +97,25 @@ import org.springframework.util.function.SupplierUtils;
 public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		implements BeanFactoryAware, InitializingBean, SmartInitializingSingleton {
 
+	/**
+	 * System property that instructs Spring's caching infrastructure to cache
+	 * the values produced by methods returning an asynchronous type, rather than
+	 * the returned object itself: {@code "spring.cache.reactivestreams"}.
+	 * <p>For a {@code CompletableFuture} or {@code CompletionStage}, the completed
+	 * value gets cached, with concurrent misses for the same key sharing a single
+	 * invocation. For a reactive type such as {@code Mono} or {@code Flux}, the
+	 * method invocation as well as all cache operations are deferred until
+	 * subscription, and multi-value types are cached as a {@code List} of their
+	 * emitted values. The default is "false", caching the future or publisher
+	 * as returned, just like any other return value.
+	 * @since 5.2.2
+	 */
+	public static final String REACTIVE_CACHING_PROPERTY_NAME = "spring.cache.reactivestreams";
+
+	private static final boolean reactorPresent = ClassUtils.isPresent(
+			"reactor.core.publisher.Mono", CacheAspectSupport.class.getClassLoader());
+
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private final Map<CacheOperationCacheKey, CacheOperationMetadata> metadataCache = new ConcurrentHashMap<>(1024);
@@ -102,6 +135,14 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 	private boolean initialized = false;
 
+	private final Map<Object, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>(64);
+
+	private final boolean asyncCaching = SpringProperties.getFlag(REACTIVE_CACHING_PROPERTY_NAME);
+
+	@Nullable
+	private final ReactiveCachingHandler reactiveCachingHandler =
+			(reactorPresent && this.asyncCaching ? new ReactiveCachingHandler() : null);
+
 
 	/**
 	 * Configure this aspect with the given error handler, key generator and cache resolver/manager
@@ -371,8 +412,29 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 	@Nullable
 	private Object execute(final CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
-		// Special handling of synchronized invocation
-		if (contexts.isSynchronized()) {
+		// Special handling of asynchronous return types
+		Class<?> returnType = method.getReturnType();
+		if (this.asyncCaching && (returnType == CompletableFuture.class || returnType == CompletionStage.class)) {
+			return executeAsync(contexts, () -> {
+				Object returnValue = invokeOperation(invoker);
+				return (returnValue != null ? ((CompletionStage<?>) returnValue).toCompletableFuture() :
+						CompletableFuture.completedFuture(null));
+			});
+		}
+		if (this.reactiveCachingHandler != null) {
+			ReactiveAdapter adapter = ReactiveAdapterRegistry.getSharedInstance().getAdapter(returnType);
+			if (adapter != null && !adapter.isNoValue()) {
+				return this.reactiveCachingHandler.execute(invoker, adapter, contexts);
+			}
+		}
+
+		// Special handling of batch invocation
+		if (contexts.isBatch()) {
+			return executeBatch(invoker, method, contexts);
+		}
+
+		// Special handling of synchronized invocation that the cache can take care of
+		if (contexts.isSynchronizedOnCache()) {
 			CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
 			if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
 				Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
@@ -392,7 +454,6 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			}
 		}
 
-
 		// Process any early evictions
 		processCacheEvicts(contexts.get(CacheEvictOperation.class), true,
 				CacheOperationExpressionEvaluator.NO_RESULT);
@@ -415,6 +476,12 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			cacheValue = cacheHit.get();
 			returnValue = wrapCacheValue(method, cacheValue);
 		}
+		else if (contexts.isSynchronized() && !cachePutRequests.isEmpty() && !hasCachePut(contexts)) {
+			// Share a single invocation between concurrent misses for the same keys
+			cacheValue = invokeOperationOnce(invoker, contexts.get(CacheableOperation.class), cachePutRequests);
+			returnValue = wrapCacheValue(method, cacheValue);
+			cachePutRequests.clear();
+		}
 		else {
 			// Invoke the method if we don't have a cache hit
 			returnValue = invokeOperation(invoker);
@@ -435,6 +502,269 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return returnValue;
 	}
 
+	/**
+	 * Execute a {@link CacheableOperation#isBatch() batch} operation: look up the
+	 * requested keys in bulk, invoke the method for the missing keys only, and
+	 * store the loaded entries in bulk.
+	 * <p>The method is invoked with a copy of the arguments that holds a collection
+	 * of the missing keys in place of the requested keys, through
+	 * {@link CacheOperationInvoker#invoke(Object[])}. If the invoker does not
+	 * support different arguments, the method gets invoked with all requested
+	 * keys, which is less efficient but yields the same result.
+	 */
+	@Nullable
+	private Object executeBatch(CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
+		CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
+		int keysIndex = contexts.getBatchKeysIndex();
+		Object[] args = context.getArgs();
+		Collection<?> requestedKeys = (Collection<?>) args[keysIndex];
+		if (requestedKeys == null || !isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+			// No caching required, only call the underlying method
+			return invokeOperation(invoker);
+		}
+
+		Set<Object> keys = new LinkedHashSet<>(requestedKeys);
+		Map<Object, Object> cachedEntries = new HashMap<>(keys.size());
+		Set<Object> missingKeys = new LinkedHashSet<>(keys);
+		for (Cache cache : context.getCaches()) {
+			if (missingKeys.isEmpty()) {
+				break;
+			}
+			Map<Object, Cache.ValueWrapper> cacheHits = doGetAll(cache, missingKeys);
+			for (Map.Entry<Object, Cache.ValueWrapper> cacheHit : cacheHits.entrySet()) {
+				cachedEntries.put(cacheHit.getKey(), cacheHit.getValue().get());
+				missingKeys.remove(cacheHit.getKey());
+			}
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Found " + cachedEntries.size() + " of " + keys.size() + " keys in cache(s) " +
+					context.getCacheNames() + " for batch operation " + context.metadata.operation);
+		}
+
+		Map<?, ?> loadedEntries = Collections.emptyMap();
+		if (!missingKeys.isEmpty()) {
+			ResolvableType keysType = ResolvableType.forMethodParameter(method, keysIndex);
+			Collection<Object> keysToLoad = CollectionFactory.createCollection(
+					keysType.resolve(Collection.class), keysType.asCollection().resolveGeneric(), missingKeys.size());
+			keysToLoad.addAll(missingKeys);
+			Object[] loadArgs = args.clone();
+			loadArgs[keysIndex] = keysToLoad;
+			Object returnValue = invokeOperation(() -> invoker.invoke(loadArgs));
+			if (returnValue != null) {
+				loadedEntries = (Map<?, ?>) returnValue;
+				if (!loadedEntries.isEmpty()) {
+					for (Cache cache : context.getCaches()) {
+						doPutAll(cache, loadedEntries);
+					}
+				}
+			}
+		}
+
+		Map<Object, Object> result = CollectionFactory.createMap(method.getReturnType(), keys.size());
+		for (Object key : keys) {
+			if (cachedEntries.containsKey(key)) {
+				result.put(key, cachedEntries.get(key));
+			}
+			else if (loadedEntries.containsKey(key)) {
+				result.put(key, loadedEntries.get(key));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Invoke the underlying method for a synchronized cache miss, unless a
+	 * concurrent invocation for the same keys and caches is in progress already,
+	 * in which case its outcome is awaited and shared.
+	 * <p>Used if the synchronization cannot be left to the cache, i.e. for
+	 * several caches or operations, or with an {@code unless} condition.
+	 * <p>The thread that performs the invocation applies the given put requests
+	 * before publishing the value, so that later callers find it in the cache.
+	 * A re-entrant invocation for the same key from within the method itself
+	 * is not shared but performed directly, since it could never complete.
+	 * @param invoker the invoker for the underlying method
+	 * @param cacheableContexts the contexts of the missed cacheable operations,
+	 * checked again once this invocation is registered
+	 * @param cachePutRequests the put requests of the missed cache operations
+	 * @return the value to cache, as computed by this or a concurrent invocation
+	 */
+	@Nullable
+	private Object invokeOperationOnce(CacheOperationInvoker invoker,
+			Collection<CacheOperationContext> cacheableContexts, List<CachePutRequest> cachePutRequests) {
+
+		Object loadKey = getLoadKey(cachePutRequests);
+		SynchronizedLoad load = new SynchronizedLoad();
+		CompletableFuture<Object> inFlight = this.inFlightLoads.putIfAbsent(loadKey, load);
+		if (inFlight instanceof SynchronizedLoad && ((SynchronizedLoad) inFlight).isLoadingThread()) {
+			Object cacheValue = unwrapReturnValue(invokeOperation(invoker));
+			for (CachePutRequest cachePutRequest : cachePutRequests) {
+				cachePutRequest.apply(cacheValue);
+			}
+			return cacheValue;
+		}
+		if (inFlight != null) {
+			return awaitLoad(inFlight);
+		}
+		try {
+			Object cacheValue;
+			// A concurrent invocation may have completed between our cache miss and its registration
+			Cache.ValueWrapper cacheHit = findCachedItem(cacheableContexts);
+			if (cacheHit != null) {
+				cacheValue = cacheHit.get();
+			}
+			else {
+				cacheValue = unwrapReturnValue(invokeOperation(invoker));
+				for (CachePutRequest cachePutRequest : cachePutRequests) {
+					cachePutRequest.apply(cacheValue);
+				}
+			}
+			load.complete(cacheValue);
+			return cacheValue;
+		}
+		catch (CacheOperationInvoker.ThrowableWrapper ex) {
+			load.completeExceptionally(ex.getOriginal());
+			throw ex;
+		}
+		catch (RuntimeException | Error ex) {
+			load.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.inFlightLoads.remove(loadKey, load);
+		}
+	}
+
+	/**
+	 * Return a key identifying loads for the keys and caches of all given
+	 * put requests.
+	 */
+	private static Object getLoadKey(List<CachePutRequest> cachePutRequests) {
+		if (cachePutRequests.size() == 1) {
+			return cachePutRequests.get(0).getLoadKey();
+		}
+		List<Object> loadKeys = new ArrayList<>(cachePutRequests.size());
+		for (CachePutRequest cachePutRequest : cachePutRequests) {
+			loadKeys.add(cachePutRequest.getLoadKey());
+		}
+		return new SimpleKey(loadKeys);
+	}
+
+	/**
+	 * Wait for the given in-flight invocation, responsive to interruption.
+	 * @param inFlight the invocation to wait for
+	 * @return the value computed by the invocation
+	 */
+	@Nullable
+	private Object awaitLoad(CompletableFuture<Object> inFlight) {
+		try {
+			return inFlight.get();
+		}
+		catch (ExecutionException ex) {
+			throw new CacheOperationInvoker.ThrowableWrapper(ex.getCause() != null ? ex.getCause() : ex);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for concurrent invocation", ex);
+		}
+	}
+
+	/**
+	 * Execute the given cache operations for a method with an asynchronous
+	 * result, without blocking on either the cache or the method invocation.
+	 * Concurrent misses for the same key and caches share a single invocation.
+	 * @param contexts the cache operation contexts
+	 * @param loader the method invocation, adapted to a future for the value
+	 * to cache (typically invoking the method on first access only)
+	 * @return a future for the cached or loaded value
+	 */
+	private CompletableFuture<Object> executeAsync(CacheOperationContexts contexts,
+			Supplier<CompletableFuture<?>> loader) {
+
+		// Process any early evictions
+		processCacheEvicts(contexts.get(CacheEvictOperation.class), true,
+				CacheOperationExpressionEvaluator.NO_RESULT);
+
+		return findCachedItemAsync(contexts.get(CacheableOperation.class)).thenCompose(cacheHit -> {
+			if (cacheHit != null && !hasCachePut(contexts)) {
+				return CompletableFuture.completedFuture(cacheHit.get());
+			}
+			// Collect puts from any @Cacheable miss
+			List<CachePutRequest> cachePutRequests = new LinkedList<>();
+			if (cacheHit == null) {
+				collectPutRequests(contexts.get(CacheableOperation.class),
+						CacheOperationExpressionEvaluator.NO_RESULT, cachePutRequests);
+			}
+			Object loadKey = (cacheHit == null && !cachePutRequests.isEmpty() ?
+					getLoadKey(cachePutRequests) : null);
+			return loadAsync(contexts, loader, cachePutRequests, loadKey);
+		});
+	}
+
+	private CompletableFuture<Cache.ValueWrapper> findCachedItemAsync(Collection<CacheOperationContext> contexts) {
+		CompletableFuture<Cache.ValueWrapper> result = CompletableFuture.completedFuture(null);
+		for (CacheOperationContext context : contexts) {
+			if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+				Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
+				for (Cache cache : context.getCaches()) {
+					result = result.thenCompose(cached ->
+							(cached != null ? CompletableFuture.completedFuture(cached) : doRetrieve(cache, key)));
+				}
+			}
+		}
+		return result;
+	}
+
+	private CompletableFuture<Object> loadAsync(CacheOperationContexts contexts,
+			Supplier<CompletableFuture<?>> loader, List<CachePutRequest> cachePutRequests, @Nullable Object loadKey) {
+
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		if (loadKey != null) {
+			CompletableFuture<Object> inFlight = this.inFlightLoads.putIfAbsent(loadKey, future);
+			if (inFlight != null) {
+				return inFlight.thenApply(Function.identity());
+			}
+		}
+		CompletableFuture<?> loaded;
+		try {
+			loaded = loader.get();
+		}
+		catch (CacheOperationInvoker.ThrowableWrapper ex) {
+			loaded = new CompletableFuture<>();
+			loaded.completeExceptionally(ex.getOriginal());
+		}
+		catch (Throwable ex) {
+			loaded = new CompletableFuture<>();
+			loaded.completeExceptionally(ex);
+		}
+		loaded.whenComplete((result, ex) -> {
+			Throwable failure = ex;
+			if (failure == null) {
+				try {
+					// Collect any explicit @CachePuts, and process all put requests and late evictions
+					collectPutRequests(contexts.get(CachePutOperation.class), result, cachePutRequests);
+					for (CachePutRequest cachePutRequest : cachePutRequests) {
+						cachePutRequest.apply(result);
+					}
+					processCacheEvicts(contexts.get(CacheEvictOperation.class), false, result);
+				}
+				catch (Throwable cacheEx) {
+					failure = cacheEx;
+				}
+			}
+			if (loadKey != null) {
+				this.inFlightLoads.remove(loadKey, future);
+			}
+			if (failure != null) {
+				future.completeExceptionally(failure);
+			}
+			else {
+				future.complete(result);
+			}
+		});
+		// Hand out a dependent future, so that callers cannot complete or cancel the shared one
+		return future.thenApply(Function.identity());
+	}
+
 	@Nullable
 	private Object wrapCacheValue(Method method, @Nullable Object cacheValue) {
 		if (method.getReturnType() == Optional.class &&
@@ -590,6 +920,10 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final boolean sync;
 
+		private final boolean syncOnCache;
+
+		private final int batchKeysIndex;
+
 		public CacheOperationContexts(Collection<? extends CacheOperation> operations, Method method,
 				Object[] args, Object target, Class<?> targetClass) {
 
@@ -597,7 +931,9 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			for (CacheOperation op : operations) {
 				this.contexts.add(op.getClass(), getOperationContext(op, method, args, target, targetClass));
 			}
-			this.sync = determineSyncFlag(method);
+			this.sync = determineSyncFlag();
+			this.syncOnCache = (this.sync && determineSyncOnCacheFlag());
+			this.batchKeysIndex = determineBatchKeysIndex(method);
 		}
 
 		public Collection<CacheOperationContext> get(Class<? extends CacheOperation> operationClass) {
@@ -609,40 +945,102 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			return this.sync;
 		}
 
-		private boolean determineSyncFlag(Method method) {
+		/**
+		 * Return whether the synchronization can be left to
+		 * {@link Cache#get(Object, java.util.concurrent.Callable)}, i.e. whether
+		 * a single synchronized operation on a single cache is to be performed,
+		 * without an {@code unless} condition.
+		 */
+		public boolean isSynchronizedOnCache() {
+			return this.syncOnCache;
+		}
+
+		public boolean isBatch() {
+			return (this.batchKeysIndex >= 0);
+		}
+
+		public int getBatchKeysIndex() {
+			return this.batchKeysIndex;
+		}
+
+		private boolean determineSyncFlag() {
 			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
 			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
 				return false;
 			}
-			boolean syncEnabled = false;
 			for (CacheOperationContext cacheOperationContext : cacheOperationContexts) {
 				if (((CacheableOperation) cacheOperationContext.getOperation()).isSync()) {
-					syncEnabled = true;
-					break;
+					return true;
 				}
 			}
-			if (syncEnabled) {
-				if (this.contexts.size() > 1) {
-					throw new IllegalStateException(
-							"@Cacheable(sync=true) cannot be combined with other cache operations on '" + method + "'");
-				}
-				if (cacheOperationContexts.size() > 1) {
-					throw new IllegalStateException(
-							"Only one @Cacheable(sync=true) entry is allowed on '" + method + "'");
-				}
-				CacheOperationContext cacheOperationContext = cacheOperationContexts.iterator().next();
-				CacheableOperation operation = (CacheableOperation) cacheOperationContext.getOperation();
-				if (cacheOperationContext.getCaches().size() > 1) {
-					throw new IllegalStateException(
-							"@Cacheable(sync=true) only allows a single cache on '" + operation + "'");
+			return false;
+		}
+
+		private boolean determineSyncOnCacheFlag() {
+			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
+			if (cacheOperationContexts == null || this.contexts.size() > 1 || cacheOperationContexts.size() > 1) {
+				return false;
+			}
+			CacheOperationContext cacheOperationContext = cacheOperationContexts.get(0);
+			return (cacheOperationContext.getCaches().size() == 1 &&
+					!StringUtils.hasText(((CacheableOperation) cacheOperationContext.getOperation()).getUnless()));
+		}
+
+		private int determineBatchKeysIndex(Method method) {
+			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
+			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
+				return -1;
+			}
+			CacheableOperation operation = null;
+			for (CacheOperationContext cacheOperationContext : cacheOperationContexts) {
+				if (((CacheableOperation) cacheOperationContext.getOperation()).isBatch()) {
+					operation = (CacheableOperation) cacheOperationContext.getOperation();
+					break;
 				}
-				if (StringUtils.hasText(operation.getUnless())) {
-					throw new IllegalStateException(
-							"@Cacheable(sync=true) does not support unless attribute on '" + operation + "'");
+			}
+			if (operation == null) {
+				return -1;
+			}
+			if (this.contexts.size() > 1 || cacheOperationContexts.size() > 1) {
+				throw new IllegalStateException(
+						"@Cacheable(batch=true) cannot be combined with other cache operations on '" + method + "'");
+			}
+			if (operation.isSync()) {
+				throw new IllegalStateException(
+						"@Cacheable(batch=true) cannot be combined with sync attribute on '" + operation + "'");
+			}
+			if (StringUtils.hasText(operation.getUnless())) {
+				throw new IllegalStateException(
+						"@Cacheable(batch=true) does not support unless attribute on '" + operation + "'");
+			}
+			if (StringUtils.hasText(operation.getKey())) {
+				throw new IllegalStateException(
+						"@Cacheable(batch=true) does not support key attribute on '" + operation + "'");
+			}
+			if (StringUtils.hasText(operation.getKeyGenerator())) {
+				throw new IllegalStateException(
+						"@Cacheable(batch=true) does not support keyGenerator attribute on '" + operation + "'");
+			}
+			if (!Map.class.isAssignableFrom(method.getReturnType())) {
+				throw new IllegalStateException(
+						"@Cacheable(batch=true) requires a Map return type on '" + method + "'");
+			}
+			int keysIndex = -1;
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			for (int i = 0; i < parameterTypes.length; i++) {
+				if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+					if (keysIndex >= 0) {
+						keysIndex = -1;
+						break;
+					}
+					keysIndex = i;
 				}
-				return true;
 			}
-			return false;
+			if (keysIndex < 0) {
+				throw new IllegalStateException(
+						"@Cacheable(batch=true) requires a single Collection parameter on '" + method + "'");
+			}
+			return keysIndex;
 		}
 	}
 
@@ -821,6 +1219,27 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 				}
 			}
 		}
+
+		/**
+		 * Return a key identifying loads for the same key and caches.
+		 */
+		public Object getLoadKey() {
+			return new SimpleKey(this.context.getCaches(), this.key);
+		}
+	}
+
+
+	/**
+	 * An in-flight invocation for a synchronized cache miss, remembering the
+	 * thread that performs it.
+	 */
+	private static final class SynchronizedLoad extends CompletableFuture<Object> {
+
+		private final Thread thread = Thread.currentThread();
+
+		public boolean isLoadingThread() {
+			return (this.thread == Thread.currentThread());
+		}
 	}
 
 
@@ -868,4 +1287,65 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		}
 	}
 
+
+	/**
+	 * Inner class to avoid a hard dependency on Project Reactor at runtime.
+	 * Handles methods returning a reactive type that can be adapted through
+	 * the {@link ReactiveAdapterRegistry}, deferring all cache operations to
+	 * subscription time and caching the emitted value (for
+	 * single-value types) or the list of emitted values (for multi-value types).
+	 */
+	private class ReactiveCachingHandler {
+
+		@SuppressWarnings("unchecked")
+		public Object execute(CacheOperationInvoker invoker, ReactiveAdapter adapter, CacheOperationContexts contexts) {
+			// Invoke the method at most once, even if subscribed to several times
+			MemoizedInvocation invocation = new MemoizedInvocation(invoker);
+			if (adapter.isMultiValue()) {
+				Flux<Object> flux = Mono.defer(() -> Mono.fromFuture(executeAsync(contexts, () -> {
+					Object returnValue = invocation.invoke();
+					return (returnValue != null ? Flux.from(adapter.toPublisher(returnValue)) : Flux.empty())
+							.collectList().toFuture();
+				}))).flatMapMany(values -> Flux.fromIterable((Iterable<Object>) values));
+				return adapter.fromPublisher(flux);
+			}
+			else {
+				Mono<Object> mono = Mono.defer(() -> Mono.fromFuture(executeAsync(contexts, () -> {
+					Object returnValue = invocation.invoke();
+					return (returnValue != null ? Mono.from(adapter.toPublisher(returnValue)) : Mono.empty())
+							.toFuture();
+				})));
+				return adapter.fromPublisher(mono);
+			}
+		}
+	}
+
+
+	/**
+	 * Invocation of a cached method that happens at most once, also keeping
+	 * a {@code null} return value rather than invoking the method again.
+	 */
+	private class MemoizedInvocation {
+
+		private final CacheOperationInvoker invoker;
+
+		private boolean invoked;
+
+		@Nullable
+		private Object returnValue;
+
+		public MemoizedInvocation(CacheOperationInvoker invoker) {
+			this.invoker = invoker;
+		}
+
+		@Nullable
+		public synchronized Object invoke() {
+			if (!this.invoked) {
+				this.returnValue = invokeOperation(this.invoker);
+				this.invoked = true;
+			}
+			return this.returnValue;
+		}
+	}
+
 }
@@ -16,6 +16,10 @@
 
 package org.springframework.cache.support;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.cache.Cache;
 import org.springframework.lang.Nullable;
 
@@ -71,6 +75,23 @@ public abstract class AbstractValueAdaptingCache implements Cache {
 		return (T) value;
 	}
 
+	/**
+	 * This implementation performs a {@link #lookup} for each key.
+	 * Subclasses are encouraged to override this method if the underlying
+	 * store supports bulk lookups, see {@link #toValueWrappers(Map)}.
+	 */
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size());
+		for (Object key : keys) {
+			ValueWrapper value = toValueWrapper(lookup(key));
+			if (value != null) {
+				result.put(key, value);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Perform an actual lookup in the underlying store.
 	 * @param key the key whose associated value is to be returned
@@ -123,5 +144,38 @@ public abstract class AbstractValueAdaptingCache implements Cache {
 		return (storeValue != null ? new SimpleValueWrapper(fromStoreValue(storeValue)) : null);
 	}
 
+	/**
+	 * Wrap the given store values, as returned from a bulk lookup, through
+	 * {@link #toValueWrapper}. Useful for {@link #getAll(Collection)}
+	 * implementations.
+	 * @param storeValues the original values, keyed by cache key
+	 * @return the wrapped values for all non-null store values
+	 * @since 5.2.2
+	 */
+	protected Map<Object, ValueWrapper> toValueWrappers(Map<?, ?> storeValues) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(storeValues.size());
+		storeValues.forEach((key, storeValue) -> {
+			ValueWrapper value = toValueWrapper(storeValue);
+			if (value != null) {
+				result.put(key, value);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Convert the given user values, as passed into the putAll method,
+	 * to values in the internal store through {@link #toStoreValue}.
+	 * Useful for {@link #putAll(Map)} implementations.
+	 * @param userValues the given user values, keyed by cache key
+	 * @return the values to store
+	 * @since 5.2.2
+	 */
+	protected Map<Object, Object> toStoreValues(Map<?, ?> userValues) {
+		Map<Object, Object> result = new LinkedHashMap<>(userValues.size());
+		userValues.forEach((key, userValue) -> result.put(key, toStoreValue(userValue)));
+		return result;
+	}
+
 
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.StandardMethodMetadata;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * Build-time snapshot of the bean definitions derived from a set of
+ * {@link Configuration @Configuration} classes, allowing
+ * {@link ConfigurationClassPostProcessor} to register them directly instead
+ * of scanning the classpath, merging annotations and evaluating conditions
+ * on every startup.
+ *
+ * <p>Implementations are generated by {@link BeanDefinitionSnapshotGenerator}
+ * and named after the first root configuration class with a
+ * {@value #SNAPSHOT_CLASS_SUFFIX} suffix. They are not meant to be written
+ * by hand.
+ *
+ * <p>A snapshot is only used if its {@linkplain #getFingerprint() fingerprint}
+ * still matches the classpath, the active profiles and the values of the
+ * properties consulted during parsing at runtime; otherwise the configuration
+ * classes are parsed as usual. Snapshots can be ignored entirely
+ * by setting the {@value #IGNORE_SNAPSHOT_PROPERTY_NAME} property to "true".
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see BeanDefinitionSnapshotGenerator
+ * @see ConfigurationClassPostProcessor#processConfigBeanDefinitions
+ */
+public interface BeanDefinitionSnapshot {
+
+	/**
+	 * Suffix appended to the name of the first root configuration class to
+	 * derive the name of its snapshot class.
+	 */
+	String SNAPSHOT_CLASS_SUFFIX = "__BeanDefinitionSnapshot";
+
+	/**
+	 * System property that instructs Spring to ignore any bean definition
+	 * snapshot, i.e. to always parse configuration classes at runtime:
+	 * {@code -Dspring.snapshot.ignore=true}.
+	 * <p>May alternatively be configured via a {@code spring.properties}
+	 * file in the root of the classpath.
+	 * @see org.springframework.core.SpringProperties
+	 */
+	String IGNORE_SNAPSHOT_PROPERTY_NAME = "spring.snapshot.ignore";
+
+
+	/**
+	 * Return the names of the root configuration classes this snapshot has been
+	 * generated for, in the order they are processed.
+	 */
+	String[] getConfigurationClassNames();
+
+	/**
+	 * Return the resource locations (potentially containing patterns) whose
+	 * content checksums contribute to the {@linkplain #getFingerprint() fingerprint}.
+	 */
+	String[] getFingerprintLocations();
+
+	/**
+	 * Return the names of the {@code Environment} properties that have been
+	 * consulted while parsing the configuration classes, e.g. for resolving
+	 * placeholders in {@code @ComponentScan} or {@code @PropertySource}
+	 * locations. Their values contribute to the {@linkplain #getFingerprint()
+	 * fingerprint}.
+	 */
+	String[] getFingerprintPropertyNames();
+
+	/**
+	 * Return the fingerprint of the classpath and environment at generation time.
+	 */
+	String getFingerprint();
+
+	/**
+	 * Return the names of the classes declaring {@code @PropertySource}
+	 * annotations, in the order they have to be processed.
+	 */
+	String[] getPropertySourceClassNames();
+
+	/**
+	 * Return a map of imported class names to the name of the class that
+	 * imported them, for the purpose of {@link ImportAware} callbacks.
+	 */
+	Map<String, String> getImportingClassNames();
+
+	/**
+	 * Register the bean definitions of this snapshot with the given registry.
+	 * @param registry the registry to register the bean definitions with
+	 * @param classLoader the ClassLoader to resolve class-valued metadata against
+	 */
+	void registerBeanDefinitions(BeanDefinitionRegistry registry, @Nullable ClassLoader classLoader);
+
+
+
+	/**
+	 * {@link RootBeanDefinition} for a {@link Bean @Bean} method, exposing the
+	 * same {@link AnnotatedBeanDefinition} metadata as the bean definition that
+	 * configuration class parsing would have registered for it.
+	 * <p>Used by generated snapshots; not meant to be used directly.
+	 */
+	@SuppressWarnings("serial")
+	class BeanMethodDefinition extends RootBeanDefinition implements AnnotatedBeanDefinition {
+
+		private final AnnotationMetadata annotationMetadata;
+
+		private final MethodMetadata factoryMethodMetadata;
+
+		/**
+		 * Create a new BeanMethodDefinition for the given {@code @Bean} method.
+		 * @param configClass the configuration class that declares or inherits the method
+		 * @param beanMethod the {@code @Bean} method
+		 */
+		@SuppressWarnings("deprecation")
+		public BeanMethodDefinition(Class<?> configClass, Method beanMethod) {
+			this.annotationMetadata = AnnotationMetadata.introspect(configClass);
+			this.factoryMethodMetadata = new StandardMethodMetadata(beanMethod, true);
+		}
+
+		private BeanMethodDefinition(BeanMethodDefinition original) {
+			super(original);
+			this.annotationMetadata = original.annotationMetadata;
+			this.factoryMethodMetadata = original.factoryMethodMetadata;
+		}
+
+		@Override
+		public AnnotationMetadata getMetadata() {
+			return this.annotationMetadata;
+		}
+
+		@Override
+		@NonNull
+		public MethodMetadata getFactoryMethodMetadata() {
+			return this.factoryMethodMetadata;
+		}
+
+		@Override
+		public boolean isFactoryMethod(Method candidate) {
+			return (super.isFactoryMethod(candidate) && BeanAnnotationHelper.isBeanAnnotated(candidate));
+		}
+
+		@Override
+		public BeanMethodDefinition cloneBeanDefinition() {
+			return new BeanMethodDefinition(this);
+		}
+	}
+
+}
@@ -0,0 +1,985 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.ManagedArray;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.StandardMethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Build-time generator for {@link BeanDefinitionSnapshot} classes.
+ *
+ * <p>Processes the given root {@link Configuration @Configuration} classes the
+ * same way {@link ConfigurationClassPostProcessor} does at runtime, including
+ * component scanning, imports and condition evaluation, and writes the resulting
+ * bean definitions as Java source for a snapshot class. Compiling that class
+ * along with the application lets subsequent startups skip configuration class
+ * parsing as long as the relevant class files and active profiles are unchanged.
+ *
+ * <p>Typically invoked from the build after compiling the application classes,
+ * with the generated sources compiled in a second step. Class files are
+ * compared by content checksum at runtime, so the generator needs to see the
+ * class files that will be deployed, e.g. in the packaged jar file that the
+ * compiled snapshot gets added to:
+ * <pre class="code">
+ * java -cp ... org.springframework.context.annotation.BeanDefinitionSnapshotGenerator \
+ *     build/generated/snapshot com.example.AppConfig
+ * </pre>
+ *
+ * <p>Only declarative bean definition state can be captured. Bean definitions
+ * with instance suppliers, method overrides, qualifiers or property values of
+ * arbitrary object types are rejected with an {@link IllegalStateException}.
+ * The same applies to configurations using conditions other than
+ * {@link Profile @Profile}, since their outcome cannot be verified at startup.
+ * {@code Environment} properties consulted while parsing, e.g. for placeholders
+ * in {@code @ComponentScan} base packages, are recorded and their values become
+ * part of the fingerprint.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see BeanDefinitionSnapshot
+ */
+public class BeanDefinitionSnapshotGenerator {
+
+	private static final ThreadLocal<Set<String>> currentlyRecordedConditions =
+			new NamedThreadLocal<>("Conditions recorded for bean definition snapshot");
+
+	private static final Log logger = LogFactory.getLog(BeanDefinitionSnapshotGenerator.class);
+
+	private final Class<?>[] configClasses;
+
+	private ConfigurableEnvironment environment = new StandardEnvironment();
+
+	@Nullable
+	private ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+
+	/**
+	 * Create a new generator for the given root configuration classes.
+	 * @param configClasses the root configuration classes, as they will be
+	 * registered with the application context at runtime
+	 */
+	public BeanDefinitionSnapshotGenerator(Class<?>... configClasses) {
+		Assert.notEmpty(configClasses, "At least one configuration class is required");
+		this.configClasses = configClasses;
+	}
+
+
+	/**
+	 * Set the {@code Environment} to evaluate conditions and placeholders against.
+	 * <p>Default is a {@link StandardEnvironment}, i.e. profiles may be activated
+	 * through the {@code spring.profiles.active} system property.
+	 */
+	public void setEnvironment(ConfigurableEnvironment environment) {
+		Assert.notNull(environment, "Environment must not be null");
+		this.environment = environment;
+	}
+
+	/**
+	 * Set the ClassLoader to load configuration and bean classes with.
+	 */
+	public void setClassLoader(@Nullable ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+
+	/**
+	 * Generate the snapshot and write its source file to the given directory,
+	 * using the standard package directory layout.
+	 * @param sourceDirectory the root directory for generated sources
+	 * @return the path of the generated source file
+	 * @throws IOException if the configuration could not be processed or the
+	 * source file could not be written
+	 */
+	public Path writeTo(Path sourceDirectory) throws IOException {
+		SnapshotSourceWriter writer = new SnapshotSourceWriter(process());
+		Path file = sourceDirectory.resolve(
+				ClassUtils.convertClassNameToResourcePath(writer.getSnapshotClassName()) + ".java");
+		Files.createDirectories(file.getParent());
+		Files.write(file, writer.write().getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	/**
+	 * Return the fully qualified name of the snapshot class to be generated.
+	 * <p>Note that the root configuration classes are processed in
+	 * {@link org.springframework.core.annotation.Order @Order} sequence,
+	 * so the name is derived from the first class in that order.
+	 */
+	public String getSnapshotClassName() throws IOException {
+		return new SnapshotSourceWriter(process()).getSnapshotClassName();
+	}
+
+	/**
+	 * Process the configuration classes and generate the Java source of the snapshot.
+	 * @return the Java source code
+	 * @throws IOException if the configuration could not be processed
+	 * @throws IllegalStateException if a bean definition cannot be represented
+	 * in a snapshot
+	 */
+	public String generate() throws IOException {
+		return new SnapshotSourceWriter(process()).write();
+	}
+
+	private ProcessedConfiguration process() throws IOException {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.setEnvironment(this.environment);
+		context.setClassLoader(this.classLoader);
+		DefaultListableBeanFactory beanFactory = context.getDefaultListableBeanFactory();
+		new AnnotatedBeanDefinitionReader(context, this.environment).register(this.configClasses);
+
+		Map<String, BeanDefinition> existingDefinitions = new HashMap<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			existingDefinitions.put(beanName, beanFactory.getBeanDefinition(beanName));
+		}
+
+		AtomicReference<ConfigurationClassParser> parserHolder = new AtomicReference<>();
+		ConfigurationClassPostProcessor postProcessor = new ConfigurationClassPostProcessor();
+		postProcessor.setEnvironment(this.environment);
+		postProcessor.setResourceLoader(context);
+		if (this.classLoader != null) {
+			postProcessor.setBeanClassLoader(this.classLoader);
+		}
+		postProcessor.setSnapshotRecorder(parserHolder::set);
+		Set<String> conditions = new LinkedHashSet<>();
+		PropertyNameRecorder propertyNameRecorder = new PropertyNameRecorder();
+		MutablePropertySources propertySources = this.environment.getPropertySources();
+		propertySources.addFirst(propertyNameRecorder);
+		currentlyRecordedConditions.set(conditions);
+		try {
+			postProcessor.processConfigBeanDefinitions(beanFactory);
+		}
+		finally {
+			currentlyRecordedConditions.remove();
+			propertySources.remove(propertyNameRecorder.getName());
+		}
+		ConfigurationClassParser parser = parserHolder.get();
+		Assert.state(parser != null, "No @Configuration classes found in " + Arrays.toString(this.configClasses));
+		if (!conditions.isEmpty()) {
+			throw new IllegalStateException("Cannot generate bean definition snapshot for " +
+					Arrays.toString(this.configClasses) + ": conditions other than @Profile cannot be " +
+					"verified at startup " + conditions);
+		}
+
+		// Root configuration classes in processing order, as determined at runtime
+		List<BeanDefinition> rootDefinitions = new ArrayList<>();
+		Map<BeanDefinition, String> rootClassNames = new HashMap<>();
+		List<String> beanNames = new ArrayList<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition bd = beanFactory.getBeanDefinition(beanName);
+			BeanDefinition existing = existingDefinitions.get(beanName);
+			if (existing != bd) {
+				beanNames.add(beanName);
+			}
+			else if (bd.getAttribute(ConfigurationClassUtils.CONFIGURATION_CLASS_ATTRIBUTE) != null) {
+				rootDefinitions.add(bd);
+				rootClassNames.put(bd, bd.getBeanClassName());
+			}
+		}
+		rootDefinitions.sort((bd1, bd2) -> Integer.compare(
+				ConfigurationClassUtils.getOrder(bd1), ConfigurationClassUtils.getOrder(bd2)));
+		List<String> configClassNames = new ArrayList<>();
+		for (BeanDefinition bd : rootDefinitions) {
+			configClassNames.add(rootClassNames.get(bd));
+		}
+
+		// Classes and resources that determine the snapshot
+		Set<String> classNames = new LinkedHashSet<>(configClassNames);
+		Set<String> importedResources = new LinkedHashSet<>();
+		for (ConfigurationClass configClass : parser.getConfigurationClasses()) {
+			classNames.add(configClass.getMetadata().getClassName());
+			importedResources.addAll(configClass.getImportedResources().keySet());
+		}
+		for (String beanName : beanNames) {
+			String beanClassName = beanFactory.getBeanDefinition(beanName).getBeanClassName();
+			if (beanClassName != null) {
+				classNames.add(beanClassName);
+			}
+		}
+		Set<String> scannedPackages = parser.getScannedBasePackages();
+		List<String> locations = new ArrayList<>();
+		for (String basePackage : scannedPackages) {
+			locations.add(ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
+					ClassUtils.convertClassNameToResourcePath(basePackage) + "/**/*.class");
+		}
+		for (String className : classNames) {
+			if (!isInPackage(className, scannedPackages)) {
+				locations.add(ResourcePatternResolver.CLASSPATH_URL_PREFIX +
+						ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX);
+			}
+		}
+		locations.addAll(importedResources);
+		String[] locationArray = StringUtils.toStringArray(locations);
+		String[] propertyNames = StringUtils.toStringArray(propertyNameRecorder.getSource());
+		String fingerprint = BeanDefinitionSnapshotLoader.computeFingerprint(
+				locationArray, propertyNames, this.environment, context);
+
+		Map<String, String> importingClassNames = new LinkedHashMap<>();
+		ImportRegistry importRegistry = parser.getImportRegistry();
+		for (String className : classNames) {
+			AnnotationMetadata importingClass = importRegistry.getImportingClassFor(className);
+			if (importingClass != null) {
+				importingClassNames.put(className, importingClass.getClassName());
+			}
+		}
+
+		return new ProcessedConfiguration(beanFactory, configClassNames, beanNames, locationArray, propertyNames,
+				fingerprint, new ArrayList<>(parser.getPropertySourceClassNames()), importingClassNames,
+				this.classLoader);
+	}
+
+	private static boolean isInPackage(String className, Set<String> packageNames) {
+		for (String packageName : packageNames) {
+			if (className.startsWith(packageName + ".")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Record the given conditions, evaluated for the given metadata, if a
+	 * snapshot is currently being generated.
+	 * <p>Called by {@link ConditionEvaluator}.
+	 */
+	static void recordConditions(AnnotatedTypeMetadata metadata, List<Condition> conditions) {
+		Set<String> recordedConditions = currentlyRecordedConditions.get();
+		if (recordedConditions == null) {
+			return;
+		}
+		for (Condition condition : conditions) {
+			if (!(condition instanceof ProfileCondition)) {
+				String element = (metadata instanceof MethodMetadata ?
+						((MethodMetadata) metadata).getDeclaringClassName() + "." +
+								((MethodMetadata) metadata).getMethodName() + "()" :
+						metadata instanceof ClassMetadata ? ((ClassMetadata) metadata).getClassName() :
+						metadata.toString());
+				recordedConditions.add(condition.getClass().getName() + " on " + element);
+			}
+		}
+	}
+
+
+	/**
+	 * Generate a snapshot for the configuration classes given as command line
+	 * arguments, following the target source directory.
+	 * @param args the target source directory, followed by the fully qualified
+	 * names of the root configuration classes
+	 * @throws IllegalArgumentException if not enough arguments have been given
+	 * @throws Exception if the snapshot could not be generated
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			throw new IllegalArgumentException(
+					"Usage: BeanDefinitionSnapshotGenerator <sourceDirectory> <configClass>...");
+		}
+		ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+		Class<?>[] configClasses = new Class<?>[args.length - 1];
+		for (int i = 1; i < args.length; i++) {
+			configClasses[i - 1] = ClassUtils.forName(args[i], classLoader);
+		}
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator(configClasses);
+		Path file = generator.writeTo(Paths.get(args[0]));
+		if (logger.isInfoEnabled()) {
+			logger.info("Generated bean definition snapshot " + file);
+		}
+	}
+
+
+	/**
+	 * {@link PropertySource} that records the names of all properties looked up
+	 * through it, without providing any values itself.
+	 */
+	private static class PropertyNameRecorder extends PropertySource<Set<String>> {
+
+		PropertyNameRecorder() {
+			super(PropertyNameRecorder.class.getName(), new LinkedHashSet<>());
+		}
+
+		@Override
+		@Nullable
+		public Object getProperty(String name) {
+			this.source.add(name);
+			return null;
+		}
+	}
+
+
+	/**
+	 * The outcome of configuration class processing that makes up a snapshot.
+	 */
+	private static class ProcessedConfiguration {
+
+		final DefaultListableBeanFactory beanFactory;
+
+		final List<String> configClassNames;
+
+		final List<String> beanNames;
+
+		final String[] locations;
+
+		final String[] propertyNames;
+
+		final String fingerprint;
+
+		final List<String> propertySourceClassNames;
+
+		final Map<String, String> importingClassNames;
+
+		@Nullable
+		final ClassLoader classLoader;
+
+		ProcessedConfiguration(DefaultListableBeanFactory beanFactory, List<String> configClassNames,
+				List<String> beanNames, String[] locations, String[] propertyNames, String fingerprint,
+				List<String> propertySourceClassNames, Map<String, String> importingClassNames,
+				@Nullable ClassLoader classLoader) {
+
+			this.beanFactory = beanFactory;
+			this.configClassNames = configClassNames;
+			this.beanNames = beanNames;
+			this.locations = locations;
+			this.propertyNames = propertyNames;
+			this.fingerprint = fingerprint;
+			this.propertySourceClassNames = propertySourceClassNames;
+			this.importingClassNames = importingClassNames;
+			this.classLoader = classLoader;
+		}
+	}
+
+
+	/**
+	 * Writes the Java source for a snapshot, with one factory method per
+	 * (top-level or inner) bean definition.
+	 */
+	private static class SnapshotSourceWriter {
+
+		private final ProcessedConfiguration configuration;
+
+		private final StringBuilder factoryMethods = new StringBuilder();
+
+		private int factoryMethodCount;
+
+		SnapshotSourceWriter(ProcessedConfiguration configuration) {
+			this.configuration = configuration;
+		}
+
+		String getSnapshotClassName() {
+			return BeanDefinitionSnapshotLoader.getSnapshotClassName(this.configuration.configClassNames.get(0));
+		}
+
+		String write() {
+			String snapshotClassName = getSnapshotClassName();
+			StringBuilder registration = new StringBuilder();
+			DefaultListableBeanFactory beanFactory = this.configuration.beanFactory;
+			for (String beanName : this.configuration.beanNames) {
+				String factoryMethod = writeFactoryMethod(beanName, beanFactory.getBeanDefinition(beanName));
+				registration.append("\t\tregistry.registerBeanDefinition(").append(literal(beanName))
+						.append(", ").append(factoryMethod).append("(classLoader));\n");
+				for (String alias : beanFactory.getAliases(beanName)) {
+					registration.append("\t\tregistry.registerAlias(").append(literal(beanName))
+							.append(", ").append(literal(alias)).append(");\n");
+				}
+			}
+
+			StringBuilder source = new StringBuilder();
+			String packageName = ClassUtils.getPackageName(snapshotClassName);
+			if (!packageName.isEmpty()) {
+				source.append("package ").append(packageName).append(";\n\n");
+			}
+			source.append("import java.lang.reflect.Method;\n");
+			source.append("import java.util.LinkedHashMap;\n");
+			source.append("import java.util.Map;\n\n");
+			source.append("import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;\n");
+			source.append("import org.springframework.beans.factory.config.BeanDefinition;\n");
+			source.append("import org.springframework.beans.factory.config.BeanDefinitionHolder;\n");
+			source.append("import org.springframework.beans.factory.config.ConstructorArgumentValues;\n");
+			source.append("import org.springframework.beans.factory.config.RuntimeBeanNameReference;\n");
+			source.append("import org.springframework.beans.factory.config.RuntimeBeanReference;\n");
+			source.append("import org.springframework.beans.factory.config.TypedStringValue;\n");
+			source.append("import org.springframework.beans.factory.support.BeanDefinitionRegistry;\n");
+			source.append("import org.springframework.beans.factory.support.GenericBeanDefinition;\n");
+			source.append("import org.springframework.beans.factory.support.ManagedArray;\n");
+			source.append("import org.springframework.beans.factory.support.ManagedList;\n");
+			source.append("import org.springframework.beans.factory.support.ManagedMap;\n");
+			source.append("import org.springframework.beans.factory.support.ManagedProperties;\n");
+			source.append("import org.springframework.beans.factory.support.ManagedSet;\n");
+			source.append("import org.springframework.beans.factory.support.RootBeanDefinition;\n");
+			source.append("import org.springframework.context.annotation.BeanDefinitionSnapshot;\n");
+			source.append("import org.springframework.util.ClassUtils;\n");
+			source.append("import org.springframework.util.ReflectionUtils;\n\n");
+			source.append("/**\n * Bean definition snapshot for ")
+					.append(String.join(", ", this.configuration.configClassNames)).append(".\n");
+			source.append(" * <p>Generated by ").append(BeanDefinitionSnapshotGenerator.class.getName())
+					.append(" - do not edit.\n */\n");
+			source.append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+			source.append("public final class ").append(ClassUtils.getShortName(snapshotClassName))
+					.append(" implements BeanDefinitionSnapshot {\n\n");
+
+			source.append("\t@Override\n\tpublic String[] getConfigurationClassNames() {\n\t\treturn ")
+					.append(stringArray(this.configuration.configClassNames)).append(";\n\t}\n\n");
+			source.append("\t@Override\n\tpublic String[] getFingerprintLocations() {\n\t\treturn ")
+					.append(stringArray(Arrays.asList(this.configuration.locations))).append(";\n\t}\n\n");
+			source.append("\t@Override\n\tpublic String[] getFingerprintPropertyNames() {\n\t\treturn ")
+					.append(stringArray(Arrays.asList(this.configuration.propertyNames))).append(";\n\t}\n\n");
+			source.append("\t@Override\n\tpublic String getFingerprint() {\n\t\treturn ")
+					.append(literal(this.configuration.fingerprint)).append(";\n\t}\n\n");
+			source.append("\t@Override\n\tpublic String[] getPropertySourceClassNames() {\n\t\treturn ")
+					.append(stringArray(this.configuration.propertySourceClassNames)).append(";\n\t}\n\n");
+			source.append("\t@Override\n\tpublic Map<String, String> getImportingClassNames() {\n");
+			source.append("\t\tMap<String, String> importingClassNames = new LinkedHashMap<>();\n");
+			this.configuration.importingClassNames.forEach((imported, importing) ->
+					source.append("\t\timportingClassNames.put(").append(literal(imported)).append(", ")
+							.append(literal(importing)).append(");\n"));
+			source.append("\t\treturn importingClassNames;\n\t}\n\n");
+			source.append("\t@Override\n\tpublic void registerBeanDefinitions(BeanDefinitionRegistry registry, " +
+					"ClassLoader classLoader) {\n");
+			source.append(registration).append("\t}\n");
+			source.append(this.factoryMethods);
+			source.append("\n\tprivate static Object enumValue(String className, String name, " +
+					"ClassLoader classLoader) {\n");
+			source.append("\t\treturn Enum.valueOf((Class) ClassUtils.resolveClassName(className, classLoader), " +
+					"name);\n\t}\n\n");
+			source.append("}\n");
+			return source.toString();
+		}
+
+		private String writeFactoryMethod(String beanName, BeanDefinition beanDefinition) {
+			if (!(beanDefinition instanceof AbstractBeanDefinition)) {
+				throw unsupported(beanName, "not an AbstractBeanDefinition: " + beanDefinition.getClass().getName());
+			}
+			AbstractBeanDefinition bd = (AbstractBeanDefinition) beanDefinition;
+			String methodName = "beanDefinition" + this.factoryMethodCount++;
+			MethodBody body = new MethodBody();
+
+			if (bd.getInstanceSupplier() != null) {
+				throw unsupported(beanName, "instance supplier");
+			}
+			if (!bd.getMethodOverrides().isEmpty()) {
+				throw unsupported(beanName, "method overrides");
+			}
+			if (!bd.getQualifiers().isEmpty()) {
+				throw unsupported(beanName, "autowire candidate qualifiers");
+			}
+
+			boolean root = (bd instanceof RootBeanDefinition);
+			String annotatedClassName = null;
+			Method beanMethod = null;
+			String beanMethodVariable = null;
+			if (bd instanceof AnnotatedBeanDefinition) {
+				// Restore the annotation metadata that parsing would have exposed
+				AnnotatedBeanDefinition abd = (AnnotatedBeanDefinition) bd;
+				annotatedClassName = abd.getMetadata().getClassName();
+				MethodMetadata factoryMethodMetadata = abd.getFactoryMethodMetadata();
+				if (factoryMethodMetadata != null) {
+					if (!root) {
+						throw unsupported(beanName, "annotated bean definition with factory method metadata");
+					}
+					beanMethod = resolveBeanMethod(beanName, factoryMethodMetadata);
+					beanMethodVariable = body.newVariable();
+					body.line("Method " + beanMethodVariable + " = " + methodLookup(beanMethod) + ";");
+					body.line("BeanDefinitionSnapshot.BeanMethodDefinition bd = " +
+							"new BeanDefinitionSnapshot.BeanMethodDefinition(" + classValue(annotatedClassName) +
+							", " + beanMethodVariable + ");");
+				}
+				else if (!root) {
+					body.line("AnnotatedGenericBeanDefinition bd = new AnnotatedGenericBeanDefinition(" +
+							classValue(annotatedClassName) + ");");
+				}
+				else {
+					throw unsupported(beanName, "annotated root bean definition without factory method metadata");
+				}
+			}
+			else {
+				String type = (root ? "RootBeanDefinition" : "GenericBeanDefinition");
+				body.line(type + " bd = new " + type + "();");
+			}
+			if (bd.getParentName() != null) {
+				if (root) {
+					throw unsupported(beanName, "root bean definition with parent");
+				}
+				body.line("bd.setParentName(" + literal(bd.getParentName()) + ");");
+			}
+			if (bd.getBeanClassName() != null && !bd.getBeanClassName().equals(annotatedClassName)) {
+				body.line("bd.setBeanClassName(" + literal(bd.getBeanClassName()) + ");");
+			}
+			if (StringUtils.hasLength(bd.getScope())) {
+				body.line("bd.setScope(" + literal(bd.getScope()) + ");");
+			}
+			if (bd.isAbstract()) {
+				body.line("bd.setAbstract(true);");
+			}
+			if (bd.getLazyInit() != null) {
+				body.line("bd.setLazyInit(" + bd.getLazyInit() + ");");
+			}
+			if (bd.getAutowireMode() != AbstractBeanDefinition.AUTOWIRE_NO) {
+				body.line("bd.setAutowireMode(" + bd.getAutowireMode() + ");");
+			}
+			if (bd.getDependencyCheck() != AbstractBeanDefinition.DEPENDENCY_CHECK_NONE) {
+				body.line("bd.setDependencyCheck(" + bd.getDependencyCheck() + ");");
+			}
+			if (bd.getDependsOn() != null) {
+				body.line("bd.setDependsOn(" + stringArray(Arrays.asList(bd.getDependsOn())) + ");");
+			}
+			if (!bd.isAutowireCandidate()) {
+				body.line("bd.setAutowireCandidate(false);");
+			}
+			if (bd.isPrimary()) {
+				body.line("bd.setPrimary(true);");
+			}
+			if (!bd.isNonPublicAccessAllowed()) {
+				body.line("bd.setNonPublicAccessAllowed(false);");
+			}
+			if (!bd.isLenientConstructorResolution()) {
+				body.line("bd.setLenientConstructorResolution(false);");
+			}
+			if (bd.getFactoryBeanName() != null) {
+				body.line("bd.setFactoryBeanName(" + literal(bd.getFactoryBeanName()) + ");");
+			}
+			if (bd.getFactoryMethodName() != null) {
+				writeFactoryMethodName(bd, beanMethod, beanMethodVariable, body);
+			}
+			if (bd.getInitMethodName() != null) {
+				body.line("bd.setInitMethodName(" + literal(bd.getInitMethodName()) + ");");
+			}
+			if (!bd.isEnforceInitMethod()) {
+				body.line("bd.setEnforceInitMethod(false);");
+			}
+			if (bd.getDestroyMethodName() != null) {
+				body.line("bd.setDestroyMethodName(" + literal(bd.getDestroyMethodName()) + ");");
+			}
+			if (!bd.isEnforceDestroyMethod()) {
+				body.line("bd.setEnforceDestroyMethod(false);");
+			}
+			if (bd.isSynthetic()) {
+				body.line("bd.setSynthetic(true);");
+			}
+			if (bd.getRole() != BeanDefinition.ROLE_APPLICATION) {
+				body.line("bd.setRole(" + bd.getRole() + ");");
+			}
+			if (bd.getDescription() != null) {
+				body.line("bd.setDescription(" + literal(bd.getDescription()) + ");");
+			}
+
+			ConstructorArgumentValues args = bd.getConstructorArgumentValues();
+			args.getIndexedArgumentValues().forEach((index, holder) ->
+					body.line("bd.getConstructorArgumentValues().addIndexedArgumentValue(" + index + ", " +
+							valueHolder(beanName, holder, body) + ");"));
+			for (ConstructorArgumentValues.ValueHolder holder : args.getGenericArgumentValues()) {
+				body.line("bd.getConstructorArgumentValues().addGenericArgumentValue(" +
+						valueHolder(beanName, holder, body) + ");");
+			}
+			bd.getPropertyValues().forEach(pv ->
+					body.line("bd.getPropertyValues().add(" + literal(pv.getName()) + ", " +
+							value(beanName, pv.getValue(), body) + ");"));
+			for (String attributeName : bd.attributeNames()) {
+				body.line("bd.setAttribute(" + literal(attributeName) + ", " +
+						value(beanName, bd.getAttribute(attributeName), body) + ");");
+			}
+
+			boolean originatingWritten = false;
+			if (root) {
+				RootBeanDefinition rbd = (RootBeanDefinition) bd;
+				if (rbd.getQualifiedElement() != null) {
+					throw unsupported(beanName, "qualified element");
+				}
+				BeanDefinitionHolder decorated = rbd.getDecoratedDefinition();
+				if (decorated != null) {
+					body.line("bd.setDecoratedDefinition(" + value(beanName, decorated, body) + ");");
+					if (rbd.getOriginatingBeanDefinition() == decorated.getBeanDefinition()) {
+						body.line("bd.setOriginatingBeanDefinition(bd.getDecoratedDefinition().getBeanDefinition());");
+						originatingWritten = true;
+					}
+				}
+				Class<?> targetType = rbd.getTargetType();
+				if (targetType != null) {
+					body.line("bd.setTargetType(" + classValue(targetType.getName()) + ");");
+				}
+			}
+			if (!originatingWritten && bd.getResourceDescription() != null) {
+				body.line("bd.setResourceDescription(" + literal(bd.getResourceDescription()) + ");");
+			}
+			body.line("return bd;");
+
+			this.factoryMethods.append("\n\tprivate static BeanDefinition ").append(methodName)
+					.append("(ClassLoader classLoader) {\n").append(body).append("\t}\n");
+			return methodName;
+		}
+
+		/**
+		 * Write the factory method name, resolving the factory method up front
+		 * if it can be uniquely identified.
+		 */
+		private void writeFactoryMethodName(AbstractBeanDefinition bd, @Nullable Method beanMethod,
+				@Nullable String beanMethodVariable, MethodBody body) {
+
+			String factoryMethodName = bd.getFactoryMethodName();
+			Class<?> factoryClass = resolveFactoryClass(bd);
+			if (!(bd instanceof RootBeanDefinition) || factoryClass == null) {
+				body.line("bd.setFactoryMethodName(" + literal(factoryMethodName) + ");");
+				return;
+			}
+
+			boolean isStatic = (bd.getFactoryBeanName() == null);
+			List<Method> candidates = new ArrayList<>();
+			List<Method> beanMethods = new ArrayList<>();
+			for (Method candidate : ReflectionUtils.getUniqueDeclaredMethods(factoryClass)) {
+				if (candidate.getName().equals(factoryMethodName) &&
+						Modifier.isStatic(candidate.getModifiers()) == isStatic) {
+					candidates.add(candidate);
+					if (BeanAnnotationHelper.isBeanAnnotated(candidate)) {
+						beanMethods.add(candidate);
+					}
+				}
+			}
+			// BeanMethodDefinition only considers @Bean methods, like parsing does
+			List<Method> relevant = (beanMethod != null ? beanMethods : candidates);
+			if (relevant.size() == 1) {
+				Method method = relevant.get(0);
+				body.line("bd.setUniqueFactoryMethodName(" + literal(factoryMethodName) + ");");
+				body.line("bd.setResolvedFactoryMethod(" +
+						(method.equals(beanMethod) ? beanMethodVariable : methodLookup(method)) + ");");
+			}
+			else {
+				body.line("bd.setFactoryMethodName(" + literal(factoryMethodName) + ");");
+			}
+		}
+
+		/**
+		 * Resolve the {@code @Bean} method described by the given metadata.
+		 */
+		private Method resolveBeanMethod(String beanName, MethodMetadata metadata) {
+			if (metadata instanceof StandardMethodMetadata) {
+				return ((StandardMethodMetadata) metadata).getIntrospectedMethod();
+			}
+			ClassLoader classLoader = this.configuration.classLoader;
+			if (!ClassUtils.isPresent(metadata.getDeclaringClassName(), classLoader)) {
+				throw unsupported(beanName, "@Bean method declared on unresolvable class " +
+						metadata.getDeclaringClassName());
+			}
+			Class<?> declaringClass = ClassUtils.resolveClassName(metadata.getDeclaringClassName(), classLoader);
+			List<Method> candidates = new ArrayList<>();
+			for (Method candidate : ReflectionUtils.getUniqueDeclaredMethods(declaringClass)) {
+				if (candidate.getDeclaringClass() == declaringClass &&
+						candidate.getName().equals(metadata.getMethodName()) &&
+						candidate.getReturnType().getName().equals(metadata.getReturnTypeName()) &&
+						BeanAnnotationHelper.isBeanAnnotated(candidate)) {
+					candidates.add(candidate);
+				}
+			}
+			if (candidates.size() != 1) {
+				throw unsupported(beanName, "@Bean method '" + metadata.getMethodName() +
+						"' cannot be uniquely identified on " + metadata.getDeclaringClassName());
+			}
+			return candidates.get(0);
+		}
+
+		@Nullable
+		private Class<?> resolveFactoryClass(AbstractBeanDefinition bd) {
+			String className;
+			if (bd.getFactoryBeanName() != null) {
+				DefaultListableBeanFactory beanFactory = this.configuration.beanFactory;
+				if (!beanFactory.containsBeanDefinition(bd.getFactoryBeanName())) {
+					return null;
+				}
+				className = beanFactory.getBeanDefinition(bd.getFactoryBeanName()).getBeanClassName();
+			}
+			else {
+				className = bd.getBeanClassName();
+			}
+			if (className == null || !ClassUtils.isPresent(className, this.configuration.classLoader)) {
+				return null;
+			}
+			return ClassUtils.resolveClassName(className, this.configuration.classLoader);
+		}
+
+		private String valueHolder(String beanName, ConstructorArgumentValues.ValueHolder holder, MethodBody body) {
+			return "new ConstructorArgumentValues.ValueHolder(" + value(beanName, holder.getValue(), body) +
+					", " + literal(holder.getType()) + ", " + literal(holder.getName()) + ")";
+		}
+
+		/**
+		 * Return a Java expression for the given bean metadata value, writing
+		 * local variable declarations to the given method body where necessary.
+		 */
+		private String value(String beanName, @Nullable Object value, MethodBody body) {
+			if (value == null) {
+				return "null";
+			}
+			else if (value instanceof String) {
+				return literal((String) value);
+			}
+			else if (value instanceof Boolean) {
+				return ((Boolean) value ? "Boolean.TRUE" : "Boolean.FALSE");
+			}
+			else if (value instanceof Integer || value instanceof Long || value instanceof Short ||
+					value instanceof Byte || value instanceof Double || value instanceof Float) {
+				return value.getClass().getSimpleName() + ".valueOf(" + literal(value.toString()) + ")";
+			}
+			else if (value instanceof Character) {
+				return "Character.valueOf('\\u" + String.format("%04x", (int) (Character) value) + "')";
+			}
+			else if (value instanceof Class) {
+				return classValue(((Class<?>) value).getName());
+			}
+			else if (value instanceof Enum) {
+				Enum<?> enumValue = (Enum<?>) value;
+				return "enumValue(" + literal(enumValue.getDeclaringClass().getName()) + ", " +
+						literal(enumValue.name()) + ", classLoader)";
+			}
+			else if (value instanceof TypedStringValue) {
+				TypedStringValue typedValue = (TypedStringValue) value;
+				String var = body.newVariable();
+				body.line("TypedStringValue " + var + " = new TypedStringValue(" +
+						literal(typedValue.getValue()) + ");");
+				if (typedValue.getTargetTypeName() != null) {
+					body.line(var + ".setTargetTypeName(" + literal(typedValue.getTargetTypeName()) + ");");
+				}
+				if (typedValue.getSpecifiedTypeName() != null) {
+					body.line(var + ".setSpecifiedTypeName(" + literal(typedValue.getSpecifiedTypeName()) + ");");
+				}
+				if (typedValue.isDynamic()) {
+					body.line(var + ".setDynamic();");
+				}
+				return var;
+			}
+			else if (value instanceof RuntimeBeanReference) {
+				RuntimeBeanReference reference = (RuntimeBeanReference) value;
+				String target = (reference.getBeanType() != null ?
+						classValue(reference.getBeanType().getName()) : literal(reference.getBeanName()));
+				return "new RuntimeBeanReference(" + target + ", " + reference.isToParent() + ")";
+			}
+			else if (value instanceof RuntimeBeanNameReference) {
+				return "new RuntimeBeanNameReference(" +
+						literal(((RuntimeBeanNameReference) value).getBeanName()) + ")";
+			}
+			else if (value instanceof BeanDefinitionHolder) {
+				BeanDefinitionHolder holder = (BeanDefinitionHolder) value;
+				String factoryMethod = writeFactoryMethod(holder.getBeanName(), holder.getBeanDefinition());
+				String aliases = (holder.getAliases() != null ?
+						stringArray(Arrays.asList(holder.getAliases())) : "null");
+				return "new BeanDefinitionHolder(" + factoryMethod + "(classLoader), " +
+						literal(holder.getBeanName()) + ", " + aliases + ")";
+			}
+			else if (value instanceof BeanDefinition) {
+				return writeFactoryMethod(beanName + " (inner bean)", (BeanDefinition) value) + "(classLoader)";
+			}
+			else if (value instanceof ManagedArray) {
+				ManagedArray array = (ManagedArray) value;
+				String var = body.newVariable();
+				body.line("ManagedArray " + var + " = new ManagedArray(" + literal(array.getElementTypeName()) +
+						", " + array.size() + ");");
+				writeElements(beanName, var, array, array.isMergeEnabled(), body);
+				return var;
+			}
+			else if (value instanceof ManagedList) {
+				ManagedList<?> list = (ManagedList<?>) value;
+				String var = body.newVariable();
+				body.line("ManagedList " + var + " = new ManagedList(" + list.size() + ");");
+				if (list.getElementTypeName() != null) {
+					body.line(var + ".setElementTypeName(" + literal(list.getElementTypeName()) + ");");
+				}
+				writeElements(beanName, var, list, list.isMergeEnabled(), body);
+				return var;
+			}
+			else if (value instanceof ManagedSet) {
+				ManagedSet<?> set = (ManagedSet<?>) value;
+				String var = body.newVariable();
+				body.line("ManagedSet " + var + " = new ManagedSet(" + set.size() + ");");
+				if (set.getElementTypeName() != null) {
+					body.line(var + ".setElementTypeName(" + literal(set.getElementTypeName()) + ");");
+				}
+				writeElements(beanName, var, set, set.isMergeEnabled(), body);
+				return var;
+			}
+			else if (value instanceof ManagedMap) {
+				ManagedMap<?, ?> map = (ManagedMap<?, ?>) value;
+				String var = body.newVariable();
+				body.line("ManagedMap " + var + " = new ManagedMap(" + map.size() + ");");
+				if (map.getKeyTypeName() != null) {
+					body.line(var + ".setKeyTypeName(" + literal(map.getKeyTypeName()) + ");");
+				}
+				if (map.getValueTypeName() != null) {
+					body.line(var + ".setValueTypeName(" + literal(map.getValueTypeName()) + ");");
+				}
+				if (map.isMergeEnabled()) {
+					body.line(var + ".setMergeEnabled(true);");
+				}
+				map.forEach((key, entryValue) -> body.line(var + ".put(" + value(beanName, key, body) + ", " +
+						value(beanName, entryValue, body) + ");"));
+				return var;
+			}
+			else if (value instanceof ManagedProperties) {
+				ManagedProperties properties = (ManagedProperties) value;
+				String var = body.newVariable();
+				body.line("ManagedProperties " + var + " = new ManagedProperties();");
+				if (properties.isMergeEnabled()) {
+					body.line(var + ".setMergeEnabled(true);");
+				}
+				properties.forEach((key, entryValue) -> body.line(var + ".put(" + value(beanName, key, body) +
+						", " + value(beanName, entryValue, body) + ");"));
+				return var;
+			}
+			throw unsupported(beanName, "value of type " + value.getClass().getName());
+		}
+
+		private void writeElements(String beanName, String var, Iterable<?> elements, boolean mergeEnabled,
+				MethodBody body) {
+
+			if (mergeEnabled) {
+				body.line(var + ".setMergeEnabled(true);");
+			}
+			for (Object element : elements) {
+				body.line(var + ".add(" + value(beanName, element, body) + ");");
+			}
+		}
+
+		private static String methodLookup(Method method) {
+			StringBuilder lookup = new StringBuilder("ReflectionUtils.findMethod(");
+			lookup.append(classValue(method.getDeclaringClass().getName())).append(", ")
+					.append(literal(method.getName()));
+			for (Class<?> parameterType : method.getParameterTypes()) {
+				lookup.append(", ").append(classValue(parameterType.getName()));
+			}
+			return lookup.append(")").toString();
+		}
+
+		private static String classValue(String className) {
+			return "ClassUtils.resolveClassName(" + literal(className) + ", classLoader)";
+		}
+
+		private static String stringArray(List<String> values) {
+			StringBuilder sb = new StringBuilder("new String[] {");
+			for (int i = 0; i < values.size(); i++) {
+				sb.append(i > 0 ? ", " : "").append(literal(values.get(i)));
+			}
+			return sb.append("}").toString();
+		}
+
+		private static String literal(@Nullable String value) {
+			if (value == null) {
+				return "null";
+			}
+			StringBuilder sb = new StringBuilder("\"");
+			for (char c : value.toCharArray()) {
+				switch (c) {
+					case '"':
+						sb.append("\\\"");
+						break;
+					case '\\':
+						sb.append("\\\\");
+						break;
+					case '\n':
+						sb.append("\\n");
+						break;
+					case '\r':
+						sb.append("\\r");
+						break;
+					case '\t':
+						sb.append("\\t");
+						break;
+					default:
+						if (c < 0x20 || c > 0x7e) {
+							sb.append(String.format("\\u%04x", (int) c));
+						}
+						else {
+							sb.append(c);
+						}
+				}
+			}
+			return sb.append("\"").toString();
+		}
+
+		private static IllegalStateException unsupported(String beanName, String reason) {
+			return new IllegalStateException(
+					"Bean definition '" + beanName + "' cannot be captured in a snapshot: " + reason);
+		}
+	}
+
+
+	/**
+	 * The body of a generated factory method.
+	 */
+	private static class MethodBody {
+
+		private final StringBuilder content = new StringBuilder();
+
+		private int variableCount;
+
+		String newVariable() {
+			return "v" + this.variableCount++;
+		}
+
+		void line(String statement) {
+			this.content.append("\t\t").append(statement).append('\n');
+		}
+
+		@Override
+		public String toString() {
+			return this.content.toString();
+		}
+	}
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * Internal helper for locating {@link BeanDefinitionSnapshot} implementations
+ * and for computing the fingerprint that decides whether a snapshot is still
+ * up to date.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see BeanDefinitionSnapshotGenerator
+ */
+final class BeanDefinitionSnapshotLoader {
+
+	private static final boolean shouldIgnoreSnapshot =
+			SpringProperties.getFlag(BeanDefinitionSnapshot.IGNORE_SNAPSHOT_PROPERTY_NAME);
+
+	private static final Log logger = LogFactory.getLog(BeanDefinitionSnapshotLoader.class);
+
+
+	private BeanDefinitionSnapshotLoader() {
+	}
+
+
+	/**
+	 * Derive the name of the snapshot class for the given root configuration class.
+	 */
+	static String getSnapshotClassName(String configClassName) {
+		return configClassName.replace('$', '_') +
+				BeanDefinitionSnapshot.SNAPSHOT_CLASS_SUFFIX;
+	}
+
+	/**
+	 * Load the snapshot generated for the given root configuration classes, if any.
+	 * @param configClassNames the names of the root configuration classes
+	 * @param classLoader the ClassLoader to load the snapshot class with
+	 * @return the snapshot, or {@code null} if none is available for exactly
+	 * this set of configuration classes
+	 */
+	@Nullable
+	static BeanDefinitionSnapshot loadSnapshot(List<String> configClassNames, @Nullable ClassLoader classLoader) {
+		if (shouldIgnoreSnapshot || configClassNames.isEmpty()) {
+			return null;
+		}
+		String snapshotClassName = getSnapshotClassName(configClassNames.get(0));
+		if (!ClassUtils.isPresent(snapshotClassName, classLoader)) {
+			return null;
+		}
+		Class<?> snapshotClass = ClassUtils.resolveClassName(snapshotClassName, classLoader);
+		if (!BeanDefinitionSnapshot.class.isAssignableFrom(snapshotClass)) {
+			throw new IllegalStateException("Class [" + snapshotClassName + "] does not implement [" +
+					BeanDefinitionSnapshot.class.getName() + "]");
+		}
+		BeanDefinitionSnapshot snapshot = (BeanDefinitionSnapshot) BeanUtils.instantiateClass(snapshotClass);
+		if (!Arrays.asList(snapshot.getConfigurationClassNames()).equals(configClassNames)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring bean definition snapshot [" + snapshotClassName +
+						"] generated for different configuration classes " +
+						Arrays.toString(snapshot.getConfigurationClassNames()));
+			}
+			return null;
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Compute a fingerprint over the given resource locations, the active
+	 * and default profiles of the given environment and the values of the
+	 * given properties.
+	 * <p>Resources are identified by their path relative to the root of the
+	 * location, so that the fingerprint does not depend on whether classes
+	 * are loaded from a directory or from a jar file. For a jar entry, size and
+	 * CRC-32 checksum are taken from the jar file's central directory, without
+	 * reading the entry itself; a file system resource contributes a hash of
+	 * its content. Any change to the content of a resource therefore changes
+	 * the fingerprint (barring a CRC-32 collision), whereas timestamps do not
+	 * matter, e.g. for reproducible builds or copied class files.
+	 * <p>Property values are taken as-is, without resolving nested placeholders.
+	 * @param locations the resource locations, potentially containing patterns
+	 * @param propertyNames the names of the properties to take values from
+	 * @param environment the environment to take profiles and properties from
+	 * @param resourceLoader the ResourceLoader to resolve the locations with
+	 * @return the fingerprint as hex string
+	 * @throws IOException if a resource could not be resolved
+	 */
+	static String computeFingerprint(String[] locations, String[] propertyNames, Environment environment,
+			ResourceLoader resourceLoader) throws IOException {
+
+		ResourcePatternResolver resolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+		StringBuilder content = new StringBuilder();
+		for (String location : locations) {
+			String rootPath = getRootPath(location);
+			List<String> entries = new ArrayList<>();
+			for (Resource resource : resolver.getResources(location)) {
+				if (resource.isReadable()) {
+					URL url = resource.getURL();
+					String urlString = url.toString();
+					int index = urlString.lastIndexOf(rootPath);
+					String path = (index != -1 && !rootPath.isEmpty() ? urlString.substring(index) : urlString);
+					entries.add(path + '=' + getContentChecksum(resource, url));
+				}
+			}
+			entries.sort(null);
+			content.append(location).append(entries).append('\n');
+		}
+		content.append("profiles=").append(Arrays.toString(environment.getActiveProfiles()));
+		content.append(",default=").append(Arrays.toString(environment.getDefaultProfiles()));
+		for (String propertyName : propertyNames) {
+			content.append('\n').append(propertyName).append('=').append(getRawProperty(environment, propertyName));
+		}
+		return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Determine the value of the given property in the given environment,
+	 * without resolving nested placeholders which may not be resolvable yet.
+	 */
+	@Nullable
+	private static Object getRawProperty(Environment environment, String propertyName) {
+		if (environment instanceof ConfigurableEnvironment) {
+			for (PropertySource<?> propertySource : ((ConfigurableEnvironment) environment).getPropertySources()) {
+				Object value = propertySource.getProperty(propertyName);
+				if (value != null) {
+					return value;
+				}
+			}
+			return null;
+		}
+		return environment.getProperty(propertyName);
+	}
+
+	/**
+	 * Determine a checksum of the content of the given resource. For a jar
+	 * entry, size and CRC-32 are taken from the entry itself rather than from
+	 * the jar file, so that adding the compiled snapshot to the jar file does
+	 * not invalidate it. Other resources are hashed.
+	 */
+	private static String getContentChecksum(Resource resource, URL url) throws IOException {
+		if (ResourceUtils.isJarURL(url)) {
+			URLConnection con = url.openConnection();
+			if (con instanceof JarURLConnection) {
+				JarURLConnection jarCon = (JarURLConnection) con;
+				ResourceUtils.useCachesIfNecessary(jarCon);
+				JarEntry entry = jarCon.getJarEntry();
+				if (!jarCon.getUseCaches()) {
+					jarCon.getJarFile().close();
+				}
+				if (entry != null && entry.getCrc() != -1) {
+					return entry.getSize() + ":" + Long.toHexString(entry.getCrc());
+				}
+			}
+		}
+		try (InputStream is = resource.getInputStream()) {
+			return DigestUtils.md5DigestAsHex(is);
+		}
+	}
+
+	/**
+	 * Determine the fixed path of the given location, i.e. the part without
+	 * prefix and before the first wildcard.
+	 */
+	private static String getRootPath(String location) {
+		String path = location.substring(location.indexOf(':') + 1);
+		int wildcardIndex = path.indexOf('*');
+		if (wildcardIndex != -1) {
+			path = path.substring(0, path.lastIndexOf('/', wildcardIndex) + 1);
+		}
+		return (path.startsWith("/") ? path.substring(1) : path);
+	}
+
+
+	/**
+	 * {@link ImportRegistry} backed by the importing class names recorded in a
+	 * snapshot, reading the importing class metadata on demand.
+	 */
+	static class SnapshotImportRegistry implements ImportRegistry {
+
+		private final Map<String, String> importingClassNames;
+
+		private final MetadataReaderFactory metadataReaderFactory;
+
+		private final Map<String, AnnotationMetadata> metadataCache = new ConcurrentHashMap<>();
+
+		SnapshotImportRegistry(Map<String, String> importingClassNames, MetadataReaderFactory metadataReaderFactory) {
+			this.importingClassNames = new ConcurrentHashMap<>(importingClassNames);
+			this.metadataReaderFactory = metadataReaderFactory;
+		}
+
+		@Override
+		@Nullable
+		public AnnotationMetadata getImportingClassFor(String importedClass) {
+			String importingClass = this.importingClassNames.get(importedClass);
+			if (importingClass == null) {
+				return null;
+			}
+			return this.metadataCache.computeIfAbsent(importingClass, className -> {
+				try {
+					return this.metadataReaderFactory.getMetadataReader(className).getAnnotationMetadata();
+				}
+				catch (IOException ex) {
+					throw new IllegalStateException("Failed to read metadata for importing class [" +
+							className + "]", ex);
+				}
+			});
+		}
+
+		@Override
+		public void removeImportingClass(String importingClass) {
+			this.importingClassNames.values().removeIf(importingClass::equals);
+		}
+	}
+
+}
@@ -136,6 +136,8 @@ class ConfigurationClassParser {
 
 	private final List<String> propertySourceNames = new ArrayList<>();
 
+	private final Set<String> propertySourceClassNames = new LinkedHashSet<>();
+
 	private final ImportStack importStack = new ImportStack();
 
 	private final DeferredImportSelectorHandler deferredImportSelectorHandler = new DeferredImportSelectorHandler();
@@ -216,6 +218,24 @@ class ConfigurationClassParser {
 		return this.configurationClasses.keySet();
 	}
 
+	/**
+	 * Return the names of the classes that declared {@code @PropertySource}
+	 * annotations, in the order in which they have been processed.
+	 * @since 5.2.2
+	 * @see #processPropertySources(AnnotationMetadata)
+	 */
+	public Set<String> getPropertySourceClassNames() {
+		return this.propertySourceClassNames;
+	}
+
+	/**
+	 * Return the base packages scanned through {@code @ComponentScan} so far.
+	 * @since 5.2.2
+	 */
+	public Set<String> getScannedBasePackages() {
+		return this.componentScanParser.getScannedBasePackages();
+	}
+
 
 	protected void processConfigurationClass(ConfigurationClass configClass) throws IOException {
 		if (this.conditionEvaluator.shouldSkip(configClass.getMetadata(), ConfigurationPhase.PARSE_CONFIGURATION)) {
@@ -267,17 +287,7 @@ class ConfigurationClassParser {
 		}
 
 		// Process any @PropertySource annotations
-		for (AnnotationAttributes propertySource : AnnotationConfigUtils.attributesForRepeatable(
-				sourceClass.getMetadata(), PropertySources.class,
-				org.springframework.context.annotation.PropertySource.class)) {
-			if (this.environment instanceof ConfigurableEnvironment) {
-				processPropertySource(propertySource);
-			}
-			else {
-				logger.info("Ignoring @PropertySource annotation on [" + sourceClass.getMetadata().getClassName() +
-						"]. Reason: Environment must implement ConfigurableEnvironment");
-			}
-		}
+		processPropertySources(sourceClass.getMetadata());
 
 		// Process any @ComponentScan annotations
 		Set<AnnotationAttributes> componentScans = AnnotationConfigUtils.attributesForRepeatable(
@@ -426,6 +436,26 @@ class ConfigurationClassParser {
 	}
 
 
+	/**
+	 * Process any <code>@PropertySource</code> annotations declared on the given class.
+	 * @param metadata the metadata of the class to introspect
+	 * @throws IOException if loading a property source failed
+	 * @since 5.2.2
+	 */
+	void processPropertySources(AnnotationMetadata metadata) throws IOException {
+		for (AnnotationAttributes propertySource : AnnotationConfigUtils.attributesForRepeatable(
+				metadata, PropertySources.class, org.springframework.context.annotation.PropertySource.class)) {
+			if (this.environment instanceof ConfigurableEnvironment) {
+				this.propertySourceClassNames.add(metadata.getClassName());
+				processPropertySource(propertySource);
+			}
+			else {
+				logger.info("Ignoring @PropertySource annotation on [" + metadata.getClassName() +
+						"]. Reason: Environment must implement ConfigurableEnvironment");
+			}
+		}
+	}
+
 	/**
 	 * Process the given <code>@PropertySource</code> annotation metadata.
 	 * @param propertySource metadata for the <code>@PropertySource</code> annotation found
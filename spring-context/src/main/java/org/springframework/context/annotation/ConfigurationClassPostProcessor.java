@@ -16,6 +16,7 @@
 
 package org.springframework.context.annotation;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -24,6 +25,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -61,6 +63,7 @@ import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.MethodMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -141,6 +144,9 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	/* Using fully qualified class names as default bean names by default. */
 	private BeanNameGenerator importBeanNameGenerator = IMPORT_BEAN_NAME_GENERATOR;
 
+	@Nullable
+	private Consumer<ConfigurationClassParser> snapshotRecorder;
+
 
 	@Override
 	public int getOrder() {
@@ -222,6 +228,17 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 	}
 
+	/**
+	 * Set a callback that receives the parser after all configuration classes
+	 * have been processed, for the purpose of generating a {@link BeanDefinitionSnapshot}.
+	 * <p>Existing snapshots are never applied while a recorder is set.
+	 * @since 5.2.2
+	 * @see BeanDefinitionSnapshotGenerator
+	 */
+	void setSnapshotRecorder(@Nullable Consumer<ConfigurationClassParser> snapshotRecorder) {
+		this.snapshotRecorder = snapshotRecorder;
+	}
+
 
 	/**
 	 * Derive further bean definitions from the configuration classes in the registry.
@@ -314,6 +331,11 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			this.environment = new StandardEnvironment();
 		}
 
+		// Use a build-time snapshot of the resulting bean definitions, if available and up to date
+		if (this.snapshotRecorder == null && registerBeanDefinitionSnapshot(registry, configCandidates, sbr)) {
+			return;
+		}
+
 		// Parse each @Configuration class
 		ConfigurationClassParser parser = new ConfigurationClassParser(
 				this.metadataReaderFactory, this.problemReporter, this.environment,
@@ -364,6 +386,81 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			sbr.registerSingleton(IMPORT_REGISTRY_BEAN_NAME, parser.getImportRegistry());
 		}
 
+		if (this.snapshotRecorder != null) {
+			this.snapshotRecorder.accept(parser);
+		}
+
+		clearMetadataReaderCache();
+	}
+
+	/**
+	 * Register the bean definitions of a {@link BeanDefinitionSnapshot} generated
+	 * for the given configuration candidates, provided that its fingerprint
+	 * matches the current classpath and environment.
+	 * @return {@code true} if a snapshot has been applied, {@code false} if the
+	 * configuration classes need to be parsed
+	 */
+	private boolean registerBeanDefinitionSnapshot(BeanDefinitionRegistry registry,
+			List<BeanDefinitionHolder> configCandidates, @Nullable SingletonBeanRegistry sbr) {
+
+		Assert.state(this.environment != null, "No Environment set");
+		List<String> configClassNames = new ArrayList<>(configCandidates.size());
+		for (BeanDefinitionHolder holder : configCandidates) {
+			String className = holder.getBeanDefinition().getBeanClassName();
+			if (className == null) {
+				return false;
+			}
+			configClassNames.add(className);
+		}
+
+		BeanDefinitionSnapshot snapshot = BeanDefinitionSnapshotLoader.loadSnapshot(configClassNames, this.beanClassLoader);
+		if (snapshot == null) {
+			return false;
+		}
+
+		String snapshotClassName = snapshot.getClass().getName();
+		try {
+			// Property sources need to be registered with the Environment on every startup,
+			// before checking the fingerprint since they may provide the recorded properties.
+			// If the snapshot turns out to be out of date, parsing registers them again under
+			// the same names, replacing the ones registered here.
+			ConfigurationClassParser parser = new ConfigurationClassParser(
+					this.metadataReaderFactory, this.problemReporter, this.environment,
+					this.resourceLoader, this.componentScanBeanNameGenerator, registry);
+			for (String className : snapshot.getPropertySourceClassNames()) {
+				parser.processPropertySources(
+						this.metadataReaderFactory.getMetadataReader(className).getAnnotationMetadata());
+			}
+
+			String fingerprint = BeanDefinitionSnapshotLoader.computeFingerprint(snapshot.getFingerprintLocations(),
+					snapshot.getFingerprintPropertyNames(), this.environment, this.resourceLoader);
+			if (!fingerprint.equals(snapshot.getFingerprint())) {
+				if (logger.isInfoEnabled()) {
+					logger.info("Bean definition snapshot [" + snapshotClassName + "] is out of date - " +
+							"parsing configuration classes " + configClassNames + " instead");
+				}
+				return false;
+			}
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException(
+					"Failed to apply bean definition snapshot [" + snapshotClassName + "]", ex);
+		}
+
+		snapshot.registerBeanDefinitions(registry, this.beanClassLoader);
+		if (sbr != null && !sbr.containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
+			sbr.registerSingleton(IMPORT_REGISTRY_BEAN_NAME, new BeanDefinitionSnapshotLoader.SnapshotImportRegistry(
+					snapshot.getImportingClassNames(), new SimpleMetadataReaderFactory(this.resourceLoader)));
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Registered bean definitions from snapshot [" + snapshotClassName + "]");
+		}
+
+		clearMetadataReaderCache();
+		return true;
+	}
+
+	private void clearMetadataReaderCache() {
 		if (this.metadataReaderFactory instanceof CachingMetadataReaderFactory) {
 			// Clear cache in externally provided MetadataReaderFactory; this is a no-op
 			// for a shared cache since it'll be cleared by the ApplicationContext.
@@ -16,8 +16,13 @@
 
 package org.springframework.context.event;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -33,12 +38,14 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Abstract implementation of the {@link ApplicationEventMulticaster} interface,
@@ -67,13 +74,19 @@ public abstract class AbstractApplicationEventMulticaster
 
 	final Map<ListenerCacheKey, ListenerRetriever> retrieverCache = new ConcurrentHashMap<>(64);
 
+	@Nullable
+	private final ListenerTypeIndex listenerTypeIndex = (isListenerTypeIndexApplicable() ? new ListenerTypeIndex() : null);
+
 	@Nullable
 	private ClassLoader beanClassLoader;
 
 	@Nullable
 	private ConfigurableBeanFactory beanFactory;
 
-	private Object retrievalMutex = this.defaultRetriever;
+	private final Object retrievalMutex = this.defaultRetriever;
+
+	/** Incremented on every listener registration change, guarded by the retrieval mutex. */
+	private volatile int registrationGeneration;
 
 
 	@Override
@@ -90,7 +103,13 @@ public abstract class AbstractApplicationEventMulticaster
 		if (this.beanClassLoader == null) {
 			this.beanClassLoader = this.beanFactory.getBeanClassLoader();
 		}
-		this.retrievalMutex = this.beanFactory.getSingletonMutex();
+	}
+
+	private boolean isListenerTypeIndexApplicable() {
+		// A custom supportsEvent implementation may match listeners regardless of their declared event types
+		Method method = ReflectionUtils.findMethod(getClass(), "supportsEvent",
+				ApplicationListener.class, ResolvableType.class, Class.class);
+		return (method != null && method.getDeclaringClass() == AbstractApplicationEventMulticaster.class);
 	}
 
 	private ConfigurableBeanFactory getBeanFactory() {
@@ -105,20 +124,69 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void addApplicationListener(ApplicationListener<?> listener) {
 		synchronized (this.retrievalMutex) {
+			this.registrationGeneration++;
 			// Explicitly remove target for a proxy, if registered already,
 			// in order to avoid double invocations of the same listener.
 			Object singletonTarget = AopProxyUtils.getSingletonTarget(listener);
+			boolean targetRemoved = false;
 			if (singletonTarget instanceof ApplicationListener) {
-				this.defaultRetriever.applicationListeners.remove(singletonTarget);
+				targetRemoved = this.defaultRetriever.applicationListeners.remove(singletonTarget);
+				if (this.listenerTypeIndex != null) {
+					this.listenerTypeIndex.remove((ApplicationListener<?>) singletonTarget);
+				}
+			}
+			boolean added = this.defaultRetriever.applicationListeners.add(listener);
+			if (this.listenerTypeIndex != null) {
+				this.listenerTypeIndex.add(listener);
+			}
+			if (!targetRemoved && (listener instanceof GenericApplicationListener ||
+					listener instanceof SmartApplicationListener)) {
+				if (added) {
+					addToCachedRetrievers(listener);
+				}
+			}
+			else {
+				this.retrieverCache.clear();
+			}
+		}
+	}
+
+	/**
+	 * Add the given listener to the cached retrievers for the event types it
+	 * supports, instead of clearing the entire cache. Only applicable to
+	 * listeners that decide by themselves which events they support, since
+	 * those are never ruled out by bean definition metadata.
+	 */
+	private void addToCachedRetrievers(ApplicationListener<?> listener) {
+		Iterator<Map.Entry<ListenerCacheKey, ListenerRetriever>> it = this.retrieverCache.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<ListenerCacheKey, ListenerRetriever> entry = it.next();
+			ListenerCacheKey cacheKey = entry.getKey();
+			ListenerRetriever retriever = entry.getValue();
+			if (retriever.applicationListeners.contains(listener) ||
+					!supportsEvent(listener, cacheKey.eventType, cacheKey.sourceType)) {
+				continue;
+			}
+			if (retriever.applicationListenerBeans.isEmpty()) {
+				// Retrievers may be in use concurrently: replace rather than modify
+				List<ApplicationListener<?>> listeners = new ArrayList<>(retriever.applicationListeners.size() + 1);
+				listeners.addAll(retriever.applicationListeners);
+				listeners.add(listener);
+				AnnotationAwareOrderComparator.sort(listeners);
+				ListenerRetriever updated = new ListenerRetriever(true);
+				updated.applicationListeners.addAll(listeners);
+				entry.setValue(updated);
+			}
+			else {
+				it.remove();
 			}
-			this.defaultRetriever.applicationListeners.add(listener);
-			this.retrieverCache.clear();
 		}
 	}
 
 	@Override
 	public void addApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.retrievalMutex) {
+			this.registrationGeneration++;
 			this.defaultRetriever.applicationListenerBeans.add(listenerBeanName);
 			this.retrieverCache.clear();
 		}
@@ -127,7 +195,11 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListener(ApplicationListener<?> listener) {
 		synchronized (this.retrievalMutex) {
+			this.registrationGeneration++;
 			this.defaultRetriever.applicationListeners.remove(listener);
+			if (this.listenerTypeIndex != null) {
+				this.listenerTypeIndex.remove(listener);
+			}
 			this.retrieverCache.clear();
 		}
 	}
@@ -135,6 +207,7 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.retrievalMutex) {
+			this.registrationGeneration++;
 			this.defaultRetriever.applicationListenerBeans.remove(listenerBeanName);
 			this.retrieverCache.clear();
 		}
@@ -143,8 +216,12 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeAllListeners() {
 		synchronized (this.retrievalMutex) {
+			this.registrationGeneration++;
 			this.defaultRetriever.applicationListeners.clear();
 			this.defaultRetriever.applicationListenerBeans.clear();
+			if (this.listenerTypeIndex != null) {
+				this.listenerTypeIndex.clear();
+			}
 			this.retrieverCache.clear();
 		}
 	}
@@ -156,9 +233,14 @@ public abstract class AbstractApplicationEventMulticaster
 	 * @see org.springframework.context.ApplicationListener
 	 */
 	protected Collection<ApplicationListener<?>> getApplicationListeners() {
+		ListenerRetriever retriever = new ListenerRetriever(false);
 		synchronized (this.retrievalMutex) {
-			return this.defaultRetriever.getApplicationListeners();
+			retriever.applicationListeners.addAll(this.defaultRetriever.applicationListeners);
+			retriever.applicationListenerBeans.addAll(this.defaultRetriever.applicationListenerBeans);
 		}
+		// Listener beans get obtained outside of the lock: their creation may
+		// in turn register listeners or publish events in other threads.
+		return retriever.getApplicationListeners();
 	}
 
 	/**
@@ -186,18 +268,18 @@ public abstract class AbstractApplicationEventMulticaster
 		if (this.beanClassLoader == null ||
 				(ClassUtils.isCacheSafe(event.getClass(), this.beanClassLoader) &&
 						(sourceType == null || ClassUtils.isCacheSafe(sourceType, this.beanClassLoader)))) {
-			// Fully synchronized building and caching of a ListenerRetriever
+			// Building a ListenerRetriever outside of the lock, since listener beans
+			// may get created on the way, and caching it unless registrations changed
+			int generation = this.registrationGeneration;
+			retriever = new ListenerRetriever(true);
+			Collection<ApplicationListener<?>> listeners =
+					retrieveApplicationListeners(eventType, sourceType, retriever);
 			synchronized (this.retrievalMutex) {
-				retriever = this.retrieverCache.get(cacheKey);
-				if (retriever != null) {
-					return retriever.getApplicationListeners();
+				if (this.registrationGeneration == generation) {
+					this.retrieverCache.putIfAbsent(cacheKey, retriever);
 				}
-				retriever = new ListenerRetriever(true);
-				Collection<ApplicationListener<?>> listeners =
-						retrieveApplicationListeners(eventType, sourceType, retriever);
-				this.retrieverCache.put(cacheKey, retriever);
-				return listeners;
 			}
+			return listeners;
 		}
 		else {
 			// No ListenerRetriever caching -> no synchronization necessary
@@ -219,7 +301,9 @@ public abstract class AbstractApplicationEventMulticaster
 		Set<ApplicationListener<?>> listeners;
 		Set<String> listenerBeans;
 		synchronized (this.retrievalMutex) {
-			listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
+			listeners = (this.listenerTypeIndex != null ?
+					this.listenerTypeIndex.getCandidates(this.defaultRetriever.applicationListeners, eventType) :
+					new LinkedHashSet<>(this.defaultRetriever.applicationListeners));
 			listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
 		}
 
@@ -410,6 +494,142 @@ public abstract class AbstractApplicationEventMulticaster
 	}
 
 
+	/**
+	 * Index of programmatically registered listeners by the raw classes of their
+	 * declared event types, ruling out listeners for unrelated event types before
+	 * the full {@link #supportsEvent} check when building a ListenerRetriever.
+	 * Listeners that decide by themselves which events they support are not
+	 * indexed and always remain candidates.
+	 */
+	private static final class ListenerTypeIndex {
+
+		private final Map<Class<?>, Set<ApplicationListener<?>>> listenersByEventClass = new HashMap<>();
+
+		private final Map<ApplicationListener<?>, Set<Class<?>>> eventClassesByListener = new HashMap<>();
+
+		public void add(ApplicationListener<?> listener) {
+			if (this.eventClassesByListener.containsKey(listener)) {
+				return;
+			}
+			Set<Class<?>> eventClasses = getDeclaredEventClasses(listener);
+			if (eventClasses != null) {
+				this.eventClassesByListener.put(listener, eventClasses);
+				for (Class<?> eventClass : eventClasses) {
+					this.listenersByEventClass.computeIfAbsent(eventClass, key -> new HashSet<>()).add(listener);
+				}
+			}
+		}
+
+		public void remove(ApplicationListener<?> listener) {
+			Set<Class<?>> eventClasses = this.eventClassesByListener.remove(listener);
+			if (eventClasses != null) {
+				for (Class<?> eventClass : eventClasses) {
+					Set<ApplicationListener<?>> listeners = this.listenersByEventClass.get(eventClass);
+					if (listeners != null) {
+						listeners.remove(listener);
+						if (listeners.isEmpty()) {
+							this.listenersByEventClass.remove(eventClass);
+						}
+					}
+				}
+			}
+		}
+
+		public void clear() {
+			this.listenersByEventClass.clear();
+			this.eventClassesByListener.clear();
+		}
+
+		/**
+		 * Return the given listeners that may support the given event type,
+		 * in their original order.
+		 */
+		public Set<ApplicationListener<?>> getCandidates(
+				Set<ApplicationListener<?>> listeners, ResolvableType eventType) {
+
+			Set<Class<?>> eventClasses = (!this.eventClassesByListener.isEmpty() ?
+					getEventClassHierarchy(eventType) : null);
+			if (eventClasses == null) {
+				return new LinkedHashSet<>(listeners);
+			}
+			Set<ApplicationListener<?>> matches = new HashSet<>();
+			for (Class<?> eventClass : eventClasses) {
+				Set<ApplicationListener<?>> indexed = this.listenersByEventClass.get(eventClass);
+				if (indexed != null) {
+					matches.addAll(indexed);
+				}
+			}
+			Set<ApplicationListener<?>> candidates = new LinkedHashSet<>();
+			for (ApplicationListener<?> listener : listeners) {
+				if (matches.contains(listener) || !this.eventClassesByListener.containsKey(listener)) {
+					candidates.add(listener);
+				}
+			}
+			return candidates;
+		}
+
+		@Nullable
+		@SuppressWarnings("unchecked")
+		private static Set<Class<?>> getDeclaredEventClasses(ApplicationListener<?> listener) {
+			List<ResolvableType> declaredEventTypes;
+			if (listener.getClass() == ApplicationListenerMethodAdapter.class) {
+				declaredEventTypes = ((ApplicationListenerMethodAdapter) listener).getDeclaredEventTypes();
+			}
+			else if (listener instanceof GenericApplicationListener || listener instanceof SmartApplicationListener) {
+				return null;
+			}
+			else {
+				ResolvableType declaredEventType = GenericApplicationListenerAdapter.resolveDeclaredEventType(
+						(ApplicationListener<ApplicationEvent>) listener);
+				if (declaredEventType == null) {
+					return null;
+				}
+				declaredEventTypes = Collections.singletonList(declaredEventType);
+			}
+			Set<Class<?>> eventClasses = new HashSet<>(declaredEventTypes.size());
+			for (ResolvableType declaredEventType : declaredEventTypes) {
+				Class<?> eventClass = declaredEventType.resolve();
+				if (eventClass == null || eventClass.isArray() || eventClass.isPrimitive()) {
+					return null;
+				}
+				eventClasses.add(eventClass);
+			}
+			return eventClasses;
+		}
+
+		/**
+		 * Return the classes and interfaces that a listener may declare in order to
+		 * support the given event type, including those of the payload type in case
+		 * of a {@link PayloadApplicationEvent}, or {@code null} if not determinable.
+		 */
+		@Nullable
+		private static Set<Class<?>> getEventClassHierarchy(ResolvableType eventType) {
+			Class<?> eventClass = eventType.resolve();
+			if (eventClass == null || eventClass.isArray() || eventType.hasUnresolvableGenerics()) {
+				return null;
+			}
+			Set<Class<?>> classes = new HashSet<>();
+			addClassHierarchy(eventClass, classes);
+			if (PayloadApplicationEvent.class.isAssignableFrom(eventClass)) {
+				Class<?> payloadClass = eventType.as(PayloadApplicationEvent.class).getGeneric().resolve();
+				if (payloadClass == null || payloadClass.isArray() || payloadClass.isPrimitive()) {
+					return null;
+				}
+				addClassHierarchy(payloadClass, classes);
+			}
+			return classes;
+		}
+
+		private static void addClassHierarchy(Class<?> clazz, Set<Class<?>> classes) {
+			for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+				classes.add(current);
+			}
+			classes.addAll(ClassUtils.getAllInterfacesForClassAsSet(clazz));
+			classes.add(Object.class);
+		}
+	}
+
+
 	/**
 	 * Helper class that encapsulates a specific set of target listeners,
 	 * allowing for efficient retrieval of pre-filtered listeners.
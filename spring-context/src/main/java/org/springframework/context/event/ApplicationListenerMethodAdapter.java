@@ -60,6 +60,11 @@ import org.springframework.util.concurrent.ListenableFuture;
  * to define any arbitrary event type. If a condition is defined, it is
  * evaluated prior to invoking the underlying method.
  *
+ * <p>A method declared as {@link EventListener#batch batch} listener receives
+ * the matching events, or their payloads, in a list. Such a method is invoked
+ * with a single element list, unless events are delivered in batches, e.g. by
+ * an {@link AsyncApplicationEventMulticaster}.
+ *
  * @author Stephane Nicoll
  * @author Juergen Hoeller
  * @author Sam Brannen
@@ -83,6 +88,8 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 
 	private final List<ResolvableType> declaredEventTypes;
 
+	private final boolean batchListener;
+
 	@Nullable
 	private final String condition;
 
@@ -104,6 +111,7 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 
 		EventListener ann = AnnotatedElementUtils.findMergedAnnotation(this.targetMethod, EventListener.class);
 		this.declaredEventTypes = resolveDeclaredEventTypes(method, ann);
+		this.batchListener = isBatchMethod(method, ann);
 		this.condition = (ann != null ? ann.condition() : null);
 		this.order = resolveOrder(this.targetMethod);
 	}
@@ -133,6 +141,18 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		return Collections.singletonList(ResolvableType.forMethodParameter(method, 0));
 	}
 
+	private static boolean isBatchMethod(Method method, @Nullable EventListener ann) {
+		if (ann == null || !ann.batch()) {
+			return false;
+		}
+		if (ann.classes().length == 0 || method.getParameterCount() != 1 ||
+				method.getParameterTypes()[0] != List.class) {
+			throw new IllegalStateException("Batch event listener method must declare its event classes " +
+					"and accept a single List parameter: " + method);
+		}
+		return true;
+	}
+
 	private static int resolveOrder(Method method) {
 		Order ann = AnnotatedElementUtils.findMergedAnnotation(method, Order.class);
 		return (ann != null ? ann.value() : 0);
@@ -153,6 +173,17 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		processEvent(event);
 	}
 
+	/**
+	 * Handle the given events at once with a {@linkplain #isBatchListener() batch listener}.
+	 * <p>Delegates to {@link #processEvents(List)}. Subclasses that customize
+	 * {@link #onApplicationEvent} should apply the same customization here.
+	 * @param events the events to respond to
+	 * @since 5.2.2
+	 */
+	public void onApplicationEvents(List<ApplicationEvent> events) {
+		processEvents(events);
+	}
+
 	@Override
 	public boolean supportsEventType(ResolvableType eventType) {
 		for (ResolvableType declaredEventType : this.declaredEventTypes) {
@@ -179,12 +210,34 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		return this.order;
 	}
 
+	/**
+	 * Return whether the target method is declared as {@link EventListener#batch batch}
+	 * listener, accepting a list of events.
+	 * @since 5.2.2
+	 * @see #processEvents(List)
+	 */
+	public boolean isBatchListener() {
+		return this.batchListener;
+	}
+
+	/**
+	 * Return the event types declared by the target method.
+	 * @see AbstractApplicationEventMulticaster
+	 */
+	List<ResolvableType> getDeclaredEventTypes() {
+		return this.declaredEventTypes;
+	}
+
 
 	/**
 	 * Process the specified {@link ApplicationEvent}, checking if the condition
 	 * matches and handling a non-null result, if any.
 	 */
 	public void processEvent(ApplicationEvent event) {
+		if (this.batchListener) {
+			processEvents(Collections.singletonList(event));
+			return;
+		}
 		Object[] args = resolveArguments(event);
 		if (shouldHandle(event, args)) {
 			Object result = doInvoke(args);
@@ -197,6 +250,33 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		}
 	}
 
+	/**
+	 * Process the specified events with a {@linkplain #isBatchListener() batch listener},
+	 * checking the condition, if any, for each of them, and invoking the
+	 * underlying method once with the list of events that match.
+	 * @param events the events to process
+	 * @since 5.2.2
+	 */
+	public void processEvents(List<? extends ApplicationEvent> events) {
+		Assert.state(this.batchListener, "Not a batch listener: " + this);
+		List<Object> eventsToHandle = new ArrayList<>(events.size());
+		for (ApplicationEvent event : events) {
+			Object[] args = resolveArguments(event);
+			if (shouldHandle(event, args)) {
+				eventsToHandle.add(args[0]);
+			}
+		}
+		if (!eventsToHandle.isEmpty()) {
+			Object result = doInvoke(new Object[] {eventsToHandle});
+			if (result != null) {
+				handleResult(result);
+			}
+			else {
+				logger.trace("No result object given - no result to handle");
+			}
+		}
+	}
+
 	/**
 	 * Resolve the method arguments to use for the specified {@link ApplicationEvent}.
 	 * <p>These arguments will be used to invoke the method handled by this instance.
@@ -0,0 +1,476 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.task.OverflowPolicy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * {@link ApplicationEventMulticaster} that delivers events to each listener
+ * asynchronously, through queues per listener that are drained by tasks on the
+ * configured {@link #setTaskExecutor task executor}, rather than submitting a
+ * task per listener and event as {@link SimpleApplicationEventMulticaster} does.
+ * Without a task executor, a {@link SimpleAsyncTaskExecutor} is used; consider
+ * specifying a thread pool instead.
+ *
+ * <p>Each listener has one or more {@link #setConcurrency lanes}, each with its
+ * own queue drained by at most one task at a time. With a single lane, as by
+ * default, a listener receives events in the order in which they were published.
+ * With several lanes, events are assigned to lanes by their
+ * {@link #setOrderingKeyResolver ordering key}, preserving the order of events
+ * with the same key, or else in turn, without any ordering guarantees.
+ *
+ * <p>Lane queues may be bounded via {@link #setQueueCapacity queueCapacity},
+ * with the {@link OverflowPolicy} deciding what happens to an event for a full
+ * queue. {@link EventListener#batch Batch listeners} receive the events waiting
+ * in a lane together, up to {@link #setBatchSize batchSize} at a time, through
+ * {@link ApplicationListenerMethodAdapter#onApplicationEvents}, while other
+ * listeners receive them one by one.
+ *
+ * <p>Note that listeners are invoked in executor threads, so they do not take
+ * part in the transaction of the publisher, and exceptions thrown by listeners
+ * are not propagated to the publisher but logged, unless an
+ * {@link #setErrorHandler ErrorHandler} is specified. Once this multicaster
+ * has been {@linkplain #destroy() destroyed}, events are delivered
+ * synchronously in the calling thread.
+ *
+ * <p>To use this multicaster for an application context, declare it as a bean
+ * named "applicationEventMulticaster".
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see org.springframework.context.support.AbstractApplicationContext#APPLICATION_EVENT_MULTICASTER_BEAN_NAME
+ */
+public class AsyncApplicationEventMulticaster extends SimpleApplicationEventMulticaster implements DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(AsyncApplicationEventMulticaster.class);
+
+	private int queueCapacity = Integer.MAX_VALUE;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	private int concurrency = 1;
+
+	@Nullable
+	private Function<ApplicationEvent, ?> orderingKeyResolver;
+
+	private int batchSize = 64;
+
+	private final ConcurrentMap<ApplicationListener<?>, ListenerQueue> listenerQueues = new ConcurrentHashMap<>(64);
+
+	@Nullable
+	private volatile Executor defaultExecutor;
+
+	private final AtomicLong discardedCount = new AtomicLong();
+
+	private volatile boolean shutdown;
+
+
+	/**
+	 * Create a new AsyncApplicationEventMulticaster.
+	 */
+	public AsyncApplicationEventMulticaster() {
+	}
+
+	/**
+	 * Create a new AsyncApplicationEventMulticaster for the given BeanFactory.
+	 */
+	public AsyncApplicationEventMulticaster(BeanFactory beanFactory) {
+		super(beanFactory);
+	}
+
+
+	/**
+	 * Set the maximum number of events that can wait in each lane of a listener.
+	 * <p>By default queues are unbounded.
+	 * @see #setOverflowPolicy
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity > 0, "'queueCapacity' must be positive");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Return the configured queue capacity.
+	 */
+	public int getQueueCapacity() {
+		return this.queueCapacity;
+	}
+
+	/**
+	 * Set the policy to apply when a listener queue has reached its capacity.
+	 * <p>By default this is {@link OverflowPolicy#BLOCK}. Note that a listener
+	 * publishing events to itself may then block forever.
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		Assert.notNull(overflowPolicy, "OverflowPolicy must not be null");
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Return the configured overflow policy.
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+	/**
+	 * Set the number of lanes per listener, i.e. the maximum number of events
+	 * a single listener may be handling concurrently.
+	 * <p>By default this is 1, in which case each listener receives events
+	 * in the order in which they were published.
+	 * @see #setOrderingKeyResolver
+	 */
+	public void setConcurrency(int concurrency) {
+		Assert.isTrue(concurrency > 0, "'concurrency' must be positive");
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Return the configured number of lanes per listener.
+	 */
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	/**
+	 * Set a function that returns the key of an event, for events with the same
+	 * key to be delivered to each listener in the order in which they were
+	 * published, even with a {@link #setConcurrency concurrency} higher than 1.
+	 * Events for which the function returns {@code null} are assigned to lanes
+	 * in turn.
+	 * <p>By default this is not set.
+	 */
+	public void setOrderingKeyResolver(@Nullable Function<ApplicationEvent, ?> orderingKeyResolver) {
+		this.orderingKeyResolver = orderingKeyResolver;
+	}
+
+	/**
+	 * Return the configured ordering key function, if any.
+	 */
+	@Nullable
+	public Function<ApplicationEvent, ?> getOrderingKeyResolver() {
+		return this.orderingKeyResolver;
+	}
+
+	/**
+	 * Set the maximum number of events delivered at once to a batch listener.
+	 * <p>By default this is 64.
+	 * @see ApplicationListenerMethodAdapter#isBatchListener()
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be positive");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the configured batch size.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Return the number of events discarded by the {@link OverflowPolicy}.
+	 */
+	public long getDiscardedCount() {
+		return this.discardedCount.get();
+	}
+
+
+	@Override
+	public void multicastEvent(ApplicationEvent event, @Nullable ResolvableType eventType) {
+		ResolvableType type = (eventType != null ? eventType : ResolvableType.forInstance(event));
+		for (ApplicationListener<?> listener : getApplicationListeners(event, type)) {
+			if (this.shutdown) {
+				invokeListener(listener, event);
+			}
+			else {
+				enqueue(listener, event);
+			}
+		}
+	}
+
+	private void enqueue(ApplicationListener<?> listener, ApplicationEvent event) {
+		while (true) {
+			ListenerQueue queue = this.listenerQueues.computeIfAbsent(listener, key -> new ListenerQueue(listener));
+			if (queue.add(event)) {
+				return;
+			}
+			// Queue retired after delivering its last event: make way for a new one
+			this.listenerQueues.remove(listener, queue);
+		}
+	}
+
+	/**
+	 * Invoke the given batch listener with the given events.
+	 * @param listener the batch listener to invoke
+	 * @param events the events to propagate
+	 * @see #invokeListener
+	 */
+	protected void invokeBatchListener(ApplicationListenerMethodAdapter listener, List<ApplicationEvent> events) {
+		ErrorHandler errorHandler = getErrorHandler();
+		if (errorHandler != null) {
+			try {
+				listener.onApplicationEvents(events);
+			}
+			catch (Throwable err) {
+				errorHandler.handleError(err);
+			}
+		}
+		else {
+			listener.onApplicationEvents(events);
+		}
+	}
+
+	private Executor getExecutor() {
+		Executor executor = getTaskExecutor();
+		if (executor == null) {
+			executor = this.defaultExecutor;
+			if (executor == null) {
+				executor = new SimpleAsyncTaskExecutor(getClass().getSimpleName() + "-");
+				this.defaultExecutor = executor;
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * Deliver events synchronously from now on, leaving events that are
+	 * already queued to the executor.
+	 */
+	@Override
+	public void destroy() {
+		this.shutdown = true;
+	}
+
+
+	/**
+	 * The lanes of a single listener. A queue counts the events it holds, and
+	 * is retired and removed once all of them have been delivered, so that
+	 * queues of non-singleton listeners do not accumulate.
+	 */
+	private final class ListenerQueue {
+
+		private final ApplicationListener<?> listener;
+
+		private final Lane[] lanes;
+
+		private final AtomicInteger nextLane = new AtomicInteger();
+
+		/** The number of events added but not delivered or discarded yet, or -1 once retired. */
+		private final AtomicInteger pendingCount = new AtomicInteger();
+
+		public ListenerQueue(ApplicationListener<?> listener) {
+			this.listener = listener;
+			this.lanes = new Lane[concurrency];
+			for (int i = 0; i < this.lanes.length; i++) {
+				this.lanes[i] = new Lane(this);
+			}
+		}
+
+		/**
+		 * Add the given event, unless this queue has been retired.
+		 * @return {@code false} if the queue has been retired
+		 */
+		public boolean add(ApplicationEvent event) {
+			int count;
+			do {
+				count = this.pendingCount.get();
+				if (count < 0) {
+					return false;
+				}
+			}
+			while (!this.pendingCount.compareAndSet(count, count + 1));
+
+			Lane lane = this.lanes[0];
+			if (this.lanes.length > 1) {
+				Function<ApplicationEvent, ?> keyResolver = orderingKeyResolver;
+				Object key = (keyResolver != null ? keyResolver.apply(event) : null);
+				int index = (key != null ? key.hashCode() : this.nextLane.getAndIncrement());
+				lane = this.lanes[(index & Integer.MAX_VALUE) % this.lanes.length];
+			}
+			try {
+				lane.add(event);
+			}
+			catch (RuntimeException ex) {
+				release(1);
+				throw ex;
+			}
+			return true;
+		}
+
+		/**
+		 * Account for the given number of delivered or discarded events,
+		 * retiring this queue if no events are left.
+		 */
+		public void release(int eventCount) {
+			if (this.pendingCount.addAndGet(-eventCount) == 0 && this.pendingCount.compareAndSet(0, -1)) {
+				listenerQueues.remove(this.listener, this);
+			}
+		}
+	}
+
+
+	/**
+	 * A queue of events for a listener, drained by at most one task at a time.
+	 */
+	private final class Lane {
+
+		private final ListenerQueue owner;
+
+		private final BlockingQueue<ApplicationEvent> queue = (queueCapacity != Integer.MAX_VALUE ?
+				new ArrayBlockingQueue<>(queueCapacity) : new LinkedBlockingQueue<>());
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		public Lane(ListenerQueue owner) {
+			this.owner = owner;
+		}
+
+		public void add(ApplicationEvent event) {
+			if (!this.queue.offer(event)) {
+				switch (overflowPolicy) {
+					case BLOCK:
+						try {
+							this.queue.put(event);
+						}
+						catch (InterruptedException ex) {
+							Thread.currentThread().interrupt();
+							throw new TaskRejectedException("Interrupted while waiting for queue capacity", ex);
+						}
+						break;
+					case DISCARD_OLDEST:
+						while (!this.queue.offer(event)) {
+							ApplicationEvent oldest = this.queue.poll();
+							if (oldest != null) {
+								discard(oldest);
+							}
+						}
+						break;
+					case DISCARD:
+						discard(event);
+						return;
+					default:
+						throw new TaskRejectedException("Queue capacity of " + queueCapacity +
+								" reached for listener " + this.owner.listener);
+				}
+			}
+			try {
+				schedule();
+			}
+			catch (RuntimeException ex) {
+				// Withdraw the event, unless a running task has picked it up already
+				if (this.queue.remove(event)) {
+					throw ex;
+				}
+			}
+		}
+
+		private void discard(ApplicationEvent event) {
+			discardedCount.incrementAndGet();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Discarded " + event + " for listener " + this.owner.listener +
+						", queue capacity of " + queueCapacity + " reached");
+			}
+			this.owner.release(1);
+		}
+
+		private void schedule() {
+			if (this.scheduled.compareAndSet(false, true)) {
+				try {
+					getExecutor().execute(this::drain);
+				}
+				catch (RuntimeException ex) {
+					this.scheduled.set(false);
+					throw ex;
+				}
+			}
+		}
+
+		private void drain() {
+			List<ApplicationEvent> events = new ArrayList<>();
+			try {
+				while (this.queue.drainTo(events, batchSize) > 0) {
+					try {
+						deliver(events);
+					}
+					finally {
+						this.owner.release(events.size());
+						events.clear();
+					}
+				}
+			}
+			finally {
+				this.scheduled.set(false);
+			}
+			// Pick up events added after the last check, unless another task already did
+			if (!this.queue.isEmpty()) {
+				schedule();
+			}
+		}
+
+		private void deliver(List<ApplicationEvent> events) {
+			ApplicationListener<?> listener = this.owner.listener;
+			if (listener instanceof ApplicationListenerMethodAdapter &&
+					((ApplicationListenerMethodAdapter) listener).isBatchListener()) {
+				try {
+					invokeBatchListener((ApplicationListenerMethodAdapter) listener, new ArrayList<>(events));
+				}
+				catch (Throwable ex) {
+					logger.error("Failed to deliver " + events.size() + " events to " + listener, ex);
+				}
+			}
+			else {
+				for (ApplicationEvent event : events) {
+					try {
+						invokeListener(listener, event);
+					}
+					catch (Throwable ex) {
+						logger.error("Failed to deliver " + event + " to " + listener, ex);
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -128,4 +128,17 @@ public @interface EventListener {
 	 */
 	String condition() default "";
 
+	/**
+	 * Whether the annotated method receives events in batches.
+	 * <p>A batch listener method must declare the event types it handles
+	 * through the {@link #classes} attribute and accept a single
+	 * {@link java.util.List} parameter, receiving the matching events, or
+	 * their payloads, in a list. Such a method is invoked with a single element
+	 * list, unless events are delivered in batches, e.g. by an
+	 * {@link AsyncApplicationEventMulticaster}.
+	 * <p>The default is {@code false}.
+	 * @since 5.2.2
+	 */
+	boolean batch() default false;
+
 }
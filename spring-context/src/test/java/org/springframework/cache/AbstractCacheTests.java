@@ -16,7 +16,10 @@
 
 package org.springframework.cache;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
@@ -111,6 +114,36 @@ public abstract class AbstractCacheTests<T extends Cache> {
 		assertThat((Object) cache.get("enescu")).isNull();
 	}
 
+	@Test
+	public void testCacheBulkOperations() {
+		T cache = getCache();
+
+		String key1 = createRandomKey();
+		String key2 = createRandomKey();
+		String key3 = createRandomKey();
+		String key4 = createRandomKey();
+		cache.put(key1, "george");
+		cache.put(key2, "aurel");
+
+		Map<Object, Cache.ValueWrapper> result = cache.getAll(Arrays.asList(key1, key2, key3));
+		assertThat(result).containsOnlyKeys(key1, key2);
+		assertThat(result.get(key1).get()).isEqualTo("george");
+		assertThat(result.get(key2).get()).isEqualTo("aurel");
+
+		Map<Object, Object> entries = new LinkedHashMap<>();
+		entries.put(key3, "constantin");
+		entries.put(key4, null);
+		cache.putAll(entries);
+		assertThat(cache.get(key3).get()).isEqualTo("constantin");
+		assertThat(cache.get(key4)).isNotNull();
+		assertThat(cache.get(key4).get()).isNull();
+
+		cache.evictAll(Arrays.asList(key1, key3));
+		result = cache.getAll(Arrays.asList(key1, key2, key3, key4));
+		assertThat(result).containsOnlyKeys(key2, key4);
+		assertThat(result.get(key4).get()).isNull();
+	}
+
 	@Test
 	public void testCacheGetCallable() {
 		doTestCacheGetCallable("test");
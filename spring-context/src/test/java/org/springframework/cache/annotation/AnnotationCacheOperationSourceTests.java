@@ -25,8 +25,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
 
 import org.springframework.cache.interceptor.CacheEvictOperation;
 import org.springframework.cache.interceptor.CacheOperation;
@@ -188,6 +191,14 @@ public class AnnotationCacheOperationSourceTests {
 				getOps(AnnotatedClass.class, "invalidCacheResolverAndCacheManagerSet"));
 	}
 
+	@Test
+	public void batchCannotBeSetForAsynchronousReturnType() {
+		assertThatIllegalStateException().isThrownBy(() ->
+				getOps(AnnotatedClass.class, "invalidBatchWithCompletableFuture"));
+		assertThatIllegalStateException().isThrownBy(() ->
+				getOps(AnnotatedClass.class, "invalidBatchWithMono"));
+	}
+
 	@Test
 	public void fullClassLevelWithCustomCacheName() {
 		Collection<CacheOperation> ops = getOps(AnnotatedClassWithFullDefault.class, "methodLevelCacheName", 1);
@@ -380,6 +391,16 @@ public class AnnotationCacheOperationSourceTests {
 		public void invalidCacheResolverAndCacheManagerSet() {
 		}
 
+		@Cacheable(cacheNames = "test", batch = true)
+		public CompletableFuture<Map<Long, String>> invalidBatchWithCompletableFuture() {
+			return CompletableFuture.completedFuture(Collections.emptyMap());
+		}
+
+		@Cacheable(cacheNames = "test", batch = true)
+		public Mono<Map<Long, String>> invalidBatchWithMono() {
+			return Mono.empty();
+		}
+
 		@Cacheable // cache name can be inherited from CacheConfig. There's none here
 		public void noCacheNameSpecified() {
 		}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.AbstractValueAdaptingCacheTests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link BoundedConcurrentMapCache}.
+ *
+ * @author Anton Kessler
+ */
+class BoundedConcurrentMapCacheTests extends AbstractValueAdaptingCacheTests<BoundedConcurrentMapCache> {
+
+	private BoundedConcurrentMapCache cache;
+
+	private BoundedConcurrentMapCache cacheNoNull;
+
+
+	@BeforeEach
+	void setUp() {
+		this.cache = new BoundedConcurrentMapCache(CACHE_NAME, 100);
+		this.cacheNoNull = new BoundedConcurrentMapCache(CACHE_NAME_NO_NULL, 100, 0, null, null, false);
+	}
+
+	@Override
+	protected BoundedConcurrentMapCache getCache() {
+		return getCache(true);
+	}
+
+	@Override
+	protected BoundedConcurrentMapCache getCache(boolean allowNull) {
+		return (allowNull ? this.cache : this.cacheNoNull);
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.cache;
+	}
+
+
+	@Test
+	void evictBeyondMaximumSize() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 3);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.put("c", 3);
+		cache.put("d", 4);
+
+		assertThat(cache.size()).isEqualTo(3);
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.get("d").get()).isEqualTo(4);
+		assertThat(cache.getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void retainFrequentlyUsedEntries() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 10);
+		cache.put("hot", "value");
+		cache.get("hot");
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, i);
+		}
+
+		assertThat(cache.get("hot").get()).isEqualTo("value");
+		assertThat(cache.size()).isEqualTo(10);
+	}
+
+	@Test
+	void evictBeyondMaximumWeight() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 0, 10,
+				(key, value) -> ((String) value).length(), null, true);
+		cache.put("a", "12345");
+		cache.put("b", "1234");
+		assertThat(cache.getWeightedSize()).isEqualTo(9);
+
+		cache.put("c", "12");
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.getWeightedSize()).isEqualTo(6);
+
+		cache.put("b", "1");
+		assertThat(cache.getWeightedSize()).isEqualTo(3);
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	void expireAfterTimeToLive() {
+		AtomicLong time = new AtomicLong();
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 0, 0, null,
+				Duration.ofNanos(100), true);
+		cache.setTicker(time::get);
+		cache.put("a", 1);
+		cache.put("b", 2);
+
+		time.set(50);
+		assertThat(cache.get("a").get()).isEqualTo(1);
+		time.set(100);
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.putIfAbsent("a", 3)).isNull();
+		assertThat(cache.get("a", () -> 4)).isEqualTo(3);
+
+		cache.cleanUp();
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.getExpirationCount()).isEqualTo(2);
+	}
+
+	@Test
+	void loadExpiredEntry() {
+		AtomicLong time = new AtomicLong();
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 0, 0, null,
+				Duration.ofNanos(100), true);
+		cache.setTicker(time::get);
+		assertThat(cache.get("a", () -> 1)).isEqualTo(1);
+
+		time.set(100);
+		assertThat(cache.get("a", () -> 2)).isEqualTo(2);
+		assertThat(cache.getExpirationCount()).isEqualTo(1);
+	}
+
+	@Test
+	void statistics() {
+		this.cache.put("a", 1);
+		this.cache.get("a");
+		this.cache.get("b");
+		this.cache.get("c", () -> 3);
+		this.cache.get("c", () -> 4);
+
+		assertThat(this.cache.getHitCount()).isEqualTo(2);
+		assertThat(this.cache.getMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	void invalidBounds() {
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				new BoundedConcurrentMapCache(CACHE_NAME, -1));
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				new BoundedConcurrentMapCache(CACHE_NAME, 0, 10, null, null, true));
+	}
+
+}
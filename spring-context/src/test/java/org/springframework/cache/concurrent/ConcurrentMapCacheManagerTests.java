@@ -16,12 +16,15 @@
 
 package org.springframework.cache.concurrent;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 
 /**
  * @author Juergen Hoeller
@@ -140,4 +143,24 @@ public class ConcurrentMapCacheManagerTests {
 		assertThat(cache1x.get("key")).isNull();
 	}
 
+	@Test
+	public void testBoundedCaches() {
+		ConcurrentMapCacheManager cm = new ConcurrentMapCacheManager("c1");
+		Cache cache1 = cm.getCache("c1");
+		cache1.put("key", "value");
+
+		cm.setMaximumSize(2);
+		cm.setTimeToLive(Duration.ofMinutes(1));
+		Cache cache1x = cm.getCache("c1");
+		assertThat(cache1x).isInstanceOf(BoundedConcurrentMapCache.class);
+		assertThat(cache1x.get("key")).isNull();
+		cache1x.put("key1", "value1");
+		cache1x.put("key2", "value2");
+		cache1x.put("key3", "value3");
+		assertThat(((BoundedConcurrentMapCache) cache1x).size()).isEqualTo(2);
+		assertThat(((BoundedConcurrentMapCache) cache1x).getEvictionCount()).isEqualTo(1);
+
+		assertThatIllegalStateException().isThrownBy(() -> cm.setStoreByValue(true));
+	}
+
 }
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.SpringProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link Cacheable} methods with asynchronous return types.
+ *
+ * @author Anton Kessler
+ */
+class AsyncCachingTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+
+	private ConfigurableApplicationContext context;
+
+	private Cache cache;
+
+	private AsyncService service;
+
+
+	@BeforeEach
+	void setup() {
+		SpringProperties.setFlag(CacheAspectSupport.REACTIVE_CACHING_PROPERTY_NAME);
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("test");
+		this.service = this.context.getBean(AsyncService.class);
+	}
+
+	@AfterEach
+	void close() {
+		SpringProperties.setProperty(CacheAspectSupport.REACTIVE_CACHING_PROPERTY_NAME, null);
+		this.context.close();
+	}
+
+
+	@Test
+	void completableFuture() throws Exception {
+		Long first = this.service.future(1L).get();
+		Long second = this.service.future(1L).get();
+
+		assertThat(second).isEqualTo(first);
+		assertThat(this.cache.get(1L).get()).isEqualTo(first);
+		assertThat(this.service.future(2L).get()).isNotEqualTo(first);
+		assertThat(this.service.getInvocations()).isEqualTo(2);
+	}
+
+	@Test
+	void completableFutureConcurrentMisses() throws Exception {
+		CompletableFuture<Long> first = this.service.pending(1L);
+		CompletableFuture<Long> second = this.service.pending(1L);
+		assertThat(first).isNotDone();
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+
+		this.service.completePending(42L);
+		assertThat(first.get()).isEqualTo(42L);
+		assertThat(second.get()).isEqualTo(42L);
+		assertThat(this.cache.get(1L).get()).isEqualTo(42L);
+		assertThat(this.service.pending(1L).get()).isEqualTo(42L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	void completableFutureConcurrentMissCancelledByOneCaller() throws Exception {
+		CompletableFuture<Long> first = this.service.pending(1L);
+		CompletableFuture<Long> second = this.service.pending(1L);
+		assertThat(second).isNotSameAs(first);
+		first.cancel(true);
+
+		this.service.completePending(42L);
+		assertThat(first).isCancelled();
+		assertThat(second.get()).isEqualTo(42L);
+		assertThat(this.cache.get(1L).get()).isEqualTo(42L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	void completableFutureFailureNotCached() throws Exception {
+		CompletableFuture<Long> failed = this.service.failing(1L);
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(failed::get)
+				.withCauseInstanceOf(IllegalStateException.class);
+		assertThat(this.cache.get(1L)).isNull();
+
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> this.service.failing(1L).get());
+		assertThat(this.service.getInvocations()).isEqualTo(2);
+	}
+
+	@Test
+	void mono() {
+		Mono<Long> mono = this.service.mono(1L);
+		assertThat(this.service.getInvocations()).isEqualTo(0);
+		assertThat(this.cache.get(1L)).isNull();
+
+		Long first = mono.block(TIMEOUT);
+		Long second = this.service.mono(1L).block(TIMEOUT);
+		assertThat(second).isEqualTo(first);
+		assertThat(this.cache.get(1L).get()).isEqualTo(first);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	void monoEmpty() {
+		assertThat(this.service.empty(1L).block(TIMEOUT)).isNull();
+		assertThat(this.service.empty(1L).block(TIMEOUT)).isNull();
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	void monoNullReturnValue() {
+		Mono<Long> mono = this.service.nullMono(1L);
+		assertThat(mono.block(TIMEOUT)).isNull();
+		assertThat(mono.block(TIMEOUT)).isNull();
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	void flux() {
+		List<Long> first = this.service.flux(1L).collectList().block(TIMEOUT);
+		List<Long> second = this.service.flux(1L).collectList().block(TIMEOUT);
+
+		assertThat(first).hasSize(3);
+		assertThat(second).isEqualTo(first);
+		assertThat(this.cache.get(1L).get()).isEqualTo(first);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	void fluxNullReturnValue() {
+		assertThat(this.service.nullFlux(1L).collectList().block(TIMEOUT)).isEmpty();
+		assertThat(this.service.nullFlux(1L).collectList().block(TIMEOUT)).isEmpty();
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	void monoWithoutReactiveCaching() {
+		SpringProperties.setProperty(CacheAspectSupport.REACTIVE_CACHING_PROPERTY_NAME, null);
+		try (ConfigurableApplicationContext context = new AnnotationConfigApplicationContext(Config.class)) {
+			AsyncService service = context.getBean(AsyncService.class);
+			Mono<Long> mono = service.mono(1L);
+
+			assertThat(service.mono(1L)).isSameAs(mono);
+			assertThat(context.getBean(CacheManager.class).getCache("test").get(1L).get()).isSameAs(mono);
+		}
+	}
+
+	@Test
+	void completableFutureWithoutAsyncCaching() {
+		SpringProperties.setProperty(CacheAspectSupport.REACTIVE_CACHING_PROPERTY_NAME, null);
+		try (ConfigurableApplicationContext context = new AnnotationConfigApplicationContext(Config.class)) {
+			AsyncService service = context.getBean(AsyncService.class);
+			CompletableFuture<Long> future = service.future(1L);
+
+			assertThat(service.future(1L)).isSameAs(future);
+			assertThat(context.getBean(CacheManager.class).getCache("test").get(1L).get()).isSameAs(future);
+		}
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager("test");
+		}
+
+		@Bean
+		public AsyncService asyncService() {
+			return new AsyncService();
+		}
+	}
+
+
+	@CacheConfig(cacheNames = "test")
+	public static class AsyncService {
+
+		private final AtomicInteger invocations = new AtomicInteger();
+
+		private final CompletableFuture<Long> pendingResult = new CompletableFuture<>();
+
+		public int getInvocations() {
+			return this.invocations.get();
+		}
+
+		public void completePending(Long value) {
+			this.pendingResult.complete(value);
+		}
+
+		@Cacheable
+		public CompletableFuture<Long> future(Long id) {
+			return CompletableFuture.completedFuture((long) this.invocations.incrementAndGet() * 10);
+		}
+
+		@Cacheable
+		public CompletableFuture<Long> pending(Long id) {
+			this.invocations.incrementAndGet();
+			return this.pendingResult;
+		}
+
+		@Cacheable
+		public CompletableFuture<Long> failing(Long id) {
+			this.invocations.incrementAndGet();
+			CompletableFuture<Long> future = new CompletableFuture<>();
+			future.completeExceptionally(new IllegalStateException("failed"));
+			return future;
+		}
+
+		@Cacheable
+		public Mono<Long> mono(Long id) {
+			return Mono.fromCallable(() -> (long) this.invocations.incrementAndGet() * 10);
+		}
+
+		@Cacheable
+		public Mono<Long> empty(Long id) {
+			return Mono.fromRunnable(this.invocations::incrementAndGet);
+		}
+
+		@Cacheable
+		public Mono<Long> nullMono(Long id) {
+			this.invocations.incrementAndGet();
+			return null;
+		}
+
+		@Cacheable
+		public Flux<Long> flux(Long id) {
+			return Flux.defer(() -> {
+				long base = this.invocations.incrementAndGet() * 10;
+				return Flux.just(base, base + 1, base + 2);
+			});
+		}
+
+		@Cacheable
+		public Flux<Long> nullFlux(Long id) {
+			this.invocations.incrementAndGet();
+			return null;
+		}
+	}
+
+}
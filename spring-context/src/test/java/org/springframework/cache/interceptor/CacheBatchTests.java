@@ -0,0 +1,245 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.framework.Advised;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link Cacheable#batch()}.
+ *
+ * @author Anton Kessler
+ */
+class CacheBatchTests {
+
+	private ConfigurableApplicationContext context;
+
+	private Cache cache;
+
+	private BatchService service;
+
+
+	@BeforeEach
+	void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("testCache");
+		this.service = this.context.getBean(BatchService.class);
+	}
+
+	@AfterEach
+	void close() {
+		this.context.close();
+	}
+
+
+	@Test
+	void loadMissingKeysOnly() {
+		Map<Long, String> first = this.service.findAll(Arrays.asList(1L, 2L));
+		Map<Long, String> second = this.service.findAll(Arrays.asList(2L, 3L, 1L));
+
+		assertThat(first).containsExactly(entry(1L, "v1"), entry(2L, "v2"));
+		assertThat(second).containsExactly(entry(2L, "v2"), entry(3L, "v3"), entry(1L, "v1"));
+		assertThat(this.service.getInvocations()).containsExactly(
+				Arrays.asList(1L, 2L), Arrays.asList(3L));
+		assertThat(this.cache.get(3L).get()).isEqualTo("v3");
+	}
+
+	@Test
+	void noInvocationIfAllKeysCached() {
+		this.cache.put(1L, "cached1");
+		this.cache.put(2L, null);
+
+		Map<Long, String> result = this.service.findAll(Arrays.asList(1L, 2L, 1L));
+
+		assertThat(result).containsExactly(entry(1L, "cached1"), entry(2L, null));
+		assertThat(this.service.getInvocations()).isEmpty();
+	}
+
+	@Test
+	void entriesNotFoundAreNotCached() {
+		this.service.findAll(Arrays.asList(1L, 42L));
+		Map<Long, String> result = this.service.findAll(Arrays.asList(1L, 42L));
+
+		assertThat(result).containsExactly(entry(1L, "v1"));
+		assertThat(this.service.getInvocations()).containsExactly(
+				Arrays.asList(1L, 42L), Arrays.asList(42L));
+	}
+
+	@Test
+	void setParameter() {
+		this.cache.put("b", "cached");
+
+		Map<String, String> result = this.service.findAllByName(new TreeSet<>(Arrays.asList("a", "b", "c")));
+
+		assertThat(result).containsExactly(entry("a", "A"), entry("b", "cached"), entry("c", "C"));
+		assertThat(this.service.getInvocations()).containsExactly(new LinkedHashSet<>(Arrays.asList("a", "c")));
+	}
+
+	@Test
+	void conditionNotPassing() {
+		this.cache.put(1L, "cached1");
+
+		Map<Long, String> result = this.service.findAllUnlessDisabled(Arrays.asList(1L, 2L), false);
+
+		assertThat(result).containsExactly(entry(1L, "v1"), entry(2L, "v2"));
+		assertThat(this.cache.get(2L)).isNull();
+	}
+
+	@Test
+	void callerArgumentsNotModified() {
+		AtomicReference<Object> argumentAfterInvocation = new AtomicReference<>();
+		((Advised) this.service).addAdvice(0, (MethodInterceptor) invocation -> {
+			Object result = invocation.proceed();
+			argumentAfterInvocation.set(invocation.getArguments()[0]);
+			return result;
+		});
+		this.cache.put(1L, "cached1");
+		List<Long> ids = Arrays.asList(1L, 2L);
+
+		this.service.findAll(ids);
+
+		assertThat(argumentAfterInvocation.get()).isSameAs(ids);
+		assertThat(this.service.getInvocations()).containsExactly(Arrays.asList(2L));
+	}
+
+	@Test
+	void invalidDeclarations() {
+		assertThatIllegalStateException().isThrownBy(() -> this.service.batchWithKey(Arrays.asList(1L)))
+				.withMessageContaining("does not support key attribute");
+		assertThatIllegalStateException().isThrownBy(() -> this.service.batchWithKeyGenerator(Arrays.asList(1L)))
+				.withMessageContaining("does not support keyGenerator attribute");
+		assertThatIllegalStateException().isThrownBy(() -> this.service.batchWithoutMap(Arrays.asList(1L)))
+				.withMessageContaining("requires a Map return type");
+		assertThatIllegalStateException().isThrownBy(() -> this.service.batchWithoutCollection(1L))
+				.withMessageContaining("requires a single Collection parameter");
+		assertThatIllegalStateException().isThrownBy(() -> this.service.batchWithAnotherOperation(Arrays.asList(1L)))
+				.withMessageContaining("cannot be combined with other cache operations");
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager("testCache");
+		}
+
+		@Bean
+		public KeyGenerator customKeyGenerator() {
+			return new SimpleKeyGenerator();
+		}
+
+		@Bean
+		public BatchService batchService() {
+			return new BatchService();
+		}
+	}
+
+
+	public static class BatchService {
+
+		private final List<Object> invocations = new ArrayList<>();
+
+		public List<Object> getInvocations() {
+			return this.invocations;
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true)
+		public Map<Long, String> findAll(List<Long> ids) {
+			this.invocations.add(ids);
+			Map<Long, String> result = new LinkedHashMap<>();
+			for (Long id : ids) {
+				if (id < 10) {
+					result.put(id, "v" + id);
+				}
+			}
+			return result;
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true)
+		public Map<String, String> findAllByName(Set<String> names) {
+			this.invocations.add(names);
+			Map<String, String> result = new LinkedHashMap<>();
+			for (String name : names) {
+				result.put(name, name.toUpperCase());
+			}
+			return result;
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true, condition = "#enabled")
+		public Map<Long, String> findAllUnlessDisabled(List<Long> ids, boolean enabled) {
+			return findAll(ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true, key = "#ids")
+		public Map<Long, String> batchWithKey(List<Long> ids) {
+			return findAll(ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true, keyGenerator = "customKeyGenerator")
+		public Map<Long, String> batchWithKeyGenerator(List<Long> ids) {
+			return findAll(ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true)
+		public List<String> batchWithoutMap(List<Long> ids) {
+			return new ArrayList<>(findAll(ids).values());
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true)
+		public Map<Long, String> batchWithoutCollection(Long id) {
+			return findAll(Arrays.asList(id));
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true)
+		@CacheEvict(cacheNames = "testCache", key = "'all'")
+		public Map<Long, String> batchWithAnotherOperation(List<Long> ids) {
+			return findAll(ids);
+		}
+	}
+
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.annotation.CachingConfigurerSupport;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Provides various scenarios linked to the use of {@link Cacheable#sync()}.
+ *
+ * @author Stephane Nicoll
+ * @author Anton Kessler
+ * @since 4.3
+ */
+public class CacheSyncTests {
+
+	private ConfigurableApplicationContext context;
+
+	private SimpleService simpleService;
+
+	private CallableCountingCache testCache;
+
+	private Cache anotherTestCache;
+
+	@BeforeEach
+	public void setUp() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.simpleService = this.context.getBean(SimpleService.class);
+		this.simpleService.setSelf(this.simpleService);
+		CacheManager cacheManager = this.context.getBean(CacheManager.class);
+		this.testCache = (CallableCountingCache) cacheManager.getCache("testCache");
+		this.anotherTestCache = cacheManager.getCache("anotherTestCache");
+	}
+
+	@AfterEach
+	public void closeContext() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Test
+	public void singleCacheSync() {
+		Object value = this.simpleService.singleCacheSync("key");
+		assertThat(this.simpleService.singleCacheSync("key")).isEqualTo(value);
+		assertThat(this.testCache.get("key").get()).isEqualTo(value);
+		assertThat(this.testCache.getCallableGets()).isEqualTo(2);
+	}
+
+	@Test
+	public void unlessSync() {
+		assertThat(this.simpleService.unlessSync("key")).isEqualTo(0L);
+		assertThat(this.testCache.get("key")).isNull();
+		assertThat(this.simpleService.unlessSync("key")).isEqualTo(1L);
+		assertThat(this.simpleService.unlessSync("key")).isEqualTo(1L);
+		assertThat(this.testCache.getCallableGets()).isEqualTo(0);
+	}
+
+	@Test
+	public void severalCachesSync() {
+		Object value = this.simpleService.severalCachesSync("key");
+		assertThat(this.simpleService.severalCachesSync("key")).isEqualTo(value);
+		assertThat(this.testCache.get("key").get()).isEqualTo(value);
+		assertThat(this.anotherTestCache.get("key").get()).isEqualTo(value);
+		assertThat(this.testCache.getCallableGets()).isEqualTo(0);
+	}
+
+	@Test
+	public void severalCachesWithResolvedSync() {
+		Object value = this.simpleService.severalCachesWithResolvedSync("key");
+		assertThat(this.simpleService.severalCachesWithResolvedSync("key")).isEqualTo(value);
+		assertThat(this.testCache.get("key").get()).isEqualTo(value);
+		assertThat(this.anotherTestCache.get("key").get()).isEqualTo(value);
+	}
+
+	@Test
+	public void syncWithAnotherOperation() {
+		this.anotherTestCache.put("key", "stale");
+		Object value = this.simpleService.syncWithAnotherOperation("key");
+		assertThat(this.testCache.get("key").get()).isEqualTo(value);
+		assertThat(this.anotherTestCache.get("key")).isNull();
+	}
+
+	@Test
+	public void syncWithTwoGetOperations() {
+		Object value = this.simpleService.syncWithTwoGetOperations("key");
+		assertThat(this.simpleService.syncWithTwoGetOperations("key")).isEqualTo(value);
+		assertThat(this.testCache.get("key").get()).isEqualTo(value);
+		assertThat(this.anotherTestCache.get("key").get()).isEqualTo(value);
+	}
+
+	@Test
+	public void concurrentMissesShareInvocation() throws Exception {
+		AtomicReference<Object> first = new AtomicReference<>();
+		AtomicReference<Object> second = new AtomicReference<>();
+		Thread loader = new Thread(() -> first.set(this.simpleService.blockingSync(new ComparedKey("key"))));
+		loader.start();
+		assertThat(this.simpleService.awaitStarted()).isTrue();
+
+		ComparedKey waiterKey = new ComparedKey("key");
+		Thread waiter = new Thread(() -> second.set(this.simpleService.blockingSync(waiterKey)));
+		waiter.start();
+		assertThat(waiterKey.awaitCompared()).isTrue();
+
+		this.simpleService.release();
+		loader.join(5000);
+		waiter.join(5000);
+		assertThat(first.get()).isEqualTo(0L);
+		assertThat(second.get()).isEqualTo(0L);
+		assertThat(this.simpleService.getCounter()).isEqualTo(1L);
+		assertThat(this.testCache.get(new ComparedKey("key")).get()).isEqualTo(0L);
+	}
+
+	@Test
+	public void concurrentMissesForDifferentKeysNotShared() throws Exception {
+		AtomicReference<Object> first = new AtomicReference<>();
+		AtomicReference<Object> second = new AtomicReference<>();
+		Thread loader = new Thread(() -> first.set(this.simpleService.blockingTwoKeysSync("key", "first")));
+		loader.start();
+		assertThat(this.simpleService.awaitStarted()).isTrue();
+
+		// Same key for the first operation, but a different one for the second
+		Thread other = new Thread(() -> second.set(this.simpleService.blockingTwoKeysSync("key", "second")));
+		other.start();
+		assertThat(this.simpleService.awaitStarted()).isTrue();
+
+		this.simpleService.release();
+		loader.join(5000);
+		other.join(5000);
+		assertThat(this.simpleService.getCounter()).isEqualTo(2L);
+		assertThat(second.get()).isNotEqualTo(first.get());
+	}
+
+	@Test
+	public void concurrentMissesShareException() throws Exception {
+		AtomicReference<Throwable> first = new AtomicReference<>();
+		AtomicReference<Throwable> second = new AtomicReference<>();
+		Thread loader = new Thread(() -> captureFailure(new ComparedKey("key"), first));
+		loader.start();
+		assertThat(this.simpleService.awaitStarted()).isTrue();
+
+		ComparedKey waiterKey = new ComparedKey("key");
+		Thread waiter = new Thread(() -> captureFailure(waiterKey, second));
+		waiter.start();
+		assertThat(waiterKey.awaitCompared()).isTrue();
+
+		this.simpleService.release();
+		loader.join(5000);
+		waiter.join(5000);
+		assertThat(first.get()).isInstanceOf(IllegalStateException.class);
+		assertThat(second.get()).isSameAs(first.get());
+		assertThat(this.testCache.get("key")).isNull();
+		assertThatIllegalStateException().isThrownBy(() -> this.simpleService.blockingFailureSync("key"));
+	}
+
+	@Test
+	public void reentrantMissInvokedDirectly() {
+		assertThat(this.simpleService.reentrantSync("key", 2)).isEqualTo(0L);
+		assertThat(this.simpleService.getCounter()).isEqualTo(1L);
+		assertThat(this.testCache.get("key").get()).isEqualTo(0L);
+	}
+
+	@Test
+	public void waitForConcurrentMissInterruptible() throws Exception {
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		AtomicReference<Boolean> interrupted = new AtomicReference<>();
+		Thread loader = new Thread(() -> this.simpleService.blockingSync(new ComparedKey("key")));
+		loader.start();
+		assertThat(this.simpleService.awaitStarted()).isTrue();
+
+		ComparedKey waiterKey = new ComparedKey("key");
+		Thread waiter = new Thread(() -> {
+			try {
+				this.simpleService.blockingSync(waiterKey);
+			}
+			catch (Throwable ex) {
+				failure.set(ex);
+				interrupted.set(Thread.currentThread().isInterrupted());
+			}
+		});
+		waiter.start();
+		assertThat(waiterKey.awaitCompared()).isTrue();
+		waiter.interrupt();
+		waiter.join(5000);
+		assertThat(failure.get()).isInstanceOf(IllegalStateException.class)
+				.hasCauseInstanceOf(InterruptedException.class);
+		assertThat(interrupted.get()).isTrue();
+
+		this.simpleService.release();
+		loader.join(5000);
+		assertThat(this.simpleService.getCounter()).isEqualTo(1L);
+	}
+
+	private void captureFailure(Object key, AtomicReference<Throwable> failure) {
+		try {
+			this.simpleService.blockingFailureSync(key);
+		}
+		catch (Throwable ex) {
+			failure.set(ex);
+		}
+	}
+
+
+	/**
+	 * Cache key that signals when it gets compared with another key. A synchronized
+	 * cache miss compares its key with the one of a concurrent invocation in progress
+	 * right before waiting for it; the caches in these tests are empty at that point.
+	 */
+	static class ComparedKey {
+
+		private final String name;
+
+		private final CountDownLatch compared = new CountDownLatch(1);
+
+		ComparedKey(String name) {
+			this.name = name;
+		}
+
+		public boolean awaitCompared() throws InterruptedException {
+			return this.compared.await(5, TimeUnit.SECONDS);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			this.compared.countDown();
+			return (other instanceof ComparedKey && this.name.equals(((ComparedKey) other).name));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.name.hashCode();
+		}
+	}
+
+
+	static class CallableCountingCache extends ConcurrentMapCache {
+
+		private final AtomicInteger callableGets = new AtomicInteger();
+
+		CallableCountingCache(String name) {
+			super(name);
+		}
+
+		@Override
+		public <T> T get(Object key, Callable<T> valueLoader) {
+			this.callableGets.incrementAndGet();
+			return super.get(key, valueLoader);
+		}
+
+		public int getCallableGets() {
+			return this.callableGets.get();
+		}
+	}
+
+
+	static class SimpleService {
+
+		private final AtomicLong counter = new AtomicLong();
+
+		private final Semaphore started = new Semaphore(0);
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private SimpleService self;
+
+		public void setSelf(SimpleService self) {
+			this.self = self;
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Object singleCacheSync(Object arg1) {
+			return this.counter.getAndIncrement();
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true, unless = "#result < 1")
+		public Object unlessSync(Object arg1) {
+			return this.counter.getAndIncrement();
+		}
+
+		@Cacheable(cacheNames = {"testCache", "anotherTestCache"}, sync = true)
+		public Object severalCachesSync(Object arg1) {
+			return this.counter.getAndIncrement();
+		}
+
+		@Cacheable(cacheResolver = "testCacheResolver", sync = true)
+		public Object severalCachesWithResolvedSync(Object arg1) {
+			return this.counter.getAndIncrement();
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		@CacheEvict(cacheNames = "anotherTestCache", key = "#arg1")
+		public Object syncWithAnotherOperation(Object arg1) {
+			return this.counter.getAndIncrement();
+		}
+
+		@Caching(cacheable = {
+				@Cacheable(cacheNames = "testCache", sync = true),
+				@Cacheable(cacheNames = "anotherTestCache", sync = true)
+		})
+		public Object syncWithTwoGetOperations(Object arg1) {
+			return this.counter.getAndIncrement();
+		}
+
+		@Cacheable(cacheNames = {"testCache", "anotherTestCache"}, key = "#arg1", sync = true)
+		public Object reentrantSync(Object arg1, int depth) {
+			return (depth > 0 ? this.self.reentrantSync(arg1, depth - 1) : this.counter.getAndIncrement());
+		}
+
+		@Cacheable(cacheNames = {"testCache", "anotherTestCache"}, sync = true)
+		public Object blockingSync(Object arg1) {
+			awaitRelease();
+			return this.counter.getAndIncrement();
+		}
+
+		@Caching(cacheable = {
+				@Cacheable(cacheNames = "testCache", key = "#arg1", sync = true),
+				@Cacheable(cacheNames = "anotherTestCache", key = "#arg2", sync = true)
+		})
+		public Object blockingTwoKeysSync(Object arg1, Object arg2) {
+			awaitRelease();
+			return this.counter.getAndIncrement();
+		}
+
+		@Cacheable(cacheNames = {"testCache", "anotherTestCache"}, sync = true)
+		public Object blockingFailureSync(Object arg1) {
+			awaitRelease();
+			throw new IllegalStateException("Failure #" + this.counter.getAndIncrement());
+		}
+
+		public boolean awaitStarted() throws InterruptedException {
+			return this.started.tryAcquire(5, TimeUnit.SECONDS);
+		}
+
+		public void release() {
+			this.release.countDown();
+		}
+
+		public long getCounter() {
+			return this.counter.get();
+		}
+
+		private void awaitRelease() {
+			this.started.release();
+			try {
+				this.release.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Configuration
+	@EnableCaching
+	static class Config extends CachingConfigurerSupport {
+
+		@Override
+		@Bean
+		public CacheManager cacheManager() {
+			SimpleCacheManager cacheManager = new SimpleCacheManager();
+			cacheManager.setCaches(Arrays.asList(
+					new CallableCountingCache("testCache"), new ConcurrentMapCache("anotherTestCache")));
+			return cacheManager;
+		}
+
+		@Bean
+		public CacheResolver testCacheResolver() {
+			return new NamedCacheResolver(cacheManager(), "testCache", "anotherTestCache");
+		}
+
+		@Bean
+		public SimpleService simpleService() {
+			return new SimpleService();
+		}
+	}
+
+}
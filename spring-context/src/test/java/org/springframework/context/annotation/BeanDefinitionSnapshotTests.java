@@ -0,0 +1,443 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link BeanDefinitionSnapshot} generation and application.
+ *
+ * @author Anton Kessler
+ */
+class BeanDefinitionSnapshotTests {
+
+	@Test
+	void generateSnapshotSource() throws IOException {
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator(GeneratedConfig.class);
+		String source = generator.generate();
+
+		assertThat(generator.getSnapshotClassName()).isEqualTo(
+				"org.springframework.context.annotation.BeanDefinitionSnapshotTests_GeneratedConfig__BeanDefinitionSnapshot");
+		assertThat(source).contains("public final class BeanDefinitionSnapshotTests_GeneratedConfig__BeanDefinitionSnapshot " +
+				"implements BeanDefinitionSnapshot");
+		assertThat(source).contains("return new String[] {\"" + GeneratedConfig.class.getName() + "\"};");
+		assertThat(source).contains("registry.registerBeanDefinition(\"testBean\", beanDefinition");
+		assertThat(source).contains("registry.registerAlias(\"testBean\", \"aliasedTestBean\");");
+		assertThat(source).contains("bd.setFactoryBeanName(\"beanDefinitionSnapshotTests.GeneratedConfig\");");
+		assertThat(source).contains("bd.setUniqueFactoryMethodName(\"testBean\");");
+		assertThat(source).contains("Method v0 = ReflectionUtils.findMethod(ClassUtils.resolveClassName(\"" +
+				GeneratedConfig.class.getName() + "\", classLoader), \"testBean\");");
+		assertThat(source).contains("bd.setResolvedFactoryMethod(v0);");
+		assertThat(source).contains("BeanDefinitionSnapshot.BeanMethodDefinition bd = " +
+				"new BeanDefinitionSnapshot.BeanMethodDefinition(ClassUtils.resolveClassName(\"" +
+				GeneratedConfig.class.getName() + "\", classLoader), v0);");
+		assertThat(source).contains("bd.setLazyInit(true);");
+		assertThat(source).contains(ImportedConfig.class.getName());
+		assertThat(source).doesNotContain("registry.registerBeanDefinition(\"beanDefinitionSnapshotTests.GeneratedConfig\"");
+	}
+
+	@Test
+	void generatedFingerprintMatchesRuntimeFingerprint() throws IOException {
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator(GeneratedConfig.class);
+		String source = generator.generate();
+
+		String[] locations = {"classpath:" + GeneratedConfig.class.getName().replace('.', '/') + ".class",
+				"classpath:" + ImportedConfig.class.getName().replace('.', '/') + ".class"};
+		String fingerprint = BeanDefinitionSnapshotLoader.computeFingerprint(
+				locations, new String[0], new StandardEnvironment(), new DefaultResourceLoader());
+		assertThat(source).contains(fingerprint);
+	}
+
+	@Test
+	void generatedSnapshotRecordsConsultedProperties() throws IOException {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(
+				new MapPropertySource("test", Collections.singletonMap("snapshot.file", "p1")));
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator(PlaceholderConfig.class);
+		generator.setEnvironment(environment);
+		String source = generator.generate();
+
+		assertThat(source).contains("getFingerprintPropertyNames() {\n\t\treturn new String[] {\"snapshot.file\"");
+		assertThat(environment.getPropertySources().stream())
+				.noneMatch(propertySource -> propertySource.getName().endsWith("PropertyNameRecorder"));
+	}
+
+	@Test
+	void fingerprintDependsOnActiveProfiles() throws IOException {
+		String[] locations = {"classpath:" + GeneratedConfig.class.getName().replace('.', '/') + ".class"};
+		StandardEnvironment environment = new StandardEnvironment();
+		String defaultFingerprint = BeanDefinitionSnapshotLoader.computeFingerprint(
+				locations, new String[0], environment, new DefaultResourceLoader());
+		environment.setActiveProfiles("test");
+		String testFingerprint = BeanDefinitionSnapshotLoader.computeFingerprint(
+				locations, new String[0], environment, new DefaultResourceLoader());
+		assertThat(testFingerprint).isNotEqualTo(defaultFingerprint);
+	}
+
+	@Test
+	void fingerprintDependsOnPropertyValues() throws IOException {
+		String[] locations = {"classpath:" + GeneratedConfig.class.getName().replace('.', '/') + ".class"};
+		String[] propertyNames = {"snapshot.file"};
+		StandardEnvironment environment = new StandardEnvironment();
+		Map<String, Object> properties = new HashMap<>();
+		environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+		String absentFingerprint = BeanDefinitionSnapshotLoader.computeFingerprint(
+				locations, propertyNames, environment, new DefaultResourceLoader());
+		properties.put("snapshot.file", "p1");
+		String p1Fingerprint = BeanDefinitionSnapshotLoader.computeFingerprint(
+				locations, propertyNames, environment, new DefaultResourceLoader());
+		properties.put("snapshot.file", "p2");
+		String p2Fingerprint = BeanDefinitionSnapshotLoader.computeFingerprint(
+				locations, propertyNames, environment, new DefaultResourceLoader());
+		assertThat(p1Fingerprint).isNotEqualTo(absentFingerprint);
+		assertThat(p2Fingerprint).isNotEqualTo(p1Fingerprint);
+	}
+
+	@Test
+	void fingerprintDependsOnJarEntryContent(@TempDir Path tempDir) throws IOException {
+		Path jarFile = tempDir.resolve("app.jar");
+		String[] locations = {"jar:" + jarFile.toUri() + "!/com/example/*.class"};
+		writeJar(jarFile, "content1");
+		String fingerprint1 = BeanDefinitionSnapshotLoader.computeFingerprint(
+				locations, new String[0], new StandardEnvironment(), new DefaultResourceLoader());
+		writeJar(jarFile, "content2");
+		String fingerprint2 = BeanDefinitionSnapshotLoader.computeFingerprint(
+				locations, new String[0], new StandardEnvironment(), new DefaultResourceLoader());
+		assertThat(fingerprint2).isNotEqualTo(fingerprint1);
+	}
+
+	@Test
+	void fingerprintDependsOnFileContent(@TempDir Path tempDir) throws IOException {
+		Path classFile = tempDir.resolve("Example.class");
+		String[] locations = {classFile.toUri().toString()};
+		Files.write(classFile, "content1".getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(classFile, FileTime.fromMillis(0));
+		String fingerprint1 = BeanDefinitionSnapshotLoader.computeFingerprint(
+				locations, new String[0], new StandardEnvironment(), new DefaultResourceLoader());
+		Files.write(classFile, "content2".getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(classFile, FileTime.fromMillis(0));
+		String fingerprint2 = BeanDefinitionSnapshotLoader.computeFingerprint(
+				locations, new String[0], new StandardEnvironment(), new DefaultResourceLoader());
+		assertThat(fingerprint2).isNotEqualTo(fingerprint1);
+	}
+
+	@Test
+	void conditionsOtherThanProfileAreRejected() {
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator(ConditionalConfig.class);
+		assertThatIllegalStateException().isThrownBy(generator::generate)
+				.withMessageContaining(NeverCondition.class.getName() + " on " +
+						ConditionalConfig.class.getName() + ".conditionalBean()");
+	}
+
+	@Test
+	void profileConditionsAreAccepted() throws IOException {
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator(ProfileConfig.class);
+		assertThat(generator.generate()).doesNotContain("profileBean");
+	}
+
+	@Test
+	void upToDateSnapshotReplacesParsing() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(SnapshotConfig.class);
+		assertThat(context.containsBean("fromSnapshot")).isTrue();
+		assertThat(context.containsBean("fromConfig")).isFalse();
+		assertThat(context.getBean("fromSnapshot", TestBean.class).getName()).isEqualTo("snapshot");
+		context.close();
+	}
+
+	@Test
+	void generatedSnapshotRoundTrip(@TempDir Path tempDir) throws Exception {
+		Path sourceFile = new BeanDefinitionSnapshotGenerator(RoundTripConfig.class).writeTo(tempDir);
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+			fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(tempDir.toFile()));
+			assertThat(compiler.getTask(null, fileManager, null, Collections.singletonList("-proc:none"), null,
+					fileManager.getJavaFileObjects(sourceFile.toFile())).call()).isTrue();
+		}
+
+		try (URLClassLoader classLoader = new URLClassLoader(
+				new URL[] {tempDir.toUri().toURL()}, getClass().getClassLoader())) {
+			AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+			context.setClassLoader(classLoader);
+			context.register(RoundTripConfig.class);
+			context.refresh();
+
+			// Bean definitions registered from the snapshot, with their annotation metadata
+			BeanDefinition bd = context.getBeanDefinition("roundTripBean");
+			assertThat(bd).isInstanceOf(BeanDefinitionSnapshot.BeanMethodDefinition.class);
+			AnnotatedBeanDefinition abd = (AnnotatedBeanDefinition) bd;
+			assertThat(abd.getMetadata().getClassName()).isEqualTo(RoundTripConfig.class.getName());
+			assertThat(abd.getFactoryMethodMetadata().getMethodName()).isEqualTo("roundTripBean");
+			BeanDefinition importedBd = context.getBeanDefinition(ImportAwareConfig.class.getName());
+			assertThat(importedBd).isInstanceOf(AnnotatedBeanDefinition.class);
+			assertThat(((AnnotatedBeanDefinition) importedBd).getMetadata().getClassName())
+					.isEqualTo(ImportAwareConfig.class.getName());
+
+			// @Configuration class enhanced, with @Bean methods returning the singletons
+			RoundTripConfig config = context.getBean(RoundTripConfig.class);
+			assertThat(config.getClass().getName()).contains(ClassUtils.CGLIB_CLASS_SEPARATOR);
+			assertThat(context.getBean("spouseBean", TestBean.class).getSpouse())
+					.isSameAs(context.getBean("roundTripBean"));
+			assertThat(config.roundTripBean()).isSameAs(context.getBean("roundTripBean"));
+
+			// ImportAware callback with the metadata of the importing class
+			AnnotationMetadata importMetadata = context.getBean(ImportAwareConfig.class).importMetadata;
+			assertThat(importMetadata).isNotNull();
+			assertThat(importMetadata.getClassName()).isEqualTo(RoundTripConfig.class.getName());
+			assertThat(context.getBean("importAwareBean", TestBean.class).getName())
+					.isEqualTo(RoundTripConfig.class.getName());
+			context.close();
+		}
+	}
+
+	@Test
+	void staleSnapshotFallsBackToParsing() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(StaleSnapshotConfig.class);
+		assertThat(context.containsBean("fromSnapshot")).isFalse();
+		assertThat(context.containsBean("fromConfig")).isTrue();
+		context.close();
+	}
+
+	/**
+	 * Write a jar file with a single entry of the given content, using a fixed
+	 * timestamp like a reproducible build does.
+	 */
+	private static void writeJar(Path jarFile, String content) throws IOException {
+		try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(jarFile))) {
+			JarEntry entry = new JarEntry("com/example/Example.class");
+			entry.setTime(0);
+			jar.putNextEntry(entry);
+			jar.write(content.getBytes(StandardCharsets.UTF_8));
+			jar.closeEntry();
+		}
+	}
+
+
+	@Configuration
+	@Import(ImportedConfig.class)
+	static class GeneratedConfig {
+
+		@Bean({"testBean", "aliasedTestBean"})
+		@Lazy
+		public ITestBean testBean() {
+			return new TestBean("test");
+		}
+	}
+
+	@Configuration
+	static class ImportedConfig {
+
+		@Bean
+		public TestBean importedBean() {
+			return new TestBean("imported");
+		}
+	}
+
+	@Configuration
+	@PropertySource("classpath:org/springframework/context/annotation/${snapshot.file}.properties")
+	static class PlaceholderConfig {
+	}
+
+	@Configuration
+	static class ConditionalConfig {
+
+		@Bean
+		@Conditional(NeverCondition.class)
+		public TestBean conditionalBean() {
+			return new TestBean("conditional");
+		}
+	}
+
+	@Configuration
+	static class ProfileConfig {
+
+		@Bean
+		@Profile("snapshot")
+		public TestBean profileBean() {
+			return new TestBean("profile");
+		}
+	}
+
+	static class NeverCondition implements Condition {
+
+		@Override
+		public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+			return false;
+		}
+	}
+
+	@Configuration
+	@Import(ImportAwareConfig.class)
+	static class RoundTripConfig {
+
+		@Bean
+		public TestBean roundTripBean() {
+			return new TestBean("roundTrip");
+		}
+
+		@Bean
+		public TestBean spouseBean() {
+			TestBean tb = new TestBean("spouse");
+			tb.setSpouse(roundTripBean());
+			return tb;
+		}
+	}
+
+	@Configuration
+	static class ImportAwareConfig implements ImportAware {
+
+		AnnotationMetadata importMetadata;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importMetadata = importMetadata;
+		}
+
+		@Bean
+		public TestBean importAwareBean() {
+			return new TestBean(this.importMetadata.getClassName());
+		}
+	}
+
+	@Configuration
+	static class SnapshotConfig {
+
+		@Bean
+		public TestBean fromConfig() {
+			return new TestBean("config");
+		}
+	}
+
+	@Configuration
+	static class StaleSnapshotConfig {
+
+		@Bean
+		public TestBean fromConfig() {
+			return new TestBean("config");
+		}
+	}
+
+}
+
+
+/**
+ * Snapshot for {@link BeanDefinitionSnapshotTests.SnapshotConfig}, computing
+ * its fingerprint on the fly so that it is always up to date.
+ */
+class BeanDefinitionSnapshotTests_SnapshotConfig__BeanDefinitionSnapshot implements BeanDefinitionSnapshot {
+
+	private static final String[] LOCATIONS = {"classpath:org/springframework/context/annotation/" +
+			"BeanDefinitionSnapshotTests$SnapshotConfig.class"};
+
+	@Override
+	public String[] getConfigurationClassNames() {
+		return new String[] {BeanDefinitionSnapshotTests.SnapshotConfig.class.getName()};
+	}
+
+	@Override
+	public String[] getFingerprintLocations() {
+		return LOCATIONS;
+	}
+
+	@Override
+	public String[] getFingerprintPropertyNames() {
+		return new String[0];
+	}
+
+	@Override
+	public String getFingerprint() {
+		try {
+			return BeanDefinitionSnapshotLoader.computeFingerprint(
+					LOCATIONS, new String[0], new StandardEnvironment(), new DefaultResourceLoader());
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	@Override
+	public String[] getPropertySourceClassNames() {
+		return new String[0];
+	}
+
+	@Override
+	public Map<String, String> getImportingClassNames() {
+		return Collections.emptyMap();
+	}
+
+	@Override
+	public void registerBeanDefinitions(BeanDefinitionRegistry registry, ClassLoader classLoader) {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getPropertyValues().add("name", "snapshot");
+		registry.registerBeanDefinition("fromSnapshot", bd);
+	}
+
+}
+
+
+/**
+ * Snapshot for {@link BeanDefinitionSnapshotTests.StaleSnapshotConfig} with an
+ * outdated fingerprint.
+ */
+class BeanDefinitionSnapshotTests_StaleSnapshotConfig__BeanDefinitionSnapshot
+		extends BeanDefinitionSnapshotTests_SnapshotConfig__BeanDefinitionSnapshot {
+
+	@Override
+	public String[] getConfigurationClassNames() {
+		return new String[] {BeanDefinitionSnapshotTests.StaleSnapshotConfig.class.getName()};
+	}
+
+	@Override
+	public String getFingerprint() {
+		return "stale";
+	}
+
+}
@@ -20,7 +20,14 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.aopalliance.intercept.MethodInvocation;
 import org.junit.jupiter.api.Test;
@@ -208,6 +215,32 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		assertThat(listener1.seenEvents.size()).isEqualTo(2);
 	}
 
+	@Test
+	public void listenerAddedAfterListenerRetrieval() {
+		MyOrderedListener1 listener1 = new MyOrderedListener1();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.addApplicationListener(listener1);
+		smc.multicastEvent(new MyEvent(this));
+		smc.multicastEvent(new MyOtherEvent(this));
+		assertThat(smc.retrieverCache.size()).isEqualTo(2);
+
+		MySmartListener listener2 = new MySmartListener();
+		smc.addApplicationListener(listener2);
+		assertThat(smc.retrieverCache.size()).isEqualTo(2);
+
+		MyEvent event = new MyEvent(this);
+		assertThat(smc.getApplicationListeners(event, ResolvableType.forInstance(event)))
+				.containsExactly(listener2, listener1);
+		smc.multicastEvent(event);
+		smc.multicastEvent(new MyOtherEvent(this));
+		assertThat(listener1.seenEvents.size()).isEqualTo(4);
+		assertThat(listener2.seenEvents).containsExactly(event);
+
+		smc.removeApplicationListener(listener2);
+		assertThat(smc.getApplicationListeners(event, ResolvableType.forInstance(event)))
+				.containsExactly(listener1);
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void proxiedListeners() {
@@ -516,6 +549,52 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 	}
 
 
+	@Test
+	public void publishEventWhileLazyListenerInCreation() throws Exception {
+		CountDownLatch creationStarted = new CountDownLatch(1);
+		CountDownLatch creationReleased = new CountDownLatch(1);
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean("listener", MyEventListener.class, () -> {
+			creationStarted.countDown();
+			try {
+				assertThat(creationReleased.await(10, TimeUnit.SECONDS)).isTrue();
+			}
+			catch (InterruptedException ex) {
+				throw new IllegalStateException(ex);
+			}
+			return new MyEventListener();
+		}, bd -> bd.setLazyInit(true));
+		context.refresh();
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<MyEventListener> creation = executor.submit(() -> context.getBean(MyEventListener.class));
+			assertThat(creationStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+			MyEvent event = new MyEvent(context);
+			AtomicReference<Thread> publisher = new AtomicReference<>();
+			Future<?> publication = executor.submit(() -> {
+				publisher.set(Thread.currentThread());
+				context.publishEvent(event);
+			});
+			// Let the publisher run into the listener bean in creation before completing it
+			long deadline = System.currentTimeMillis() + 10000;
+			while (publisher.get() == null || publisher.get().getState() != Thread.State.WAITING) {
+				assertThat(System.currentTimeMillis()).isLessThan(deadline);
+				Thread.sleep(10);
+			}
+			creationReleased.countDown();
+
+			publication.get(10, TimeUnit.SECONDS);
+			assertThat(creation.get(10, TimeUnit.SECONDS).seenEvents).containsExactly(event);
+		}
+		finally {
+			executor.shutdownNow();
+			context.close();
+		}
+	}
+
+
 	@SuppressWarnings("serial")
 	public static class MyEvent extends ApplicationEvent {
 
@@ -550,6 +629,27 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 	}
 
 
+	public static class MySmartListener implements SmartApplicationListener {
+
+		public final List<ApplicationEvent> seenEvents = new LinkedList<>();
+
+		@Override
+		public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+			return MyEvent.class.isAssignableFrom(eventType);
+		}
+
+		@Override
+		public void onApplicationEvent(ApplicationEvent event) {
+			this.seenEvents.add(event);
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.HIGHEST_PRECEDENCE;
+		}
+	}
+
+
 	public interface MyOrderedListenerIfc<E extends ApplicationEvent> extends ApplicationListener<E>, Ordered {
 	}
 
@@ -590,6 +690,17 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 	}
 
 
+	public static class MyEventListener implements ApplicationListener<MyEvent> {
+
+		public final List<MyEvent> seenEvents = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void onApplicationEvent(MyEvent event) {
+			this.seenEvents.add(event);
+		}
+	}
+
+
 	public static class MyNonSingletonListener implements ApplicationListener<ApplicationEvent> {
 
 		public static final Set<ApplicationEvent> seenEvents = new HashSet<>();
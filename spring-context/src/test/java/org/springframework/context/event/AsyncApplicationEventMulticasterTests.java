@@ -0,0 +1,389 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.core.task.OverflowPolicy;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link AsyncApplicationEventMulticaster}.
+ *
+ * @author Anton Kessler
+ */
+class AsyncApplicationEventMulticasterTests {
+
+	private final AsyncApplicationEventMulticaster multicaster = new AsyncApplicationEventMulticaster();
+
+
+	@AfterEach
+	void tearDown() {
+		this.multicaster.destroy();
+	}
+
+
+	@Test
+	void eventsDeliveredInOrderPerListener() throws Exception {
+		int eventCount = 1000;
+		List<Integer> received1 = Collections.synchronizedList(new ArrayList<>());
+		List<Integer> received2 = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch latch = new CountDownLatch(eventCount * 2);
+		this.multicaster.addApplicationListener(payloadListener(received1, latch));
+		this.multicaster.addApplicationListener(payloadListener(received2, latch));
+
+		for (int i = 0; i < eventCount; i++) {
+			this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, i));
+		}
+
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		for (List<Integer> received : Arrays.asList(received1, received2)) {
+			assertThat(received).hasSize(eventCount);
+			for (int i = 0; i < eventCount; i++) {
+				assertThat(received.get(i)).isEqualTo(i);
+			}
+		}
+	}
+
+	@Test
+	void eventsDeliveredInOrderPerOrderingKey() throws Exception {
+		int keyCount = 10;
+		int eventsPerKey = 100;
+		this.multicaster.setConcurrency(4);
+		this.multicaster.setOrderingKeyResolver(event ->
+				(Integer) ((PayloadApplicationEvent<?>) event).getPayload() % keyCount);
+		Map<Integer, List<Integer>> received = new ConcurrentHashMap<>();
+		CountDownLatch latch = new CountDownLatch(keyCount * eventsPerKey);
+		this.multicaster.addApplicationListener((PayloadApplicationEvent<Integer> event) -> {
+			int payload = event.getPayload();
+			received.computeIfAbsent(payload % keyCount, key -> Collections.synchronizedList(new ArrayList<>())).add(payload);
+			latch.countDown();
+		});
+
+		for (int i = 0; i < keyCount * eventsPerKey; i++) {
+			this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, i));
+		}
+
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(received).hasSize(keyCount);
+		received.forEach((key, payloads) -> {
+			assertThat(payloads).hasSize(eventsPerKey);
+			for (int i = 0; i < eventsPerKey; i++) {
+				assertThat(payloads.get(i)).isEqualTo(key + i * keyCount);
+			}
+		});
+	}
+
+	@Test
+	void discardWhenQueueFull() throws Exception {
+		this.multicaster.setQueueCapacity(1);
+		this.multicaster.setOverflowPolicy(OverflowPolicy.DISCARD);
+		BlockingListener listener = new BlockingListener();
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "first"));
+		assertThat(listener.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "second"));
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "third"));
+		assertThat(this.multicaster.getDiscardedCount()).isEqualTo(1);
+
+		listener.release.countDown();
+		assertThat(listener.handled.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(listener.payloads).containsExactly("first", "second");
+	}
+
+	@Test
+	void discardOldestWhenQueueFull() throws Exception {
+		this.multicaster.setQueueCapacity(1);
+		this.multicaster.setOverflowPolicy(OverflowPolicy.DISCARD_OLDEST);
+		BlockingListener listener = new BlockingListener();
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "first"));
+		assertThat(listener.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "second"));
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "third"));
+		assertThat(this.multicaster.getDiscardedCount()).isEqualTo(1);
+
+		listener.release.countDown();
+		assertThat(listener.handled.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(listener.payloads).containsExactly("first", "third");
+	}
+
+	@Test
+	void abortWhenQueueFull() throws Exception {
+		this.multicaster.setQueueCapacity(1);
+		this.multicaster.setOverflowPolicy(OverflowPolicy.ABORT);
+		BlockingListener listener = new BlockingListener();
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "first"));
+		assertThat(listener.started.await(5, TimeUnit.SECONDS)).isTrue();
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "second"));
+
+		assertThatExceptionOfType(TaskRejectedException.class).isThrownBy(() ->
+				this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "third")));
+		listener.release.countDown();
+	}
+
+	@Test
+	void eventWithdrawnWhenExecutorRejects() throws Exception {
+		AtomicBoolean rejecting = new AtomicBoolean();
+		this.multicaster.setTaskExecutor(task -> {
+			if (rejecting.get()) {
+				throw new TaskRejectedException("Executor shut down");
+			}
+			new Thread(task).start();
+		});
+		this.multicaster.setConcurrency(2);
+		this.multicaster.setOrderingKeyResolver(event ->
+				(Integer) ((PayloadApplicationEvent<?>) event).getPayload() % 2);
+		List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch handled = new CountDownLatch(2);
+		this.multicaster.addApplicationListener((PayloadApplicationEvent<Integer> event) -> {
+			if (event.getPayload() == 0) {
+				started.countDown();
+				awaitQuietly(release);
+			}
+			received.add(event.getPayload());
+			handled.countDown();
+		});
+
+		// Keep the listener's queue alive while its other lane gets rejected
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, 0));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		rejecting.set(true);
+		assertThatExceptionOfType(TaskRejectedException.class).isThrownBy(() ->
+				this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, 1)));
+
+		// The rejected event must not be delivered along with subsequent ones
+		rejecting.set(false);
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, 3));
+		release.countDown();
+		assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(received).containsExactlyInAnyOrder(0, 3);
+	}
+
+	@Test
+	void batchListenerReceivesQueuedEvents() throws Exception {
+		BatchListener target = new BatchListener();
+		Method method = ReflectionUtils.findMethod(BatchListener.class, "handleStrings", List.class);
+		StaticApplicationListenerMethodAdapter adapter = new StaticApplicationListenerMethodAdapter(method, target);
+		assertThat(adapter.isBatchListener()).isTrue();
+		this.multicaster.setBatchSize(2);
+		this.multicaster.addApplicationListener(adapter);
+
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "a"));
+		assertThat(target.started.await(5, TimeUnit.SECONDS)).isTrue();
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "b"));
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, 1));
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "c"));
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "d"));
+		target.release.countDown();
+
+		assertThat(target.handled.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(target.batches).containsExactly(
+				Collections.singletonList("a"), Arrays.asList("b", "c"), Collections.singletonList("d"));
+	}
+
+	@Test
+	void batchesDeliveredThroughListenerAndErrorHandler() throws Exception {
+		BatchListener target = new BatchListener();
+		Method method = ReflectionUtils.findMethod(BatchListener.class, "handleStrings", List.class);
+		List<List<ApplicationEvent>> delivered = Collections.synchronizedList(new ArrayList<>());
+		List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch handled = new CountDownLatch(1);
+		this.multicaster.setErrorHandler(ex -> {
+			errors.add(ex);
+			handled.countDown();
+		});
+		this.multicaster.addApplicationListener(new StaticApplicationListenerMethodAdapter(method, target) {
+			@Override
+			public void onApplicationEvents(List<ApplicationEvent> events) {
+				delivered.add(events);
+				throw new IllegalStateException("failed");
+			}
+		});
+
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "a"));
+		assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(delivered).hasSize(1);
+		assertThat(errors).hasSize(1);
+		assertThat(target.batches).isEmpty();
+	}
+
+	@Test
+	void listenerQueueRemovedOnceDrained() throws Exception {
+		// Drain on the calling thread, so that each multicast call returns once drained
+		this.multicaster.setTaskExecutor(new SyncTaskExecutor());
+		List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch latch = new CountDownLatch(10);
+		this.multicaster.addApplicationListener(payloadListener(received, latch));
+		for (int i = 0; i < 10; i++) {
+			this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, i));
+		}
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		Map<?, ?> listenerQueues = (Map<?, ?>) new DirectFieldAccessor(this.multicaster).getPropertyValue("listenerQueues");
+		assertThat(listenerQueues).isEmpty();
+
+		CountDownLatch next = new CountDownLatch(1);
+		this.multicaster.addApplicationListener(payloadListener(received, next));
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, 10));
+		assertThat(next.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(received).contains(10);
+	}
+
+	@Test
+	void batchListenerInvokedWithSingleEventOutsideOfBatches() {
+		BatchListener target = new BatchListener();
+		Method method = ReflectionUtils.findMethod(BatchListener.class, "handleStrings", List.class);
+		StaticApplicationListenerMethodAdapter adapter = new StaticApplicationListenerMethodAdapter(method, target);
+		target.release.countDown();
+
+		adapter.onApplicationEvent(new PayloadApplicationEvent<>(this, "a"));
+		assertThat(target.batches).containsExactly(Collections.singletonList("a"));
+	}
+
+	@Test
+	void batchListenerRequiresExplicitDeclaration() {
+		BatchListener target = new BatchListener();
+		Method method = ReflectionUtils.findMethod(BatchListener.class, "handleList", List.class);
+		assertThat(new StaticApplicationListenerMethodAdapter(method, target).isBatchListener()).isFalse();
+
+		Method invalidMethod = ReflectionUtils.findMethod(BatchListener.class, "handleWithoutClasses", List.class);
+		assertThatIllegalStateException().isThrownBy(() ->
+				new StaticApplicationListenerMethodAdapter(invalidMethod, target));
+	}
+
+	@Test
+	void eventsDeliveredSynchronouslyAfterDestroy() {
+		List<Thread> threads = new ArrayList<>();
+		this.multicaster.addApplicationListener(event -> threads.add(Thread.currentThread()));
+		this.multicaster.destroy();
+
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "event"));
+		assertThat(threads).containsExactly(Thread.currentThread());
+	}
+
+
+	private static ApplicationListener<PayloadApplicationEvent<Integer>> payloadListener(
+			List<Integer> received, CountDownLatch latch) {
+
+		return event -> {
+			received.add(event.getPayload());
+			latch.countDown();
+		};
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	private static class BlockingListener implements ApplicationListener<PayloadApplicationEvent<String>> {
+
+		private final List<String> payloads = Collections.synchronizedList(new ArrayList<>());
+
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private final CountDownLatch handled = new CountDownLatch(2);
+
+		@Override
+		public void onApplicationEvent(PayloadApplicationEvent<String> event) {
+			this.started.countDown();
+			awaitQuietly(this.release);
+			this.payloads.add(event.getPayload());
+			this.handled.countDown();
+		}
+	}
+
+
+	static class BatchListener {
+
+		private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private final CountDownLatch handled = new CountDownLatch(3);
+
+		@EventListener(classes = String.class, batch = true)
+		public void handleStrings(List<String> payloads) {
+			this.started.countDown();
+			awaitQuietly(this.release);
+			this.batches.add(payloads);
+			this.handled.countDown();
+		}
+
+		@EventListener(String.class)
+		public void handleList(List<String> payloads) {
+		}
+
+		@EventListener(batch = true)
+		public void handleWithoutClasses(List<String> payloads) {
+		}
+	}
+
+
+	private static class StaticApplicationListenerMethodAdapter extends ApplicationListenerMethodAdapter {
+
+		private final Object targetBean;
+
+		public StaticApplicationListenerMethodAdapter(Method method, Object targetBean) {
+			super("unused", targetBean.getClass(), method);
+			this.targetBean = targetBean;
+		}
+
+		@Override
+		public Object getTargetBean() {
+			return this.targetBean;
+		}
+	}
+
+}
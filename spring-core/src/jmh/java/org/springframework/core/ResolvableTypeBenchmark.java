@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link ResolvableType} creation and resolution, as performed
+ * by the container for every type-based bean lookup.
+ *
+ * <p>Typically this can be run with
+ * {@code "./gradlew :spring-core:jmh -Pjmh.includes=ResolvableTypeBenchmark"}.
+ *
+ * @author Anton Kessler
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ResolvableTypeBenchmark {
+
+	@Benchmark
+	public void forClass(Blackhole bh) {
+		bh.consume(ResolvableType.forClass(StringListMap.class));
+	}
+
+	@Benchmark
+	public void forClassWithGenerics(Blackhole bh) {
+		bh.consume(ResolvableType.forClassWithGenerics(Map.class, String.class, Integer.class));
+	}
+
+	@Benchmark
+	public void resolveGenericsAsMap(Blackhole bh) {
+		bh.consume(ResolvableType.forClass(StringListMap.class).asMap().resolveGenerics());
+	}
+
+	@Benchmark
+	public void isAssignableFrom(AssignabilityData data, Blackhole bh) {
+		bh.consume(data.mapType.isAssignableFrom(data.stringListMapType));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class AssignabilityData {
+
+		ResolvableType mapType = ResolvableType.forClassWithGenerics(Map.class, String.class, List.class);
+
+		ResolvableType stringListMapType = ResolvableType.forClass(StringListMap.class);
+	}
+
+
+	@SuppressWarnings("serial")
+	static class StringListMap extends HashMap<String, List<String>> {
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link AntPathMatcher}, matching a set of request paths
+ * against typical handler mapping patterns.
+ *
+ * <p>Typically this can be run with
+ * {@code "./gradlew :spring-core:jmh -Pjmh.includes=AntPathMatcherBenchmark"}.
+ *
+ * @author Anton Kessler
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AntPathMatcherBenchmark {
+
+	@Benchmark
+	public void matchAllPatterns(MatchData data, Blackhole bh) {
+		for (String path : data.paths) {
+			for (String pattern : data.patterns) {
+				bh.consume(data.matcher.match(pattern, path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void extractUriTemplateVariables(MatchData data, Blackhole bh) {
+		for (String path : data.paths) {
+			if (data.matcher.match(data.templatePattern, path)) {
+				bh.consume(data.matcher.extractUriTemplateVariables(data.templatePattern, path));
+			}
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class MatchData {
+
+		AntPathMatcher matcher;
+
+		List<String> patterns;
+
+		List<String> paths;
+
+		String templatePattern = "/api/projects/{project}/releases/{version}";
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.matcher = new AntPathMatcher();
+			this.patterns = new ArrayList<>();
+			this.patterns.add("/");
+			this.patterns.add("/api/projects");
+			this.patterns.add("/api/projects/{project}");
+			this.patterns.add("/api/projects/{project}/releases");
+			this.patterns.add(this.templatePattern);
+			this.patterns.add("/static/**/*.js");
+			this.patterns.add("/static/**/*.{css|png}");
+			this.patterns.add("/admin/*/settings");
+			this.paths = new ArrayList<>();
+			this.paths.add("/");
+			this.paths.add("/api/projects");
+			this.paths.add("/api/projects/spring-framework");
+			this.paths.add("/api/projects/spring-framework/releases/5.2.2.RELEASE");
+			this.paths.add("/static/js/vendor/app.js");
+			this.paths.add("/static/css/theme.css");
+			this.paths.add("/admin/users/settings");
+			this.paths.add("/unknown/resource/path");
+		}
+	}
+
+}
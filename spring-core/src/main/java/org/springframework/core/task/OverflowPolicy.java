@@ -0,0 +1,50 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.task;
+
+/**
+ * What to do with an element, such as a task or a message, for a bounded
+ * queue that has reached its capacity.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * Block the submitting thread until the queue has room, applying
+	 * backpressure to the submitter.
+	 */
+	BLOCK,
+
+	/**
+	 * Discard the new element.
+	 */
+	DISCARD,
+
+	/**
+	 * Discard the oldest element waiting in the queue, to make room for
+	 * the new element.
+	 */
+	DISCARD_OLDEST,
+
+	/**
+	 * Reject the new element with a {@link TaskRejectedException}.
+	 */
+	ABORT
+
+}
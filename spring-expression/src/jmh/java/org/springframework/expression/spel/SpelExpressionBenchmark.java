@@ -0,0 +1,128 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Benchmarks for {@link org.springframework.expression.spel.standard.SpelExpression#getValue}
+ * in interpreted and compiled mode.
+ *
+ * <p>Typically this can be run with
+ * {@code "./gradlew :spring-expression:jmh -Pjmh.includes=SpelExpressionBenchmark"}.
+ *
+ * @author Anton Kessler
+ */
+@BenchmarkMode(Mode.Throughput)
+public class SpelExpressionBenchmark {
+
+	@Benchmark
+	public void propertyAccess(ExpressionData data, Blackhole bh) {
+		bh.consume(data.propertyExpression.getValue(data.context));
+	}
+
+	@Benchmark
+	public void methodInvocation(ExpressionData data, Blackhole bh) {
+		bh.consume(data.methodExpression.getValue(data.context));
+	}
+
+	@Benchmark
+	public void mapAccessAndComparison(ExpressionData data, Blackhole bh) {
+		bh.consume(data.mapExpression.getValue(data.context, Boolean.class));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class ExpressionData {
+
+		@Param({"OFF", "IMMEDIATE"})
+		public String compilerMode;
+
+		StandardEvaluationContext context;
+
+		Expression propertyExpression;
+
+		Expression methodExpression;
+
+		Expression mapExpression;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			SpelParserConfiguration configuration = new SpelParserConfiguration(
+					SpelCompilerMode.valueOf(this.compilerMode), getClass().getClassLoader());
+			SpelExpressionParser parser = new SpelExpressionParser(configuration);
+			this.context = new StandardEvaluationContext(new Person("Jane", 42));
+			this.propertyExpression = parser.parseExpression("name");
+			this.methodExpression = parser.parseExpression("greet('Hello').length()");
+			this.mapExpression = parser.parseExpression("attributes['role'] == 'admin' and age > 18");
+			// Evaluate once so that the expressions can be compiled if requested
+			for (int i = 0; i < 2; i++) {
+				this.propertyExpression.getValue(this.context);
+				this.methodExpression.getValue(this.context);
+				this.mapExpression.getValue(this.context, Boolean.class);
+			}
+		}
+	}
+
+
+	public static class Person {
+
+		private final String name;
+
+		private final int age;
+
+		private final Map<String, String> attributes = new HashMap<>();
+
+		public Person(String name, int age) {
+			this.name = name;
+			this.age = age;
+			this.attributes.put("role", "admin");
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public Map<String, String> getAttributes() {
+			return this.attributes;
+		}
+
+		public String greet(String greeting) {
+			return greeting + " " + this.name;
+		}
+	}
+
+}
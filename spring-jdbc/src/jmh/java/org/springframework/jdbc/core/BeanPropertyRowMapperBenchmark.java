@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for {@link BeanPropertyRowMapper}, compared with a hand-written
+ * {@link RowMapper} for the same bean, over in-memory result sets of various sizes.
+ *
+ * <p>Typically this can be run with
+ * {@code "./gradlew :spring-jdbc:jmh -Pjmh.includes=BeanPropertyRowMapperBenchmark"}.
+ *
+ * @author Anton Kessler
+ */
+@BenchmarkMode(Mode.Throughput)
+public class BeanPropertyRowMapperBenchmark {
+
+	@Benchmark
+	public List<Account> beanPropertyRowMapper(BenchmarkState state) throws SQLException {
+		state.resultSet.beforeFirst();
+		return new RowMapperResultSetExtractor<>(state.beanPropertyRowMapper).extractData(state.resultSet);
+	}
+
+	@Benchmark
+	public List<Account> customRowMapper(BenchmarkState state) throws SQLException {
+		state.resultSet.beforeFirst();
+		return new RowMapperResultSetExtractor<>(state.customRowMapper).extractData(state.resultSet);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"100", "10000"})
+		public int rows;
+
+		public CachedRowSet resultSet;
+
+		public RowMapper<Account> beanPropertyRowMapper = new BeanPropertyRowMapper<>(Account.class);
+
+		public RowMapper<Account> customRowMapper = (rs, rowNum) -> {
+			Account account = new Account();
+			account.setId(rs.getLong(1));
+			account.setName(rs.getString(2));
+			account.setEmail(rs.getString(3));
+			account.setActive(rs.getBoolean(4));
+			account.setBalance(rs.getBigDecimal(5));
+			account.setCreatedAt(rs.getTimestamp(6));
+			return account;
+		};
+
+		@Setup(Level.Trial)
+		public void setup() throws SQLException {
+			RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+			metaData.setColumnCount(6);
+			setColumn(metaData, 1, "id", Types.BIGINT);
+			setColumn(metaData, 2, "name", Types.VARCHAR);
+			setColumn(metaData, 3, "email", Types.VARCHAR);
+			setColumn(metaData, 4, "active", Types.BOOLEAN);
+			setColumn(metaData, 5, "balance", Types.DECIMAL);
+			setColumn(metaData, 6, "created_at", Types.TIMESTAMP);
+			this.resultSet = RowSetProvider.newFactory().createCachedRowSet();
+			this.resultSet.setMetaData(metaData);
+			for (int i = 0; i < this.rows; i++) {
+				this.resultSet.moveToInsertRow();
+				this.resultSet.updateLong(1, i);
+				this.resultSet.updateString(2, "name" + i);
+				this.resultSet.updateString(3, "user" + i + "@example.org");
+				this.resultSet.updateBoolean(4, i % 2 == 0);
+				this.resultSet.updateBigDecimal(5, BigDecimal.valueOf(i, 2));
+				this.resultSet.updateTimestamp(6, new Timestamp(i * 1000L));
+				this.resultSet.insertRow();
+			}
+			this.resultSet.moveToCurrentRow();
+			this.resultSet.setType(ResultSet.TYPE_SCROLL_INSENSITIVE);
+		}
+
+		private static void setColumn(RowSetMetaDataImpl metaData, int index, String name, int type)
+				throws SQLException {
+
+			metaData.setColumnName(index, name);
+			metaData.setColumnLabel(index, name);
+			metaData.setColumnType(index, type);
+		}
+	}
+
+
+	public static class Account {
+
+		private long id;
+
+		private String name;
+
+		private String email;
+
+		private boolean active;
+
+		private BigDecimal balance;
+
+		private Timestamp createdAt;
+
+		public long getId() {
+			return this.id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getEmail() {
+			return this.email;
+		}
+
+		public void setEmail(String email) {
+			this.email = email;
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+
+		public BigDecimal getBalance() {
+			return this.balance;
+		}
+
+		public void setBalance(BigDecimal balance) {
+			this.balance = balance;
+		}
+
+		public Timestamp getCreatedAt() {
+			return this.createdAt;
+		}
+
+		public void setCreatedAt(Timestamp createdAt) {
+			this.createdAt = createdAt;
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.namedparam;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+/**
+ * Benchmarks for the SQL caches in {@link NamedParameterJdbcTemplate}, resolving
+ * a {@link PreparedStatementCreator} for a set of statements from 64 threads,
+ * i.e. without the actual JDBC access.
+ *
+ * <p>Typically this can be run with
+ * {@code "./gradlew :spring-jdbc:jmh -Pjmh.includes=NamedParameterJdbcTemplateBenchmark"}.
+ *
+ * @author Anton Kessler
+ */
+@BenchmarkMode(Mode.Throughput)
+@Threads(64)
+public class NamedParameterJdbcTemplateBenchmark {
+
+	@Benchmark
+	public ParsedSql getParsedSql(BenchmarkState state) {
+		return state.template.getParsedSql(state.nextStatement());
+	}
+
+	@Benchmark
+	public PreparedStatementCreator getPreparedStatementCreator(BenchmarkState state) {
+		return state.template.getPreparedStatementCreator(state.nextStatement(), state.parameters);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		/**
+		 * Number of distinct statements; 1000 exceeds the default cache limit.
+		 */
+		@Param({"1", "100", "1000"})
+		public int statementCount;
+
+		/**
+		 * Cache limit of the template; 0 turns off caching.
+		 */
+		@Param({"256", "0"})
+		public int cacheLimit;
+
+		public NamedParameterJdbcTemplate template;
+
+		public String[] statements;
+
+		public MapSqlParameterSource parameters;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.template = new NamedParameterJdbcTemplate(new JdbcTemplate());
+			this.template.setCacheLimit(this.cacheLimit);
+			this.statements = new String[this.statementCount];
+			for (int i = 0; i < this.statementCount; i++) {
+				this.statements[i] = "SELECT o.id, o.status, o.total FROM orders_" + i + " o " +
+						"WHERE o.region = :region AND o.status IN (:statuses) AND o.created > :since";
+			}
+			this.parameters = new MapSqlParameterSource()
+					.addValue("region", "EMEA")
+					.addValue("statuses", Arrays.asList("NEW", "PAID", "SHIPPED"))
+					.addValue("since", new Timestamp(0));
+		}
+
+		public String nextStatement() {
+			return this.statements[ThreadLocalRandom.current().nextInt(this.statements.length)];
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.namedparam;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link NamedParameterUtils}: parsing of SQL statements with
+ * named parameters and substitution of placeholders for a given parameter source.
+ *
+ * <p>Typically this can be run with
+ * {@code "./gradlew :spring-jdbc:jmh -Pjmh.includes=NamedParameterUtilsBenchmark"}.
+ *
+ * @author Anton Kessler
+ */
+@BenchmarkMode(Mode.Throughput)
+public class NamedParameterUtilsBenchmark {
+
+	@Benchmark
+	public void parseSqlStatement(SqlData data, Blackhole bh) {
+		bh.consume(NamedParameterUtils.parseSqlStatement(data.sql));
+	}
+
+	@Benchmark
+	public void substituteNamedParameters(SqlData data, Blackhole bh) {
+		bh.consume(NamedParameterUtils.substituteNamedParameters(data.parsedSql, data.parameters));
+	}
+
+	@Benchmark
+	public void buildValueArray(SqlData data, Blackhole bh) {
+		bh.consume(NamedParameterUtils.buildValueArray(data.parsedSql, data.parameters, null));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class SqlData {
+
+		String sql = "SELECT o.id, o.status, o.total FROM orders o JOIN customers c ON o.customer_id = c.id " +
+				"WHERE c.region = :region AND o.status IN (:statuses) AND o.created > :since " +
+				"AND o.note NOT LIKE '%:ignored%' ORDER BY o.created DESC";
+
+		ParsedSql parsedSql;
+
+		MapSqlParameterSource parameters;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.parsedSql = NamedParameterUtils.parseSqlStatement(this.sql);
+			this.parameters = new MapSqlParameterSource()
+					.addValue("region", "EMEA")
+					.addValue("statuses", Arrays.asList("NEW", "PAID", "SHIPPED"))
+					.addValue("since", new Timestamp(0));
+		}
+	}
+
+}
@@ -0,0 +1,691 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Writes an arbitrary number of items with a single SQL update statement,
+ * splitting them into JDBC batches (chunks) that are bounded both by the number
+ * of items and by the estimated number of bytes of their arguments.
+ *
+ * <p>In contrast to {@link JdbcTemplate#batchUpdate(String, List)}, the items
+ * may be passed in as a {@link Stream} or {@link Iterator}, and only the items
+ * of the current chunk are held in memory. All chunks are executed on the same
+ * {@link PreparedStatement}, through
+ * {@link JdbcOperations#execute(String, PreparedStatementCallback)}.
+ *
+ * <pre class="code">
+ * BatchUpdateWriter&lt;Customer&gt; writer = new BatchUpdateWriter&lt;&gt;(jdbcTemplate,
+ *         "insert into customer (id, name) values (?, ?)",
+ *         customer -&gt; new Object[] {customer.getId(), customer.getName()});
+ * writer.setBatchSize(500);
+ * BatchUpdateWriter.WriteResult result = writer.write(customers);
+ * </pre>
+ *
+ * <p>For a plain {@code INSERT ... VALUES (...)} statement, the writer may also
+ * send each chunk as a single multi-row insert, i.e. {@code INSERT ... VALUES
+ * (...), (...), ...}, which is considerably faster than a JDBC batch on some
+ * drivers. This is not supported by all databases, and therefore needs to be
+ * turned on explicitly through {@link #setMultiRowInsert}.
+ *
+ * <p>Note that each chunk is executed as soon as it is complete: unless running
+ * within a transaction, the chunks written before a failure remain in effect.
+ *
+ * <p><b>NOTE: An instance of this class is thread-safe once configured.</b>
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @param <T> the type of items to write
+ * @see JdbcTemplate#batchUpdate(String, java.util.Collection, int, ParameterizedPreparedStatementSetter)
+ */
+public class BatchUpdateWriter<T> {
+
+	/** Default maximum number of items per chunk: 1000. */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/** Default maximum estimated size of the arguments per chunk: 4 MB. */
+	public static final long DEFAULT_MAX_BATCH_BYTES = 4 * 1024 * 1024;
+
+	/** Default maximum number of parameters per multi-row insert statement: 2000. */
+	public static final int DEFAULT_MAX_PARAMETERS_PER_STATEMENT = 2000;
+
+
+	/** Logger available to subclasses. */
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private final JdbcOperations jdbcOperations;
+
+	private final String sql;
+
+	private final Function<? super T, Object[]> argumentExtractor;
+
+	@Nullable
+	private int[] argTypes;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private long maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
+
+	@Nullable
+	private MultiRowInsert multiRowInsert;
+
+	private int maxParametersPerStatement = DEFAULT_MAX_PARAMETERS_PER_STATEMENT;
+
+	@Nullable
+	private Consumer<ChunkResult> chunkListener;
+
+
+	/**
+	 * Create a new BatchUpdateWriter for the given SQL statement.
+	 * @param jdbcOperations the JdbcOperations to execute the statement with
+	 * @param sql the SQL update statement, with '?' placeholders for the arguments
+	 * @param argumentExtractor function that returns the arguments to bind for a
+	 * given item, in the order of the placeholders; arguments may also be
+	 * {@link SqlParameterValue} instances
+	 */
+	public BatchUpdateWriter(JdbcOperations jdbcOperations, String sql,
+			Function<? super T, Object[]> argumentExtractor) {
+
+		Assert.notNull(jdbcOperations, "JdbcOperations must not be null");
+		Assert.hasText(sql, "SQL must not be empty");
+		Assert.notNull(argumentExtractor, "Argument extractor must not be null");
+		this.jdbcOperations = jdbcOperations;
+		this.sql = sql;
+		this.argumentExtractor = argumentExtractor;
+	}
+
+
+	/**
+	 * Return the SQL update statement to execute.
+	 */
+	public String getSql() {
+		return this.sql;
+	}
+
+	/**
+	 * Specify the SQL types of the arguments, as defined in {@link java.sql.Types}.
+	 * <p>By default, the types are derived from the argument values.
+	 */
+	public void setArgTypes(@Nullable int... argTypes) {
+		this.argTypes = argTypes;
+	}
+
+	/**
+	 * Specify the maximum number of items per chunk.
+	 * Default is 1000.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the maximum number of items per chunk.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Specify the maximum estimated size of the arguments per chunk, in bytes.
+	 * A chunk is executed once this size is reached, even if it contains less
+	 * than {@link #setBatchSize batch size} items. Default is 4 MB.
+	 * @see #estimateSize(Object[])
+	 */
+	public void setMaxBatchBytes(long maxBatchBytes) {
+		Assert.isTrue(maxBatchBytes > 0, "Max batch bytes must be greater than 0");
+		this.maxBatchBytes = maxBatchBytes;
+	}
+
+	/**
+	 * Return the maximum estimated size of the arguments per chunk, in bytes.
+	 */
+	public long getMaxBatchBytes() {
+		return this.maxBatchBytes;
+	}
+
+	/**
+	 * Specify whether to send each chunk as a single multi-row insert statement
+	 * rather than as a JDBC batch. Default is "false".
+	 * <p>This requires the SQL statement to be of the form {@code INSERT ...
+	 * VALUES (...)}, with the values list at the very end of the statement,
+	 * and a database which accepts multiple values lists in one statement
+	 * (e.g. MySQL, PostgreSQL, SQL Server, DB2, H2, HSQLDB but not Oracle).
+	 * @throws InvalidDataAccessApiUsageException if the SQL statement
+	 * cannot be rewritten to a multi-row insert
+	 * @see #setMaxParametersPerStatement
+	 */
+	public void setMultiRowInsert(boolean multiRowInsert) {
+		this.multiRowInsert = (multiRowInsert ? MultiRowInsert.parse(this.sql) : null);
+	}
+
+	/**
+	 * Return whether each chunk is sent as a single multi-row insert statement.
+	 */
+	public boolean isMultiRowInsert() {
+		return (this.multiRowInsert != null);
+	}
+
+	/**
+	 * Specify the maximum number of parameters in a multi-row insert statement,
+	 * further limiting the number of items per chunk according to the number of
+	 * parameters per item. Default is 2000, within the limits of common databases.
+	 * @see #setMultiRowInsert
+	 */
+	public void setMaxParametersPerStatement(int maxParametersPerStatement) {
+		Assert.isTrue(maxParametersPerStatement > 0, "Max parameters per statement must be greater than 0");
+		this.maxParametersPerStatement = maxParametersPerStatement;
+	}
+
+	/**
+	 * Return the maximum number of parameters in a multi-row insert statement.
+	 */
+	public int getMaxParametersPerStatement() {
+		return this.maxParametersPerStatement;
+	}
+
+	/**
+	 * Specify a listener to be notified after each chunk has been executed,
+	 * e.g. for recording the time taken per chunk.
+	 */
+	public void setChunkListener(@Nullable Consumer<ChunkResult> chunkListener) {
+		this.chunkListener = chunkListener;
+	}
+
+
+	/**
+	 * Write the items of the given Stream.
+	 * <p>The Stream is consumed but not closed by this method.
+	 * @param items the items to write
+	 * @return the aggregated result of all chunks
+	 * @throws DataAccessException if there is any problem executing the statement,
+	 * in which case the chunks written so far have been executed already
+	 */
+	public WriteResult write(Stream<? extends T> items) throws DataAccessException {
+		Assert.notNull(items, "Stream must not be null");
+		return write(items.iterator());
+	}
+
+	/**
+	 * Write the items of the given Iterator.
+	 * @param items the items to write
+	 * @return the aggregated result of all chunks
+	 * @throws DataAccessException if there is any problem executing the statement,
+	 * in which case the chunks written so far have been executed already
+	 */
+	public WriteResult write(Iterator<? extends T> items) throws DataAccessException {
+		Assert.notNull(items, "Iterator must not be null");
+		if (!items.hasNext()) {
+			return new WriteResult(0, 0, 0, true, 0);
+		}
+
+		MultiRowInsert multiRowInsert = this.multiRowInsert;
+		int maxRows = this.batchSize;
+		String sqlToUse = this.sql;
+		if (multiRowInsert != null) {
+			maxRows = multiRowInsert.getMaxRows(maxRows, this.maxParametersPerStatement);
+			sqlToUse = multiRowInsert.getSql(maxRows);
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL batch update [" + sqlToUse + "] with up to " + maxRows +
+					" items per chunk");
+		}
+
+		int chunkSize = maxRows;
+		WriteResult result = this.jdbcOperations.execute(sqlToUse, (PreparedStatementCallback<WriteResult>) ps -> {
+			boolean batchSupported = (multiRowInsert == null && JdbcUtils.supportsBatchUpdates(ps.getConnection()));
+			long startTime = System.nanoTime();
+			int rowCount = 0;
+			int chunkCount = 0;
+			long updateCount = 0;
+			boolean updateCountKnown = true;
+			List<Object[]> chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+			while (items.hasNext()) {
+				long estimatedSize = nextChunk(items, chunk, chunkSize);
+				long chunkStartTime = System.nanoTime();
+				long chunkUpdateCount;
+				try {
+					if (multiRowInsert != null) {
+						chunkUpdateCount = executeMultiRowInsert(ps, multiRowInsert, chunk, chunkSize);
+					}
+					else {
+						chunkUpdateCount = executeBatch(ps, chunk, batchSupported);
+					}
+				}
+				finally {
+					for (Object[] args : chunk) {
+						StatementCreatorUtils.cleanupParameters(args);
+					}
+				}
+				chunkCount++;
+				ChunkResult chunkResult = new ChunkResult(chunkCount, chunk.size(), estimatedSize,
+						chunkUpdateCount, System.nanoTime() - chunkStartTime);
+				if (logger.isTraceEnabled()) {
+					logger.trace("Executed SQL batch update " + chunkResult);
+				}
+				if (this.chunkListener != null) {
+					this.chunkListener.accept(chunkResult);
+				}
+				rowCount += chunk.size();
+				if (chunkUpdateCount >= 0) {
+					updateCount += chunkUpdateCount;
+				}
+				else {
+					updateCountKnown = false;
+				}
+				chunk.clear();
+			}
+			return new WriteResult(rowCount, chunkCount, updateCount, updateCountKnown,
+					System.nanoTime() - startTime);
+		});
+
+		Assert.state(result != null, "No write result");
+		return result;
+	}
+
+	private long nextChunk(Iterator<? extends T> items, List<Object[]> chunk, int maxRows) {
+		long estimatedSize = 0;
+		while (items.hasNext() && chunk.size() < maxRows && estimatedSize < this.maxBatchBytes) {
+			Object[] args = this.argumentExtractor.apply(items.next());
+			Assert.state(args != null, "Argument extractor returned null");
+			chunk.add(args);
+			estimatedSize += estimateSize(args);
+		}
+		return estimatedSize;
+	}
+
+	private long executeBatch(PreparedStatement ps, List<Object[]> chunk, boolean batchSupported)
+			throws SQLException {
+
+		long updateCount = 0;
+		boolean updateCountKnown = true;
+		if (batchSupported) {
+			for (Object[] args : chunk) {
+				setValues(ps, args, 0);
+				ps.addBatch();
+			}
+			for (int rows : ps.executeBatch()) {
+				if (rows >= 0) {
+					updateCount += rows;
+				}
+				else {
+					updateCountKnown = false;
+				}
+			}
+		}
+		else {
+			for (Object[] args : chunk) {
+				setValues(ps, args, 0);
+				updateCount += ps.executeUpdate();
+			}
+		}
+		return (updateCountKnown ? updateCount : -1);
+	}
+
+	private long executeMultiRowInsert(PreparedStatement ps, MultiRowInsert multiRowInsert,
+			List<Object[]> chunk, int maxRows) throws SQLException {
+
+		if (chunk.size() == maxRows) {
+			return executeMultiRowInsert(ps, multiRowInsert, chunk);
+		}
+		// Partial chunk: requires a statement with fewer values lists
+		PreparedStatement partialPs = ps.getConnection().prepareStatement(multiRowInsert.getSql(chunk.size()));
+		try {
+			partialPs.setQueryTimeout(ps.getQueryTimeout());
+			return executeMultiRowInsert(partialPs, multiRowInsert, chunk);
+		}
+		finally {
+			JdbcUtils.closeStatement(partialPs);
+		}
+	}
+
+	private long executeMultiRowInsert(PreparedStatement ps, MultiRowInsert multiRowInsert, List<Object[]> chunk)
+			throws SQLException {
+
+		int parameterCount = multiRowInsert.getParameterCount();
+		int offset = 0;
+		for (Object[] args : chunk) {
+			if (args.length != parameterCount) {
+				throw new InvalidDataAccessApiUsageException("SQL [" + this.sql + "]: given " + args.length +
+						" arguments for an item but expected " + parameterCount);
+			}
+			setValues(ps, args, offset);
+			offset += parameterCount;
+		}
+		return ps.executeUpdate();
+	}
+
+	private void setValues(PreparedStatement ps, Object[] args, int offset) throws SQLException {
+		int[] argTypes = this.argTypes;
+		for (int i = 0; i < args.length; i++) {
+			Object arg = args[i];
+			if (arg instanceof SqlParameterValue) {
+				SqlParameterValue paramValue = (SqlParameterValue) arg;
+				StatementCreatorUtils.setParameterValue(ps, offset + i + 1, paramValue, paramValue.getValue());
+			}
+			else {
+				int argType = (argTypes != null && i < argTypes.length ? argTypes[i] : SqlTypeValue.TYPE_UNKNOWN);
+				StatementCreatorUtils.setParameterValue(ps, offset + i + 1, argType, arg);
+			}
+		}
+	}
+
+	/**
+	 * Estimate the number of bytes sent to the database for the given arguments,
+	 * for limiting the size of a chunk.
+	 * <p>The default implementation counts the length of character sequences
+	 * and byte arrays, and a fixed size for numbers, dates and other values.
+	 * @param args the arguments for an item
+	 * @return the estimated size in bytes
+	 * @see #setMaxBatchBytes
+	 */
+	protected long estimateSize(Object[] args) {
+		long size = 0;
+		for (Object arg : args) {
+			Object value = (arg instanceof SqlParameterValue ? ((SqlParameterValue) arg).getValue() : arg);
+			if (value == null || value instanceof Boolean) {
+				size += 1;
+			}
+			else if (value instanceof CharSequence) {
+				size += ((CharSequence) value).length();
+			}
+			else if (value instanceof byte[]) {
+				size += ((byte[]) value).length;
+			}
+			else if (value instanceof Number || value instanceof Date || value instanceof Temporal) {
+				size += 8;
+			}
+			else {
+				size += 16;
+			}
+		}
+		return size;
+	}
+
+
+	/**
+	 * Result of a single executed chunk.
+	 * @see #setChunkListener
+	 */
+	public static final class ChunkResult {
+
+		private final int index;
+
+		private final int rowCount;
+
+		private final long estimatedSize;
+
+		private final long updateCount;
+
+		private final long timeNanos;
+
+		ChunkResult(int index, int rowCount, long estimatedSize, long updateCount, long timeNanos) {
+			this.index = index;
+			this.rowCount = rowCount;
+			this.estimatedSize = estimatedSize;
+			this.updateCount = updateCount;
+			this.timeNanos = timeNanos;
+		}
+
+		/**
+		 * Return the 1-based index of the chunk within the write operation.
+		 */
+		public int getIndex() {
+			return this.index;
+		}
+
+		/**
+		 * Return the number of items in the chunk.
+		 */
+		public int getRowCount() {
+			return this.rowCount;
+		}
+
+		/**
+		 * Return the estimated size of the arguments in the chunk, in bytes.
+		 * @see BatchUpdateWriter#estimateSize(Object[])
+		 */
+		public long getEstimatedSize() {
+			return this.estimatedSize;
+		}
+
+		/**
+		 * Return the number of rows affected by the chunk,
+		 * or -1 if not reported by the JDBC driver.
+		 */
+		public long getUpdateCount() {
+			return this.updateCount;
+		}
+
+		/**
+		 * Return the time taken for binding and executing the chunk, in nanoseconds.
+		 */
+		public long getTimeNanos() {
+			return this.timeNanos;
+		}
+
+		/**
+		 * Return the time taken for binding and executing the chunk, in milliseconds.
+		 */
+		public long getTimeMillis() {
+			return this.timeNanos / 1_000_000;
+		}
+
+		@Override
+		public String toString() {
+			return "#" + this.index + " with " + this.rowCount + " items (~" + this.estimatedSize +
+					" bytes) in " + getTimeMillis() + " ms";
+		}
+	}
+
+
+	/**
+	 * Aggregated result of a write operation.
+	 * @see #write(Iterator)
+	 */
+	public static final class WriteResult {
+
+		private final int rowCount;
+
+		private final int chunkCount;
+
+		private final long updateCount;
+
+		private final boolean updateCountKnown;
+
+		private final long timeNanos;
+
+		WriteResult(int rowCount, int chunkCount, long updateCount, boolean updateCountKnown, long timeNanos) {
+			this.rowCount = rowCount;
+			this.chunkCount = chunkCount;
+			this.updateCount = updateCount;
+			this.updateCountKnown = updateCountKnown;
+			this.timeNanos = timeNanos;
+		}
+
+		/**
+		 * Return the number of items written.
+		 */
+		public int getRowCount() {
+			return this.rowCount;
+		}
+
+		/**
+		 * Return the number of chunks executed.
+		 */
+		public int getChunkCount() {
+			return this.chunkCount;
+		}
+
+		/**
+		 * Return the total number of rows affected, as far as reported by the JDBC driver.
+		 * @see #isUpdateCountKnown()
+		 */
+		public long getUpdateCount() {
+			return this.updateCount;
+		}
+
+		/**
+		 * Return whether the JDBC driver reported the number of affected rows for
+		 * all chunks, rather than {@link java.sql.Statement#SUCCESS_NO_INFO}.
+		 */
+		public boolean isUpdateCountKnown() {
+			return this.updateCountKnown;
+		}
+
+		/**
+		 * Return the total time taken for the write operation, in nanoseconds.
+		 */
+		public long getTimeNanos() {
+			return this.timeNanos;
+		}
+
+		/**
+		 * Return the total time taken for the write operation, in milliseconds.
+		 */
+		public long getTimeMillis() {
+			return this.timeNanos / 1_000_000;
+		}
+
+		@Override
+		public String toString() {
+			return this.rowCount + " items in " + this.chunkCount + " chunks, " +
+					(this.updateCountKnown ? this.updateCount : "unknown") + " rows affected in " +
+					getTimeMillis() + " ms";
+		}
+	}
+
+
+	/**
+	 * An {@code INSERT ... VALUES (...)} statement, split into the part up to
+	 * and including the {@code VALUES} keyword and the values list.
+	 */
+	private static final class MultiRowInsert {
+
+		private final String prefix;
+
+		private final String values;
+
+		private final int parameterCount;
+
+		private MultiRowInsert(String prefix, String values, int parameterCount) {
+			this.prefix = prefix;
+			this.values = values;
+			this.parameterCount = parameterCount;
+		}
+
+		public int getParameterCount() {
+			return this.parameterCount;
+		}
+
+		public int getMaxRows(int batchSize, int maxParameters) {
+			if (this.parameterCount == 0) {
+				return batchSize;
+			}
+			return Math.max(1, Math.min(batchSize, maxParameters / this.parameterCount));
+		}
+
+		public String getSql(int rows) {
+			StringBuilder sql = new StringBuilder(this.prefix.length() + (this.values.length() + 2) * rows);
+			sql.append(this.prefix).append(this.values);
+			for (int i = 1; i < rows; i++) {
+				sql.append(", ").append(this.values);
+			}
+			return sql.toString();
+		}
+
+		public static MultiRowInsert parse(String sql) {
+			String trimmedSql = sql.trim();
+			if (!trimmedSql.regionMatches(true, 0, "INSERT", 0, 6)) {
+				throw notApplicable(sql);
+			}
+			int valuesEnd = -1;
+			int groupStart = -1;
+			int depth = 0;
+			int parameterCount = 0;
+			char quote = 0;
+			for (int i = 0; i < trimmedSql.length(); i++) {
+				char c = trimmedSql.charAt(i);
+				if (quote != 0) {
+					if (c == quote) {
+						quote = 0;
+					}
+				}
+				else if (c == '\'' || c == '"') {
+					quote = c;
+				}
+				else if (groupStart >= 0) {
+					if (c == '(') {
+						depth++;
+					}
+					else if (c == ')' && --depth == 0) {
+						if (i != trimmedSql.length() - 1) {
+							throw notApplicable(sql);
+						}
+						return new MultiRowInsert(trimmedSql.substring(0, groupStart),
+								trimmedSql.substring(groupStart), parameterCount);
+					}
+					else if (c == '?') {
+						parameterCount++;
+					}
+				}
+				else if (valuesEnd >= 0 && i >= valuesEnd) {
+					if (c == '(') {
+						groupStart = i;
+						depth = 1;
+					}
+					else if (!Character.isWhitespace(c)) {
+						valuesEnd = -1;
+					}
+				}
+				else if ((c == 'V' || c == 'v') && trimmedSql.regionMatches(true, i, "VALUES", 0, 6) &&
+						(i == 0 || !Character.isJavaIdentifierPart(trimmedSql.charAt(i - 1))) &&
+						(i + 6 == trimmedSql.length() || !Character.isJavaIdentifierPart(trimmedSql.charAt(i + 6)))) {
+					valuesEnd = i + 6;
+					i = valuesEnd - 1;
+				}
+			}
+			throw notApplicable(sql);
+		}
+
+		private static InvalidDataAccessApiUsageException notApplicable(String sql) {
+			return new InvalidDataAccessApiUsageException(
+					"SQL [" + sql + "] cannot be rewritten to a multi-row insert: " +
+					"expected INSERT statement ending with VALUES (...)");
+		}
+	}
+
+}
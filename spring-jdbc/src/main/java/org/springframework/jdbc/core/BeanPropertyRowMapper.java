@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,21 +16,32 @@
 
 package org.springframework.jdbc.core;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyDescriptor;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.MethodInvocationException;
 import org.springframework.beans.NotWritablePropertyException;
 import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.beans.TypeMismatchException;
@@ -42,6 +53,7 @@ import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -67,6 +79,13 @@ import org.springframework.util.StringUtils;
  * Be aware that if you use the values from the generated bean to update the database the primitive value
  * will have been set to the primitive's default value instead of null.
  *
+ * <p>The columns of a result set are matched to properties once per result set,
+ * and the resulting mapping is reused for subsequent result sets with the same
+ * column labels and types.
+ * Column values that already have the exact type of their property are passed
+ * to its setter directly, while all other values are bound through a
+ * {@link BeanWrapper}, applying the configured {@link ConversionService}.
+ *
  * <p>Please note that this class is designed to provide convenience rather than high performance.
  * For best performance, consider using a custom {@link RowMapper} implementation.
  *
@@ -77,6 +96,9 @@ import org.springframework.util.StringUtils;
  */
 public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 
+	/** Maximum number of distinct column sets to cache a mapping for. */
+	private static final int COLUMN_MAPPING_CACHE_LIMIT = 16;
+
 	/** Logger available to subclasses. */
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -102,6 +124,21 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	@Nullable
 	private Set<String> mappedProperties;
 
+	/** Constructor for mapped objects, if resolvable upfront. */
+	@Nullable
+	private Constructor<T> mappedConstructor;
+
+	/** Whether {@link #initBeanWrapper} is overridden, requiring a BeanWrapper per property value. */
+	private final boolean customBeanWrapper = (ReflectionUtils.findMethod(
+			getClass(), "initBeanWrapper", BeanWrapper.class).getDeclaringClass() != BeanPropertyRowMapper.class);
+
+	/** Column mappings, keyed by column labels and types. */
+	private final Map<ColumnKey, ColumnMapping> columnMappings = new ConcurrentHashMap<>(4);
+
+	/** Column mapping of the most recently mapped result set. */
+	@Nullable
+	private volatile ResultSetColumnMapping lastColumnMapping;
+
 
 	/**
 	 * Create a new {@code BeanPropertyRowMapper} for bean-style configuration.
@@ -220,6 +257,7 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	 */
 	protected void initialize(Class<T> mappedClass) {
 		this.mappedClass = mappedClass;
+		this.mappedConstructor = resolveConstructor(mappedClass);
 		this.mappedFields = new HashMap<>();
 		this.mappedProperties = new HashSet<>();
 		PropertyDescriptor[] pds = BeanUtils.getPropertyDescriptors(mappedClass);
@@ -235,6 +273,22 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		}
 	}
 
+	@Nullable
+	private static <T> Constructor<T> resolveConstructor(Class<T> mappedClass) {
+		if (mappedClass.isInterface()) {
+			return null;
+		}
+		try {
+			return mappedClass.getDeclaredConstructor();
+		}
+		catch (NoSuchMethodException ex) {
+			return BeanUtils.findPrimaryConstructor(mappedClass);
+		}
+		catch (LinkageError err) {
+			return null;
+		}
+	}
+
 	/**
 	 * Convert a name in camelCase to an underscored name in lower case.
 	 * Any upper case letters are converted to lower case with a preceding underscore.
@@ -282,66 +336,125 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	@Override
 	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
 		Assert.state(this.mappedClass != null, "Mapped class was not specified");
-		T mappedObject = BeanUtils.instantiateClass(this.mappedClass);
-		BeanWrapper bw = PropertyAccessorFactory.forBeanPropertyAccess(mappedObject);
-		initBeanWrapper(bw);
+		T mappedObject = (this.mappedConstructor != null ?
+				BeanUtils.instantiateClass(this.mappedConstructor) : BeanUtils.instantiateClass(this.mappedClass));
+		BeanWrapper bw = null;
+		boolean directWrite = (!this.customBeanWrapper && (this.conversionService == null ||
+				this.conversionService == DefaultConversionService.getSharedInstance()));
+
+		ColumnMapping mapping = getColumnMapping(rs, rowNumber);
+		for (int i = 0; i < mapping.indexes.length; i++) {
+			PropertyDescriptor pd = mapping.properties[i];
+			try {
+				Object value = getColumnValue(rs, mapping.indexes[i], pd);
+				if (directWrite && mapping.isAssignable(i, value)) {
+					writeProperty(mappedObject, pd, value);
+					continue;
+				}
+				if (bw == null) {
+					bw = PropertyAccessorFactory.forBeanPropertyAccess(mappedObject);
+					initBeanWrapper(bw);
+				}
+				try {
+					bw.setPropertyValue(pd.getName(), value);
+				}
+				catch (TypeMismatchException ex) {
+					if (value == null && this.primitivesDefaultedForNullValue) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
+									" and column '" + mapping.columns[mapping.indexes[i] - 1] +
+									"' with null value when setting property '" + pd.getName() + "' of type '" +
+									ClassUtils.getQualifiedName(pd.getPropertyType()) +
+									"' on object: " + mappedObject, ex);
+						}
+					}
+					else {
+						throw ex;
+					}
+				}
+			}
+			catch (NotWritablePropertyException ex) {
+				throw new DataRetrievalFailureException("Unable to map column '" +
+						mapping.columns[mapping.indexes[i] - 1] + "' to property '" + pd.getName() + "'", ex);
+			}
+		}
+
+		if (isCheckFullyPopulated() && !mapping.populatedProperties.equals(this.mappedProperties)) {
+			throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
+					"necessary to populate object of class [" + this.mappedClass.getName() + "]: " +
+					this.mappedProperties);
+		}
 
+		return mappedObject;
+	}
+
+	/**
+	 * Return the column mapping for the given result set: the one of the
+	 * previous row if from the same result set, or else a cached one if it
+	 * was resolved for the same column labels and types before.
+	 */
+	private ColumnMapping getColumnMapping(ResultSet rs, int rowNumber) throws SQLException {
+		ResultSetColumnMapping lastMapping = this.lastColumnMapping;
+		if (lastMapping != null && lastMapping.resultSet.get() == rs) {
+			return lastMapping.mapping;
+		}
 		ResultSetMetaData rsmd = rs.getMetaData();
 		int columnCount = rsmd.getColumnCount();
-		Set<String> populatedProperties = (isCheckFullyPopulated() ? new HashSet<>() : null);
+		String[] columns = new String[columnCount];
+		int[] types = new int[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			columns[i] = JdbcUtils.lookupColumnName(rsmd, i + 1);
+			types[i] = rsmd.getColumnType(i + 1);
+		}
+		ColumnKey key = new ColumnKey(columns, types);
+		ColumnMapping mapping = this.columnMappings.get(key);
+		if (mapping == null) {
+			mapping = resolveColumnMapping(columns, rowNumber == 0 && logger.isDebugEnabled());
+			if (this.columnMappings.size() < COLUMN_MAPPING_CACHE_LIMIT) {
+				this.columnMappings.putIfAbsent(key, mapping);
+			}
+		}
+		this.lastColumnMapping = new ResultSetColumnMapping(rs, mapping);
+		return mapping;
+	}
 
-		for (int index = 1; index <= columnCount; index++) {
-			String column = JdbcUtils.lookupColumnName(rsmd, index);
+	private ColumnMapping resolveColumnMapping(String[] columns, boolean debugEnabled) {
+		List<Integer> indexes = new ArrayList<>(columns.length);
+		List<PropertyDescriptor> properties = new ArrayList<>(columns.length);
+		for (int index = 1; index <= columns.length; index++) {
+			String column = columns[index - 1];
 			String field = lowerCaseName(StringUtils.delete(column, " "));
 			PropertyDescriptor pd = (this.mappedFields != null ? this.mappedFields.get(field) : null);
 			if (pd != null) {
-				try {
-					Object value = getColumnValue(rs, index, pd);
-					if (rowNumber == 0 && logger.isDebugEnabled()) {
-						logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
-								"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
-					}
-					try {
-						bw.setPropertyValue(pd.getName(), value);
-					}
-					catch (TypeMismatchException ex) {
-						if (value == null && this.primitivesDefaultedForNullValue) {
-							if (logger.isDebugEnabled()) {
-								logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
-										" and column '" + column + "' with null value when setting property '" +
-										pd.getName() + "' of type '" +
-										ClassUtils.getQualifiedName(pd.getPropertyType()) +
-										"' on object: " + mappedObject, ex);
-							}
-						}
-						else {
-							throw ex;
-						}
-					}
-					if (populatedProperties != null) {
-						populatedProperties.add(pd.getName());
-					}
-				}
-				catch (NotWritablePropertyException ex) {
-					throw new DataRetrievalFailureException(
-							"Unable to map column '" + column + "' to property '" + pd.getName() + "'", ex);
+				if (debugEnabled) {
+					logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+							"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
 				}
+				indexes.add(index);
+				properties.add(pd);
 			}
 			else {
 				// No PropertyDescriptor found
-				if (rowNumber == 0 && logger.isDebugEnabled()) {
+				if (debugEnabled) {
 					logger.debug("No property found for column '" + column + "' mapped to field '" + field + "'");
 				}
 			}
 		}
+		return new ColumnMapping(columns, indexes, properties);
+	}
 
-		if (populatedProperties != null && !populatedProperties.equals(this.mappedProperties)) {
-			throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
-					"necessary to populate object of class [" + this.mappedClass.getName() + "]: " +
-					this.mappedProperties);
+	private static void writeProperty(Object mappedObject, PropertyDescriptor pd, @Nullable Object value) {
+		Method writeMethod = pd.getWriteMethod();
+		try {
+			writeMethod.invoke(mappedObject, value);
+		}
+		catch (InvocationTargetException ex) {
+			PropertyChangeEvent event = new PropertyChangeEvent(mappedObject, pd.getName(), null, value);
+			throw new MethodInvocationException(event, ex.getTargetException());
+		}
+		catch (IllegalAccessException ex) {
+			throw new IllegalStateException("Cannot access write method for property '" + pd.getName() + "'", ex);
 		}
-
-		return mappedObject;
 	}
 
 	/**
@@ -388,4 +501,98 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return new BeanPropertyRowMapper<>(mappedClass);
 	}
 
+
+	/**
+	 * Cache key for a column mapping: the column labels and SQL types of a result set.
+	 */
+	private static final class ColumnKey {
+
+		private final String[] columns;
+
+		private final int[] types;
+
+		public ColumnKey(String[] columns, int[] types) {
+			this.columns = columns;
+			this.types = types;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ColumnKey)) {
+				return false;
+			}
+			ColumnKey otherKey = (ColumnKey) other;
+			return (Arrays.equals(this.columns, otherKey.columns) && Arrays.equals(this.types, otherKey.types));
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(this.columns) * 29 + Arrays.hashCode(this.types);
+		}
+	}
+
+
+	/**
+	 * The column mapping used for a result set, not keeping the result set
+	 * itself from being garbage-collected.
+	 */
+	private static final class ResultSetColumnMapping {
+
+		private final WeakReference<ResultSet> resultSet;
+
+		private final ColumnMapping mapping;
+
+		public ResultSetColumnMapping(ResultSet resultSet, ColumnMapping mapping) {
+			this.resultSet = new WeakReference<>(resultSet);
+			this.mapping = mapping;
+		}
+	}
+
+
+	/**
+	 * The properties mapped from the columns of a result set, by column index.
+	 */
+	private static final class ColumnMapping {
+
+		private final String[] columns;
+
+		private final int[] indexes;
+
+		private final PropertyDescriptor[] properties;
+
+		private final Class<?>[] propertyTypes;
+
+		private final Set<String> populatedProperties;
+
+		public ColumnMapping(String[] columns, List<Integer> indexes, List<PropertyDescriptor> properties) {
+			this.columns = columns;
+			this.indexes = new int[indexes.size()];
+			this.properties = properties.toArray(new PropertyDescriptor[0]);
+			this.propertyTypes = new Class<?>[this.properties.length];
+			this.populatedProperties = new HashSet<>();
+			for (int i = 0; i < this.indexes.length; i++) {
+				PropertyDescriptor pd = this.properties[i];
+				this.indexes[i] = indexes.get(i);
+				this.propertyTypes[i] = ClassUtils.resolvePrimitiveIfNecessary(pd.getPropertyType());
+				this.populatedProperties.add(pd.getName());
+				ReflectionUtils.makeAccessible(pd.getWriteMethod());
+			}
+		}
+
+		/**
+		 * Determine whether the given value can be passed to the setter of the
+		 * given property as-is, i.e. without any conversion by a BeanWrapper.
+		 */
+		public boolean isAssignable(int i, @Nullable Object value) {
+			if (value == null) {
+				return (!this.properties[i].getPropertyType().isPrimitive() &&
+						this.propertyTypes[i] != Optional.class);
+			}
+			return (value.getClass() == this.propertyTypes[i]);
+		}
+	}
+
 }
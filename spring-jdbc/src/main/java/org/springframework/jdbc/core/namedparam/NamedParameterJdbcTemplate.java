@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,18 @@
 
 package org.springframework.jdbc.core.namedparam;
 
+import java.lang.reflect.Method;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -39,11 +45,14 @@ import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Template class with a basic set of JDBC operations, allowing the use
@@ -62,6 +71,7 @@ import org.springframework.util.Assert;
  *
  * @author Thomas Risberg
  * @author Juergen Hoeller
+ * @author Anton Kessler
  * @since 2.0
  * @see NamedParameterJdbcOperations
  * @see org.springframework.jdbc.core.JdbcTemplate
@@ -78,14 +88,13 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
 	/** Cache of original SQL String to ParsedSql representation. */
-	@SuppressWarnings("serial")
-	private final Map<String, ParsedSql> parsedSqlCache =
-			new LinkedHashMap<String, ParsedSql>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<String, ParsedSql> eldest) {
-					return size() > getCacheLimit();
-				}
-			};
+	private final BoundedCache<String, ParsedSql> parsedSqlCache = new BoundedCache<>();
+
+	/** Cache of ParsedSql plus parameter shape to PreparedStatementCreatorFactory. */
+	private final BoundedCache<ParameterShape, PreparedStatementCreatorFactory> factoryCache = new BoundedCache<>();
+
+	/** Whether {@link #getPreparedStatementCreatorFactory} has been overridden. */
+	private final boolean customFactoryCreation;
 
 
 	/**
@@ -96,6 +105,7 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	public NamedParameterJdbcTemplate(DataSource dataSource) {
 		Assert.notNull(dataSource, "DataSource must not be null");
 		this.classicJdbcTemplate = new JdbcTemplate(dataSource);
+		this.customFactoryCreation = isCustomFactoryCreation();
 	}
 
 	/**
@@ -106,6 +116,13 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	public NamedParameterJdbcTemplate(JdbcOperations classicJdbcTemplate) {
 		Assert.notNull(classicJdbcTemplate, "JdbcTemplate must not be null");
 		this.classicJdbcTemplate = classicJdbcTemplate;
+		this.customFactoryCreation = isCustomFactoryCreation();
+	}
+
+	private boolean isCustomFactoryCreation() {
+		Method method = ReflectionUtils.findMethod(getClass(), "getPreparedStatementCreatorFactory",
+				ParsedSql.class, SqlParameterSource.class);
+		return (method != null && method.getDeclaringClass() != NamedParameterJdbcTemplate.class);
 	}
 
 
@@ -133,6 +150,9 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	/**
 	 * Specify the maximum number of entries for this template's SQL cache.
 	 * Default is 256.
+	 * <p>The same limit applies to the cached {@link PreparedStatementCreatorFactory}
+	 * instances per parsed statement and parameter shape. A limit of 0 or less
+	 * turns off caching altogether.
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
@@ -228,6 +248,20 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return query(sql, EmptySqlParameterSource.INSTANCE, rowMapper);
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return getJdbcOperations().queryForStream(getPreparedStatementCreator(sql, paramSource), rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForStream(sql, new MapSqlParameterSource(paramMap), rowMapper);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
@@ -411,9 +445,17 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 			@Nullable Consumer<PreparedStatementCreatorFactory> customizer) {
 
 		ParsedSql parsedSql = getParsedSql(sql);
-		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, paramSource);
-		if (customizer != null) {
-			customizer.accept(pscf);
+		PreparedStatementCreatorFactory pscf;
+		if (customizer != null || this.customFactoryCreation || getCacheLimit() <= 0) {
+			pscf = getPreparedStatementCreatorFactory(parsedSql, paramSource);
+			if (customizer != null) {
+				customizer.accept(pscf);
+			}
+		}
+		else {
+			// Unmodified factories only depend on the parameter shape, not on actual values
+			pscf = this.factoryCache.get(new ParameterShape(parsedSql, paramSource),
+					shape -> getPreparedStatementCreatorFactory(parsedSql, paramSource));
 		}
 		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
 		return pscf.newPreparedStatementCreator(params);
@@ -421,22 +463,18 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 
 	/**
 	 * Obtain a parsed representation of the given SQL statement.
-	 * <p>The default implementation uses an LRU cache with an upper limit of 256 entries.
+	 * <p>The default implementation uses a concurrent cache with an upper limit
+	 * of 256 entries, evicting entries that have not been used recently.
+	 * Cache hits do not acquire any lock.
 	 * @param sql the original SQL statement
 	 * @return a representation of the parsed SQL statement
+	 * @see #setCacheLimit
 	 */
 	protected ParsedSql getParsedSql(String sql) {
 		if (getCacheLimit() <= 0) {
 			return NamedParameterUtils.parseSqlStatement(sql);
 		}
-		synchronized (this.parsedSqlCache) {
-			ParsedSql parsedSql = this.parsedSqlCache.get(sql);
-			if (parsedSql == null) {
-				parsedSql = NamedParameterUtils.parseSqlStatement(sql);
-				this.parsedSqlCache.put(sql, parsedSql);
-			}
-			return parsedSql;
-		}
+		return this.parsedSqlCache.get(sql, NamedParameterUtils::parseSqlStatement);
 	}
 
 	/**
@@ -456,4 +494,158 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
 	}
 
+
+
+	/**
+	 * Simple concurrent cache bounded by the {@link #getCacheLimit() cache limit},
+	 * with lock-free reads. Evicts in insertion order, except for entries that have
+	 * been accessed since they were last considered for eviction ("second chance"),
+	 * approximating LRU without having to reorder entries on every access.
+	 */
+	private class BoundedCache<K, V> {
+
+		private final ConcurrentHashMap<K, CacheEntry<V>> entries = new ConcurrentHashMap<>(DEFAULT_CACHE_LIMIT);
+
+		private final ConcurrentLinkedQueue<K> evictionQueue = new ConcurrentLinkedQueue<>();
+
+		public V get(K key, Function<K, V> generator) {
+			CacheEntry<V> entry = this.entries.get(key);
+			if (entry != null) {
+				entry.markAccessed();
+				return entry.value;
+			}
+			V value = generator.apply(key);
+			entry = this.entries.putIfAbsent(key, new CacheEntry<>(value));
+			if (entry != null) {
+				return entry.value;
+			}
+			this.evictionQueue.add(key);
+			evictIfNecessary();
+			return value;
+		}
+
+		private void evictIfNecessary() {
+			int limit = getCacheLimit();
+			int secondChances = limit;
+			while (this.entries.size() > limit) {
+				K key = this.evictionQueue.poll();
+				if (key == null) {
+					return;
+				}
+				CacheEntry<V> entry = this.entries.get(key);
+				if (entry != null && entry.accessed && secondChances-- > 0) {
+					entry.accessed = false;
+					this.evictionQueue.add(key);
+				}
+				else if (entry != null) {
+					this.entries.remove(key, entry);
+				}
+			}
+		}
+	}
+
+
+	private static class CacheEntry<V> {
+
+		final V value;
+
+		volatile boolean accessed;
+
+		CacheEntry(V value) {
+			this.value = value;
+		}
+
+		void markAccessed() {
+			// Avoid a volatile write (and cache line contention) on every hit
+			if (!this.accessed) {
+				this.accessed = true;
+			}
+		}
+	}
+
+
+	/**
+	 * Key for a {@link PreparedStatementCreatorFactory}: the parsed statement plus
+	 * everything about the given parameters that affects the expanded SQL String
+	 * and the declared parameters, i.e. SQL types, type names and the sizes of
+	 * collection values which get expanded into multiple placeholders.
+	 */
+	private static final class ParameterShape {
+
+		private final ParsedSql parsedSql;
+
+		private final int[] shape;
+
+		@Nullable
+		private final String[] typeNames;
+
+		private final int hashCode;
+
+		ParameterShape(ParsedSql parsedSql, SqlParameterSource paramSource) {
+			List<String> paramNames = parsedSql.getParameterNames();
+			int[] shape = new int[paramNames.size() * 2];
+			String[] typeNames = null;
+			int index = 0;
+			for (int i = 0; i < paramNames.size(); i++) {
+				String paramName = paramNames.get(i);
+				if (index + 2 > shape.length) {
+					shape = Arrays.copyOf(shape, shape.length * 2);
+				}
+				shape[index++] = paramSource.getSqlType(paramName);
+				String typeName = paramSource.getTypeName(paramName);
+				if (typeName != null) {
+					if (typeNames == null) {
+						typeNames = new String[paramNames.size()];
+					}
+					typeNames[i] = typeName;
+				}
+				Object value = (paramSource.hasValue(paramName) ? paramSource.getValue(paramName) : null);
+				if (value instanceof SqlParameterValue) {
+					value = ((SqlParameterValue) value).getValue();
+				}
+				if (value instanceof Iterable) {
+					int sizeIndex = index++;
+					int size = 0;
+					Iterator<?> entryIter = ((Iterable<?>) value).iterator();
+					while (entryIter.hasNext()) {
+						Object entryItem = entryIter.next();
+						if (index == shape.length) {
+							shape = Arrays.copyOf(shape, shape.length * 2);
+						}
+						// Tuples expand into "(?, ?)" rather than a single placeholder
+						shape[index++] = (entryItem instanceof Object[] ? ((Object[]) entryItem).length : -1);
+						size++;
+					}
+					shape[sizeIndex] = size;
+				}
+				else {
+					shape[index++] = -1;
+				}
+			}
+			this.parsedSql = parsedSql;
+			this.shape = (index < shape.length ? Arrays.copyOf(shape, index) : shape);
+			this.typeNames = typeNames;
+			this.hashCode = System.identityHashCode(parsedSql) * 31 +
+					Arrays.hashCode(this.shape) * 31 + Arrays.hashCode(typeNames);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ParameterShape)) {
+				return false;
+			}
+			ParameterShape otherShape = (ParameterShape) other;
+			return (this.parsedSql == otherShape.parsedSql && Arrays.equals(this.shape, otherShape.shape) &&
+					ObjectUtils.nullSafeEquals(this.typeNames, otherShape.typeNames));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.support;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.util.Assert;
+
+/**
+ * Utility methods for exposing streaming JDBC queries as a Reactor {@link Flux}.
+ *
+ * <p>The query is executed on subscription, and rows are fetched and mapped
+ * as they are requested, so a slow subscriber holds back the fetching of
+ * further rows rather than rows being buffered in memory. Since JDBC access
+ * is blocking, both happen on a {@link Scheduler} suitable for blocking work.
+ * The JDBC resources are released on completion, error and cancellation.
+ *
+ * <pre class="code">
+ * Flux&lt;Customer&gt; customers = ReactiveQueryUtils.toFlux(() -&gt;
+ *         jdbcTemplate.queryForStream("select * from customer", customerRowMapper));
+ * </pre>
+ *
+ * <p>Note that each subscription holds on to a JDBC Connection until the
+ * query has been fully consumed or cancelled, so the number of concurrent
+ * subscriptions should be limited accordingly.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see org.springframework.jdbc.core.JdbcOperations#queryForStream
+ * @see org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations#queryForStream
+ */
+public abstract class ReactiveQueryUtils {
+
+	/**
+	 * Adapt the given streaming query to a {@link Flux} that executes it on
+	 * {@link Schedulers#boundedElastic()}.
+	 * @param query the query to execute for each subscription, e.g. a call to
+	 * {@link org.springframework.jdbc.core.JdbcOperations#queryForStream}
+	 * @return the Flux of mapped rows
+	 */
+	public static <T> Flux<T> toFlux(Supplier<Stream<T>> query) {
+		return toFlux(query, Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Adapt the given streaming query to a {@link Flux} that executes it on
+	 * the given {@link Scheduler}.
+	 * @param query the query to execute for each subscription, e.g. a call to
+	 * {@link org.springframework.jdbc.core.JdbcOperations#queryForStream}
+	 * @param scheduler the scheduler to execute the query and to fetch rows on,
+	 * which should be bounded and allow for blocking calls
+	 * @return the Flux of mapped rows
+	 */
+	public static <T> Flux<T> toFlux(Supplier<Stream<T>> query, Scheduler scheduler) {
+		Assert.notNull(query, "Query supplier must not be null");
+		Assert.notNull(scheduler, "Scheduler must not be null");
+		return Flux.<T>fromStream(query::get).subscribeOn(scheduler);
+	}
+
+}
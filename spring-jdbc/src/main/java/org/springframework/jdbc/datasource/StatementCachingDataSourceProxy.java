@@ -0,0 +1,782 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Proxy for a target DataSource, caching {@link PreparedStatement PreparedStatements}
+ * per JDBC Connection. Closing a statement obtained from a cached Connection returns
+ * it to the cache, and a subsequent {@code prepareStatement} call on the same
+ * Connection with the same SQL and the same result set and generated keys settings
+ * reuses it rather than preparing it again.
+ *
+ * <p>Statements are prepared on the Connection returned by the target DataSource.
+ * The cache is kept for that Connection, or for the Connection behind it in case
+ * of a {@link ConnectionProxy} such as the close-suppressing proxy of a
+ * {@link SingleConnectionDataSource}, and is discarded once that Connection has
+ * been closed. With a connection pool, statements are therefore reused within
+ * one checkout of a Connection handle, and get closed along with the handle.
+ * A cached statement that has been closed in the meantime, e.g. by the pool or
+ * the JDBC driver, is discarded and prepared again. Caching statements across
+ * checkouts is available as an explicit opt-in: see
+ * {@link #setCacheOnPhysicalConnection}.
+ *
+ * <p>Before a statement is returned to the cache, its parameters, pending batch
+ * and open ResultSets are cleared, and statement settings such as the fetch size,
+ * max rows and query timeout are restored to their original values.
+ *
+ * <p><b>If you configure both a StatementCachingDataSourceProxy and a
+ * TransactionAwareDataSourceProxy, make sure that the latter is the outermost
+ * DataSource</b>, so that transaction timeouts are applied to cached statements
+ * as well. The same goes for a {@link LazyConnectionDataSourceProxy}.
+ *
+ * <p><b>NOTE:</b> This DataSource proxy needs to return wrapped Connections
+ * (which implement the {@link ConnectionProxy} interface) as well as wrapped
+ * PreparedStatements and ResultSets. Use {@link Connection#unwrap} to retrieve
+ * the native JDBC Connection.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see #setCacheSize
+ * @see #getHitRatio()
+ */
+public class StatementCachingDataSourceProxy extends DelegatingDataSource {
+
+	/** Default maximum number of cached statements per Connection: 64. */
+	public static final int DEFAULT_CACHE_SIZE = 64;
+
+	private static final Set<String> resettableSettings = new HashSet<>(Arrays.asList(
+			"setFetchSize", "setFetchDirection", "setMaxRows", "setMaxFieldSize", "setQueryTimeout"));
+
+	private static final Log logger = LogFactory.getLog(StatementCachingDataSourceProxy.class);
+
+
+	private int cacheSize = DEFAULT_CACHE_SIZE;
+
+	private boolean cacheOnPhysicalConnection = false;
+
+	/** Statement caches per target Connection, removed once the Connection has been closed. */
+	private final Map<Connection, StatementCache> statementCaches = new HashMap<>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+
+	/**
+	 * Create a new StatementCachingDataSourceProxy.
+	 * @see #setTargetDataSource
+	 */
+	public StatementCachingDataSourceProxy() {
+	}
+
+	/**
+	 * Create a new StatementCachingDataSourceProxy.
+	 * @param targetDataSource the target DataSource
+	 */
+	public StatementCachingDataSourceProxy(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+
+	/**
+	 * Specify the maximum number of cached statements per Connection.
+	 * Default is 64.
+	 * <p>Once the limit is reached, the least recently used statement that is
+	 * not in use gets closed.
+	 */
+	public void setCacheSize(int cacheSize) {
+		Assert.isTrue(cacheSize > 0, "Cache size must be greater than 0");
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Return the maximum number of cached statements per Connection.
+	 */
+	public int getCacheSize() {
+		return this.cacheSize;
+	}
+
+	/**
+	 * Specify whether to cache statements for the physical Connection behind a
+	 * Connection handle of a connection pool, as exposed through
+	 * {@link Connection#unwrap}, and to prepare them on that physical Connection,
+	 * so that they are reused across checkouts. Default is "false".
+	 * <p><b>WARNING:</b> Statements prepared on the physical Connection bypass
+	 * the statement wrappers of the pool. Pool features relying on them do not
+	 * apply: e.g. HikariCP only rolls back a Connection with auto-commit disabled
+	 * on checkin if work has been done through its own statements, so uncommitted
+	 * work done through cached statements may leak to the next borrower of the
+	 * Connection. Statement tracking and closing of statements on checkin are
+	 * bypassed as well. Only switch this flag on if the pool does not rely on
+	 * its statement wrappers, or if all work happens in transactions which are
+	 * always committed or rolled back explicitly.
+	 */
+	public void setCacheOnPhysicalConnection(boolean cacheOnPhysicalConnection) {
+		this.cacheOnPhysicalConnection = cacheOnPhysicalConnection;
+	}
+
+	/**
+	 * Return whether to cache statements for the physical Connection behind a
+	 * Connection handle of a connection pool.
+	 */
+	public boolean isCacheOnPhysicalConnection() {
+		return this.cacheOnPhysicalConnection;
+	}
+
+	/**
+	 * Return the number of {@code prepareStatement} calls served from the cache.
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Return the number of {@code prepareStatement} calls which had to
+	 * prepare a new statement on the target Connection.
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Return the number of cached statements closed to make room for others.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.get();
+	}
+
+	/**
+	 * Return the ratio of {@code prepareStatement} calls served from the cache,
+	 * between 0 and 1 (0 if there have not been any calls yet).
+	 */
+	public double getHitRatio() {
+		long hits = getHitCount();
+		long total = hits + getMissCount();
+		return (total > 0 ? (double) hits / total : 0);
+	}
+
+
+	/**
+	 * Return a Connection proxy which caches the PreparedStatements
+	 * of the target Connection.
+	 * @see ConnectionProxy#getTargetConnection()
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		return getStatementCachingConnectionProxy(obtainTargetDataSource().getConnection());
+	}
+
+	/**
+	 * Return a Connection proxy which caches the PreparedStatements
+	 * of the target Connection.
+	 * @see ConnectionProxy#getTargetConnection()
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return getStatementCachingConnectionProxy(obtainTargetDataSource().getConnection(username, password));
+	}
+
+	/**
+	 * Wrap the given Connection with a proxy that caches PreparedStatements.
+	 * @param target the original Connection to wrap
+	 * @return the wrapped Connection
+	 */
+	protected Connection getStatementCachingConnectionProxy(Connection target) {
+		return (Connection) Proxy.newProxyInstance(
+				ConnectionProxy.class.getClassLoader(),
+				new Class<?>[] {ConnectionProxy.class},
+				new StatementCachingInvocationHandler(target));
+	}
+
+	private StatementCache obtainStatementCache(Connection physicalConnection) {
+		synchronized (this.statementCaches) {
+			StatementCache cache = this.statementCaches.get(physicalConnection);
+			if (cache == null) {
+				removeClosedStatementCaches();
+				cache = new StatementCache();
+				this.statementCaches.put(physicalConnection, cache);
+			}
+			cache.handleCount++;
+			return cache;
+		}
+	}
+
+	private void releaseStatementCache(Connection cachedConnection, StatementCache cache, boolean closed) {
+		boolean cachedConnectionClosed = (closed || isClosed(cachedConnection));
+		synchronized (this.statementCaches) {
+			cache.handleCount--;
+			if (!cachedConnectionClosed || !this.statementCaches.remove(cachedConnection, cache)) {
+				return;
+			}
+		}
+		cache.close();
+	}
+
+	/**
+	 * Remove the caches of Connections without open handles that have been
+	 * closed without going through this proxy, e.g. by a pool or by
+	 * {@link SingleConnectionDataSource#destroy()}.
+	 */
+	private void removeClosedStatementCaches() {
+		Iterator<Map.Entry<Connection, StatementCache>> it = this.statementCaches.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Connection, StatementCache> entry = it.next();
+			if (entry.getValue().handleCount == 0 && isClosed(entry.getKey())) {
+				it.remove();
+				entry.getValue().close();
+			}
+		}
+	}
+
+	private static boolean isClosed(Connection con) {
+		try {
+			return con.isClosed();
+		}
+		catch (SQLException ex) {
+			return true;
+		}
+	}
+
+	private static boolean isClosed(PreparedStatement ps) {
+		try {
+			return ps.isClosed();
+		}
+		catch (SQLException ex) {
+			return true;
+		}
+	}
+
+	/**
+	 * Determine the physical Connection behind the given Connection, unwrapping
+	 * {@link ConnectionProxy} instances as well as Connection handles of a pool
+	 * which expose the underlying Connection through {@link Connection#unwrap}.
+	 * @param con the Connection to unwrap
+	 * @return the innermost Connection, or the given Connection if not wrapped
+	 */
+	private static Connection getPhysicalConnection(Connection con) {
+		Connection physicalCon = DataSourceUtils.getTargetConnection(con);
+		try {
+			Connection unwrapped = physicalCon.unwrap(Connection.class);
+			while (unwrapped != null && unwrapped != physicalCon) {
+				physicalCon = DataSourceUtils.getTargetConnection(unwrapped);
+				unwrapped = physicalCon.unwrap(Connection.class);
+			}
+		}
+		catch (SQLException ex) {
+			logger.debug("Could not unwrap JDBC Connection - caching statements for the given Connection", ex);
+		}
+		return physicalCon;
+	}
+
+
+	/**
+	 * Invocation handler that serves {@code prepareStatement} calls from the
+	 * statement cache of the target Connection.
+	 */
+	private class StatementCachingInvocationHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		/** The Connection to prepare statements on. */
+		private final Connection statementConnection;
+
+		/** The Connection that the statement cache is kept for. */
+		private final Connection cachedConnection;
+
+		private final StatementCache statementCache;
+
+		private boolean closed = false;
+
+		public StatementCachingInvocationHandler(Connection target) {
+			this.target = target;
+			if (isCacheOnPhysicalConnection()) {
+				this.statementConnection = getPhysicalConnection(target);
+				this.cachedConnection = this.statementConnection;
+			}
+			else {
+				this.statementConnection = target;
+				this.cachedConnection = DataSourceUtils.getTargetConnection(target);
+			}
+			this.statementCache = obtainStatementCache(this.cachedConnection);
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			switch (method.getName()) {
+				case "equals":
+					// Only considered as equal when proxies are identical.
+					return (proxy == args[0]);
+				case "hashCode":
+					// Use hashCode of Connection proxy.
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Statement-caching proxy for target Connection [" + this.target + "]";
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+				case "getTargetConnection":
+					// Handle getTargetConnection method: return underlying Connection.
+					return this.target;
+				case "isClosed":
+					return (this.closed || this.target.isClosed());
+				case "close":
+					if (!this.closed) {
+						this.closed = true;
+						close();
+					}
+					return null;
+				case "prepareStatement":
+					if (this.closed) {
+						throw new SQLException("Connection handle already closed");
+					}
+					return prepareStatement((Connection) proxy, method, args);
+			}
+
+			// Invoke method on target Connection.
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+
+		private PreparedStatement prepareStatement(Connection proxy, Method method, Object[] args) throws Throwable {
+			StatementKey key = new StatementKey(args);
+			CachedStatement cachedStatement = this.statementCache.acquire(key);
+			if (cachedStatement != null) {
+				hitCount.incrementAndGet();
+			}
+			else {
+				missCount.incrementAndGet();
+				PreparedStatement ps;
+				try {
+					ps = (PreparedStatement) method.invoke(this.statementConnection, args);
+				}
+				catch (InvocationTargetException ex) {
+					throw ex.getTargetException();
+				}
+				cachedStatement = this.statementCache.put(key, ps);
+				if (cachedStatement == null) {
+					// Statement with the same key in use: not cached, closed on close()
+					cachedStatement = new CachedStatement(ps);
+					return createStatementProxy(proxy, key, cachedStatement, null);
+				}
+			}
+			return createStatementProxy(proxy, key, cachedStatement, this.statementCache);
+		}
+
+		private PreparedStatement createStatementProxy(Connection proxy, StatementKey key,
+				CachedStatement cachedStatement, @Nullable StatementCache statementCache) {
+
+			return (PreparedStatement) Proxy.newProxyInstance(
+					PreparedStatement.class.getClassLoader(),
+					new Class<?>[] {PreparedStatement.class},
+					new CachedStatementInvocationHandler(proxy, key, cachedStatement, statementCache));
+		}
+
+		private void close() throws SQLException {
+			try {
+				this.target.close();
+			}
+			finally {
+				// Statements of a Connection handle do not outlive the handle
+				releaseStatementCache(this.cachedConnection, this.statementCache, this.cachedConnection == this.target);
+			}
+		}
+	}
+
+
+	/**
+	 * Invocation handler for a cached PreparedStatement, returning it to
+	 * the cache on {@code close()}.
+	 */
+	private static class CachedStatementInvocationHandler implements InvocationHandler {
+
+		private final Connection connectionProxy;
+
+		private final StatementKey key;
+
+		private final CachedStatement cachedStatement;
+
+		@Nullable
+		private final StatementCache statementCache;
+
+		private final List<ResultSet> resultSets = new ArrayList<>(1);
+
+		@Nullable
+		private Map<String, Integer> originalSettings;
+
+		private boolean batched = false;
+
+		private boolean closed = false;
+
+		public CachedStatementInvocationHandler(Connection connectionProxy, StatementKey key,
+				CachedStatement cachedStatement, @Nullable StatementCache statementCache) {
+
+			this.connectionProxy = connectionProxy;
+			this.key = key;
+			this.cachedStatement = cachedStatement;
+			this.statementCache = statementCache;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			PreparedStatement target = this.cachedStatement.statement;
+			switch (method.getName()) {
+				case "equals":
+					return (proxy == args[0]);
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Cached statement for target PreparedStatement [" + target + "]";
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+				case "getConnection":
+					return this.connectionProxy;
+				case "isClosed":
+					return (this.closed || target.isClosed());
+				case "close":
+					if (!this.closed) {
+						this.closed = true;
+						release();
+					}
+					return null;
+			}
+
+			if (this.closed) {
+				throw new SQLException("Statement handle already closed");
+			}
+			if (resettableSettings.contains(method.getName())) {
+				if (this.originalSettings == null) {
+					this.originalSettings = new HashMap<>(4);
+				}
+				if (!this.originalSettings.containsKey(method.getName())) {
+					this.originalSettings.put(method.getName(), this.cachedStatement.getSetting(method.getName()));
+				}
+			}
+			else if (method.getName().equals("addBatch")) {
+				this.batched = true;
+			}
+
+			// Invoke method on target PreparedStatement.
+			try {
+				Object retVal = method.invoke(target, args);
+				if (retVal instanceof ResultSet) {
+					ResultSet rs = (ResultSet) retVal;
+					this.resultSets.add(rs);
+					return Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+							new Class<?>[] {ResultSet.class}, new ResultSetInvocationHandler((Statement) proxy, rs));
+				}
+				return retVal;
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+
+		private void release() throws SQLException {
+			PreparedStatement target = this.cachedStatement.statement;
+			if (this.statementCache == null) {
+				target.close();
+				return;
+			}
+			try {
+				for (ResultSet rs : this.resultSets) {
+					rs.close();
+				}
+				target.clearParameters();
+				if (this.batched) {
+					target.clearBatch();
+				}
+				target.clearWarnings();
+				if (this.originalSettings != null) {
+					for (Map.Entry<String, Integer> entry : this.originalSettings.entrySet()) {
+						this.cachedStatement.applySetting(entry.getKey(), entry.getValue());
+					}
+				}
+				this.statementCache.release(this.key, this.cachedStatement);
+			}
+			catch (SQLException | RuntimeException ex) {
+				logger.debug("Could not reset cached JDBC PreparedStatement - closing it", ex);
+				this.statementCache.remove(this.key, this.cachedStatement);
+			}
+		}
+	}
+
+
+	/**
+	 * Invocation handler for a ResultSet of a cached PreparedStatement,
+	 * exposing the statement proxy rather than the target statement.
+	 */
+	private static class ResultSetInvocationHandler implements InvocationHandler {
+
+		private final Statement statementProxy;
+
+		private final ResultSet target;
+
+		public ResultSetInvocationHandler(Statement statementProxy, ResultSet target) {
+			this.statementProxy = statementProxy;
+			this.target = target;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "equals":
+					return (proxy == args[0]);
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "ResultSet of cached statement for target ResultSet [" + this.target + "]";
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+				case "getStatement":
+					return this.statementProxy;
+			}
+
+			// Invoke method on target ResultSet.
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+
+	/**
+	 * Bounded, access-ordered cache of the PreparedStatements of one Connection.
+	 */
+	private class StatementCache {
+
+		/** The number of open Connection handles, guarded by the statementCaches lock. */
+		int handleCount;
+
+		private final LinkedHashMap<StatementKey, CachedStatement> statements =
+				new LinkedHashMap<>(16, 0.75f, true);
+
+		@Nullable
+		public synchronized CachedStatement acquire(StatementKey key) {
+			CachedStatement cachedStatement = this.statements.get(key);
+			if (cachedStatement == null || cachedStatement.inUse) {
+				return null;
+			}
+			if (isClosed(cachedStatement.statement)) {
+				// Closed by the pool or the driver in the meantime
+				this.statements.remove(key);
+				return null;
+			}
+			cachedStatement.inUse = true;
+			return cachedStatement;
+		}
+
+		@Nullable
+		public synchronized CachedStatement put(StatementKey key, PreparedStatement ps) {
+			if (this.statements.containsKey(key)) {
+				return null;
+			}
+			CachedStatement cachedStatement = new CachedStatement(ps);
+			cachedStatement.inUse = true;
+			this.statements.put(key, cachedStatement);
+			Iterator<CachedStatement> it = this.statements.values().iterator();
+			while (this.statements.size() > getCacheSize() && it.hasNext()) {
+				CachedStatement eldest = it.next();
+				if (!eldest.inUse) {
+					it.remove();
+					evictionCount.incrementAndGet();
+					JdbcUtils.closeStatement(eldest.statement);
+				}
+			}
+			return cachedStatement;
+		}
+
+		public synchronized void release(StatementKey key, CachedStatement cachedStatement) {
+			cachedStatement.inUse = false;
+			if (this.statements.get(key) != cachedStatement) {
+				// Removed from the cache in the meantime
+				JdbcUtils.closeStatement(cachedStatement.statement);
+			}
+		}
+
+		public synchronized void remove(StatementKey key, CachedStatement cachedStatement) {
+			this.statements.remove(key, cachedStatement);
+			JdbcUtils.closeStatement(cachedStatement.statement);
+		}
+
+		public synchronized void close() {
+			for (CachedStatement cachedStatement : this.statements.values()) {
+				JdbcUtils.closeStatement(cachedStatement.statement);
+			}
+			this.statements.clear();
+		}
+	}
+
+
+	private static class CachedStatement {
+
+		final PreparedStatement statement;
+
+		boolean inUse;
+
+		public CachedStatement(PreparedStatement statement) {
+			this.statement = statement;
+		}
+
+		public int getSetting(String setterName) throws SQLException {
+			switch (setterName) {
+				case "setFetchSize":
+					return this.statement.getFetchSize();
+				case "setFetchDirection":
+					return this.statement.getFetchDirection();
+				case "setMaxRows":
+					return this.statement.getMaxRows();
+				case "setMaxFieldSize":
+					return this.statement.getMaxFieldSize();
+				case "setQueryTimeout":
+					return this.statement.getQueryTimeout();
+				default:
+					throw new IllegalArgumentException("Unsupported setting: " + setterName);
+			}
+		}
+
+		public void applySetting(String setterName, int value) throws SQLException {
+			switch (setterName) {
+				case "setFetchSize":
+					this.statement.setFetchSize(value);
+					break;
+				case "setFetchDirection":
+					this.statement.setFetchDirection(value);
+					break;
+				case "setMaxRows":
+					this.statement.setMaxRows(value);
+					break;
+				case "setMaxFieldSize":
+					this.statement.setMaxFieldSize(value);
+					break;
+				case "setQueryTimeout":
+					this.statement.setQueryTimeout(value);
+					break;
+				default:
+					throw new IllegalArgumentException("Unsupported setting: " + setterName);
+			}
+		}
+	}
+
+
+	/**
+	 * Cache key: the arguments of the {@code prepareStatement} call, i.e. the SQL
+	 * plus result set type, concurrency and holdability or generated keys settings.
+	 */
+	private static final class StatementKey {
+
+		private final Object[] args;
+
+		private final int hashCode;
+
+		public StatementKey(Object[] args) {
+			this.args = args.clone();
+			for (int i = 0; i < this.args.length; i++) {
+				if (this.args[i] instanceof int[]) {
+					this.args[i] = ((int[]) this.args[i]).clone();
+				}
+				else if (this.args[i] instanceof String[]) {
+					this.args[i] = ((String[]) this.args[i]).clone();
+				}
+			}
+			this.hashCode = Arrays.deepHashCode(this.args);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (this == other || (other instanceof StatementKey &&
+					Arrays.deepEquals(this.args, ((StatementKey) other).args)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public String toString() {
+			return ObjectUtils.nullSafeToString(this.args);
+		}
+	}
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link BatchUpdateWriter}.
+ *
+ * @author Anton Kessler
+ */
+class BatchUpdateWriterTests {
+
+	private static final String INSERT_SQL = "insert into customer (id, name) values (?, ?)";
+
+	private DataSource dataSource;
+
+	private Connection connection;
+
+	private PreparedStatement preparedStatement;
+
+	private DatabaseMetaData databaseMetaData;
+
+	private JdbcTemplate template;
+
+
+	@BeforeEach
+	void setup() throws Exception {
+		this.dataSource = mock(DataSource.class);
+		this.connection = mock(Connection.class);
+		this.preparedStatement = mock(PreparedStatement.class);
+		this.databaseMetaData = mock(DatabaseMetaData.class);
+		given(this.dataSource.getConnection()).willReturn(this.connection);
+		given(this.connection.prepareStatement(anyString())).willReturn(this.preparedStatement);
+		given(this.connection.getMetaData()).willReturn(this.databaseMetaData);
+		given(this.preparedStatement.getConnection()).willReturn(this.connection);
+		given(this.databaseMetaData.supportsBatchUpdates()).willReturn(true);
+		this.template = new JdbcTemplate(this.dataSource);
+	}
+
+
+	@Test
+	void chunksByBatchSize() throws Exception {
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1, 1}, new int[] {1, 1, 1}, new int[] {1});
+		List<BatchUpdateWriter.ChunkResult> chunks = new ArrayList<>();
+		BatchUpdateWriter<Integer> writer = customerWriter();
+		writer.setBatchSize(3);
+		writer.setChunkListener(chunks::add);
+
+		BatchUpdateWriter.WriteResult result = writer.write(IntStream.range(0, 7).boxed());
+		assertThat(result.getRowCount()).isEqualTo(7);
+		assertThat(result.getChunkCount()).isEqualTo(3);
+		assertThat(result.getUpdateCount()).isEqualTo(7);
+		assertThat(result.isUpdateCountKnown()).isTrue();
+		assertThat(chunks).extracting(BatchUpdateWriter.ChunkResult::getRowCount).containsExactly(3, 3, 1);
+		assertThat(chunks).extracting(BatchUpdateWriter.ChunkResult::getIndex).containsExactly(1, 2, 3);
+		assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.getTimeNanos()).isNotNegative());
+
+		verify(this.connection).prepareStatement(INSERT_SQL);
+		verify(this.preparedStatement).setObject(1, 6);
+		verify(this.preparedStatement).setString(2, "name6");
+		verify(this.preparedStatement, times(7)).addBatch();
+		verify(this.preparedStatement, times(3)).executeBatch();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	void chunksByEstimatedSize() throws Exception {
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1}, new int[] {1, 1}, new int[] {1});
+		List<BatchUpdateWriter.ChunkResult> chunks = new ArrayList<>();
+		BatchUpdateWriter<Integer> writer = customerWriter();
+		writer.setMaxBatchBytes(25);
+		writer.setChunkListener(chunks::add);
+
+		BatchUpdateWriter.WriteResult result = writer.write(IntStream.range(0, 5).boxed().iterator());
+		assertThat(result.getChunkCount()).isEqualTo(3);
+		assertThat(chunks).extracting(BatchUpdateWriter.ChunkResult::getRowCount).containsExactly(2, 2, 1);
+		assertThat(chunks).extracting(BatchUpdateWriter.ChunkResult::getEstimatedSize).containsExactly(26L, 26L, 13L);
+	}
+
+	@Test
+	void unknownUpdateCounts() throws Exception {
+		given(this.preparedStatement.executeBatch()).willReturn(
+				new int[] {Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO});
+
+		BatchUpdateWriter.WriteResult result = customerWriter().write(IntStream.range(0, 2).boxed());
+		assertThat(result.getRowCount()).isEqualTo(2);
+		assertThat(result.isUpdateCountKnown()).isFalse();
+	}
+
+	@Test
+	void withoutBatchSupport() throws Exception {
+		given(this.databaseMetaData.supportsBatchUpdates()).willReturn(false);
+		given(this.preparedStatement.executeUpdate()).willReturn(1);
+
+		BatchUpdateWriter.WriteResult result = customerWriter().write(IntStream.range(0, 3).boxed());
+		assertThat(result.getUpdateCount()).isEqualTo(3);
+		verify(this.preparedStatement, times(3)).executeUpdate();
+		verify(this.preparedStatement, never()).addBatch();
+	}
+
+	@Test
+	void noItems() throws Exception {
+		BatchUpdateWriter.WriteResult result = customerWriter().write(Collections.<Integer>emptyIterator());
+		assertThat(result.getRowCount()).isEqualTo(0);
+		assertThat(result.getChunkCount()).isEqualTo(0);
+		verify(this.dataSource, never()).getConnection();
+	}
+
+	@Test
+	void multiRowInsert() throws Exception {
+		PreparedStatement partialStatement = mock(PreparedStatement.class);
+		String fullSql = "insert into customer (id, name) values (?, ?), (?, ?), (?, ?)";
+		String partialSql = "insert into customer (id, name) values (?, ?)";
+		given(this.connection.prepareStatement(fullSql)).willReturn(this.preparedStatement);
+		given(this.connection.prepareStatement(partialSql)).willReturn(partialStatement);
+		given(this.preparedStatement.executeUpdate()).willReturn(3);
+		given(partialStatement.executeUpdate()).willReturn(1);
+		BatchUpdateWriter<Integer> writer = customerWriter();
+		writer.setMultiRowInsert(true);
+		writer.setMaxParametersPerStatement(6);
+
+		BatchUpdateWriter.WriteResult result = writer.write(IntStream.range(0, 7).boxed());
+		assertThat(result.getChunkCount()).isEqualTo(3);
+		assertThat(result.getUpdateCount()).isEqualTo(7);
+		verify(this.preparedStatement).setString(6, "name2");
+		verify(this.preparedStatement).setString(6, "name5");
+		verify(this.preparedStatement, times(2)).executeUpdate();
+		verify(this.preparedStatement, never()).addBatch();
+		verify(partialStatement).setObject(1, 6);
+		verify(partialStatement).setString(2, "name6");
+		verify(partialStatement).executeUpdate();
+		verify(partialStatement).close();
+		verify(this.preparedStatement).close();
+	}
+
+	@Test
+	void multiRowInsertWithArgumentCountMismatch() throws Exception {
+		BatchUpdateWriter<Integer> writer = new BatchUpdateWriter<>(this.template, INSERT_SQL, id -> new Object[] {id});
+		writer.setMultiRowInsert(true);
+
+		assertThatExceptionOfType(InvalidDataAccessApiUsageException.class).isThrownBy(() ->
+				writer.write(IntStream.range(0, 2).boxed()));
+		verify(this.connection).close();
+	}
+
+	@Test
+	void multiRowInsertRequiresInsertValues() {
+		assertThat(multiRowInsertApplicable("INSERT INTO t (a, b) VALUES (')?', coalesce(?, ?))")).isTrue();
+		assertThat(multiRowInsertApplicable("insert into values_log (values_id) values(?) ")).isTrue();
+		assertThat(multiRowInsertApplicable("update t set a = ?")).isFalse();
+		assertThat(multiRowInsertApplicable("insert into t select * from u")).isFalse();
+		assertThat(multiRowInsertApplicable("insert into t values (?) on duplicate key update a = 1")).isFalse();
+	}
+
+
+	private BatchUpdateWriter<Integer> customerWriter() {
+		return new BatchUpdateWriter<>(this.template, INSERT_SQL, id -> new Object[] {id, "name" + id});
+	}
+
+	private boolean multiRowInsertApplicable(String sql) {
+		BatchUpdateWriter<Integer> writer = new BatchUpdateWriter<>(this.template, sql, id -> new Object[] {id});
+		try {
+			writer.setMultiRowInsert(true);
+			return writer.isMultiRowInsert();
+		}
+		catch (InvalidDataAccessApiUsageException ex) {
+			return false;
+		}
+	}
+
+}
@@ -16,10 +16,15 @@
 
 package org.springframework.jdbc.core;
 
+import java.beans.PropertyEditorSupport;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.TypeMismatchException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.jdbc.core.test.ConcretePerson;
@@ -30,6 +35,9 @@ import org.springframework.jdbc.core.test.SpacePerson;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author Thomas Risberg
@@ -113,6 +121,86 @@ public class BeanPropertyRowMapperTests extends AbstractRowMapperTests {
 				mock.getJdbcTemplate().query("select name, null as age, birth_date, balance from people", mapper));
 	}
 
+	@Test
+	public void testQueriesWithSameRowMapper() throws Exception {
+		BeanPropertyRowMapper<Person> mapper = new BeanPropertyRowMapper<>(Person.class);
+		for (int i = 0; i < 2; i++) {
+			Mock mock = new Mock();
+			List<Person> result = mock.getJdbcTemplate().query(
+					"select name, age, birth_date, balance from people", mapper);
+			assertThat(result.size()).isEqualTo(1);
+			verifyPerson(result.get(0));
+			mock.verifyClosed();
+		}
+	}
+
+	@Test
+	public void testQueriesWithDifferentColumnsAndSameRowMapper() throws Exception {
+		BeanPropertyRowMapper<SpacePerson> mapper = new BeanPropertyRowMapper<>(SpacePerson.class);
+		Mock mock = new Mock();
+		List<SpacePerson> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people", mapper);
+		assertThat(result.size()).isEqualTo(1);
+		assertThat(result.get(0).getLastName()).isNull();
+		assertThat(result.get(0).getAge()).isEqualTo(22L);
+
+		mock = new Mock(MockType.THREE);
+		result = mock.getJdbcTemplate().query(
+				"select last_name as \"Last Name\", age, birth_date, balance from people", mapper);
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+
+		mock = new Mock();
+		result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people", mapper);
+		assertThat(result.size()).isEqualTo(1);
+		assertThat(result.get(0).getLastName()).isNull();
+		assertThat(result.get(0).getAge()).isEqualTo(22L);
+	}
+
+	@Test
+	public void testColumnMappingResolvedOncePerResultSet() throws Exception {
+		BeanPropertyRowMapper<Person> mapper = new BeanPropertyRowMapper<>(Person.class);
+		ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+		given(rsmd.getColumnCount()).willReturn(1);
+		given(rsmd.getColumnLabel(1)).willReturn("name");
+		given(rsmd.getColumnType(1)).willReturn(Types.VARCHAR);
+		ResultSet rs = mock(ResultSet.class);
+		given(rs.getMetaData()).willReturn(rsmd);
+		given(rs.getString(1)).willReturn("Bubba", "Sue");
+
+		assertThat(mapper.mapRow(rs, 0).getName()).isEqualTo("Bubba");
+		assertThat(mapper.mapRow(rs, 1).getName()).isEqualTo("Sue");
+		verify(rs).getMetaData();
+
+		ResultSet otherRs = mock(ResultSet.class);
+		given(otherRs.getMetaData()).willReturn(rsmd);
+		given(otherRs.getString(1)).willReturn("Bubba");
+		assertThat(mapper.mapRow(otherRs, 0).getName()).isEqualTo("Bubba");
+		verify(otherRs).getMetaData();
+	}
+
+	@Test
+	public void testMappingWithCustomBeanWrapper() throws Exception {
+		BeanPropertyRowMapper<Person> mapper = new BeanPropertyRowMapper<Person>(Person.class) {
+			@Override
+			protected void initBeanWrapper(BeanWrapper bw) {
+				super.initBeanWrapper(bw);
+				bw.registerCustomEditor(String.class, new PropertyEditorSupport() {
+					@Override
+					public void setAsText(String text) {
+						setValue(text.toUpperCase());
+					}
+				});
+			}
+		};
+		Mock mock = new Mock();
+		List<Person> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people", mapper);
+		assertThat(result.size()).isEqualTo(1);
+		assertThat(result.get(0).getName()).isEqualTo("BUBBA");
+	}
+
 	@Test
 	public void testQueryWithSpaceInColumnNameAndLocalDateTime() throws Exception {
 		Mock mock = new Mock(MockType.THREE);
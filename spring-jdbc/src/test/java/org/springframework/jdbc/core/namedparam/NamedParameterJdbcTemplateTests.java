@@ -28,6 +28,8 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -40,7 +42,10 @@ import org.springframework.jdbc.Customer;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
 import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.SqlProvider;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
@@ -336,6 +341,35 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection).close();
 	}
 
+	@Test
+	public void testQueryForStreamWithRowMapper() throws SQLException {
+		given(resultSet.next()).willReturn(true, false);
+		given(resultSet.getInt("id")).willReturn(1);
+		given(resultSet.getString("forename")).willReturn("rod");
+
+		params.put("id", new SqlParameterValue(Types.DECIMAL, 1));
+		params.put("country", "UK");
+		List<Customer> customers;
+		try (Stream<Customer> stream = namedParameterTemplate.queryForStream(SELECT_NAMED_PARAMETERS, params,
+				(rs, rownum) -> {
+					Customer cust = new Customer();
+					cust.setId(rs.getInt(COLUMN_NAMES[0]));
+					cust.setForename(rs.getString(COLUMN_NAMES[1]));
+					return cust;
+				})) {
+			customers = stream.collect(Collectors.toList());
+		}
+		assertThat(customers.size()).isEqualTo(1);
+		assertThat(customers.get(0).getId() == 1).as("Customer id was assigned correctly").isTrue();
+		assertThat(customers.get(0).getForename().equals("rod")).as("Customer forename was assigned correctly").isTrue();
+		verify(connection).prepareStatement(SELECT_NAMED_PARAMETERS_PARSED);
+		verify(preparedStatement).setObject(1, 1, Types.DECIMAL);
+		verify(preparedStatement).setString(2, "UK");
+		verify(resultSet).close();
+		verify(preparedStatement).close();
+		verify(connection).close();
+	}
+
 	@Test
 	public void testQueryWithRowMapperNoParameters() throws SQLException {
 		given(resultSet.next()).willReturn(true, false);
@@ -537,4 +571,62 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testParsedSqlCacheEvictsLeastRecentlyUsed() {
+		namedParameterTemplate.setCacheLimit(2);
+		ParsedSql first = namedParameterTemplate.getParsedSql("select * from a where id = :id");
+		ParsedSql second = namedParameterTemplate.getParsedSql("select * from b where id = :id");
+		assertThat(namedParameterTemplate.getParsedSql("select * from a where id = :id")).isSameAs(first);
+
+		namedParameterTemplate.getParsedSql("select * from c where id = :id");
+		assertThat(namedParameterTemplate.getParsedSql("select * from a where id = :id")).isSameAs(first);
+		assertThat(namedParameterTemplate.getParsedSql("select * from b where id = :id")).isNotSameAs(second);
+	}
+
+	@Test
+	public void testParsedSqlCacheDisabled() {
+		namedParameterTemplate.setCacheLimit(0);
+		ParsedSql parsedSql = namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS);
+		assertThat(namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS)).isNotSameAs(parsedSql);
+	}
+
+	@Test
+	public void testPreparedStatementCreatorPerParameterShape() {
+		String sql = "select * from customer where id in (:ids) and type = :type";
+		MapSqlParameterSource twoIds = new MapSqlParameterSource("ids", Arrays.asList(1, 2)).addValue("type", "a");
+		MapSqlParameterSource threeIds = new MapSqlParameterSource("ids", Arrays.asList(1, 2, 3)).addValue("type", "a");
+		MapSqlParameterSource tuples = new MapSqlParameterSource("ids",
+				Collections.singletonList(new Object[] {1, 2})).addValue("type", "a");
+
+		for (int i = 0; i < 2; i++) {
+			assertThat(getSql(namedParameterTemplate.getPreparedStatementCreator(sql, twoIds)))
+					.isEqualTo("select * from customer where id in (?, ?) and type = ?");
+			assertThat(getSql(namedParameterTemplate.getPreparedStatementCreator(sql, threeIds)))
+					.isEqualTo("select * from customer where id in (?, ?, ?) and type = ?");
+			assertThat(getSql(namedParameterTemplate.getPreparedStatementCreator(sql, tuples)))
+					.isEqualTo("select * from customer where id in ((?, ?)) and type = ?");
+		}
+	}
+
+	@Test
+	public void testCustomPreparedStatementCreatorFactoryNotCached() {
+		List<ParsedSql> invocations = new LinkedList<>();
+		namedParameterTemplate = new NamedParameterJdbcTemplate(dataSource) {
+			@Override
+			protected PreparedStatementCreatorFactory getPreparedStatementCreatorFactory(
+					ParsedSql parsedSql, SqlParameterSource paramSource) {
+				invocations.add(parsedSql);
+				return super.getPreparedStatementCreatorFactory(parsedSql, paramSource);
+			}
+		};
+		MapSqlParameterSource paramSource = new MapSqlParameterSource("id", 1).addValue("country", "UK");
+		namedParameterTemplate.getPreparedStatementCreator(SELECT_NAMED_PARAMETERS, paramSource);
+		namedParameterTemplate.getPreparedStatementCreator(SELECT_NAMED_PARAMETERS, paramSource);
+		assertThat(invocations).hasSize(2);
+	}
+
+	private static String getSql(PreparedStatementCreator psc) {
+		return ((SqlProvider) psc).getSql();
+	}
+
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ReactiveQueryUtils}.
+ *
+ * @author Anton Kessler
+ */
+class ReactiveQueryUtilsTests {
+
+	private final AtomicInteger executions = new AtomicInteger();
+
+	private final AtomicInteger fetchedRows = new AtomicInteger();
+
+	private final AtomicInteger closedStreams = new AtomicInteger();
+
+
+	@Test
+	void queryExecutedOnSubscription() {
+		Flux<Integer> flux = ReactiveQueryUtils.toFlux(this::query);
+		assertThat(this.executions.get()).isEqualTo(0);
+
+		StepVerifier.create(flux).expectNext(0, 1, 2, 3, 4).verifyComplete();
+		StepVerifier.create(flux).expectNextCount(5).verifyComplete();
+		assertThat(this.executions.get()).isEqualTo(2);
+		assertThat(this.closedStreams.get()).isEqualTo(2);
+	}
+
+	@Test
+	void rowsFetchedOnDemand() {
+		StepVerifier.create(ReactiveQueryUtils.toFlux(this::query), 2)
+				.expectNext(0, 1)
+				.then(() -> assertThat(this.fetchedRows.get()).isLessThan(5))
+				.thenCancel()
+				.verify();
+		assertThat(this.closedStreams.get()).isEqualTo(1);
+	}
+
+
+	private Stream<Integer> query() {
+		this.executions.incrementAndGet();
+		return Stream.iterate(0, i -> i + 1).limit(5)
+				.peek(i -> this.fetchedRows.incrementAndGet())
+				.onClose(this.closedStreams::incrementAndGet);
+	}
+
+}
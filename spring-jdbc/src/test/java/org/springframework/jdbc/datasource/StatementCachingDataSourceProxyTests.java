@@ -0,0 +1,289 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link StatementCachingDataSourceProxy}.
+ *
+ * @author Anton Kessler
+ */
+class StatementCachingDataSourceProxyTests {
+
+	private final List<PreparedStatement> statements = new ArrayList<>();
+
+	private Connection connection;
+
+	private StatementCachingDataSourceProxy dataSource;
+
+
+	@BeforeEach
+	void setup() throws Exception {
+		this.connection = mock(Connection.class);
+		given(this.connection.prepareStatement(anyString())).willAnswer(invocation -> newStatement());
+		given(this.connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS)))
+				.willAnswer(invocation -> newStatement());
+		given(this.connection.getAutoCommit()).willReturn(true);
+		this.dataSource = new StatementCachingDataSourceProxy(new SingleConnectionDataSource(this.connection, true));
+	}
+
+
+	@Test
+	void statementReusedAcrossConnectionHandles() throws Exception {
+		prepareAndClose("select * from customer");
+		prepareAndClose("select * from customer");
+
+		assertThat(this.statements).hasSize(1);
+		assertThat(this.dataSource.getHitCount()).isEqualTo(1);
+		assertThat(this.dataSource.getMissCount()).isEqualTo(1);
+		assertThat(this.dataSource.getHitRatio()).isEqualTo(0.5);
+		verify(this.connection).prepareStatement("select * from customer");
+		verify(this.statements.get(0), times(2)).clearParameters();
+		verify(this.statements.get(0), never()).close();
+	}
+
+	@Test
+	void statementsCachedPerSqlAndGeneratedKeysSetting() throws Exception {
+		prepareAndClose("insert into customer (name) values (?)");
+		try (Connection con = this.dataSource.getConnection()) {
+			con.prepareStatement("insert into customer (name) values (?)", Statement.RETURN_GENERATED_KEYS).close();
+			con.prepareStatement("insert into customer (name) values (?)", Statement.RETURN_GENERATED_KEYS).close();
+		}
+		prepareAndClose("insert into customer (name) values (?)");
+
+		assertThat(this.statements).hasSize(2);
+		assertThat(this.dataSource.getHitCount()).isEqualTo(2);
+		assertThat(this.dataSource.getMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	void statementStateResetOnClose() throws Exception {
+		ResultSet resultSet = mock(ResultSet.class);
+		try (Connection con = this.dataSource.getConnection()) {
+			PreparedStatement ps = con.prepareStatement("select * from customer where name = ?");
+			PreparedStatement target = this.statements.get(0);
+			given(target.getFetchSize()).willReturn(10);
+			given(target.executeQuery()).willReturn(resultSet);
+			assertThat(ps.getConnection()).isSameAs(con);
+			assertThat(ps.unwrap(PreparedStatement.class)).isSameAs(ps);
+			ps.setFetchSize(100);
+			ps.setString(1, "name");
+			ps.addBatch();
+			assertThat(ps.executeQuery().getStatement()).isSameAs(ps);
+			ps.close();
+
+			assertThat(ps.isClosed()).isTrue();
+			assertThatExceptionOfType(SQLException.class).isThrownBy(ps::executeQuery);
+			verify(resultSet).close();
+			verify(target).clearParameters();
+			verify(target).clearBatch();
+			verify(target).setFetchSize(10);
+			verify(target, never()).close();
+		}
+	}
+
+	@Test
+	void statementPreparedOnPooledConnectionHandle() throws Exception {
+		Connection handle = mock(Connection.class);
+		Connection otherHandle = mock(Connection.class);
+		given(handle.unwrap(Connection.class)).willReturn(this.connection);
+		given(handle.prepareStatement(anyString())).willAnswer(invocation -> newStatement());
+		given(otherHandle.unwrap(Connection.class)).willReturn(this.connection);
+		given(otherHandle.prepareStatement(anyString())).willAnswer(invocation -> newStatement());
+		DataSource targetDataSource = mock(DataSource.class);
+		given(targetDataSource.getConnection()).willReturn(handle, otherHandle);
+		this.dataSource = new StatementCachingDataSourceProxy(targetDataSource);
+		try (Connection con = this.dataSource.getConnection()) {
+			con.prepareStatement("select * from customer").close();
+			con.prepareStatement("select * from customer").close();
+		}
+		prepareAndClose("select * from customer");
+
+		assertThat(this.statements).hasSize(2);
+		assertThat(this.dataSource.getHitCount()).isEqualTo(1);
+		verify(handle).prepareStatement("select * from customer");
+		verify(otherHandle).prepareStatement("select * from customer");
+		verify(this.connection, never()).prepareStatement(anyString());
+		verify(this.statements.get(0)).close();
+		verify(this.statements.get(1)).close();
+	}
+
+	@Test
+	void statementReusedAcrossPooledConnectionHandlesOnPhysicalConnection() throws Exception {
+		Connection handle = mock(Connection.class);
+		Connection otherHandle = mock(Connection.class);
+		given(handle.unwrap(Connection.class)).willReturn(this.connection);
+		given(otherHandle.unwrap(Connection.class)).willReturn(this.connection);
+		DataSource targetDataSource = mock(DataSource.class);
+		given(targetDataSource.getConnection()).willReturn(handle, otherHandle);
+		this.dataSource = new StatementCachingDataSourceProxy(targetDataSource);
+		this.dataSource.setCacheOnPhysicalConnection(true);
+		prepareAndClose("select * from customer");
+		prepareAndClose("select * from customer");
+
+		assertThat(this.statements).hasSize(1);
+		assertThat(this.dataSource.getHitCount()).isEqualTo(1);
+		verify(handle, never()).prepareStatement(anyString());
+		verify(handle).close();
+		verify(otherHandle).close();
+		verify(this.statements.get(0), never()).close();
+	}
+
+	@Test
+	void closedStatementNotReused() throws Exception {
+		prepareAndClose("select * from customer");
+		given(this.statements.get(0).isClosed()).willReturn(true);
+		prepareAndClose("select * from customer");
+
+		assertThat(this.statements).hasSize(2);
+		assertThat(this.dataSource.getHitCount()).isEqualTo(0);
+		assertThat(this.dataSource.getMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	void statementInUseNotShared() throws Exception {
+		try (Connection con = this.dataSource.getConnection()) {
+			PreparedStatement first = con.prepareStatement("select * from customer");
+			PreparedStatement second = con.prepareStatement("select * from customer");
+			assertThat(this.statements).hasSize(2);
+			assertThat(second.getConnection()).isSameAs(con);
+			second.close();
+			first.close();
+			verify(this.statements.get(1)).close();
+			verify(this.statements.get(0), never()).close();
+		}
+		prepareAndClose("select * from customer");
+		assertThat(this.statements).hasSize(2);
+	}
+
+	@Test
+	void leastRecentlyUsedStatementEvicted() throws Exception {
+		this.dataSource.setCacheSize(2);
+		prepareAndClose("select 1");
+		prepareAndClose("select 2");
+		prepareAndClose("select 1");
+		prepareAndClose("select 3");
+		assertThat(this.dataSource.getEvictionCount()).isEqualTo(1);
+		verify(this.statements.get(1)).close();
+
+		prepareAndClose("select 1");
+		prepareAndClose("select 3");
+		assertThat(this.statements).hasSize(3);
+		verify(this.statements.get(0), never()).close();
+	}
+
+	@Test
+	void cacheDiscardedWhenConnectionClosed() throws Exception {
+		DataSource targetDataSource = mock(DataSource.class);
+		given(targetDataSource.getConnection()).willReturn(this.connection);
+		given(this.connection.isClosed()).willReturn(true);
+		this.dataSource = new StatementCachingDataSourceProxy(targetDataSource);
+		prepareAndClose("select * from customer");
+		prepareAndClose("select * from customer");
+
+		assertThat(this.statements).hasSize(2);
+		assertThat(this.dataSource.getHitCount()).isEqualTo(0);
+		verify(this.statements.get(0)).close();
+		verify(this.connection, times(2)).close();
+	}
+
+	@Test
+	void cacheDiscardedWhenConnectionClosedElsewhere() throws Exception {
+		Connection otherConnection = mock(Connection.class);
+		given(otherConnection.prepareStatement(anyString())).willAnswer(invocation -> newStatement());
+		Connection handle = mock(Connection.class);
+		Connection otherHandle = mock(Connection.class);
+		given(handle.unwrap(Connection.class)).willReturn(this.connection);
+		given(otherHandle.unwrap(Connection.class)).willReturn(otherConnection);
+		DataSource targetDataSource = mock(DataSource.class);
+		given(targetDataSource.getConnection()).willReturn(handle, otherHandle);
+		this.dataSource = new StatementCachingDataSourceProxy(targetDataSource);
+		this.dataSource.setCacheOnPhysicalConnection(true);
+		prepareAndClose("select * from customer");
+		verify(this.statements.get(0), never()).close();
+
+		given(this.connection.isClosed()).willReturn(true);
+		prepareAndClose("select * from customer");
+		assertThat(this.statements).hasSize(2);
+		verify(this.statements.get(0)).close();
+		verify(this.statements.get(1), never()).close();
+	}
+
+	@Test
+	void withTransactionAwareDataSourceProxy() throws Exception {
+		TransactionAwareDataSourceProxy transactionAwareDataSource = new TransactionAwareDataSourceProxy(this.dataSource);
+		TransactionTemplate transactionTemplate =
+				new TransactionTemplate(new DataSourceTransactionManager(this.dataSource));
+		transactionTemplate.setTimeout(10);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			for (int i = 0; i < 2; i++) {
+				try (Connection con = transactionAwareDataSource.getConnection();
+						PreparedStatement ps = con.prepareStatement("update customer set name = ?")) {
+					ps.setString(1, "name");
+					ps.executeUpdate();
+				}
+				catch (SQLException ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+		});
+		assertThat(this.statements).hasSize(1);
+		assertThat(this.dataSource.getHitCount()).isEqualTo(1);
+		verify(this.statements.get(0), times(2)).setQueryTimeout(10);
+		verify(this.statements.get(0), times(2)).setQueryTimeout(0);
+		verify(this.connection).commit();
+	}
+
+
+	private PreparedStatement newStatement() {
+		PreparedStatement ps = mock(PreparedStatement.class);
+		this.statements.add(ps);
+		return ps;
+	}
+
+	private void prepareAndClose(String sql) throws SQLException {
+		try (Connection con = this.dataSource.getConnection()) {
+			con.prepareStatement(sql).close();
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -138,6 +138,9 @@ public abstract class AbstractBrokerMessageHandler
 	 * will be sent to the {@code "clientOutboundChannel"} one at a time in
 	 * order to preserve the order of publication. Enable this only if needed
 	 * since there is some performance overhead to keep messages in order.
+	 * <p>Alternatively, back the {@code "clientOutboundChannel"} with a
+	 * {@link org.springframework.messaging.simp.broker.SessionLaneExecutor}
+	 * which handles the messages of each session in order.
 	 * @param preservePublishOrder whether to publish in order
 	 * @since 5.1
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,9 @@
 
 package org.springframework.messaging.simp.broker;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -25,6 +27,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
@@ -55,9 +58,17 @@ import org.springframework.util.StringUtils;
  * header on subscription messages with Spring EL expressions evaluated against
  * the headers to filter out messages in addition to destination matching.
  *
+ * <p>As of 5.2.2, subscriptions are indexed in a trie of destination segments
+ * when the configured {@code PathMatcher} is a plain {@link AntPathMatcher},
+ * so that the subscriptions for a destination are resolved in time
+ * proportional to the depth of the destination rather than the number of
+ * subscriptions. Other {@code PathMatcher} variants fall back on matching
+ * each subscription, with resolved destinations kept in a cache.
+ *
  * @author Rossen Stoyanchev
  * @author Sebastien Deleuze
  * @author Juergen Hoeller
+ * @author Anton Kessler
  * @since 4.0
  */
 public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
@@ -85,12 +96,29 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	private final SessionSubscriptionRegistry subscriptionRegistry = new SessionSubscriptionRegistry();
 
+	@Nullable
+	private volatile DestinationIndex destinationIndex = DestinationIndex.forPathMatcher(this.pathMatcher);
+
 
 	/**
 	 * Specify the {@link PathMatcher} to use.
+	 * <p>The destination index is only used with a plain {@link AntPathMatcher}
+	 * that is case-sensitive and does not trim tokens. Any other configuration
+	 * requires matching every subscription on a destination cache miss.
 	 */
 	public void setPathMatcher(PathMatcher pathMatcher) {
 		this.pathMatcher = pathMatcher;
+		DestinationIndex index = DestinationIndex.forPathMatcher(pathMatcher);
+		if (index != null) {
+			for (SessionSubscriptionInfo info : this.subscriptionRegistry.getAllSubscriptions()) {
+				for (String destination : info.getDestinations()) {
+					for (Subscription sub : info.getSubscriptions(destination)) {
+						index.add(info.getSessionId(), sub.getId(), destination);
+					}
+				}
+			}
+		}
+		this.destinationIndex = index;
 	}
 
 	/**
@@ -103,6 +131,8 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	/**
 	 * Specify the maximum number of entries for the resolved destination cache.
 	 * Default is 1024.
+	 * <p>The cache is not used if destinations are resolved through the
+	 * destination index (see {@link #setPathMatcher}).
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
@@ -149,7 +179,13 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 		Expression expression = getSelectorExpression(message.getHeaders());
 		this.subscriptionRegistry.addSubscription(sessionId, subsId, destination, expression);
-		this.destinationCache.updateAfterNewSubscription(destination, sessionId, subsId);
+		DestinationIndex index = this.destinationIndex;
+		if (index != null) {
+			index.add(sessionId, subsId, destination);
+		}
+		else {
+			this.destinationCache.updateAfterNewSubscription(destination, sessionId, subsId);
+		}
 	}
 
 	@Nullable
@@ -181,7 +217,13 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		if (info != null) {
 			String destination = info.removeSubscription(subsId);
 			if (destination != null) {
-				this.destinationCache.updateAfterRemovedSubscription(sessionId, subsId);
+				DestinationIndex index = this.destinationIndex;
+				if (index != null) {
+					index.remove(sessionId, subsId, destination);
+				}
+				else {
+					this.destinationCache.updateAfterRemovedSubscription(sessionId, subsId);
+				}
 			}
 		}
 	}
@@ -190,13 +232,25 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	public void unregisterAllSubscriptions(String sessionId) {
 		SessionSubscriptionInfo info = this.subscriptionRegistry.removeSubscriptions(sessionId);
 		if (info != null) {
-			this.destinationCache.updateAfterRemovedSession(info);
+			DestinationIndex index = this.destinationIndex;
+			if (index != null) {
+				for (String destination : info.getDestinations()) {
+					for (Subscription sub : info.getSubscriptions(destination)) {
+						index.remove(sessionId, sub.getId(), destination);
+					}
+				}
+			}
+			else {
+				this.destinationCache.updateAfterRemovedSession(info);
+			}
 		}
 	}
 
 	@Override
 	protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
-		MultiValueMap<String, String> result = this.destinationCache.getSubscriptions(destination, message);
+		DestinationIndex index = this.destinationIndex;
+		MultiValueMap<String, String> result = (index != null ? index.getSubscriptions(destination) :
+				this.destinationCache.getSubscriptions(destination, message));
 		return filterSubscriptions(result, message);
 	}
 
@@ -242,7 +296,9 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	@Override
 	public String toString() {
-		return "DefaultSubscriptionRegistry[" + this.destinationCache + ", " + this.subscriptionRegistry + "]";
+		DestinationIndex index = this.destinationIndex;
+		return "DefaultSubscriptionRegistry[" + (index != null ? index : this.destinationCache) + ", " +
+				this.subscriptionRegistry + "]";
 	}
 
 
@@ -363,6 +419,308 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	}
 
 
+	/**
+	 * A trie of destination segments, as tokenized by {@link AntPathMatcher},
+	 * holding every subscription at the node of its destination. Pattern
+	 * segments are kept apart from literal segments so that a destination is
+	 * resolved by following its own segments plus any pattern branches, and
+	 * subscriptions with a {@code "**"} segment are kept at the node of their
+	 * leading segments as candidates for any destination below. Candidates are
+	 * always verified with the {@code PathMatcher}.
+	 * <p>Lookups do not lock; updates lock individual nodes only.
+	 */
+	private static final class DestinationIndex {
+
+		private static final String DOUBLE_WILDCARD = "**";
+
+		private static final String SINGLE_WILDCARD = "*";
+
+		private final PathMatcher pathMatcher;
+
+		private final String pathSeparator;
+
+		private final IndexNode root = new IndexNode();
+
+		private final AtomicLong sequence = new AtomicLong();
+
+		private DestinationIndex(PathMatcher pathMatcher, String pathSeparator) {
+			this.pathMatcher = pathMatcher;
+			this.pathSeparator = pathSeparator;
+		}
+
+		/**
+		 * Create an index for the given {@code PathMatcher}, or return {@code null}
+		 * if its tokenization of destinations cannot be reproduced. The path
+		 * separator of an {@link AntPathMatcher} is not exposed, so it is derived
+		 * from the combination of two plain segments.
+		 */
+		@Nullable
+		public static DestinationIndex forPathMatcher(PathMatcher pathMatcher) {
+			if (pathMatcher.getClass() != AntPathMatcher.class ||
+					pathMatcher.match("a", "A") || pathMatcher.match("a", " a")) {
+				return null;
+			}
+			String combined = pathMatcher.combine("a", "b");
+			if (combined.length() < 3 || !combined.startsWith("a") || !combined.endsWith("b")) {
+				return null;
+			}
+			return new DestinationIndex(pathMatcher, combined.substring(1, combined.length() - 1));
+		}
+
+		public LinkedMultiValueMap<String, String> getSubscriptions(String destination) {
+			List<IndexedSubscription> matches = new ArrayList<>();
+			collect(this.root, tokenize(destination), 0, destination, matches);
+			if (matches.size() > 1) {
+				matches.sort(Comparator.comparingLong(IndexedSubscription::getSequence));
+			}
+			LinkedMultiValueMap<String, String> result = new LinkedMultiValueMap<>();
+			for (IndexedSubscription match : matches) {
+				result.add(match.getSessionId(), match.getSubscriptionId());
+			}
+			return result;
+		}
+
+		private void collect(IndexNode node, String[] segments, int index, String destination,
+				List<IndexedSubscription> matches) {
+
+			addMatches(node.getDescendantSubscriptions(), destination, matches);
+			if (index == segments.length) {
+				addMatches(node.getSubscriptions(), destination, matches);
+				if (destination.endsWith(this.pathSeparator)) {
+					// AntPathMatcher: "/foo/*" matches "/foo/"
+					IndexNode wildcard = node.getChild(SINGLE_WILDCARD, true);
+					if (wildcard != null) {
+						addMatches(wildcard.getSubscriptions(), destination, matches);
+					}
+				}
+				return;
+			}
+			IndexNode literal = node.getChild(segments[index], false);
+			if (literal != null) {
+				collect(literal, segments, index + 1, destination, matches);
+			}
+			for (IndexNode pattern : node.getPatternChildren()) {
+				collect(pattern, segments, index + 1, destination, matches);
+			}
+		}
+
+		private void addMatches(Set<IndexedSubscription> candidates, String destination,
+				List<IndexedSubscription> matches) {
+
+			for (IndexedSubscription candidate : candidates) {
+				String pattern = candidate.getDestination();
+				if (pattern.equals(destination) || this.pathMatcher.match(pattern, destination)) {
+					matches.add(candidate);
+				}
+			}
+		}
+
+		public void add(String sessionId, String subsId, String destination) {
+			IndexedSubscription subscription =
+					new IndexedSubscription(sessionId, subsId, destination, this.sequence.incrementAndGet());
+			String[] segments = tokenize(destination);
+			while (true) {
+				IndexNode node = this.root;
+				boolean descendants = false;
+				for (String segment : segments) {
+					if (DOUBLE_WILDCARD.equals(segment)) {
+						descendants = true;
+						break;
+					}
+					node = node.getOrCreateChild(segment, this.pathMatcher.isPattern(segment));
+					if (node == null) {
+						break;
+					}
+				}
+				if (node != null && node.addSubscription(subscription, descendants)) {
+					return;
+				}
+				// A node on the path has been removed concurrently: start over from the root
+			}
+		}
+
+		public void remove(String sessionId, String subsId, String destination) {
+			IndexedSubscription subscription = new IndexedSubscription(sessionId, subsId, destination, 0);
+			String[] segments = tokenize(destination);
+			List<IndexNode> path = new ArrayList<>(segments.length + 1);
+			List<String> keys = new ArrayList<>(segments.length);
+			IndexNode node = this.root;
+			path.add(node);
+			for (String segment : segments) {
+				if (DOUBLE_WILDCARD.equals(segment)) {
+					break;
+				}
+				node = node.getChild(segment, this.pathMatcher.isPattern(segment));
+				if (node == null) {
+					return;
+				}
+				path.add(node);
+				keys.add(segment);
+			}
+			if (!node.removeSubscription(subscription)) {
+				return;
+			}
+			for (int i = path.size() - 1; i > 0; i--) {
+				if (!path.get(i - 1).removeChildIfEmpty(keys.get(i - 1), path.get(i))) {
+					break;
+				}
+			}
+		}
+
+		private String[] tokenize(String destination) {
+			return StringUtils.tokenizeToStringArray(destination, this.pathSeparator, false, true);
+		}
+
+		@Override
+		public String toString() {
+			return "index[pathSeparator='" + this.pathSeparator + "']";
+		}
+	}
+
+
+	/**
+	 * A node of the {@link DestinationIndex}. Child maps and subscription sets
+	 * are safe for concurrent reads; structural changes are made while holding
+	 * the lock of the node (and, for the removal of a child, of its parent first).
+	 */
+	private static final class IndexNode {
+
+		private final ConcurrentMap<String, IndexNode> literalChildren = new ConcurrentHashMap<>(4);
+
+		private final ConcurrentMap<String, IndexNode> patternChildren = new ConcurrentHashMap<>(4);
+
+		/** Subscriptions for a destination ending at this node. */
+		private final Set<IndexedSubscription> subscriptions = ConcurrentHashMap.newKeySet(4);
+
+		/** Subscriptions with a "**" segment following the segments up to this node. */
+		private final Set<IndexedSubscription> descendantSubscriptions = ConcurrentHashMap.newKeySet(4);
+
+		private boolean removed;
+
+		@Nullable
+		public IndexNode getChild(String segment, boolean pattern) {
+			return (pattern ? this.patternChildren : this.literalChildren).get(segment);
+		}
+
+		public Collection<IndexNode> getPatternChildren() {
+			return this.patternChildren.values();
+		}
+
+		public Set<IndexedSubscription> getSubscriptions() {
+			return this.subscriptions;
+		}
+
+		public Set<IndexedSubscription> getDescendantSubscriptions() {
+			return this.descendantSubscriptions;
+		}
+
+		/**
+		 * Return the child for the given segment, creating it if necessary,
+		 * or {@code null} if this node has been removed from the index.
+		 */
+		@Nullable
+		public synchronized IndexNode getOrCreateChild(String segment, boolean pattern) {
+			if (this.removed) {
+				return null;
+			}
+			Map<String, IndexNode> children = (pattern ? this.patternChildren : this.literalChildren);
+			return children.computeIfAbsent(segment, s -> new IndexNode());
+		}
+
+		/**
+		 * Add the given subscription, returning {@code false} if this node has
+		 * been removed from the index and the caller needs to retry.
+		 */
+		public synchronized boolean addSubscription(IndexedSubscription subscription, boolean descendants) {
+			if (this.removed) {
+				return false;
+			}
+			(descendants ? this.descendantSubscriptions : this.subscriptions).add(subscription);
+			return true;
+		}
+
+		public synchronized boolean removeSubscription(IndexedSubscription subscription) {
+			return (this.subscriptions.remove(subscription) || this.descendantSubscriptions.remove(subscription));
+		}
+
+		/**
+		 * Remove the given child if it holds neither subscriptions nor children.
+		 * @return whether the child has been removed
+		 */
+		public synchronized boolean removeChildIfEmpty(String segment, IndexNode child) {
+			synchronized (child) {
+				if (child.removed || !child.isEmpty()) {
+					return false;
+				}
+				child.removed = true;
+				return (this.literalChildren.remove(segment, child) || this.patternChildren.remove(segment, child));
+			}
+		}
+
+		private boolean isEmpty() {
+			return (this.subscriptions.isEmpty() && this.descendantSubscriptions.isEmpty() &&
+					this.literalChildren.isEmpty() && this.patternChildren.isEmpty());
+		}
+	}
+
+
+	/**
+	 * A subscription held in the {@link DestinationIndex}, with a sequence
+	 * number to return matches in the order of registration.
+	 */
+	private static final class IndexedSubscription {
+
+		private final String sessionId;
+
+		private final String subscriptionId;
+
+		private final String destination;
+
+		private final long sequence;
+
+		public IndexedSubscription(String sessionId, String subscriptionId, String destination, long sequence) {
+			this.sessionId = sessionId;
+			this.subscriptionId = subscriptionId;
+			this.destination = destination;
+			this.sequence = sequence;
+		}
+
+		public String getSessionId() {
+			return this.sessionId;
+		}
+
+		public String getSubscriptionId() {
+			return this.subscriptionId;
+		}
+
+		public String getDestination() {
+			return this.destination;
+		}
+
+		public long getSequence() {
+			return this.sequence;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof IndexedSubscription)) {
+				return false;
+			}
+			IndexedSubscription otherSub = (IndexedSubscription) other;
+			return (this.sessionId.equals(otherSub.sessionId) && this.subscriptionId.equals(otherSub.subscriptionId) &&
+					this.destination.equals(otherSub.destination));
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.sessionId.hashCode() * 31 + this.subscriptionId.hashCode()) * 31 + this.destination.hashCode();
+		}
+	}
+
+
 	/**
 	 * Provide access to session subscriptions by sessionId.
 	 */
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp.broker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.OverflowPolicy;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
+
+/**
+ * A {@link TaskExecutor} for the client inbound or outbound channel that
+ * shards sessions across a fixed number of single-threaded lanes, selected by
+ * the hash of the session id of each message. Messages for the same session
+ * are therefore always handled in the order in which they were sent, without
+ * the per-session queue of {@link AbstractBrokerMessageHandler#setPreservePublishOrder
+ * preservePublishOrder}, while different sessions are handled in parallel.
+ *
+ * <p>Each lane takes up to {@link #setBatchSize batchSize} tasks from its queue
+ * at once, saving on queue synchronization, and then runs them one at a time in
+ * the order in which they were submitted. Messages are not coalesced, i.e. each
+ * outbound message is still sent to its session individually.
+ * Each lane queue may be bounded via {@link #setLaneCapacity laneCapacity},
+ * with the {@link OverflowPolicy} deciding what happens to a message for a
+ * full lane.
+ *
+ * <p>Tasks that are not for a session message are assigned to lanes in turn.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @see org.springframework.messaging.simp.config.ChannelRegistration#executor
+ */
+@SuppressWarnings("serial")
+public class SessionLaneExecutor extends CustomizableThreadCreator implements TaskExecutor, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(SessionLaneExecutor.class);
+
+	private int laneCount = Runtime.getRuntime().availableProcessors();
+
+	private int laneCapacity = Integer.MAX_VALUE;
+
+	private int batchSize = 64;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	@Nullable
+	private volatile Lane[] lanes;
+
+	private final AtomicInteger nextLane = new AtomicInteger();
+
+	private volatile boolean shutdown;
+
+
+	/**
+	 * Create a new {@code SessionLaneExecutor} with a lane per available processor.
+	 */
+	public SessionLaneExecutor() {
+		super("sessionLane-");
+		setDaemon(true);
+	}
+
+
+	/**
+	 * Set the number of lanes, each backed by a single thread.
+	 * <p>By default this is the number of available processors.
+	 */
+	public void setLaneCount(int laneCount) {
+		Assert.isTrue(laneCount > 0, "'laneCount' must be positive");
+		Assert.state(this.lanes == null, "Lanes already started");
+		this.laneCount = laneCount;
+	}
+
+	/**
+	 * Return the configured number of lanes.
+	 */
+	public int getLaneCount() {
+		return this.laneCount;
+	}
+
+	/**
+	 * Set the maximum number of messages that can wait in each lane.
+	 * <p>By default lanes are unbounded.
+	 * @see #setOverflowPolicy
+	 */
+	public void setLaneCapacity(int laneCapacity) {
+		Assert.isTrue(laneCapacity > 0, "'laneCapacity' must be positive");
+		Assert.state(this.lanes == null, "Lanes already started");
+		this.laneCapacity = laneCapacity;
+	}
+
+	/**
+	 * Return the configured lane capacity.
+	 */
+	public int getLaneCapacity() {
+		return this.laneCapacity;
+	}
+
+	/**
+	 * Set the maximum number of messages a lane takes from its queue at once,
+	 * before running them in order.
+	 * <p>By default this is 64.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be positive");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the configured batch size.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Set the policy to apply when a lane has reached its capacity.
+	 * <p>By default this is {@link OverflowPolicy#BLOCK}. A task submitted to a
+	 * full lane from the thread of that same lane is rejected with a
+	 * {@link TaskRejectedException} rather than blocking, since the lane could
+	 * never make room while its thread is waiting.
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		Assert.notNull(overflowPolicy, "OverflowPolicy must not be null");
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Return the configured overflow policy.
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+
+	@Override
+	public void execute(Runnable task) {
+		Assert.notNull(task, "Task must not be null");
+		if (this.shutdown) {
+			throw new TaskRejectedException("SessionLaneExecutor has been shut down");
+		}
+		Lane[] lanes = getLanes();
+		String sessionId = getSessionId(task);
+		int index = (sessionId != null ? sessionId.hashCode() : this.nextLane.getAndIncrement());
+		lanes[(index & Integer.MAX_VALUE) % lanes.length].add(task);
+	}
+
+	private Lane[] getLanes() {
+		Lane[] lanes = this.lanes;
+		if (lanes == null) {
+			synchronized (this) {
+				lanes = this.lanes;
+				if (lanes == null) {
+					lanes = new Lane[this.laneCount];
+					for (int i = 0; i < lanes.length; i++) {
+						Lane lane = new Lane();
+						Thread thread = createThread(lane);
+						lane.thread = thread;
+						lanes[i] = lane;
+						thread.start();
+					}
+					this.lanes = lanes;
+				}
+			}
+		}
+		return lanes;
+	}
+
+	@Nullable
+	private static String getSessionId(Runnable task) {
+		if (task instanceof MessageHandlingRunnable) {
+			Message<?> message = ((MessageHandlingRunnable) task).getMessage();
+			return SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+		}
+		return null;
+	}
+
+	/**
+	 * Return the number of messages discarded by the {@link OverflowPolicy}
+	 * across all lanes.
+	 */
+	public long getDiscardedCount() {
+		long count = 0;
+		Lane[] lanes = this.lanes;
+		if (lanes != null) {
+			for (Lane lane : lanes) {
+				count += lane.discarded.get();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Stop all lanes, discarding any messages that have not been handled yet.
+	 */
+	@Override
+	public void destroy() {
+		this.shutdown = true;
+		Lane[] lanes = this.lanes;
+		if (lanes != null) {
+			for (Lane lane : lanes) {
+				lane.stop();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		long queued = 0;
+		long completed = 0;
+		Lane[] lanes = this.lanes;
+		if (lanes != null) {
+			for (Lane lane : lanes) {
+				queued += lane.queue.size();
+				completed += lane.completed.get();
+			}
+		}
+		return "SessionLaneExecutor[pool size = " + this.laneCount + ", queued tasks = " + queued +
+				", completed tasks = " + completed + ", discarded tasks = " + getDiscardedCount() + "]";
+	}
+
+
+	/**
+	 * A single-threaded lane with its own queue.
+	 */
+	private final class Lane implements Runnable {
+
+		private final BlockingQueue<Runnable> queue = (laneCapacity != Integer.MAX_VALUE ?
+				new ArrayBlockingQueue<>(laneCapacity) : new LinkedBlockingQueue<>());
+
+		private final AtomicLong completed = new AtomicLong();
+
+		private final AtomicLong discarded = new AtomicLong();
+
+		@Nullable
+		private Thread thread;
+
+		public void add(Runnable task) {
+			if (this.queue.offer(task)) {
+				return;
+			}
+			switch (overflowPolicy) {
+				case BLOCK:
+					if (Thread.currentThread() == this.thread) {
+						throw new TaskRejectedException("Lane capacity of " + laneCapacity +
+								" reached for a task submitted from the lane thread itself");
+					}
+					try {
+						this.queue.put(task);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						throw new TaskRejectedException("Interrupted while waiting for lane capacity", ex);
+					}
+					break;
+				case DISCARD_OLDEST:
+					while (!this.queue.offer(task)) {
+						Runnable oldest = this.queue.poll();
+						if (oldest != null) {
+							discard(oldest);
+						}
+					}
+					break;
+				case DISCARD:
+					discard(task);
+					break;
+				default:
+					throw new TaskRejectedException("Lane capacity of " + laneCapacity + " reached");
+			}
+		}
+
+		private void discard(Runnable task) {
+			this.discarded.incrementAndGet();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Discarded " + task + ", lane capacity of " + laneCapacity + " reached");
+			}
+		}
+
+		@Override
+		public void run() {
+			List<Runnable> batch = new ArrayList<>(batchSize);
+			while (!shutdown) {
+				try {
+					Runnable first = this.queue.poll(1, TimeUnit.SECONDS);
+					if (first == null) {
+						continue;
+					}
+					batch.add(first);
+					this.queue.drainTo(batch, batchSize - 1);
+					for (Runnable task : batch) {
+						runTask(task);
+					}
+				}
+				catch (InterruptedException ex) {
+					if (!shutdown) {
+						Thread.currentThread().interrupt();
+					}
+					break;
+				}
+				finally {
+					batch.clear();
+				}
+			}
+		}
+
+		private void runTask(Runnable task) {
+			try {
+				task.run();
+			}
+			catch (Throwable ex) {
+				logger.error("Failed to execute " + task, ex);
+			}
+			finally {
+				this.completed.incrementAndGet();
+			}
+		}
+
+		public void stop() {
+			this.queue.clear();
+			if (this.thread != null) {
+				this.thread.interrupt();
+			}
+		}
+	}
+
+}
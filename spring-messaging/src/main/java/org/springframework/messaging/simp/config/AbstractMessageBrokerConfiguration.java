@@ -141,6 +141,10 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 
 	@Bean
 	public TaskExecutor clientInboundChannelExecutor() {
+		TaskExecutor customExecutor = getClientInboundChannelRegistration().getExecutor();
+		if (customExecutor != null) {
+			return customExecutor;
+		}
 		TaskExecutorRegistration reg = getClientInboundChannelRegistration().taskExecutor();
 		ThreadPoolTaskExecutor executor = reg.getTaskExecutor();
 		executor.setThreadNamePrefix("clientInboundChannel-");
@@ -177,6 +181,10 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 
 	@Bean
 	public TaskExecutor clientOutboundChannelExecutor() {
+		TaskExecutor customExecutor = getClientOutboundChannelRegistration().getExecutor();
+		if (customExecutor != null) {
+			return customExecutor;
+		}
 		TaskExecutorRegistration reg = getClientOutboundChannelRegistration().taskExecutor();
 		ThreadPoolTaskExecutor executor = reg.getTaskExecutor();
 		executor.setThreadNamePrefix("clientOutboundChannel-");
@@ -214,6 +222,10 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 	@Bean
 	public TaskExecutor brokerChannelExecutor() {
 		ChannelRegistration reg = getBrokerRegistry().getBrokerChannelRegistration();
+		TaskExecutor customExecutor = reg.getExecutor();
+		if (customExecutor != null) {
+			return customExecutor;
+		}
 		ThreadPoolTaskExecutor executor;
 		if (reg.hasTaskExecutor()) {
 			executor = reg.taskExecutor().getTaskExecutor();
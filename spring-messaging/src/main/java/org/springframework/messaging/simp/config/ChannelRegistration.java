@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -36,6 +37,9 @@ public class ChannelRegistration {
 	@Nullable
 	private TaskExecutorRegistration registration;
 
+	@Nullable
+	private TaskExecutor executor;
+
 	private final List<ChannelInterceptor> interceptors = new ArrayList<>();
 
 
@@ -59,6 +63,20 @@ public class ChannelRegistration {
 		return this.registration;
 	}
 
+	/**
+	 * Configure a custom {@link TaskExecutor} backing this message channel,
+	 * e.g. a {@link org.springframework.messaging.simp.broker.SessionLaneExecutor}
+	 * that handles the messages of each session in order on a fixed set of lanes.
+	 * <p>This takes precedence over a thread pool configured via
+	 * {@link #taskExecutor()}.
+	 * @param executor the executor to use
+	 * @since 5.2.2
+	 */
+	public ChannelRegistration executor(TaskExecutor executor) {
+		this.executor = executor;
+		return this;
+	}
+
 	/**
 	 * Configure the given interceptors for this message channel,
 	 * adding them to the channel's current list of interceptors.
@@ -83,7 +101,12 @@ public class ChannelRegistration {
 
 
 	protected boolean hasTaskExecutor() {
-		return (this.registration != null);
+		return (this.registration != null || this.executor != null);
+	}
+
+	@Nullable
+	protected TaskExecutor getExecutor() {
+		return this.executor;
 	}
 
 	protected boolean hasInterceptors() {
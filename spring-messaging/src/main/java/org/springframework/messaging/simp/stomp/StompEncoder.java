@@ -17,10 +17,9 @@
 package org.springframework.messaging.simp.stomp;
 
 import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +54,16 @@ public class StompEncoder  {
 
 	private static final int HEADER_KEY_CACHE_LIMIT = 32;
 
+	private static final byte[] CONTENT_LENGTH_PREFIX = "content-length:".getBytes(StandardCharsets.UTF_8);
+
+	private static final Map<StompCommand, byte[]> commandBytes = new EnumMap<>(StompCommand.class);
+
+	static {
+		for (StompCommand command : StompCommand.values()) {
+			commandBytes.put(command, command.name().getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
 
 	private final Map<String, byte[]> headerKeyAccessCache = new ConcurrentHashMap<>(HEADER_KEY_CACHE_LIMIT);
 
@@ -93,38 +102,31 @@ public class StompEncoder  {
 		Assert.notNull(headers, "'headers' is required");
 		Assert.notNull(payload, "'payload' is required");
 
-		try {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream(128 + payload.length);
-			DataOutputStream output = new DataOutputStream(baos);
-
-			if (SimpMessageType.HEARTBEAT.equals(SimpMessageHeaderAccessor.getMessageType(headers))) {
-				logger.trace("Encoding heartbeat");
-				output.write(StompDecoder.HEARTBEAT_PAYLOAD);
-			}
-
-			else {
-				StompCommand command = StompHeaderAccessor.getCommand(headers);
-				if (command == null) {
-					throw new IllegalStateException("Missing STOMP command: " + headers);
-				}
+		FrameBuffer output = new FrameBuffer(128 + payload.length);
+		if (SimpMessageType.HEARTBEAT.equals(SimpMessageHeaderAccessor.getMessageType(headers))) {
+			logger.trace("Encoding heartbeat");
+			output.write(StompDecoder.HEARTBEAT_PAYLOAD);
+		}
 
-				output.write(command.toString().getBytes(StandardCharsets.UTF_8));
-				output.write(LF);
-				writeHeaders(command, headers, payload, output);
-				output.write(LF);
-				writeBody(payload, output);
-				output.write((byte) 0);
+		else {
+			StompCommand command = StompHeaderAccessor.getCommand(headers);
+			if (command == null) {
+				throw new IllegalStateException("Missing STOMP command: " + headers);
 			}
 
-			return baos.toByteArray();
-		}
-		catch (IOException ex) {
-			throw new StompConversionException("Failed to encode STOMP frame, headers=" + headers,  ex);
+			output.write(commandBytes.get(command));
+			output.write(LF);
+			writeHeaders(command, headers, payload, output);
+			output.write(LF);
+			output.write(payload);
+			output.write((byte) 0);
 		}
+
+		return output.toByteArray();
 	}
 
 	private void writeHeaders(StompCommand command, Map<String, Object> headers, byte[] payload,
-			DataOutputStream output) throws IOException {
+			FrameBuffer output) {
 
 		@SuppressWarnings("unchecked")
 		Map<String,List<String>> nativeHeaders =
@@ -162,9 +164,8 @@ public class StompEncoder  {
 		}
 
 		if (command.requiresContentLength()) {
-			int contentLength = payload.length;
-			output.write("content-length:".getBytes(StandardCharsets.UTF_8));
-			output.write(Integer.toString(contentLength).getBytes(StandardCharsets.UTF_8));
+			output.write(CONTENT_LENGTH_PREFIX);
+			output.writeDecimal(payload.length);
 			output.write(LF);
 		}
 	}
@@ -229,8 +230,29 @@ public class StompEncoder  {
 		return sb;
 	}
 
-	private void writeBody(byte[] payload, DataOutputStream output) throws IOException {
-		output.write(payload);
+
+	/**
+	 * Frame buffer with direct writes of byte arrays and decimal values.
+	 */
+	private static class FrameBuffer extends ByteArrayOutputStream {
+
+		FrameBuffer(int size) {
+			super(size);
+		}
+
+		@Override
+		public void write(byte[] bytes) {
+			write(bytes, 0, bytes.length);
+		}
+
+		public void writeDecimal(int value) {
+			if (value < 10) {
+				write('0' + value);
+			}
+			else {
+				write(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+			}
+		}
 	}
 
 }
@@ -16,11 +16,16 @@
 
 package org.springframework.messaging.simp.broker;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
@@ -28,6 +33,7 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.MultiValueMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -256,6 +262,89 @@ public class DefaultSubscriptionRegistryTests {
 		assertThat(actual.size()).as("Expected no elements " + actual).isEqualTo(0);
 	}
 
+	@Test
+	public void registerSubscriptionWithDoubleWildcard() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/**"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/topic/**/IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs03", "/topic/*/IBM"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/NASDAQ/IBM"));
+		assertThat(actual.get("sess01")).isEqualTo(Arrays.asList("subs01", "subs02", "subs03"));
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/PRICE/NASDAQ/IBM"));
+		assertThat(actual.get("sess01")).isEqualTo(Arrays.asList("subs01", "subs02"));
+
+		actual = this.registry.findSubscriptions(createMessage("/topic"));
+		assertThat(actual.get("sess01")).isEqualTo(Collections.singletonList("subs01"));
+
+		actual = this.registry.findSubscriptions(createMessage("/queue/NASDAQ/IBM"));
+		assertThat(actual.size()).isEqualTo(0);
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs01"));
+		actual = this.registry.findSubscriptions(createMessage("/topic/NASDAQ/IBM"));
+		assertThat(actual.get("sess01")).isEqualTo(Arrays.asList("subs02", "subs03"));
+	}
+
+	@Test
+	public void registerSubscriptionWithCustomPathSeparator() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "topic.PRICE.NASDAQ.IBM"));
+		this.registry.setPathMatcher(new AntPathMatcher("."));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "topic.PRICE.*.IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "topic.**"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("topic.PRICE.NASDAQ.IBM"));
+		assertThat(actual.size()).isEqualTo(2);
+		assertThat(actual.get("sess01")).isEqualTo(Arrays.asList("subs01", "subs02"));
+		assertThat(actual.get("sess02")).isEqualTo(Collections.singletonList("subs01"));
+
+		actual = this.registry.findSubscriptions(createMessage("topic.PRICE.NYSE.IBM"));
+		assertThat(actual.size()).isEqualTo(2);
+		assertThat(actual.get("sess01")).isEqualTo(Collections.singletonList("subs02"));
+
+		this.registry.unregisterAllSubscriptions("sess02");
+		actual = this.registry.findSubscriptions(createMessage("topic.PRICE.NYSE.IBM"));
+		assertThat(actual.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void registerSubscriptionWithCaseInsensitivePathMatcher() {
+		AntPathMatcher pathMatcher = new AntPathMatcher();
+		pathMatcher.setCaseSensitive(false);
+		this.registry.setPathMatcher(pathMatcher);
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/*/ibm"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/TOPIC/NASDAQ/IBM"));
+		assertThat(actual.get("sess01")).isEqualTo(Collections.singletonList("subs01"));
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs01"));
+		actual = this.registry.findSubscriptions(createMessage("/TOPIC/NASDAQ/IBM"));
+		assertThat(actual.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void registerAndUnregisterConcurrently() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			String sessionId = "sess" + i;
+			futures.add(executor.submit(() -> {
+				for (int j = 0; j < 1000; j++) {
+					String destination = "/topic/" + (j % 10) + "/" + (j % 7);
+					this.registry.registerSubscription(subscribeMessage(sessionId, "subs" + j, destination));
+					this.registry.unregisterSubscription(unsubscribeMessage(sessionId, "subs" + j));
+				}
+				this.registry.registerSubscription(subscribeMessage(sessionId, "last", "/topic/1/1"));
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get(10, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		assertThat(this.registry.findSubscriptions(createMessage("/topic/1/1")).size()).isEqualTo(4);
+		assertThat(this.registry.findSubscriptions(createMessage("/topic/2/2")).size()).isEqualTo(0);
+	}
+
 	@Test
 	public void registerSubscriptionWithSelector() {
 		String sessionId = "sess01";
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp.broker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.task.OverflowPolicy;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link SessionLaneExecutor}.
+ *
+ * @author Anton Kessler
+ */
+class SessionLaneExecutorTests {
+
+	private final SessionLaneExecutor executor = new SessionLaneExecutor();
+
+
+	@AfterEach
+	void tearDown() {
+		this.executor.destroy();
+	}
+
+
+	@Test
+	void messagesHandledInOrderPerSession() throws Exception {
+		int sessions = 10;
+		int messagesPerSession = 1000;
+		this.executor.setLaneCount(4);
+		ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel(this.executor);
+		Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+		Map<String, Thread> threads = new ConcurrentHashMap<>();
+		CountDownLatch latch = new CountDownLatch(sessions * messagesPerSession);
+		channel.subscribe(message -> {
+			String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+			received.computeIfAbsent(sessionId, id -> new ArrayList<>()).add((Integer) message.getPayload());
+			threads.putIfAbsent(sessionId, Thread.currentThread());
+			assertThat(threads.get(sessionId)).isSameAs(Thread.currentThread());
+			latch.countDown();
+		});
+
+		for (int i = 0; i < messagesPerSession; i++) {
+			for (int j = 0; j < sessions; j++) {
+				channel.send(createMessage("sess" + j, i));
+			}
+		}
+
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(received).hasSize(sessions);
+		for (List<Integer> payloads : received.values()) {
+			assertThat(payloads).hasSize(messagesPerSession);
+			for (int i = 0; i < messagesPerSession; i++) {
+				assertThat(payloads.get(i)).isEqualTo(i);
+			}
+		}
+	}
+
+	@Test
+	void discardWhenLaneFull() throws Exception {
+		this.executor.setLaneCount(1);
+		this.executor.setLaneCapacity(1);
+		this.executor.setOverflowPolicy(OverflowPolicy.DISCARD);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		this.executor.execute(() -> {
+			started.countDown();
+			awaitQuietly(release);
+		});
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CountDownLatch handled = new CountDownLatch(1);
+		this.executor.execute(handled::countDown);
+		this.executor.execute(() -> { throw new IllegalStateException("should have been discarded"); });
+		assertThat(this.executor.getDiscardedCount()).isEqualTo(1);
+
+		release.countDown();
+		assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void discardOldestWhenLaneFull() throws Exception {
+		this.executor.setLaneCount(1);
+		this.executor.setLaneCapacity(1);
+		this.executor.setOverflowPolicy(OverflowPolicy.DISCARD_OLDEST);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		this.executor.execute(() -> {
+			started.countDown();
+			awaitQuietly(release);
+		});
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		List<String> handled = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch latch = new CountDownLatch(1);
+		this.executor.execute(() -> handled.add("oldest"));
+		this.executor.execute(() -> {
+			handled.add("newest");
+			latch.countDown();
+		});
+		assertThat(this.executor.getDiscardedCount()).isEqualTo(1);
+
+		release.countDown();
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(handled).containsExactly("newest");
+	}
+
+	@Test
+	void blockWhenLaneFull() throws Exception {
+		this.executor.setLaneCount(1);
+		this.executor.setLaneCapacity(1);
+		this.executor.setOverflowPolicy(OverflowPolicy.BLOCK);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		this.executor.execute(() -> {
+			started.countDown();
+			awaitQuietly(release);
+		});
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		List<String> handled = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch latch = new CountDownLatch(2);
+		this.executor.execute(() -> {
+			handled.add("first");
+			latch.countDown();
+		});
+		SessionTask second = new SessionTask("sess1", () -> {
+			handled.add("second");
+			latch.countDown();
+		});
+		Thread sender = new Thread(() -> this.executor.execute(second));
+		sender.start();
+		assertThat(second.awaitSubmitted()).isTrue();
+
+		release.countDown();
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		sender.join(5000);
+		assertThat(handled).containsExactly("first", "second");
+		assertThat(this.executor.getDiscardedCount()).isEqualTo(0);
+	}
+
+	@Test
+	void rejectSubmissionFromLaneItselfWhenLaneFull() throws Exception {
+		this.executor.setLaneCount(1);
+		this.executor.setLaneCapacity(1);
+		this.executor.setOverflowPolicy(OverflowPolicy.BLOCK);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		CountDownLatch latch = new CountDownLatch(2);
+		this.executor.execute(() -> {
+			this.executor.execute(latch::countDown);
+			try {
+				this.executor.execute(() -> {});
+			}
+			catch (Throwable ex) {
+				failure.set(ex);
+			}
+			latch.countDown();
+		});
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(failure.get()).isInstanceOf(TaskRejectedException.class);
+	}
+
+	@Test
+	void abortWhenLaneFull() throws Exception {
+		this.executor.setLaneCount(1);
+		this.executor.setLaneCapacity(1);
+		this.executor.setOverflowPolicy(OverflowPolicy.ABORT);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		this.executor.execute(() -> {
+			started.countDown();
+			awaitQuietly(release);
+		});
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		this.executor.execute(() -> {});
+
+		assertThatExceptionOfType(TaskRejectedException.class).isThrownBy(() -> this.executor.execute(() -> {}));
+		release.countDown();
+	}
+
+	@Test
+	void rejectAfterDestroy() {
+		this.executor.execute(() -> {});
+		this.executor.destroy();
+
+		assertThatExceptionOfType(TaskRejectedException.class).isThrownBy(() -> this.executor.execute(() -> {}));
+	}
+
+
+	private static Message<Integer> createMessage(String sessionId, int payload) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		accessor.setSessionId(sessionId);
+		return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	/**
+	 * Task for a session message, signalling when the executor obtains
+	 * the message right before queueing the task.
+	 */
+	private static class SessionTask implements MessageHandlingRunnable {
+
+		private final Message<Integer> message;
+
+		private final Runnable action;
+
+		private final CountDownLatch submitted = new CountDownLatch(1);
+
+		SessionTask(String sessionId, Runnable action) {
+			this.message = createMessage(sessionId, 0);
+			this.action = action;
+		}
+
+		@Override
+		public Message<?> getMessage() {
+			this.submitted.countDown();
+			return this.message;
+		}
+
+		@Override
+		public MessageHandler getMessageHandler() {
+			return message -> this.action.run();
+		}
+
+		@Override
+		public void run() {
+			this.action.run();
+		}
+
+		boolean awaitSubmitted() throws InterruptedException {
+			return this.submitted.await(5, TimeUnit.SECONDS);
+		}
+	}
+
+}
@@ -51,6 +51,7 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
 import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.SessionLaneExecutor;
 import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
 import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
 import org.springframework.messaging.simp.stomp.StompCommand;
@@ -208,6 +209,19 @@ public class MessageBrokerConfigurationTests {
 		assertThat(broker.isPreservePublishOrder()).isTrue();
 	}
 
+	@Test
+	public void clientOutboundChannelWithCustomExecutor() {
+		ApplicationContext context = loadConfig(SessionLaneConfig.class);
+
+		ExecutorSubscribableChannel channel = context.getBean(
+				"clientOutboundChannel", ExecutorSubscribableChannel.class);
+		SessionLaneExecutor executor = context.getBean(
+				"clientOutboundChannelExecutor", SessionLaneExecutor.class);
+
+		assertThat(channel.getExecutor()).isSameAs(executor);
+		assertThat(executor.getLaneCount()).isEqualTo(3);
+	}
+
 	@Test
 	public void brokerChannel() {
 		ApplicationContext context = loadConfig(SimpleBrokerConfig.class);
@@ -670,6 +684,18 @@ public class MessageBrokerConfigurationTests {
 	}
 
 
+	@Configuration
+	static class SessionLaneConfig extends BaseTestMessageBrokerConfig {
+
+		@Override
+		protected void configureClientOutboundChannel(ChannelRegistration registration) {
+			SessionLaneExecutor executor = new SessionLaneExecutor();
+			executor.setLaneCount(3);
+			registration.executor(executor);
+		}
+	}
+
+
 	@Configuration
 	static abstract class BaseDotSeparatorConfig extends BaseTestMessageBrokerConfig {
 
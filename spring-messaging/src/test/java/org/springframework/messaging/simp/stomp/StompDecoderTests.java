@@ -251,6 +251,35 @@ public class StompDecoderTests {
 		assertThat(StompHeaderAccessor.wrap(messages.get(0)).getMessageType()).isEqualTo(SimpMessageType.HEARTBEAT);
 	}
 
+	@Test
+	public void decodeFramesFromDirectBuffer() {
+		byte[] bytes = "SEND\ndestination:/q\\c1\n\nfirst\0\nSEND\ncontent-length:6\n\nsecond\0SE".getBytes();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes);
+		buffer.flip();
+
+		List<Message<byte[]>> messages = this.decoder.decode(buffer);
+
+		assertThat(messages.size()).isEqualTo(2);
+		assertThat(StompHeaderAccessor.wrap(messages.get(0)).getDestination()).isEqualTo("/q:1");
+		assertThat(new String(messages.get(0).getPayload())).isEqualTo("first");
+		assertThat(new String(messages.get(1).getPayload())).isEqualTo("second");
+		assertThat(buffer.remaining()).isEqualTo(2);
+	}
+
+	@Test
+	public void decodeFrameFromBufferSlice() {
+		ByteBuffer buffer = ByteBuffer.wrap("xxSEND\ndestination:/q\n\npayload\0".getBytes());
+		buffer.position(2);
+
+		Message<byte[]> frame = decode(buffer.slice());
+		StompHeaderAccessor headers = StompHeaderAccessor.wrap(frame);
+
+		assertThat(headers.getCommand()).isEqualTo(StompCommand.SEND);
+		assertThat(headers.getDestination()).isEqualTo("/q");
+		assertThat(new String(frame.getPayload())).isEqualTo("payload");
+	}
+
 	private void assertIncompleteDecode(String partialFrame) {
 		ByteBuffer buffer = ByteBuffer.wrap(partialFrame.getBytes());
 		assertThat(decode(buffer)).isNull();
@@ -83,4 +83,17 @@ public class StompEncoderTests {
 		assertThat(new String(encoder.encode(frame))).isEqualTo("SEND\ncontent-length:12\n\nMessage body\0");
 	}
 
+	@Test
+	public void encodeFramesOfDifferentSizes() {
+		StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.SEND);
+		headers.setDestination("/q");
+		byte[] largeBody = new byte[100 * 1024];
+		Message<byte[]> largeFrame = MessageBuilder.createMessage(largeBody, headers.getMessageHeaders());
+		Message<byte[]> smallFrame = MessageBuilder.createMessage("a".getBytes(), headers.getMessageHeaders());
+
+		assertThat(encoder.encode(largeFrame).length).isEqualTo(largeBody.length + 44);
+		assertThat(new String(encoder.encode(smallFrame))).isEqualTo("SEND\ndestination:/q\ncontent-length:1\n\na\0");
+		assertThat(new String(encoder.encode(smallFrame))).isEqualTo("SEND\ndestination:/q\ncontent-length:1\n\na\0");
+	}
+
 }
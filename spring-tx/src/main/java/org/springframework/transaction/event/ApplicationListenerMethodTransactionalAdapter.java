@@ -17,6 +17,7 @@
 package org.springframework.transaction.event;
 
 import java.lang.reflect.Method;
+import java.util.List;
 
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.event.ApplicationListenerMethodAdapter;
@@ -79,6 +80,13 @@ class ApplicationListenerMethodTransactionalAdapter extends ApplicationListenerM
 		}
 	}
 
+	@Override
+	public void onApplicationEvents(List<ApplicationEvent> events) {
+		for (ApplicationEvent event : events) {
+			onApplicationEvent(event);
+		}
+	}
+
 	private TransactionSynchronization createTransactionSynchronization(ApplicationEvent event) {
 		return new TransactionSynchronizationEventAdapter(this, event, this.annotation.phase());
 	}
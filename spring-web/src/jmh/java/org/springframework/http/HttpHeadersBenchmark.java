@@ -0,0 +1,92 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http;
+
+import java.util.Collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link HttpHeaders} access: raw header lookups, typed
+ * accessors that parse header values, and header population.
+ *
+ * <p>Typically this can be run with
+ * {@code "./gradlew :spring-web:jmh -Pjmh.includes=HttpHeadersBenchmark"}.
+ *
+ * @author Anton Kessler
+ */
+@BenchmarkMode(Mode.Throughput)
+public class HttpHeadersBenchmark {
+
+	@Benchmark
+	public void getFirst(HeadersData data, Blackhole bh) {
+		bh.consume(data.headers.getFirst("X-Request-Id"));
+		bh.consume(data.headers.getFirst("x-forwarded-for"));
+	}
+
+	@Benchmark
+	public void getContentType(HeadersData data, Blackhole bh) {
+		bh.consume(data.headers.getContentType());
+	}
+
+	@Benchmark
+	public void getAccept(HeadersData data, Blackhole bh) {
+		bh.consume(data.headers.getAccept());
+	}
+
+	@Benchmark
+	public void getContentLength(HeadersData data, Blackhole bh) {
+		bh.consume(data.headers.getContentLength());
+	}
+
+	@Benchmark
+	public void populate(Blackhole bh) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setContentLength(1024);
+		headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+		headers.set("X-Request-Id", "d2b7c8e4");
+		bh.consume(headers);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class HeadersData {
+
+		HttpHeaders headers;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.headers = new HttpHeaders();
+			this.headers.set(HttpHeaders.CONTENT_TYPE, "application/json;charset=UTF-8");
+			this.headers.set(HttpHeaders.CONTENT_LENGTH, "1024");
+			this.headers.set(HttpHeaders.ACCEPT, "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8");
+			this.headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+			this.headers.set(HttpHeaders.USER_AGENT, "Mozilla/5.0 (X11; Linux x86_64)");
+			this.headers.set("X-Request-Id", "d2b7c8e4");
+			this.headers.set("X-Forwarded-For", "192.168.0.1");
+		}
+	}
+
+}
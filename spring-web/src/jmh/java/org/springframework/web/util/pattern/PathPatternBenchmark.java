@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.http.server.PathContainer;
+
+/**
+ * Benchmarks for {@link PathPattern} matching against parsed request paths,
+ * with and without URI variable extraction.
+ *
+ * <p>Typically this can be run with
+ * {@code "./gradlew :spring-web:jmh -Pjmh.includes=PathPatternBenchmark"}.
+ *
+ * @author Anton Kessler
+ */
+@BenchmarkMode(Mode.Throughput)
+public class PathPatternBenchmark {
+
+	@Benchmark
+	public void parsePath(MatchData data, Blackhole bh) {
+		for (String path : data.rawPaths) {
+			bh.consume(PathContainer.parsePath(path));
+		}
+	}
+
+	@Benchmark
+	public void matches(MatchData data, Blackhole bh) {
+		for (PathContainer path : data.paths) {
+			for (PathPattern pattern : data.patterns) {
+				bh.consume(pattern.matches(path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void matchAndExtract(MatchData data, Blackhole bh) {
+		for (PathContainer path : data.paths) {
+			for (PathPattern pattern : data.patterns) {
+				bh.consume(pattern.matchAndExtract(path));
+			}
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class MatchData {
+
+		List<PathPattern> patterns;
+
+		List<String> rawPaths;
+
+		List<PathContainer> paths;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			PathPatternParser parser = new PathPatternParser();
+			this.patterns = new ArrayList<>();
+			this.patterns.add(parser.parse("/"));
+			this.patterns.add(parser.parse("/api/projects"));
+			this.patterns.add(parser.parse("/api/projects/{project}"));
+			this.patterns.add(parser.parse("/api/projects/{project}/releases"));
+			this.patterns.add(parser.parse("/api/projects/{project}/releases/{version}"));
+			this.patterns.add(parser.parse("/static/**"));
+			this.patterns.add(parser.parse("/admin/*/settings"));
+			this.patterns.add(parser.parse("/files/{*path}"));
+			this.rawPaths = new ArrayList<>();
+			this.rawPaths.add("/");
+			this.rawPaths.add("/api/projects");
+			this.rawPaths.add("/api/projects/spring-framework");
+			this.rawPaths.add("/api/projects/spring-framework/releases/5.2.2.RELEASE");
+			this.rawPaths.add("/static/js/vendor/app.js");
+			this.rawPaths.add("/admin/users/settings");
+			this.rawPaths.add("/files/docs/reference/index.html");
+			this.rawPaths.add("/unknown/resource/path");
+			this.paths = new ArrayList<>();
+			for (String path : this.rawPaths) {
+				this.paths.add(PathContainer.parsePath(path));
+			}
+		}
+	}
+
+}
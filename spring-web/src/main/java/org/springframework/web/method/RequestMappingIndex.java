@@ -0,0 +1,342 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * An index over request mappings that narrows down the mappings to evaluate
+ * for a given lookup path and HTTP method, as an alternative to evaluating
+ * the conditions of every registered mapping.
+ *
+ * <p>Each mapping is indexed under the literal prefix of each of its URL
+ * patterns, i.e. the pattern up to the last path separator before the first
+ * wildcard or URI variable, in a radix tree. Within each tree node, mappings
+ * are further bucketed by the HTTP methods they declare. A lookup walks the
+ * tree along the lookup path, so its cost depends on the length of the path
+ * rather than on the number of registered mappings.
+ *
+ * <p>The returned candidates are a superset of the mappings that may match;
+ * their conditions still need to be evaluated. This works for both
+ * {@link org.springframework.util.AntPathMatcher AntPathMatcher} and
+ * {@link org.springframework.web.util.pattern.PathPattern PathPattern}
+ * syntax, as long as literal pattern segments are matched case-sensitively.
+ * Patterns that do not start with a "/" and mappings without any patterns
+ * are indexed at the root and therefore returned for every lookup path.
+ *
+ * <p>This class is not thread-safe: modifications must be guarded
+ * against concurrent lookups by the caller.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ * @param <T> the mapping type
+ */
+public class RequestMappingIndex<T> {
+
+	private static final String ANY_METHOD = "";
+
+	private final Node<T> root = new Node<>("");
+
+	private final Map<T, Registration<T>> registrations = new HashMap<>();
+
+	private int sequence;
+
+
+	/**
+	 * Add the given mapping to the index, replacing a previous registration.
+	 * @param mapping the mapping to add
+	 * @param patterns the URL patterns of the mapping, if any
+	 * @param httpMethods the HTTP methods the mapping is restricted to,
+	 * or an empty collection for any method
+	 */
+	public void add(T mapping, Collection<String> patterns, Collection<String> httpMethods) {
+		remove(mapping);
+		Set<String> prefixes = new LinkedHashSet<>(Math.max(patterns.size(), 1));
+		for (String pattern : patterns) {
+			prefixes.add(getLiteralPrefix(pattern));
+		}
+		if (prefixes.isEmpty()) {
+			prefixes.add("");
+		}
+		Set<String> methods = (httpMethods.isEmpty() ?
+				Collections.singleton(ANY_METHOD) : new LinkedHashSet<>(httpMethods));
+		Registration<T> registration = new Registration<>(mapping, this.sequence++, prefixes, methods);
+		for (String prefix : prefixes) {
+			getOrCreateNode(prefix).add(registration);
+		}
+		this.registrations.put(mapping, registration);
+	}
+
+	/**
+	 * Remove the given mapping from the index, if present.
+	 * @param mapping the mapping to remove
+	 */
+	public void remove(T mapping) {
+		Registration<T> registration = this.registrations.remove(mapping);
+		if (registration != null) {
+			for (String prefix : registration.prefixes) {
+				Node<T> node = findNode(prefix);
+				if (node != null) {
+					node.remove(registration);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the number of indexed mappings.
+	 */
+	public int size() {
+		return this.registrations.size();
+	}
+
+	/**
+	 * Return the mappings that may match the given lookup path and HTTP method,
+	 * in the order in which they were added.
+	 * <p>A {@code HEAD} lookup includes mappings for {@code GET}.
+	 * @param lookupPath the lookup path of the request
+	 * @param httpMethod the request method, or {@code null} to include mappings
+	 * for any HTTP method (e.g. for CORS pre-flight requests)
+	 * @return the candidate mappings (possibly empty)
+	 */
+	public List<T> getCandidates(String lookupPath, @Nullable String httpMethod) {
+		String path = normalize(lookupPath);
+		List<Registration<T>> found = new ArrayList<>();
+		Node<T> node = this.root;
+		int index = 0;
+		while (node != null) {
+			node.collect(httpMethod, found);
+			if (index == path.length()) {
+				break;
+			}
+			Node<T> child = node.getChild(path.charAt(index));
+			if (child == null || !path.startsWith(child.label, index)) {
+				break;
+			}
+			index += child.label.length();
+			node = child;
+		}
+		if (found.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (found.size() > 1) {
+			found.sort((r1, r2) -> Integer.compare(r1.order, r2.order));
+		}
+		List<T> result = new ArrayList<>(found.size());
+		Registration<T> previous = null;
+		for (Registration<T> registration : found) {
+			if (registration != previous) {
+				result.add(registration.mapping);
+				previous = registration;
+			}
+		}
+		return result;
+	}
+
+	private Node<T> getOrCreateNode(String key) {
+		Node<T> node = this.root;
+		int index = 0;
+		while (index < key.length()) {
+			char c = key.charAt(index);
+			Node<T> child = node.getChild(c);
+			if (child == null) {
+				child = new Node<>(key.substring(index));
+				node.putChild(child);
+				return child;
+			}
+			int common = commonPrefixLength(child.label, key, index);
+			if (common < child.label.length()) {
+				// Split the edge at the end of the common prefix
+				Node<T> intermediate = new Node<>(child.label.substring(0, common));
+				child.label = child.label.substring(common);
+				intermediate.putChild(child);
+				node.putChild(intermediate);
+				child = intermediate;
+			}
+			index += common;
+			node = child;
+		}
+		return node;
+	}
+
+	@Nullable
+	private Node<T> findNode(String key) {
+		Node<T> node = this.root;
+		int index = 0;
+		while (index < key.length()) {
+			node = node.getChild(key.charAt(index));
+			if (node == null || !key.startsWith(node.label, index)) {
+				return null;
+			}
+			index += node.label.length();
+		}
+		return node;
+	}
+
+	private static int commonPrefixLength(String label, String key, int offset) {
+		int max = Math.min(label.length(), key.length() - offset);
+		int i = 0;
+		while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Return the literal part of the given pattern that any matching path
+	 * is guaranteed to start with (after {@link #normalize normalization}).
+	 */
+	private static String getLiteralPrefix(String pattern) {
+		if (!pattern.startsWith("/")) {
+			return "";
+		}
+		String prefix = pattern;
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == '*' || c == '?' || c == '{') {
+				// Cut back to the last full segment, e.g. "/foo/**" also matches "/foo"
+				prefix = pattern.substring(0, pattern.lastIndexOf('/', i));
+				break;
+			}
+		}
+		prefix = normalize(prefix);
+		int end = prefix.length();
+		while (end > 0 && prefix.charAt(end - 1) == '/') {
+			end--;
+		}
+		return prefix.substring(0, end);
+	}
+
+	/**
+	 * Collapse repeated path separators, which AntPathMatcher ignores.
+	 */
+	private static String normalize(String path) {
+		if (!path.contains("//")) {
+			return path;
+		}
+		StringBuilder sb = new StringBuilder(path.length());
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (c != '/' || i == 0 || path.charAt(i - 1) != '/') {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+
+	private static final class Registration<T> {
+
+		final T mapping;
+
+		final int order;
+
+		final Set<String> prefixes;
+
+		final Set<String> methods;
+
+		Registration(T mapping, int order, Set<String> prefixes, Set<String> methods) {
+			this.mapping = mapping;
+			this.order = order;
+			this.prefixes = prefixes;
+			this.methods = methods;
+		}
+	}
+
+
+	private static final class Node<T> {
+
+		String label;
+
+		@Nullable
+		private Map<Character, Node<T>> children;
+
+		@Nullable
+		private Map<String, List<Registration<T>>> registrationsByMethod;
+
+		Node(String label) {
+			this.label = label;
+		}
+
+		@Nullable
+		Node<T> getChild(char c) {
+			return (this.children != null ? this.children.get(c) : null);
+		}
+
+		void putChild(Node<T> child) {
+			if (this.children == null) {
+				this.children = new HashMap<>(4);
+			}
+			this.children.put(child.label.charAt(0), child);
+		}
+
+		void add(Registration<T> registration) {
+			if (this.registrationsByMethod == null) {
+				this.registrationsByMethod = new HashMap<>(4);
+			}
+			for (String method : registration.methods) {
+				this.registrationsByMethod.computeIfAbsent(method, key -> new ArrayList<>(1)).add(registration);
+			}
+		}
+
+		void remove(Registration<T> registration) {
+			if (this.registrationsByMethod != null) {
+				for (String method : registration.methods) {
+					List<Registration<T>> list = this.registrationsByMethod.get(method);
+					if (list != null) {
+						list.removeIf(candidate -> candidate == registration);
+						if (list.isEmpty()) {
+							this.registrationsByMethod.remove(method);
+						}
+					}
+				}
+			}
+		}
+
+		void collect(@Nullable String httpMethod, List<Registration<T>> result) {
+			if (this.registrationsByMethod == null || this.registrationsByMethod.isEmpty()) {
+				return;
+			}
+			if (httpMethod == null) {
+				this.registrationsByMethod.values().forEach(result::addAll);
+				return;
+			}
+			addAll(ANY_METHOD, result);
+			addAll(httpMethod, result);
+			if ("HEAD".equals(httpMethod)) {
+				addAll("GET", result);
+			}
+		}
+
+		private void addAll(String method, List<Registration<T>> result) {
+			List<Registration<T>> list = this.registrationsByMethod.get(method);
+			if (list != null) {
+				result.addAll(list);
+			}
+		}
+	}
+
+}
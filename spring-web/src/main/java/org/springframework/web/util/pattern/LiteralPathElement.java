@@ -59,7 +59,36 @@ class LiteralPathElement extends PathElement {
 			// no more path left to match this element
 			return false;
 		}
-		Element element = matchingContext.pathElements.get(pathIndex);
+		if (!matchesSegment(matchingContext.pathElements.get(pathIndex))) {
+			return false;
+		}
+
+		pathIndex++;
+		if (isNoMorePattern()) {
+			if (matchingContext.determineRemainingPath) {
+				matchingContext.remainingPathIndex = pathIndex;
+				return true;
+			}
+			else {
+				if (pathIndex == matchingContext.pathLength) {
+					return true;
+				}
+				else {
+					return (matchingContext.isMatchOptionalTrailingSeparator() &&
+							(pathIndex + 1) == matchingContext.pathLength &&
+							matchingContext.isSeparator(pathIndex));
+				}
+			}
+		}
+		else {
+			return (this.next != null && this.next.matches(pathIndex, matchingContext));
+		}
+	}
+
+	/**
+	 * Whether the given path element is a segment with this literal text.
+	 */
+	boolean matchesSegment(Element element) {
 		if (!(element instanceof PathContainer.PathSegment)) {
 			return false;
 		}
@@ -85,27 +114,7 @@ class LiteralPathElement extends PathElement {
 				}
 			}
 		}
-
-		pathIndex++;
-		if (isNoMorePattern()) {
-			if (matchingContext.determineRemainingPath) {
-				matchingContext.remainingPathIndex = pathIndex;
-				return true;
-			}
-			else {
-				if (pathIndex == matchingContext.pathLength) {
-					return true;
-				}
-				else {
-					return (matchingContext.isMatchOptionalTrailingSeparator() &&
-							(pathIndex + 1) == matchingContext.pathLength &&
-							matchingContext.isSeparator(pathIndex));
-				}
-			}
-		}
-		else {
-			return (this.next != null && this.next.matches(pathIndex, matchingContext));
-		}
+		return true;
 	}
 
 	@Override
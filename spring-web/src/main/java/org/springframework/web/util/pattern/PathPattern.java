@@ -16,11 +16,17 @@
 
 package org.springframework.web.util.pattern;
 
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.StringJoiner;
 
 import org.springframework.http.server.PathContainer;
@@ -142,6 +148,9 @@ public class PathPattern implements Comparable<PathPattern> {
 	/** Does the pattern end with {*...}. */
 	private boolean catchAll = false;
 
+	/** Does the pattern consist of literals and separators only. */
+	private boolean literal = true;
+
 
 	PathPattern(String patternText, PathPatternParser parser, @Nullable PathElement head) {
 		this.patternString = patternText;
@@ -160,6 +169,9 @@ public class PathPattern implements Comparable<PathPattern> {
 			if (elem instanceof CaptureTheRestPathElement || elem instanceof WildcardTheRestPathElement) {
 				this.catchAll = true;
 			}
+			if (!(elem instanceof LiteralPathElement || elem instanceof SeparatorPathElement)) {
+				this.literal = false;
+			}
 			if (elem instanceof SeparatorPathElement && elem.next != null &&
 					elem.next instanceof WildcardPathElement && elem.next.next == null) {
 				this.endsWithSeparatorWildcard = true;
@@ -204,10 +216,39 @@ public class PathPattern implements Comparable<PathPattern> {
 				return false;
 			}
 		}
+		if (this.literal) {
+			return matchesLiteral(this.head, pathContainer);
+		}
 		MatchingContext matchingContext = new MatchingContext(pathContainer, false);
 		return this.head.matches(0, matchingContext);
 	}
 
+	/**
+	 * Match a pattern without variables or wildcards element by element,
+	 * without the need for a {@link MatchingContext}.
+	 */
+	private boolean matchesLiteral(PathElement head, PathContainer pathContainer) {
+		List<Element> pathElements = pathContainer.elements();
+		int pathLength = pathElements.size();
+		int pathIndex = 0;
+		PathElement last = head;
+		for (PathElement elem = head; elem != null; elem = elem.next) {
+			if (pathIndex == pathLength) {
+				return false;
+			}
+			Element pathElement = pathElements.get(pathIndex++);
+			boolean matched = (elem instanceof LiteralPathElement ?
+					((LiteralPathElement) elem).matchesSegment(pathElement) : pathElement instanceof Separator);
+			if (!matched) {
+				return false;
+			}
+			last = elem;
+		}
+		return (pathIndex == pathLength || (this.matchOptionalTrailingSeparator &&
+				last instanceof LiteralPathElement && pathIndex + 1 == pathLength &&
+				pathElements.get(pathIndex) instanceof Separator));
+	}
+
 	/**
 	 * Match this pattern to the given URI path and return extracted URI template
 	 * variables as well as path parameters (matrix variables).
@@ -551,7 +592,7 @@ public class PathPattern implements Comparable<PathPattern> {
 		private final Map<String, MultiValueMap<String, String>> matrixVariables;
 
 		PathMatchInfo(Map<String, String> uriVars, @Nullable Map<String, MultiValueMap<String, String>> matrixVars) {
-			this.uriVariables = Collections.unmodifiableMap(uriVars);
+			this.uriVariables = (uriVars instanceof UriVariables ? uriVars : Collections.unmodifiableMap(uriVars));
 			this.matrixVariables = (matrixVars != null ?
 					Collections.unmodifiableMap(matrixVars) : Collections.emptyMap());
 		}
@@ -638,7 +679,9 @@ public class PathPattern implements Comparable<PathPattern> {
 		final int pathLength;
 
 		@Nullable
-		private Map<String, String> extractedUriVariables;
+		private String[] extractedUriVariables;
+
+		private int extractedUriVariableCount;
 
 		@Nullable
 		private Map<String, MultiValueMap<String, String>> extractedMatrixVariables;
@@ -668,10 +711,24 @@ public class PathPattern implements Comparable<PathPattern> {
 		}
 
 		public void set(String key, String value, MultiValueMap<String,String> parameters) {
-			if (this.extractedUriVariables == null) {
-				this.extractedUriVariables = new HashMap<>();
+			String[] variables = this.extractedUriVariables;
+			int index = 0;
+			while (index < this.extractedUriVariableCount && !variables[index * 2].equals(key)) {
+				index++;
 			}
-			this.extractedUriVariables.put(key, value);
+			if (index == this.extractedUriVariableCount) {
+				if (variables == null || variables.length == index * 2) {
+					String[] newVariables = new String[Math.max(capturedVariableCount, index + 1) * 2];
+					if (variables != null) {
+						System.arraycopy(variables, 0, newVariables, 0, variables.length);
+					}
+					variables = newVariables;
+					this.extractedUriVariables = variables;
+				}
+				variables[index * 2] = key;
+				this.extractedUriVariableCount++;
+			}
+			variables[index * 2 + 1] = value;
 
 			if (!parameters.isEmpty()) {
 				if (this.extractedMatrixVariables == null) {
@@ -686,7 +743,8 @@ public class PathPattern implements Comparable<PathPattern> {
 				return PathMatchInfo.EMPTY;
 			}
 			else {
-				return new PathMatchInfo(this.extractedUriVariables, this.extractedMatrixVariables);
+				return new PathMatchInfo(new UriVariables(this.extractedUriVariables, this.extractedUriVariableCount),
+						this.extractedMatrixVariables);
 			}
 		}
 
@@ -713,4 +771,85 @@ public class PathPattern implements Comparable<PathPattern> {
 		}
 	}
 
+
+	/**
+	 * Compact, read-only map of extracted URI variables, backed by an array
+	 * with alternating names and values.
+	 */
+	@SuppressWarnings("serial")
+	private static final class UriVariables extends AbstractMap<String, String> implements Serializable {
+
+		private final String[] namesAndValues;
+
+		private final int size;
+
+		UriVariables(String[] namesAndValues, int size) {
+			this.namesAndValues = namesAndValues;
+			this.size = size;
+		}
+
+		@Override
+		public int size() {
+			return this.size;
+		}
+
+		@Override
+		public boolean containsKey(@Nullable Object key) {
+			return (indexOf(key) != -1);
+		}
+
+		@Override
+		@Nullable
+		public String get(@Nullable Object key) {
+			int index = indexOf(key);
+			return (index != -1 ? this.namesAndValues[index + 1] : null);
+		}
+
+		private int indexOf(@Nullable Object key) {
+			for (int i = 0; i < this.size * 2; i += 2) {
+				if (this.namesAndValues[i].equals(key)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public Set<Entry<String, String>> entrySet() {
+			return new AbstractSet<Entry<String, String>>() {
+				@Override
+				public Iterator<Entry<String, String>> iterator() {
+					return new EntryIterator();
+				}
+				@Override
+				public int size() {
+					return UriVariables.this.size;
+				}
+			};
+		}
+
+
+		private class EntryIterator implements Iterator<Entry<String, String>> {
+
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return (this.index < UriVariables.this.size * 2);
+			}
+
+			@Override
+			public Entry<String, String> next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				String[] namesAndValues = UriVariables.this.namesAndValues;
+				Entry<String, String> entry =
+						new SimpleImmutableEntry<>(namesAndValues[this.index], namesAndValues[this.index + 1]);
+				this.index += 2;
+				return entry;
+			}
+		}
+	}
+
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link RequestMappingIndex}.
+ *
+ * @author Anton Kessler
+ */
+class RequestMappingIndexTests {
+
+	private final RequestMappingIndex<String> index = new RequestMappingIndex<>();
+
+
+	@Test
+	void literalPrefixes() {
+		add("users", "/api/users");
+		add("user", "/api/users/{id}");
+		add("orders", "/api/orders/**");
+		add("files", "/files/*.txt");
+
+		assertThat(this.index.getCandidates("/api/users", "GET")).containsExactly("users", "user");
+		assertThat(this.index.getCandidates("/api/users.json", "GET")).containsExactly("users");
+		assertThat(this.index.getCandidates("/api/users/42", "GET")).containsExactly("users", "user");
+		assertThat(this.index.getCandidates("/api/orders", "GET")).containsExactly("orders");
+		assertThat(this.index.getCandidates("/api/orders/1/items", "GET")).containsExactly("orders");
+		assertThat(this.index.getCandidates("/files/a.txt", "GET")).containsExactly("files");
+		assertThat(this.index.getCandidates("/api", "GET")).isEmpty();
+		assertThat(this.index.getCandidates("/other", "GET")).isEmpty();
+	}
+
+	@Test
+	void sharedPrefixesAreSplit() {
+		add("a", "/abc/d");
+		add("b", "/abx/{y}");
+		add("c", "/ab");
+
+		assertThat(this.index.getCandidates("/abc/d", "GET")).containsExactly("a", "c");
+		assertThat(this.index.getCandidates("/abx/1", "GET")).containsExactly("b", "c");
+		assertThat(this.index.getCandidates("/ab", "GET")).containsExactly("c");
+		assertThat(this.index.getCandidates("/a", "GET")).isEmpty();
+	}
+
+	@Test
+	void rootCandidates() {
+		add("none");
+		add("relative", "foo");
+		add("wildcard", "/*");
+		add("foo", "/foo");
+
+		assertThat(this.index.getCandidates("/foo", "GET")).containsExactly("none", "relative", "wildcard", "foo");
+		assertThat(this.index.getCandidates("/bar", "GET")).containsExactly("none", "relative", "wildcard");
+		assertThat(this.index.getCandidates("", "GET")).containsExactly("none", "relative", "wildcard");
+	}
+
+	@Test
+	void registrationOrderAndDuplicates() {
+		add("second", "/a/b", "/a/b/{c}", "/a");
+		this.index.add("first", Collections.singletonList("/a/b/c"), Collections.emptyList());
+		add("second", "/a/b", "/a/b/{c}", "/a");
+
+		assertThat(this.index.getCandidates("/a/b/c", "GET")).containsExactly("first", "second");
+		assertThat(this.index.size()).isEqualTo(2);
+	}
+
+	@Test
+	void httpMethods() {
+		this.index.add("get", Collections.singletonList("/foo"), Collections.singletonList("GET"));
+		this.index.add("post", Collections.singletonList("/foo"), Collections.singletonList("POST"));
+		this.index.add("putOrDelete", Collections.singletonList("/foo"), Arrays.asList("PUT", "DELETE"));
+		add("any", "/foo");
+
+		assertThat(this.index.getCandidates("/foo", "GET")).containsExactly("get", "any");
+		assertThat(this.index.getCandidates("/foo", "HEAD")).containsExactly("get", "any");
+		assertThat(this.index.getCandidates("/foo", "DELETE")).containsExactly("putOrDelete", "any");
+		assertThat(this.index.getCandidates("/foo", "PATCH")).containsExactly("any");
+		assertThat(this.index.getCandidates("/foo", null)).containsExactly("get", "post", "putOrDelete", "any");
+	}
+
+	@Test
+	void repeatedSeparators() {
+		add("foo", "/foo//bar/{id}");
+
+		assertThat(this.index.getCandidates("//foo/bar/1", "GET")).containsExactly("foo");
+		assertThat(this.index.getCandidates("/foo/bar//1", "GET")).containsExactly("foo");
+	}
+
+	@Test
+	void remove() {
+		add("a", "/a/{b}");
+		add("ab", "/a/b");
+
+		this.index.remove("a");
+		assertThat(this.index.getCandidates("/a/b", "GET")).containsExactly("ab");
+		this.index.remove("ab");
+		this.index.remove("ab");
+		assertThat(this.index.getCandidates("/a/b", "GET")).isEmpty();
+		assertThat(this.index.size()).isEqualTo(0);
+	}
+
+
+	private void add(String mapping, String... patterns) {
+		List<String> patternList = Arrays.asList(patterns);
+		this.index.add(mapping, patternList, Collections.emptyList());
+	}
+
+}
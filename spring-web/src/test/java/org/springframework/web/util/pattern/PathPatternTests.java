@@ -16,6 +16,7 @@
 
 package org.springframework.web.util.pattern;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -28,9 +29,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.PathContainer.Element;
 import org.springframework.util.AntPathMatcher;
+import org.springframework.util.SerializationTestUtils;
 import org.springframework.web.util.pattern.PathPattern.PathRemainingMatchInfo;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 /**
@@ -1139,6 +1142,51 @@ public class PathPatternTests {
 		assertThat(result).isNotNull();
 	}
 
+	@Test
+	public void uriVariablesMap() throws Exception {
+		PathPattern.PathMatchInfo result = matchAndExtract("/{a}/{b}_{c}/{*d}", "/one/two_three/four/five");
+		Map<String, String> variables = result.getUriVariables();
+		Map<String, String> expected = new HashMap<>();
+		expected.put("a", "one");
+		expected.put("b", "two");
+		expected.put("c", "three");
+		expected.put("d", "/four/five");
+		assertThat(variables).hasSize(4).isEqualTo(expected);
+		assertThat(variables.hashCode()).isEqualTo(expected.hashCode());
+		assertThat(variables.containsKey("a")).isTrue();
+		assertThat(variables.get("e")).isNull();
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() ->
+				variables.put("e", "six"));
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(variables::clear);
+		assertThat(variables).isInstanceOf(Serializable.class);
+		assertThat(SerializationTestUtils.serializeAndDeserialize(variables)).isEqualTo(expected);
+	}
+
+	@Test
+	public void literalPatternMatchesLikeMatchAndExtract() {
+		PathPatternParser caseInsensitiveParser = new PathPatternParser();
+		caseInsensitiveParser.setCaseSensitive(false);
+		List<PathPattern> patterns = new ArrayList<>();
+		for (String pattern : new String[] {"/", "/foo", "/foo/", "/foo/bar", "foo/bar", "/foo%20bar"}) {
+			patterns.add(parse(pattern));
+			patterns.add(caseInsensitiveParser.parse(pattern));
+		}
+		String[] paths = {"", "/", "//", "/foo", "/foo/", "/foo//", "/FOO", "/foo/bar", "/foo/bar/",
+				"/foo;a=b/bar;c=d", "foo/bar", "/foo%20bar", "/foo bar", "/foo/bar/baz"};
+		for (PathPattern pattern : patterns) {
+			for (String path : paths) {
+				PathContainer pathContainer = toPathContainer(path);
+				assertThat(pattern.matches(pathContainer))
+						.as("%s against %s", pattern, path)
+						.isEqualTo(pattern.matchAndExtract(pathContainer) != null);
+			}
+		}
+		assertThat(parse("/foo/bar").matches(toPathContainer("/foo;a=b/bar;c=d"))).isTrue();
+		assertThat(parse("/foo").matches(toPathContainer("/foo/"))).isTrue();
+		assertThat(parse("/foo/").matches(toPathContainer("/foo//"))).isFalse();
+		assertThat(caseInsensitiveParser.parse("/foo").matches(toPathContainer("/FOO"))).isTrue();
+	}
+
 	private PathPattern.PathMatchInfo matchAndExtract(String pattern, String path) {
 		return parse(pattern).matchAndExtract(PathPatternTests.toPathContainer(path));
 	}
@@ -26,6 +26,7 @@ import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.web.reactive.resource.CachingResourceResolver;
 import org.springframework.web.reactive.resource.CachingResourceTransformer;
+import org.springframework.web.reactive.resource.CompressingResourceTransformer;
 import org.springframework.web.reactive.resource.CssLinkResourceTransformer;
 import org.springframework.web.reactive.resource.PathResourceResolver;
 import org.springframework.web.reactive.resource.ResourceResolver;
@@ -95,12 +96,20 @@ public class ResourceChainRegistration {
 
 	/**
 	 * Add a resource transformer to the chain.
+	 * <p>A {@link CompressingResourceTransformer} is added ahead of all other
+	 * transformers, including the {@link CachingResourceTransformer} which
+	 * caches transformed resources irrespective of the requested content coding.
 	 * @param transformer the transformer to add
 	 * @return the current instance for chained method invocation
 	 */
 	public ResourceChainRegistration addTransformer(ResourceTransformer transformer) {
 		Assert.notNull(transformer, "The provided ResourceTransformer should not be null");
-		this.transformers.add(transformer);
+		if (transformer instanceof CompressingResourceTransformer) {
+			this.transformers.add(0, transformer);
+		}
+		else {
+			this.transformers.add(transformer);
+		}
 		if (transformer instanceof CssLinkResourceTransformer) {
 			this.hasCssLinkTransformer = true;
 		}
@@ -122,9 +131,12 @@ public class ResourceChainRegistration {
 	protected List<ResourceTransformer> getResourceTransformers() {
 		if (this.hasVersionResolver && !this.hasCssLinkTransformer) {
 			List<ResourceTransformer> result = new ArrayList<>(this.transformers);
-			boolean hasTransformers = !this.transformers.isEmpty();
-			boolean hasCaching = hasTransformers && this.transformers.get(0) instanceof CachingResourceTransformer;
-			result.add(hasCaching ? 1 : 0, new CssLinkResourceTransformer());
+			int index = 0;
+			while (index < result.size() && (result.get(index) instanceof CompressingResourceTransformer ||
+					result.get(index) instanceof CachingResourceTransformer)) {
+				index++;
+			}
+			result.add(index, new CssLinkResourceTransformer());
 			return result;
 		}
 		return this.transformers;
@@ -37,13 +37,16 @@ import reactor.core.publisher.Mono;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.RequestPath;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.RequestMappingIndex;
 import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.reactive.handler.AbstractHandlerMapping;
 import org.springframework.web.server.ServerWebExchange;
@@ -94,11 +97,35 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	}
 
 
+	private boolean useMappingIndex = false;
+
 	private final MappingRegistry mappingRegistry = new MappingRegistry();
 
 
 	// TODO: handlerMethodMappingNamingStrategy
 
+	/**
+	 * Whether to narrow down the mappings to evaluate for a request through a
+	 * {@link RequestMappingIndex} over the literal prefixes of the
+	 * {@link #getMappingPathPatterns URL patterns} and the
+	 * {@link #getMappingHttpMethods HTTP methods} of each mapping.
+	 * <p>Default is "false": all mappings are evaluated for each request.
+	 * <p>Switch this flag on for a large number of mappings, provided that
+	 * URL patterns are matched case-sensitively, as they are by default.
+	 * @since 5.2.2
+	 */
+	public void setUseMappingIndex(boolean useMappingIndex) {
+		this.useMappingIndex = useMappingIndex;
+	}
+
+	/**
+	 * Whether to narrow down the mappings to evaluate through an index.
+	 * @since 5.2.2
+	 */
+	public boolean useMappingIndex() {
+		return this.useMappingIndex;
+	}
+
 	/**
 	 * Return a (read-only) map with all mappings and HandlerMethod's.
 	 */
@@ -311,7 +338,15 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	@Nullable
 	protected HandlerMethod lookupHandlerMethod(ServerWebExchange exchange) throws Exception {
 		List<Match> matches = new ArrayList<>();
-		addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, exchange);
+		if (this.useMappingIndex) {
+			ServerHttpRequest request = exchange.getRequest();
+			String lookupPath = getLookupPath(request.getPath().pathWithinApplication());
+			String httpMethod = (CorsUtils.isPreFlightRequest(request) ? null : request.getMethodValue());
+			addMatchingMappings(this.mappingRegistry.getCandidateMappings(lookupPath, httpMethod), matches, exchange);
+		}
+		else {
+			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, exchange);
+		}
 
 		if (!matches.isEmpty()) {
 			Comparator<Match> comparator = new MatchComparator(getMappingComparator(exchange));
@@ -341,6 +376,23 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		}
 	}
 
+	/**
+	 * Return the path to look up in the mapping index: the decoded segment
+	 * values without path parameters, which is what patterns are matched to.
+	 */
+	private static String getLookupPath(PathContainer path) {
+		String value = path.value();
+		if (value.indexOf('%') == -1 && value.indexOf(';') == -1) {
+			return value;
+		}
+		StringBuilder sb = new StringBuilder(value.length());
+		for (PathContainer.Element element : path.elements()) {
+			sb.append(element instanceof PathContainer.PathSegment ?
+					((PathContainer.PathSegment) element).valueToMatch() : element.value());
+		}
+		return sb.toString();
+	}
+
 	private void addMatchingMappings(Collection<T> mappings, List<Match> matches, ServerWebExchange exchange) {
 		for (T mapping : mappings) {
 			T match = getMatchingMapping(mapping, exchange);
@@ -423,6 +475,27 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	@Nullable
 	protected abstract T getMatchingMapping(T mapping, ServerWebExchange exchange);
 
+	/**
+	 * Extract and return the URL patterns contained in the supplied mapping,
+	 * for use in the {@link #setUseMappingIndex mapping index}.
+	 * <p>The default implementation returns an empty set, which indexes the
+	 * mapping as a candidate for any lookup path.
+	 * @since 5.2.2
+	 */
+	protected Set<String> getMappingPathPatterns(T mapping) {
+		return Collections.emptySet();
+	}
+
+	/**
+	 * Extract and return the HTTP methods the supplied mapping is restricted to,
+	 * for use in the {@link #setUseMappingIndex mapping index}.
+	 * <p>The default implementation returns an empty set, i.e. any method.
+	 * @since 5.2.2
+	 */
+	protected Set<String> getMappingHttpMethods(T mapping) {
+		return Collections.emptySet();
+	}
+
 	/**
 	 * Return a comparator for sorting matching mappings.
 	 * The returned comparator should sort 'better' matches higher.
@@ -446,6 +519,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
 
+		private final RequestMappingIndex<T> mappingIndex = new RequestMappingIndex<>();
+
 		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
 		/**
@@ -456,6 +531,16 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.mappingLookup;
 		}
 
+		/**
+		 * Return the mappings that may match the given lookup path and
+		 * HTTP method, in registration order. Not thread-safe.
+		 * @see #acquireReadLock()
+		 * @see RequestMappingIndex#getCandidates(String, String)
+		 */
+		public List<T> getCandidateMappings(String lookupPath, @Nullable String httpMethod) {
+			return this.mappingIndex.getCandidates(lookupPath, httpMethod);
+		}
+
 		/**
 		 * Return CORS configuration. Thread-safe for concurrent use.
 		 */
@@ -485,6 +570,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				HandlerMethod handlerMethod = createHandlerMethod(handler, method);
 				validateMethodMapping(handlerMethod, mapping);
 				this.mappingLookup.put(mapping, handlerMethod);
+				this.mappingIndex.add(mapping, getMappingPathPatterns(mapping), getMappingHttpMethods(mapping));
 
 				CorsConfiguration corsConfig = initCorsConfiguration(handler, method, mapping);
 				if (corsConfig != null) {
@@ -518,6 +604,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				}
 
 				this.mappingLookup.remove(definition.getMapping());
+				this.mappingIndex.remove(definition.getMapping());
 				this.corsLookup.remove(definition.getHandlerMethod());
 			}
 			finally {
@@ -38,6 +38,7 @@ import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
 import org.springframework.web.reactive.resource.AppCacheManifestTransformer;
 import org.springframework.web.reactive.resource.CachingResourceResolver;
 import org.springframework.web.reactive.resource.CachingResourceTransformer;
+import org.springframework.web.reactive.resource.CompressingResourceTransformer;
 import org.springframework.web.reactive.resource.CssLinkResourceTransformer;
 import org.springframework.web.reactive.resource.PathResourceResolver;
 import org.springframework.web.reactive.resource.ResourceResolver;
@@ -214,6 +215,37 @@ public class ResourceHandlerRegistryTests {
 	}
 
 
+	@Test
+	public void resourceChainWithCompression() throws Exception {
+		CompressingResourceTransformer compressingTransformer = new CompressingResourceTransformer();
+		compressingTransformer.setMinResourceSize(0);
+		this.registration.addResourceLocations("classpath:org/springframework/web/reactive/resource/test/");
+		this.registration.resourceChain(true).addTransformer(compressingTransformer);
+
+		ResourceWebHandler handler = getHandler("/resources/**");
+		List<ResourceTransformer> transformers = handler.getResourceTransformers();
+		assertThat(transformers).hasSize(2);
+		assertThat(transformers.get(0)).isSameAs(compressingTransformer);
+		assertThat(transformers.get(1)).isInstanceOf(CachingResourceTransformer.class);
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("").header("Accept-Encoding", "gzip"));
+		exchange.getAttributes().put(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE,
+				PathContainer.parsePath("/foo.html"));
+		handler.handle(exchange).block(Duration.ofSeconds(5));
+		assertThat(exchange.getResponse().getHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+
+		exchange = MockServerWebExchange.from(MockServerHttpRequest.get(""));
+		exchange.getAttributes().put(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE,
+				PathContainer.parsePath("/foo.html"));
+		handler.handle(exchange).block(Duration.ofSeconds(5));
+		assertThat(exchange.getResponse().getHeaders().getFirst("Content-Encoding")).isNull();
+		StepVerifier.create(exchange.getResponse().getBodyAsString())
+				.consumeNextWith(body -> assertThat(body).contains("<title>Foo</title>"))
+				.expectComplete()
+				.verify();
+	}
+
 	private ResourceWebHandler getHandler(String pathPattern) {
 		SimpleUrlHandlerMapping mapping = (SimpleUrlHandlerMapping) this.registry.getHandlerMapping();
 		return (ResourceWebHandler) mapping.getUrlMap().get(pathPattern);
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.test.server.MockServerWebExchange;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.mock.http.server.reactive.test.MockServerHttpRequest.get;
+
+/**
+ * Unit tests for {@link CompressingResourceTransformer}.
+ *
+ * @author Anton Kessler
+ */
+class CompressingResourceTransformerTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+
+	private final CompressingResourceTransformer transformer = new CompressingResourceTransformer();
+
+	private ResourceTransformerChain transformerChain;
+
+	@TempDir
+	Path location;
+
+
+	@BeforeEach
+	void setup() {
+		this.transformerChain = new DefaultResourceTransformerChain(
+				new DefaultResourceResolverChain(Collections.emptyList()), Collections.singletonList(this.transformer));
+	}
+
+
+	@Test
+	void compress() throws Exception {
+		byte[] content = createContent(4096);
+		Resource resource = createResource("app.js", content);
+		MockServerWebExchange exchange = MockServerWebExchange.from(get("/static/app.js").header("Accept-Encoding", "gzip"));
+
+		Resource compressed = this.transformerChain.transform(exchange, resource).block(TIMEOUT);
+
+		assertThat(compressed).isInstanceOf(HttpResource.class);
+		assertThat(compressed.getFilename()).isEqualTo("app.js");
+		assertThat(compressed.isFile()).isFalse();
+		assertThat(compressed.contentLength()).isLessThan(content.length);
+		assertThat(decompress(compressed)).isEqualTo(content);
+
+		HttpHeaders headers = ((HttpResource) compressed).getResponseHeaders();
+		assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(headers.getFirst(HttpHeaders.VARY)).isEqualTo("Accept-Encoding");
+		assertThat(headers.getETag()).isEqualTo("\"" + DigestUtils.md5DigestAsHex(content) + "-gzip\"");
+	}
+
+	@Test
+	void cachedAcrossRequests() throws Exception {
+		Resource resource = createResource("app.js", createContent(4096));
+		MockServerWebExchange exchange = MockServerWebExchange.from(get("/static/app.js").header("Accept-Encoding", "gzip"));
+
+		Resource first = this.transformerChain.transform(exchange, resource).block(TIMEOUT);
+		long cacheSize = this.transformer.getCacheSize();
+		Resource second = this.transformerChain.transform(exchange, resource).block(TIMEOUT);
+
+		assertThat(cacheSize).isGreaterThan(first.contentLength());
+		assertThat(this.transformer.getCacheSize()).isEqualTo(cacheSize);
+		assertThat(decompress(second)).isEqualTo(decompress(first));
+	}
+
+	@Test
+	void transformedContentChanged() throws Exception {
+		Resource original = createResource("app.css", new byte[0]);
+		byte[] content = createContent(4096);
+		byte[] changedContent = content.clone();
+		changedContent[0] = 'F';
+		MockServerWebExchange exchange = MockServerWebExchange.from(get("/static/app.css").header("Accept-Encoding", "gzip"));
+
+		Resource first = this.transformerChain.transform(exchange, new TransformedResource(original, content)).block(TIMEOUT);
+		Resource second = this.transformerChain.transform(exchange, new TransformedResource(original, changedContent)).block(TIMEOUT);
+
+		assertThat(decompress(first)).isEqualTo(content);
+		assertThat(decompress(second)).isEqualTo(changedContent);
+	}
+
+	@Test
+	void noAcceptEncoding() throws Exception {
+		Resource resource = createResource("app.js", createContent(4096));
+		MockServerWebExchange exchange = MockServerWebExchange.from(get("/static/app.js"));
+
+		assertThat(this.transformerChain.transform(exchange, resource).block(TIMEOUT)).isSameAs(resource);
+		assertThat(this.transformer.getCacheSize()).isEqualTo(0);
+	}
+
+
+	private Resource createResource(String filename, byte[] content) throws IOException {
+		Path path = this.location.resolve(filename);
+		Files.write(path, content);
+		return new FileSystemResource(path.toFile());
+	}
+
+	private static byte[] createContent(int length) {
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; builder.length() < length; i++) {
+			builder.append("function f").append(i).append("() { return ").append(i).append("; }\n");
+		}
+		return builder.substring(0, length).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] decompress(Resource resource) throws IOException {
+		return StreamUtils.copyToByteArray(new GZIPInputStream(resource.getInputStream()));
+	}
+
+}
@@ -171,6 +171,22 @@ public class ResourceWebHandlerTests {
 		assertThat(exchange.getResponse().getHeaders().get("Accept-Ranges").size()).isEqualTo(1);
 	}
 
+	@Test
+	public void getVersionedResourceWithMatchingETag() throws Exception {
+		VersionResourceResolver versionResolver = new VersionResourceResolver();
+		versionResolver.addFixedVersionStrategy("versionString", "/**");
+		this.handler.setResourceResolvers(Arrays.asList(versionResolver, new PathResourceResolver()));
+		this.handler.afterPropertiesSet();
+
+		MockServerHttpRequest request = MockServerHttpRequest.get("").ifNoneMatch("\"versionString\"").build();
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		setPathWithinHandlerMapping(exchange, "versionString/foo.css");
+		this.handler.handle(exchange).block(TIMEOUT);
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo("\"versionString\"");
+	}
+
 	@Test
 	public void getResourceWithHtmlMediaType() throws Exception {
 		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(""));
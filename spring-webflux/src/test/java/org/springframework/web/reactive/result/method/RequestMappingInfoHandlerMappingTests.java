@@ -112,6 +112,24 @@ public class RequestMappingInfoHandlerMappingTests {
 		assertThat(hm.getMethod()).isEqualTo(expected);
 	}
 
+	@Test
+	public void getHandlerWithMappingIndex() {
+		this.handlerMapping.setUseMappingIndex(true);
+
+		Method expected = on(TestController.class).annot(getMapping("/foo").params()).resolveMethod();
+		ServerWebExchange exchange = MockServerWebExchange.from(get("/foo;a=b"));
+		HandlerMethod hm = (HandlerMethod) this.handlerMapping.getHandler(exchange).block();
+		assertThat(hm.getMethod()).isEqualTo(expected);
+
+		expected = on(TestController.class).annot(requestMapping("/ba*").method(GET, HEAD)).resolveMethod();
+		exchange = MockServerWebExchange.from(MockServerHttpRequest.head("/bar"));
+		hm = (HandlerMethod) this.handlerMapping.getHandler(exchange).block();
+		assertThat(hm.getMethod()).isEqualTo(expected);
+
+		testHttpMediaTypeNotSupportedException("/person/1");
+		testHttpOptions("/person/1", EnumSet.of(HttpMethod.PUT, HttpMethod.OPTIONS));
+	}
+
 	@Test
 	public void getHandlerEmptyPathMatch() {
 		Method expected = on(TestController.class).annot(requestMapping("")).resolveMethod();
@@ -51,6 +51,7 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.RequestMappingIndex;
 import org.springframework.web.servlet.HandlerMapping;
 
 /**
@@ -100,6 +101,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	@Nullable
 	private HandlerMethodMappingNamingStrategy<T> namingStrategy;
 
+	private boolean useMappingIndex = false;
+
 	private final MappingRegistry mappingRegistry = new MappingRegistry();
 
 
@@ -135,6 +138,30 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		return this.namingStrategy;
 	}
 
+	/**
+	 * Whether to narrow down the mappings to evaluate for a request, if the
+	 * lookup path is not a direct URL match, through a
+	 * {@link RequestMappingIndex} over the literal prefixes of the
+	 * {@link #getMappingPathPatterns URL patterns} and the
+	 * {@link #getMappingHttpMethods HTTP methods} of each mapping.
+	 * <p>Default is "false": all mappings are evaluated in that case.
+	 * <p>Switch this flag on for a large number of pattern-based mappings,
+	 * provided that the {@link #getPathMatcher() PathMatcher} matches literal
+	 * pattern segments case-sensitively, as the default AntPathMatcher does.
+	 * @since 5.2.2
+	 */
+	public void setUseMappingIndex(boolean useMappingIndex) {
+		this.useMappingIndex = useMappingIndex;
+	}
+
+	/**
+	 * Whether to narrow down the mappings to evaluate through an index.
+	 * @since 5.2.2
+	 */
+	public boolean useMappingIndex() {
+		return this.useMappingIndex;
+	}
+
 	/**
 	 * Return a (read-only) map with all mappings and HandlerMethod's.
 	 */
@@ -389,8 +416,14 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			addMatchingMappings(directPathMatches, matches, request);
 		}
 		if (matches.isEmpty()) {
-			// No choice but to go through all mappings...
-			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			if (this.useMappingIndex) {
+				String httpMethod = (CorsUtils.isPreFlightRequest(request) ? null : request.getMethod());
+				addMatchingMappings(this.mappingRegistry.getCandidateMappings(lookupPath, httpMethod), matches, request);
+			}
+			else {
+				// No choice but to go through all mappings...
+				addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			}
 		}
 
 		if (!matches.isEmpty()) {
@@ -504,6 +537,16 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	protected abstract Set<String> getMappingPathPatterns(T mapping);
 
+	/**
+	 * Extract and return the HTTP methods the supplied mapping is restricted to,
+	 * for use in the {@link #setUseMappingIndex mapping index}.
+	 * <p>The default implementation returns an empty set, i.e. any method.
+	 * @since 5.2.2
+	 */
+	protected Set<String> getMappingHttpMethods(T mapping) {
+		return Collections.emptySet();
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -536,6 +579,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final MultiValueMap<String, T> urlLookup = new LinkedMultiValueMap<>();
 
+		private final RequestMappingIndex<T> mappingIndex = new RequestMappingIndex<>();
+
 		private final Map<String, List<HandlerMethod>> nameLookup = new ConcurrentHashMap<>();
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
@@ -559,6 +604,16 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.urlLookup.get(urlPath);
 		}
 
+		/**
+		 * Return the mappings that may match the given lookup path and
+		 * HTTP method, in registration order. Not thread-safe.
+		 * @see #acquireReadLock()
+		 * @see RequestMappingIndex#getCandidates(String, String)
+		 */
+		public List<T> getCandidateMappings(String lookupPath, @Nullable String httpMethod) {
+			return this.mappingIndex.getCandidates(lookupPath, httpMethod);
+		}
+
 		/**
 		 * Return handler methods by mapping name. Thread-safe for concurrent use.
 		 */
@@ -604,6 +659,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				for (String url : directUrls) {
 					this.urlLookup.add(url, mapping);
 				}
+				this.mappingIndex.add(mapping, getMappingPathPatterns(mapping), getMappingHttpMethods(mapping));
 
 				String name = null;
 				if (getNamingStrategy() != null) {
@@ -682,6 +738,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					}
 				}
 
+				this.mappingIndex.remove(definition.getMapping());
+
 				removeMappingName(definition);
 
 				this.corsLookup.remove(definition.getHandlerMethod());
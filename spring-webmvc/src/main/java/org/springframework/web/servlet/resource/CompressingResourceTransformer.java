@@ -0,0 +1,415 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A {@link ResourceTransformer} that gzip-compresses resources on first access
+ * for clients that accept the "gzip" content coding, as an alternative to
+ * {@link EncodedResourceResolver} which requires pre-compressed files.
+ *
+ * <p>Compressed content is kept off-heap in direct byte buffers, in a cache
+ * that is bounded by the total number of compressed bytes and evicts the least
+ * recently used entries first. Resources that are already encoded, that are
+ * outside of the configured size range, or that do not get any smaller when
+ * compressed are served as-is.
+ *
+ * <p>Compressed resources come with "Content-Encoding" and "Vary" headers, and
+ * with an ETag specific to the gzip variant: either derived from the ETag of
+ * the original resource (e.g. from a {@link VersionResourceResolver}), or from
+ * a hash of the uncompressed content.
+ *
+ * <p>This transformer must be registered first, ahead of any
+ * {@link CachingResourceTransformer}, so that it compresses the output of the
+ * other transformers and keeps compressed content out of their caches, which
+ * do not distinguish between content codings. {@code ResourceChainRegistration}
+ * takes care of this when adding the transformer to a resource chain.
+ *
+ * @author Anton Kessler
+ * @since 5.2.2
+ */
+public class CompressingResourceTransformer implements ResourceTransformer {
+
+	/** The content coding applied by this transformer. */
+	public static final String GZIP_CODING = "gzip";
+
+	/** Approximate per-entry overhead accounted for in the cache size. */
+	private static final int ENTRY_OVERHEAD = 128;
+
+	private static final Log logger = LogFactory.getLog(CompressingResourceTransformer.class);
+
+
+	private long maxCacheSize = 10 * 1024 * 1024;
+
+	private long minResourceSize = 1024;
+
+	private long maxResourceSize = 1024 * 1024;
+
+	private final Map<String, CompressedContent> cache = new LinkedHashMap<>(64, 0.75f, true);
+
+	private long cacheSize;
+
+	private final Map<String, ContentHash> contentHashes = new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Set the maximum number of bytes to keep in the cache of compressed
+	 * content, after which least recently used entries get evicted.
+	 * <p>By default this is set to 10 MB.
+	 */
+	public void setMaxCacheSize(long maxCacheSize) {
+		Assert.isTrue(maxCacheSize >= 0, "Max cache size must not be negative");
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	/**
+	 * Return the configured maximum cache size in bytes.
+	 */
+	public long getMaxCacheSize() {
+		return this.maxCacheSize;
+	}
+
+	/**
+	 * Set the size in bytes below which resources are not compressed.
+	 * <p>By default this is set to 1 KB.
+	 */
+	public void setMinResourceSize(long minResourceSize) {
+		Assert.isTrue(minResourceSize >= 0, "Min resource size must not be negative");
+		this.minResourceSize = minResourceSize;
+	}
+
+	/**
+	 * Return the configured minimum resource size in bytes.
+	 */
+	public long getMinResourceSize() {
+		return this.minResourceSize;
+	}
+
+	/**
+	 * Set the size in bytes above which resources are not compressed, since
+	 * resources are read into memory in order to get compressed.
+	 * <p>By default this is set to 1 MB.
+	 */
+	public void setMaxResourceSize(long maxResourceSize) {
+		Assert.isTrue(maxResourceSize >= 0, "Max resource size must not be negative");
+		this.maxResourceSize = maxResourceSize;
+	}
+
+	/**
+	 * Return the configured maximum resource size in bytes.
+	 */
+	public long getMaxResourceSize() {
+		return this.maxResourceSize;
+	}
+
+	/**
+	 * Return the number of bytes currently held in the cache.
+	 */
+	public long getCacheSize() {
+		synchronized (this.cache) {
+			return this.cacheSize;
+		}
+	}
+
+
+	@Override
+	public Resource transform(HttpServletRequest request, Resource resource,
+			ResourceTransformerChain transformerChain) throws IOException {
+
+		Resource transformed = transformerChain.transform(request, resource);
+		if (!acceptsGzip(request) || isEncoded(transformed)) {
+			return transformed;
+		}
+		long length = transformed.contentLength();
+		if (length < this.minResourceSize || length > this.maxResourceSize) {
+			return transformed;
+		}
+
+		String hash = getContentHash(resource, transformed);
+		String key = getCacheKey(resource, transformed, hash);
+		CompressedContent content = getCachedContent(key);
+		if (content == null) {
+			byte[] bytes = (transformed instanceof TransformedResource ?
+					((TransformedResource) transformed).getByteArray() :
+					StreamUtils.copyToByteArray(transformed.getInputStream()));
+			content = compress(bytes, hash);
+			putCachedContent(key, content);
+			if (logger.isTraceEnabled()) {
+				logger.trace("Compressed [" + transformed.getFilename() + "] from " + bytes.length +
+						" to " + (content.buffer != null ? content.buffer.capacity() + " bytes" : "(not smaller)"));
+			}
+		}
+		return (content.buffer != null ? new CompressedResource(transformed, content) : transformed);
+	}
+
+	private boolean acceptsGzip(HttpServletRequest request) {
+		String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+		return (header != null && header.toLowerCase().contains(GZIP_CODING));
+	}
+
+	private boolean isEncoded(Resource resource) {
+		return (resource instanceof HttpResource &&
+				((HttpResource) resource).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	/**
+	 * Return the hash of the content rewritten by other transformers, if any.
+	 * <p>The hash is computed once per {@link TransformedResource} instance,
+	 * so a resource kept by a {@link CachingResourceTransformer} is not hashed
+	 * again for every request.
+	 */
+	@Nullable
+	private String getContentHash(Resource resource, Resource transformed) {
+		if (!(transformed instanceof TransformedResource)) {
+			return null;
+		}
+		String description = resource.getDescription();
+		ContentHash contentHash = this.contentHashes.get(description);
+		if (contentHash == null || !contentHash.isFor(transformed)) {
+			contentHash = new ContentHash((TransformedResource) transformed);
+			this.contentHashes.put(description, contentHash);
+		}
+		return contentHash.hash;
+	}
+
+	/**
+	 * Identify content by the location of the original resource along with
+	 * the modification time and length of the transformed resource, so that
+	 * a cache hit does not need to read the content.
+	 * <p>Content rewritten by other transformers may change without affecting
+	 * its modification time or length, e.g. with updated links to versioned
+	 * resources. It is identified by a hash of the content instead, just like
+	 * with a {@link ContentVersionStrategy}.
+	 */
+	private String getCacheKey(Resource resource, Resource transformed, @Nullable String hash) throws IOException {
+		if (hash != null) {
+			return resource.getDescription() + "#" + hash;
+		}
+		return resource.getDescription() + "@" + transformed.lastModified() + ":" + transformed.contentLength();
+	}
+
+	private static CompressedContent compress(byte[] bytes, @Nullable String contentHash) throws IOException {
+		String hash = (contentHash != null ? contentHash : DigestUtils.md5DigestAsHex(bytes));
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 32);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		}
+		if (out.size() >= bytes.length) {
+			return new CompressedContent(hash, null);
+		}
+		ByteBuffer buffer = ByteBuffer.allocateDirect(out.size());
+		buffer.put(out.toByteArray());
+		buffer.flip();
+		return new CompressedContent(hash, buffer.asReadOnlyBuffer());
+	}
+
+	@Nullable
+	private CompressedContent getCachedContent(String key) {
+		synchronized (this.cache) {
+			return this.cache.get(key);
+		}
+	}
+
+	private void putCachedContent(String key, CompressedContent content) {
+		synchronized (this.cache) {
+			CompressedContent previous = this.cache.put(key, content);
+			if (previous != null) {
+				this.cacheSize -= previous.getWeight();
+			}
+			this.cacheSize += content.getWeight();
+			Iterator<CompressedContent> it = this.cache.values().iterator();
+			while (this.cacheSize > this.maxCacheSize && it.hasNext()) {
+				this.cacheSize -= it.next().getWeight();
+				it.remove();
+			}
+		}
+	}
+
+
+	private static final class CompressedContent {
+
+		final String hash;
+
+		@Nullable
+		final ByteBuffer buffer;
+
+		CompressedContent(String hash, @Nullable ByteBuffer buffer) {
+			this.hash = hash;
+			this.buffer = buffer;
+		}
+
+		long getWeight() {
+			return (this.buffer != null ? this.buffer.capacity() : 0) + ENTRY_OVERHEAD;
+		}
+	}
+
+
+	/**
+	 * The content hash of a transformed resource, without keeping the resource.
+	 */
+	private static final class ContentHash {
+
+		private final WeakReference<TransformedResource> resource;
+
+		final String hash;
+
+		ContentHash(TransformedResource resource) {
+			this.resource = new WeakReference<>(resource);
+			this.hash = DigestUtils.md5DigestAsHex(resource.getByteArray());
+		}
+
+		boolean isFor(Resource resource) {
+			return (this.resource.get() == resource);
+		}
+	}
+
+
+	/**
+	 * A gzip-compressed {@link HttpResource} backed by a cached buffer.
+	 */
+	static final class CompressedResource extends AbstractResource implements HttpResource {
+
+		private final Resource original;
+
+		private final String hash;
+
+		private final ByteBuffer buffer;
+
+		CompressedResource(Resource original, CompressedContent content) {
+			Assert.state(content.buffer != null, "No compressed content");
+			this.original = original;
+			this.hash = content.hash;
+			this.buffer = content.buffer;
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new ByteBufferInputStream(this.buffer.duplicate());
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+
+		@Override
+		public long contentLength() {
+			return this.buffer.capacity();
+		}
+
+		@Override
+		public long lastModified() throws IOException {
+			return this.original.lastModified();
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.original.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return "gzip-compressed " + this.original.getDescription();
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			HttpHeaders headers;
+			if (this.original instanceof HttpResource) {
+				headers = ((HttpResource) this.original).getResponseHeaders();
+			}
+			else {
+				headers = new HttpHeaders();
+			}
+			String eTag = headers.getETag();
+			if (eTag != null && eTag.endsWith("\"")) {
+				headers.setETag(eTag.substring(0, eTag.length() - 1) + "-" + GZIP_CODING + "\"");
+			}
+			else {
+				headers.setETag("\"" + this.hash + "-" + GZIP_CODING + "\"");
+			}
+			headers.add(HttpHeaders.CONTENT_ENCODING, GZIP_CODING);
+			headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			return headers;
+		}
+	}
+
+
+	private static final class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return (this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!this.buffer.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(len, this.buffer.remaining());
+			this.buffer.get(bytes, off, count);
+			return count;
+		}
+
+		@Override
+		public long skip(long n) {
+			int count = (int) Math.max(0, Math.min(n, this.buffer.remaining()));
+			this.buffer.position(this.buffer.position() + count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return this.buffer.remaining();
+		}
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.resource;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
@@ -39,10 +40,12 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.EmbeddedValueResolverAware;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRange;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
 import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
 import org.springframework.http.server.ServletServerHttpRequest;
@@ -103,6 +106,16 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 	private static final String URL_RESOURCE_CHARSET_PREFIX = "[charset=";
 
+	// Request attributes for sendfile support in Tomcat
+
+	private static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+	private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+	private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
 
 	private final List<String> locationValues = new ArrayList<>(4);
 
@@ -141,6 +154,8 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 	@Nullable
 	private StringValueResolver embeddedValueResolver;
 
+	private long sendfileThreshold = 48 * 1024;
+
 
 	public ResourceHttpRequestHandler() {
 		super(HttpMethod.GET.name(), HttpMethod.HEAD.name());
@@ -312,6 +327,29 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		return this.urlPathHelper;
 	}
 
+	/**
+	 * Set the minimum content length in bytes above which file-based resources
+	 * are handed over to the Servlet container for zero-copy transfer, if the
+	 * container supports it (currently Tomcat with "useSendfile" enabled),
+	 * instead of being copied through the response output stream.
+	 * <p>This applies to full content as well as single range responses.
+	 * Default is 48 KB, in line with Tomcat's DefaultServlet. Set this to 0
+	 * or a negative value to always copy through the output stream.
+	 * @since 5.2.2
+	 * @see #supportsSendfile
+	 */
+	public void setSendfileThreshold(long sendfileThreshold) {
+		this.sendfileThreshold = sendfileThreshold;
+	}
+
+	/**
+	 * Return the configured sendfile threshold.
+	 * @since 5.2.2
+	 */
+	public long getSendfileThreshold() {
+		return this.sendfileThreshold;
+	}
+
 	@Override
 	public void setEmbeddedValueResolver(StringValueResolver resolver) {
 		this.embeddedValueResolver = resolver;
@@ -465,7 +503,7 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		checkRequest(request);
 
 		// Header phase
-		if (new ServletWebRequest(request, response).checkNotModified(resource.lastModified())) {
+		if (new ServletWebRequest(request, response).checkNotModified(getETag(resource), resource.lastModified())) {
 			logger.trace("Resource not modified");
 			return;
 		}
@@ -486,7 +524,12 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		if (request.getHeader(HttpHeaders.RANGE) == null) {
 			Assert.state(this.resourceHttpMessageConverter != null, "Not initialized");
 			setHeaders(response, resource, mediaType);
-			this.resourceHttpMessageConverter.write(resource, mediaType, outputMessage);
+			if (sendfile(request, response, resource, 0, resource.contentLength())) {
+				response.setContentType(getSendfileContentType(resource, mediaType));
+			}
+			else {
+				this.resourceHttpMessageConverter.write(resource, mediaType, outputMessage);
+			}
 		}
 		else {
 			Assert.state(this.resourceRegionHttpMessageConverter != null, "Not initialized");
@@ -494,9 +537,15 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 			ServletServerHttpRequest inputMessage = new ServletServerHttpRequest(request);
 			try {
 				List<HttpRange> httpRanges = inputMessage.getHeaders().getRange();
+				List<ResourceRegion> regions = HttpRange.toResourceRegions(httpRanges, resource);
 				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-				this.resourceRegionHttpMessageConverter.write(
-						HttpRange.toResourceRegions(httpRanges, resource), mediaType, outputMessage);
+				if (regions.size() == 1 && sendfile(request, response, resource,
+						regions.get(0).getPosition(), regions.get(0).getCount())) {
+					setRegionHeaders(response, resource, regions.get(0), mediaType);
+				}
+				else {
+					this.resourceRegionHttpMessageConverter.write(regions, mediaType, outputMessage);
+				}
 			}
 			catch (IllegalArgumentException ex) {
 				response.setHeader("Content-Range", "bytes */" + resource.contentLength());
@@ -505,6 +554,42 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		}
 	}
 
+	/**
+	 * Hand the given part of the resource over to the Servlet container for
+	 * zero-copy transfer, if applicable.
+	 * @return {@code true} if the container is going to send the content,
+	 * {@code false} if it needs to be written to the response
+	 */
+	private boolean sendfile(HttpServletRequest request, HttpServletResponse response,
+			Resource resource, long position, long count) throws IOException {
+
+		if (this.sendfileThreshold <= 0 || count < this.sendfileThreshold || !resource.isFile() ||
+				!supportsSendfile(request, response)) {
+			return false;
+		}
+		File file = resource.getFile();
+		request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+		request.setAttribute(SENDFILE_START_ATTRIBUTE, position);
+		request.setAttribute(SENDFILE_END_ATTRIBUTE, position + count);
+		return true;
+	}
+
+	/**
+	 * Whether the Servlet container supports sendfile for the given request:
+	 * by default, if Tomcat indicates sendfile support and neither request nor
+	 * response are wrapped, since a wrapper (e.g. a content caching filter)
+	 * expects the content to be written through it.
+	 * @param request current servlet request
+	 * @param response current servlet response
+	 * @since 5.2.2
+	 * @see #setSendfileThreshold
+	 */
+	protected boolean supportsSendfile(HttpServletRequest request, HttpServletResponse response) {
+		return (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE)) &&
+				request.getClass().getName().equals("org.apache.catalina.connector.RequestFacade") &&
+				response.getClass().getName().equals("org.apache.catalina.connector.ResponseFacade"));
+	}
+
 	@Nullable
 	protected Resource getResource(HttpServletRequest request) throws IOException {
 		String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
@@ -672,6 +757,16 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 				this.contentNegotiationStrategy.getMediaTypeForResource(resource) : null);
 	}
 
+	/**
+	 * Return the ETag declared by the given resource through its
+	 * {@link HttpResource#getResponseHeaders() response headers}, if any,
+	 * to be validated against conditional request headers.
+	 */
+	@Nullable
+	private String getETag(Resource resource) {
+		return (resource instanceof HttpResource ? ((HttpResource) resource).getResponseHeaders().getETag() : null);
+	}
+
 	/**
 	 * Set headers on the given servlet response.
 	 * Called for GET requests as well as HEAD requests.
@@ -712,6 +807,27 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
 	}
 
+	/**
+	 * Set headers for a single range response where the content is sent
+	 * by the container, as {@link ResourceRegionHttpMessageConverter} would.
+	 */
+	private void setRegionHeaders(HttpServletResponse response, Resource resource, ResourceRegion region,
+			@Nullable MediaType mediaType) throws IOException {
+
+		long start = region.getPosition();
+		long end = start + region.getCount() - 1;
+		response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + end + '/' + resource.contentLength());
+		response.setContentLengthLong(region.getCount());
+		response.setContentType(getSendfileContentType(resource, mediaType));
+	}
+
+	private String getSendfileContentType(Resource resource, @Nullable MediaType mediaType) {
+		if (mediaType == null) {
+			mediaType = MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM);
+		}
+		return mediaType.toString();
+	}
+
 
 	@Override
 	public String toString() {
@@ -39,6 +39,7 @@ import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
 import org.springframework.web.servlet.resource.AppCacheManifestTransformer;
 import org.springframework.web.servlet.resource.CachingResourceResolver;
 import org.springframework.web.servlet.resource.CachingResourceTransformer;
+import org.springframework.web.servlet.resource.CompressingResourceTransformer;
 import org.springframework.web.servlet.resource.CssLinkResourceTransformer;
 import org.springframework.web.servlet.resource.PathResourceResolver;
 import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
@@ -186,6 +187,33 @@ public class ResourceHandlerRegistryTests {
 		assertThat(transformers.get(2)).isInstanceOf(AppCacheManifestTransformer.class);
 	}
 
+	@Test
+	public void resourceChainWithCompression() throws Exception {
+		CompressingResourceTransformer compressingTransformer = new CompressingResourceTransformer();
+		compressingTransformer.setMinResourceSize(0);
+		this.registration.addResourceLocations("classpath:org/springframework/web/servlet/resource/test/");
+		this.registration.resourceChain(true).addTransformer(compressingTransformer);
+
+		ResourceHttpRequestHandler handler = getHandler("/resources/**");
+		List<ResourceTransformer> transformers = handler.getResourceTransformers();
+		assertThat(transformers).hasSize(2);
+		assertThat(transformers.get(0)).isSameAs(compressingTransformer);
+		assertThat(transformers.get(1)).isInstanceOf(CachingResourceTransformer.class);
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.html");
+		request.addHeader("Accept-Encoding", "gzip");
+		handler.handleRequest(request, this.response);
+		assertThat(this.response.getHeader("Content-Encoding")).isEqualTo("gzip");
+
+		request = new MockHttpServletRequest("GET", "");
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.html");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertThat(response.getHeader("Content-Encoding")).isNull();
+		assertThat(response.getContentAsString()).contains("<title>Foo</title>");
+	}
+
 	@Test
 	public void resourceChainWithOverrides() throws Exception {
 		CachingResourceResolver cachingResolver = Mockito.mock(CachingResourceResolver.class);
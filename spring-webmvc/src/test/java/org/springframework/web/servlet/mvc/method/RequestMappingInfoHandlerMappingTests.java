@@ -142,6 +142,20 @@ public class RequestMappingInfoHandlerMappingTests {
 		assertThat(handlerMethod.getMethod()).isEqualTo(this.fooParamMethod.getMethod());
 	}
 
+	@Test
+	public void getHandlerWithMappingIndex() throws Exception {
+		this.handlerMapping.setUseMappingIndex(true);
+
+		assertThat(getHandler(new MockHttpServletRequest("GET", "/foo.json")).getMethod())
+				.isEqualTo(this.fooMethod.getMethod());
+		assertThat(getHandler(new MockHttpServletRequest("HEAD", "/foo/")).getMethod())
+				.isEqualTo(this.fooMethod.getMethod());
+		assertThat(getHandler(new MockHttpServletRequest("GET", "/bar")).getMethod())
+				.isEqualTo(this.barMethod.getMethod());
+		testHttpMediaTypeNotSupportedException("/person/1.json");
+		testHttpOptions("/persons", "GET,HEAD,POST,PUT,PATCH,DELETE,OPTIONS");
+	}
+
 	@Test
 	public void getHandlerRequestMethodNotAllowed() throws Exception {
 		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bar");
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CompressingResourceTransformer}.
+ *
+ * @author Anton Kessler
+ */
+class CompressingResourceTransformerTests {
+
+	private final CompressingResourceTransformer transformer = new CompressingResourceTransformer();
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/static/app.js");
+
+	private ResourceTransformerChain transformerChain;
+
+	@TempDir
+	Path location;
+
+
+	@BeforeEach
+	void setup() {
+		this.transformerChain = new DefaultResourceTransformerChain(
+				new DefaultResourceResolverChain(Collections.emptyList()), Collections.singletonList(this.transformer));
+		this.request.addHeader("Accept-Encoding", "gzip, deflate");
+	}
+
+
+	@Test
+	void compress() throws Exception {
+		byte[] content = createContent(4096);
+		Resource resource = createResource("app.js", content);
+
+		Resource compressed = this.transformerChain.transform(this.request, resource);
+
+		assertThat(compressed).isInstanceOf(HttpResource.class);
+		assertThat(compressed.getFilename()).isEqualTo("app.js");
+		assertThat(compressed.lastModified()).isEqualTo(resource.lastModified());
+		assertThat(compressed.isFile()).isFalse();
+		assertThat(compressed.contentLength()).isLessThan(content.length);
+		assertThat(decompress(compressed)).isEqualTo(content);
+
+		HttpHeaders headers = ((HttpResource) compressed).getResponseHeaders();
+		assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(headers.getFirst(HttpHeaders.VARY)).isEqualTo("Accept-Encoding");
+		assertThat(headers.getETag()).isEqualTo("\"" + DigestUtils.md5DigestAsHex(content) + "-gzip\"");
+	}
+
+	@Test
+	void compressWithETag() throws Exception {
+		Resource resource = new ETagResource(createResource("app.js", createContent(4096)).getFile());
+
+		Resource compressed = this.transformerChain.transform(this.request, resource);
+
+		HttpHeaders headers = ((HttpResource) compressed).getResponseHeaders();
+		assertThat(headers.getETag()).isEqualTo("\"v1-gzip\"");
+	}
+
+	@Test
+	void compressTransformedResource() throws Exception {
+		byte[] content = createContent(4096);
+		Resource resource = new TransformedResource(createResource("app.js", new byte[0]), content);
+
+		Resource compressed = this.transformerChain.transform(this.request, resource);
+
+		assertThat(compressed.contentLength()).isLessThan(content.length);
+		assertThat(decompress(compressed)).isEqualTo(content);
+	}
+
+	@Test
+	void transformedContentChanged() throws Exception {
+		Resource original = createResource("app.css", new byte[0]);
+		byte[] content = createContent(4096);
+		byte[] changedContent = content.clone();
+		changedContent[0] = 'F';
+
+		Resource first = this.transformerChain.transform(this.request, new TransformedResource(original, content));
+		Resource second = this.transformerChain.transform(this.request, new TransformedResource(original, changedContent));
+
+		assertThat(decompress(first)).isEqualTo(content);
+		assertThat(decompress(second)).isEqualTo(changedContent);
+	}
+
+	@Test
+	void transformedContentHashedOncePerResource() throws Exception {
+		Resource original = createResource("app.css", new byte[0]);
+		byte[] content = createContent(4096);
+		Resource resource = new TransformedResource(original, content);
+		Map<?, ?> contentHashes = (Map<?, ?>) new DirectFieldAccessor(this.transformer).getPropertyValue("contentHashes");
+
+		Resource first = this.transformerChain.transform(this.request, resource);
+		assertThat(contentHashes).hasSize(1);
+		Object contentHash = contentHashes.values().iterator().next();
+		Resource second = this.transformerChain.transform(this.request, resource);
+		assertThat(contentHashes.values().iterator().next()).isSameAs(contentHash);
+		assertThat(decompress(second)).isEqualTo(decompress(first));
+
+		// Another instance with the same content is hashed again, hitting the same entry
+		long cacheSize = this.transformer.getCacheSize();
+		Resource third = this.transformerChain.transform(this.request, new TransformedResource(original, content));
+		assertThat(contentHashes).hasSize(1);
+		assertThat(contentHashes.values().iterator().next()).isNotSameAs(contentHash);
+		assertThat(this.transformer.getCacheSize()).isEqualTo(cacheSize);
+		assertThat(decompress(third)).isEqualTo(content);
+	}
+
+	@Test
+	void cachedAcrossRequests() throws Exception {
+		Resource resource = createResource("app.js", createContent(4096));
+
+		Resource first = this.transformerChain.transform(this.request, resource);
+		long cacheSize = this.transformer.getCacheSize();
+		Resource second = this.transformerChain.transform(this.request, resource);
+
+		assertThat(cacheSize).isGreaterThan(first.contentLength());
+		assertThat(this.transformer.getCacheSize()).isEqualTo(cacheSize);
+		assertThat(decompress(second)).isEqualTo(decompress(first));
+	}
+
+	@Test
+	void evictLeastRecentlyUsed() throws Exception {
+		this.transformer.setMaxCacheSize(2048);
+		Resource first = createResource("first.js", createContent(4096));
+		Resource second = createResource("second.js", createContent(8192));
+
+		this.transformerChain.transform(this.request, first);
+		this.transformerChain.transform(this.request, second);
+		Resource compressed = this.transformerChain.transform(this.request, first);
+
+		assertThat(this.transformer.getCacheSize()).isLessThanOrEqualTo(2048);
+		assertThat(decompress(compressed)).isEqualTo(createContent(4096));
+	}
+
+	@Test
+	void noAcceptEncoding() throws Exception {
+		Resource resource = createResource("app.js", createContent(4096));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/static/app.js");
+
+		assertThat(this.transformerChain.transform(request, resource)).isSameAs(resource);
+		assertThat(this.transformer.getCacheSize()).isEqualTo(0);
+	}
+
+	@Test
+	void notCompressible() throws Exception {
+		byte[] content = new byte[4096];
+		new Random(42).nextBytes(content);
+		Resource random = createResource("random.bin", content);
+		Resource small = createResource("small.js", createContent(512));
+
+		assertThat(this.transformerChain.transform(this.request, random)).isSameAs(random);
+		assertThat(this.transformerChain.transform(this.request, small)).isSameAs(small);
+	}
+
+
+	private Resource createResource(String filename, byte[] content) throws IOException {
+		Path path = this.location.resolve(filename);
+		Files.write(path, content);
+		return new FileSystemResource(path.toFile());
+	}
+
+	private static byte[] createContent(int length) {
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; builder.length() < length; i++) {
+			builder.append("function f").append(i).append("() { return ").append(i).append("; }\n");
+		}
+		return builder.substring(0, length).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] decompress(Resource resource) throws IOException {
+		return StreamUtils.copyToByteArray(new GZIPInputStream(resource.getInputStream()));
+	}
+
+
+	private static class ETagResource extends FileSystemResource implements HttpResource {
+
+		ETagResource(File file) {
+			super(file);
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			HttpHeaders headers = new HttpHeaders();
+			headers.setETag("\"v1\"");
+			return headers;
+		}
+	}
+
+}
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -155,6 +156,22 @@ public class ResourceHttpRequestHandlerTests {
 		assertThat(this.response.getHeaders("Accept-Ranges").size()).isEqualTo(1);
 	}
 
+	@Test
+	public void getVersionedResourceWithMatchingETag() throws Exception {
+		VersionResourceResolver versionResolver = new VersionResourceResolver()
+				.addFixedVersionStrategy("versionString", "/**");
+		this.handler.setResourceResolvers(Arrays.asList(versionResolver, new PathResourceResolver()));
+		this.handler.afterPropertiesSet();
+
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "versionString/foo.css");
+		this.request.addHeader("If-None-Match", "\"versionString\"");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+		assertThat(this.response.getHeader("ETag")).isEqualTo("\"versionString\"");
+		assertThat(this.response.getContentAsByteArray()).isEmpty();
+	}
+
 	@Test
 	@SuppressWarnings("deprecation")
 	public void getResourceHttp10BehaviorCache() throws Exception {
@@ -666,6 +683,80 @@ public class ResourceHttpRequestHandlerTests {
 	}
 
 
+	@Test
+	public void sendfileFullContent() throws Exception {
+		ResourceHttpRequestHandler handler = initSendfileHandler();
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getStatus()).isEqualTo(200);
+		assertThat(this.response.getContentType()).isEqualTo("text/css");
+		assertThat(this.response.getContentLength()).isEqualTo(17);
+		assertThat(this.response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+		assertThat(this.response.getContentAsByteArray()).isEmpty();
+		assertThat((String) this.request.getAttribute("org.apache.tomcat.sendfile.filename"))
+				.isEqualTo(new ClassPathResource("test/foo.css", getClass()).getFile().getAbsolutePath());
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(0L);
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(17L);
+	}
+
+	@Test
+	public void sendfileSingleByteRange() throws Exception {
+		ResourceHttpRequestHandler handler = initSendfileHandler();
+		this.request.addHeader("Range", "bytes=2-5");
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.txt");
+		handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getStatus()).isEqualTo(206);
+		assertThat(this.response.getContentType()).isEqualTo("text/plain");
+		assertThat(this.response.getContentLength()).isEqualTo(4);
+		assertThat(this.response.getHeader("Content-Range")).isEqualTo("bytes 2-5/10");
+		assertThat(this.response.getContentAsByteArray()).isEmpty();
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(2L);
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(6L);
+	}
+
+	@Test
+	public void sendfileNotApplicable() throws Exception {
+		ResourceHttpRequestHandler handler = initSendfileHandler();
+		handler.setSendfileThreshold(100);
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		handler.handleRequest(this.request, this.response);
+		assertThat(this.response.getContentAsString()).isEqualTo("h1 { color:red; }");
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+
+		// Multiple ranges are always written through the response
+		this.response = new MockHttpServletResponse();
+		this.request.addHeader("Range", "bytes=0-1, 4-5");
+		handler.setSendfileThreshold(1);
+		handler.handleRequest(this.request, this.response);
+		assertThat(this.response.getContentType()).startsWith("multipart/byteranges");
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+
+		// The default check requires Tomcat's unwrapped request and response
+		this.response = new MockHttpServletResponse();
+		this.request.removeHeader("Range");
+		this.handler.handleRequest(this.request, this.response);
+		assertThat(this.response.getContentAsString()).isEqualTo("h1 { color:red; }");
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+	}
+
+
+	private ResourceHttpRequestHandler initSendfileHandler() throws Exception {
+		ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler() {
+			@Override
+			protected boolean supportsSendfile(HttpServletRequest request, HttpServletResponse response) {
+				return Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"));
+			}
+		};
+		handler.setLocations(Collections.singletonList(new ClassPathResource("test/", getClass())));
+		handler.setServletContext(new TestServletContext());
+		handler.setSendfileThreshold(1);
+		handler.afterPropertiesSet();
+		this.request.setAttribute("org.apache.tomcat.sendfile.support", true);
+		return handler;
+	}
+
 	private long resourceLastModified(String resourceName) throws IOException {
 		return new ClassPathResource(resourceName, getClass()).getFile().lastModified();
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -85,6 +85,9 @@ public class WebMvcStompEndpointRegistry implements StompEndpointRegistry {
 		if (transportRegistration.getMessageSizeLimit() != null) {
 			this.stompHandler.setMessageSizeLimit(transportRegistration.getMessageSizeLimit());
 		}
+		if (transportRegistration.getFrameBatchSizeLimit() != null) {
+			this.stompHandler.setFrameBatchSizeLimit(transportRegistration.getFrameBatchSizeLimit());
+		}
 
 		this.sockJsScheduler = defaultSockJsTaskScheduler;
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,9 @@ public class WebSocketTransportRegistration {
 	@Nullable
 	private Integer messageSizeLimit;
 
+	@Nullable
+	private Integer frameBatchSizeLimit;
+
 	@Nullable
 	private Integer sendTimeLimit;
 
@@ -67,6 +70,28 @@ public class WebSocketTransportRegistration {
 		return this.messageSizeLimit;
 	}
 
+	/**
+	 * Configure the maximum size of an outbound WebSocket message that combines
+	 * STOMP frames buffered for a slow client, so they are sent in fewer
+	 * WebSocket messages once the send in progress completes.
+	 * <p>By default this is not set, and frames are sent one at a time.
+	 * @since 5.2.2
+	 * @see org.springframework.web.socket.messaging.StompSubProtocolHandler#setFrameBatchSizeLimit
+	 */
+	public WebSocketTransportRegistration setFrameBatchSizeLimit(int frameBatchSizeLimit) {
+		this.frameBatchSizeLimit = frameBatchSizeLimit;
+		return this;
+	}
+
+	/**
+	 * Protected accessor for internal use.
+	 * @since 5.2.2
+	 */
+	@Nullable
+	protected Integer getFrameBatchSizeLimit() {
+		return this.frameBatchSizeLimit;
+	}
+
 	/**
 	 * Configure a time limit (in milliseconds) for the maximum amount of a time
 	 * allowed when sending messages to a WebSocket session or writing to an
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,16 +17,23 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.lang.Nullable;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
@@ -39,6 +46,11 @@ import org.springframework.web.socket.WebSocketSession;
  * At that time, the specified buffer-size limit and send-time limit will be checked
  * and the session will be closed if the limits are exceeded.
  *
+ * <p>Optionally, whole text or binary messages that are waiting in the buffer
+ * when the flush lock is acquired may be combined into a single message, up to
+ * a {@link #setBatchSizeLimit batch-size limit}, to reduce the number of frames
+ * sent for protocols that allow that, such as STOMP.
+ *
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
  * @since 4.0.3
@@ -68,6 +80,11 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 
 	private final Lock closeLock = new ReentrantLock();
 
+	private volatile int batchSizeLimit;
+
+	@Nullable
+	private volatile IntConsumer batchListener;
+
 
 	/**
 	 * Basic constructor.
@@ -114,6 +131,36 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return this.bufferSizeLimit;
 	}
 
+	/**
+	 * Set the maximum size (number of bytes) of a message combining whole text
+	 * or binary messages that have been buffered while another send was in
+	 * progress. Messages are combined by concatenating their payloads, so this
+	 * should only be enabled for protocols that allow that, such as STOMP.
+	 * <p>By default this is 0, in which case buffered messages are never combined.
+	 * @since 5.2.2
+	 */
+	public void setBatchSizeLimit(int batchSizeLimit) {
+		this.batchSizeLimit = batchSizeLimit;
+	}
+
+	/**
+	 * Return the configured batch-size limit (number of bytes).
+	 * @since 5.2.2
+	 */
+	public int getBatchSizeLimit() {
+		return this.batchSizeLimit;
+	}
+
+	/**
+	 * Set a callback to be notified with the number of buffered messages each
+	 * time several of them are combined into a single message.
+	 * @since 5.2.2
+	 * @see #setBatchSizeLimit
+	 */
+	public void setBatchListener(@Nullable IntConsumer batchListener) {
+		this.batchListener = batchListener;
+	}
+
 	/**
 	 * Return the current buffer size (number of bytes).
 	 */
@@ -167,6 +214,9 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 						break;
 					}
 					this.bufferSize.addAndGet(-message.getPayloadLength());
+					if (this.batchSizeLimit > 0) {
+						message = combineBufferedMessages(message);
+					}
 					this.sendStartTime = System.currentTimeMillis();
 					getDelegate().sendMessage(message);
 					this.sendStartTime = 0;
@@ -181,6 +231,52 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return false;
 	}
 
+	private WebSocketMessage<?> combineBufferedMessages(WebSocketMessage<?> first) {
+		if (!isCombinable(first, first)) {
+			return first;
+		}
+		List<WebSocketMessage<?>> batch = null;
+		int size = first.getPayloadLength();
+		WebSocketMessage<?> next;
+		while ((next = this.buffer.peek()) != null && isCombinable(first, next) &&
+				size + next.getPayloadLength() <= this.batchSizeLimit) {
+			if (!this.buffer.remove(next)) {
+				// Dropped in the meantime due to buffer overflow
+				continue;
+			}
+			this.bufferSize.addAndGet(-next.getPayloadLength());
+			if (batch == null) {
+				batch = new ArrayList<>();
+				batch.add(first);
+			}
+			batch.add(next);
+			size += next.getPayloadLength();
+		}
+		if (batch == null) {
+			return first;
+		}
+		IntConsumer listener = this.batchListener;
+		if (listener != null) {
+			listener.accept(batch.size());
+		}
+		ByteBuffer payload = ByteBuffer.allocate(size);
+		for (WebSocketMessage<?> message : batch) {
+			if (message instanceof TextMessage) {
+				payload.put(((TextMessage) message).asBytes());
+			}
+			else {
+				payload.put(((BinaryMessage) message).getPayload().duplicate());
+			}
+		}
+		payload.flip();
+		return (first instanceof TextMessage ? new TextMessage(payload.array()) : new BinaryMessage(payload));
+	}
+
+	private static boolean isCombinable(WebSocketMessage<?> first, WebSocketMessage<?> message) {
+		return ((message.getClass() == TextMessage.class || message.getClass() == BinaryMessage.class) &&
+				message.getClass() == first.getClass() && message.isLast());
+	}
+
 	private void checkSessionLimits() {
 		if (!shouldNotSend() && this.closeLock.tryLock()) {
 			try {
@@ -57,6 +57,7 @@ import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.SessionLimitExceededException;
 import org.springframework.web.socket.handler.WebSocketSessionDecorator;
 import org.springframework.web.socket.sockjs.transport.SockJsSession;
@@ -97,6 +98,8 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 
 	private int messageSizeLimit = 64 * 1024;
 
+	private int frameBatchSizeLimit;
+
 	private StompEncoder stompEncoder = new StompEncoder();
 
 	private StompDecoder stompDecoder = new StompDecoder();
@@ -156,6 +159,31 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 		return this.messageSizeLimit;
 	}
 
+	/**
+	 * Configure the maximum size, in bytes, of a WebSocket message that combines
+	 * STOMP frames waiting to be sent to the same client. Frames are buffered
+	 * while a send to a slow client is in progress, and once that completes they
+	 * are sent together, in fewer WebSocket messages, rather than one at a time.
+	 * Frames are never held back to wait for more frames to batch.
+	 * <p>This applies to sessions decorated with
+	 * {@link ConcurrentWebSocketSessionDecorator}, as is the case for sessions
+	 * managed by {@link SubProtocolWebSocketHandler}.
+	 * <p>By default this is 0, in which case frames are never combined.
+	 * @since 5.2.2
+	 * @see ConcurrentWebSocketSessionDecorator#setBatchSizeLimit
+	 */
+	public void setFrameBatchSizeLimit(int frameBatchSizeLimit) {
+		this.frameBatchSizeLimit = frameBatchSizeLimit;
+	}
+
+	/**
+	 * Return the configured frame batch-size limit in bytes.
+	 * @since 5.2.2
+	 */
+	public int getFrameBatchSizeLimit() {
+		return this.frameBatchSizeLimit;
+	}
+
 	/**
 	 * Configure a {@link StompEncoder} for encoding STOMP frames.
 	 * @since 4.3.5
@@ -611,6 +639,11 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 		if (session.getTextMessageSizeLimit() < MINIMUM_WEBSOCKET_MESSAGE_SIZE) {
 			session.setTextMessageSizeLimit(MINIMUM_WEBSOCKET_MESSAGE_SIZE);
 		}
+		if (this.frameBatchSizeLimit > 0 && session instanceof ConcurrentWebSocketSessionDecorator) {
+			ConcurrentWebSocketSessionDecorator decorator = (ConcurrentWebSocketSessionDecorator) session;
+			decorator.setBatchSizeLimit(this.frameBatchSizeLimit);
+			decorator.setBatchListener(this.stats::incrementBatchCount);
+		}
 		this.decoders.put(session.getId(), new BufferingStompDecoder(this.stompDecoder, getMessageSizeLimit()));
 	}
 
@@ -679,6 +712,24 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 		 * The number of DISCONNECT frames processed.
 		 */
 		int getTotalDisconnect();
+
+		/**
+		 * The number of WebSocket messages that combined several outbound frames.
+		 * @since 5.2.2
+		 * @see #setFrameBatchSizeLimit
+		 */
+		default int getTotalFrameBatches() {
+			return 0;
+		}
+
+		/**
+		 * The number of outbound frames sent as part of a combined WebSocket message.
+		 * @since 5.2.2
+		 * @see #setFrameBatchSizeLimit
+		 */
+		default int getTotalBatchedFrames() {
+			return 0;
+		}
 	}
 
 
@@ -690,6 +741,10 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 
 		private final AtomicInteger disconnect = new AtomicInteger();
 
+		private final AtomicInteger frameBatches = new AtomicInteger();
+
+		private final AtomicInteger batchedFrames = new AtomicInteger();
+
 		public void incrementConnectCount() {
 			this.connect.incrementAndGet();
 		}
@@ -702,6 +757,11 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 			this.disconnect.incrementAndGet();
 		}
 
+		public void incrementBatchCount(int frameCount) {
+			this.frameBatches.incrementAndGet();
+			this.batchedFrames.addAndGet(frameCount);
+		}
+
 		@Override
 		public int getTotalConnect() {
 			return this.connect.get();
@@ -717,10 +777,22 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 			return this.disconnect.get();
 		}
 
+		@Override
+		public int getTotalFrameBatches() {
+			return this.frameBatches.get();
+		}
+
+		@Override
+		public int getTotalBatchedFrames() {
+			return this.batchedFrames.get();
+		}
+
 		@Override
 		public String toString() {
 			return "processed CONNECT(" + this.connect.get() + ")-CONNECTED(" +
-					this.connected.get() + ")-DISCONNECT(" + this.disconnect.get() + ")";
+					this.connected.get() + ")-DISCONNECT(" + this.disconnect.get() + ")" +
+					(this.frameBatches.get() > 0 ? ", batched " + this.batchedFrames.get() +
+							" frames in " + this.frameBatches.get() + " messages" : "");
 		}
 	}
 
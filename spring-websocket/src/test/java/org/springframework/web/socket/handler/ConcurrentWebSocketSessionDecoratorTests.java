@@ -17,6 +17,8 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -154,6 +156,35 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 		assertThat(session.isOpen()).isTrue();
 	}
 
+	@Test
+	public void sendBufferedMessagesInBatches() throws IOException, InterruptedException {
+
+		BlockingSession session = new BlockingSession();
+		session.setOpen(true);
+
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 10 * 1000, 1024);
+		decorator.setBatchSizeLimit(4);
+		List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+		decorator.setBatchListener(batchSizes::add);
+
+		sendBlockingMessage(decorator);
+
+		for (String payload : new String[] {"a", "bc", "d", "ef"}) {
+			decorator.sendMessage(new TextMessage(payload));
+		}
+		assertThat(decorator.getBufferSize()).isEqualTo(6);
+
+		CountDownLatch sentMessageLatch = session.getSentMessageLatch();
+		session.release();
+		assertThat(sentMessageLatch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(session.getSentMessages()).hasSize(2);
+		assertThat(((TextMessage) session.getSentMessages().get(1)).getPayload()).isEqualTo("abcd");
+		assertThat(decorator.getBufferSize()).isEqualTo(2);
+		assertThat(batchSizes).containsExactly(3);
+	}
+
 	@Test
 	public void closeStatusNormal() throws Exception {
 
@@ -231,9 +262,14 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 			return this.nextMessageLatch.get();
 		}
 
+		public void release() {
+			this.releaseLatch.get().countDown();
+		}
+
 		@Override
 		public void sendMessage(WebSocketMessage<?> message) throws IOException {
 			super.sendMessage(message);
+			this.releaseLatch.set(new CountDownLatch(1));
 			if (this.nextMessageLatch != null) {
 				this.nextMessageLatch.get().countDown();
 			}
@@ -242,7 +278,6 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 
 		private void block() {
 			try {
-				this.releaseLatch.set(new CountDownLatch(1));
 				this.releaseLatch.get().await();
 			}
 			catch (InterruptedException e) {